@@ -0,0 +1,258 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Container used by {@link YAMLParser} (when
+ * {@link YAMLParser.Feature#REPLAY_ALIASES} or {@link YAMLParser.Feature#MERGE_KEYS}
+ * is enabled) for recording token sequences of anchored nodes as they are parsed,
+ * so that they can be replayed for aliases that refer to them.
+ *<p>
+ * Tokens are stored as two parallel arrays per anchor: one for tokens and one for
+ * textual values (field names and scalar values; shared, not copied, between
+ * nested recordings). Total size of all recordings is limited to configured
+ * maximum, measured as an estimate of memory used, in bytes:
+ * recordings that would exceed the limit are dropped, and attempts to replay
+ * them will fail.
+ *
+ * @since 2.9
+ */
+public final class AnchorReplayBuffer
+{
+    /**
+     * Default maximum size (estimated, in bytes) of all recorded content for a
+     * single parser: 4 megabytes.
+     */
+    public final static int DEFAULT_MAX_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * Estimated cost of a single recorded token, not including contents of its
+     * textual value: two array slots, and some slack for unused array capacity.
+     */
+    private final static int TOKEN_OVERHEAD = 16;
+
+    private final int _maxSize;
+
+    /**
+     * Estimated size of all recordings (complete or active) retained
+     */
+    private int _size;
+
+    /**
+     * Recordings by anchor; includes ones still being recorded as well
+     * as ones dropped due to size limit.
+     */
+    private final HashMap<String,Recording> _recordings = new HashMap<String,Recording>();
+
+    /**
+     * Recordings of anchored collections not yet completely read, from outermost
+     * to innermost.
+     */
+    private Recording[] _active = new Recording[4];
+
+    private int _activeCount;
+
+    /**
+     * Index of the first recording in {@link #_active} that receives tokens:
+     * non-zero while an unnamed capture (see {@link #startCapture}) is active,
+     * as enclosing recordings must not get captured content.
+     */
+    private int _activeBase;
+
+    public AnchorReplayBuffer(int maxSize) {
+        _maxSize = maxSize;
+    }
+
+    public int getMaxSize() {
+        return _maxSize;
+    }
+
+    /**
+     * @return Estimated size of all retained recordings, in bytes
+     */
+    public int size() {
+        return _size;
+    }
+
+    public boolean isRecording() {
+        return _activeCount > 0;
+    }
+
+    /**
+     * Method for releasing all recordings, called when a new document starts
+     * (as anchors are scoped to a single document).
+     */
+    public void reset()
+    {
+        _recordings.clear();
+        Arrays.fill(_active, 0, _activeCount, null);
+        _activeCount = 0;
+        _activeBase = 0;
+        _size = 0;
+    }
+
+    /**
+     * Method for starting recording of an unnamed node, starting with the
+     * next token appended: used for content that is not itself exposed, such as
+     * inline mappings used as values of merge keys. Until the captured node is
+     * complete, recordings already active receive no tokens; recordings of
+     * anchored nodes within captured content are started as usual.
+     */
+    public Recording startCapture()
+    {
+        Recording r = new Recording();
+        r._captureBase = _activeBase;
+        if (_activeCount == _active.length) {
+            _active = Arrays.copyOf(_active, _activeCount << 1);
+        }
+        _activeBase = _activeCount;
+        _active[_activeCount++] = r;
+        return r;
+    }
+
+    /**
+     * Accessor for finding completed recording for given anchor, if any: returns
+     * null for unknown anchors, as well as for anchored collections
+     * that are still being read (that is, for recursive references).
+     */
+    public Recording findRecording(String anchor)
+    {
+        Recording r = _recordings.get(anchor);
+        if ((r == null) || (r._depth > 0)) {
+            return null;
+        }
+        return r;
+    }
+
+    /**
+     * Method called by parser for every token it returns (including replayed
+     * ones) when there is an active recording, or token has an anchor.
+     *
+     * @param text Field name (for {@link JsonToken#FIELD_NAME}) or textual value
+     *    of a scalar value token; null for structural tokens
+     * @param anchor Anchor of the token, if any
+     */
+    public void append(JsonToken t, String text, String anchor)
+    {
+        final int cost = (text == null) ? TOKEN_OVERHEAD : (TOKEN_OVERHEAD + (text.length() << 1));
+        for (int i = _activeBase; i < _activeCount; ) {
+            Recording r = _active[i];
+            if ((_size + cost) > _maxSize) {
+                _drop(i);
+                continue;
+            }
+            r._append(t, text);
+            _size += cost;
+            if (t.isStructStart()) {
+                ++r._depth;
+            } else if (t.isStructEnd() && (--r._depth == 0)) {
+                _removeActive(i);
+                continue;
+            }
+            ++i;
+        }
+        if (anchor != null) {
+            Recording r = new Recording();
+            Recording old = _recordings.put(anchor, r);
+            if ((old != null) && (old._depth == 0)) { // redefined anchor, release old content
+                _size -= old._size;
+            }
+            if ((_size + cost) > _maxSize) {
+                r._truncated = true;
+                return;
+            }
+            // anchored key is only ever referenced as a value
+            r._append((t == JsonToken.FIELD_NAME) ? JsonToken.VALUE_STRING : t, text);
+            _size += cost;
+            if (t.isStructStart()) {
+                r._depth = 1;
+                if (_activeCount == _active.length) {
+                    _active = Arrays.copyOf(_active, _activeCount << 1);
+                }
+                _active[_activeCount++] = r;
+            }
+        }
+    }
+
+    private void _drop(int index)
+    {
+        Recording r = _active[index];
+        _size -= r._size;
+        r._truncated = true;
+        r._tokens = null;
+        r._texts = null;
+        r._count = 0;
+        r._depth = 0;
+        _removeActive(index);
+    }
+
+    private void _removeActive(int index)
+    {
+        final int prevBase = _active[index]._captureBase;
+        if (prevBase >= 0) { // end of capture; enclosing recordings active again
+            _activeBase = prevBase;
+        }
+        System.arraycopy(_active, index+1, _active, index, _activeCount - index - 1);
+        _active[--_activeCount] = null;
+    }
+
+    /**
+     * Recorded token sequence of a single anchored node.
+     */
+    public final static class Recording
+    {
+        JsonToken[] _tokens = new JsonToken[4];
+        String[] _texts = new String[4];
+        int _count;
+
+        /**
+         * Nesting depth of collections not yet closed; 0 for completed recordings
+         */
+        int _depth;
+
+        /**
+         * Estimated size of the recording, in bytes
+         */
+        int _size;
+
+        /**
+         * Flag set if recording had to be dropped due to size limit
+         */
+        boolean _truncated;
+
+        /**
+         * For unnamed captures, value of {@link AnchorReplayBuffer#_activeBase}
+         * to restore once capture is complete; -1 for other recordings
+         */
+        int _captureBase = -1;
+
+        Recording() { }
+
+        void _append(JsonToken t, String text)
+        {
+            if (_count == _tokens.length) {
+                int newLen = _count << 1;
+                _tokens = Arrays.copyOf(_tokens, newLen);
+                _texts = Arrays.copyOf(_texts, newLen);
+            }
+            _tokens[_count] = t;
+            _texts[_count] = text;
+            ++_count;
+            _size += (text == null) ? TOKEN_OVERHEAD : (TOKEN_OVERHEAD + (text.length() << 1));
+        }
+
+        public int tokenCount() { return _count; }
+
+        public JsonToken tokenAt(int index) { return _tokens[index]; }
+
+        public String textAt(int index) { return _texts[index]; }
+
+        /**
+         * @return True if contents were dropped due to size limit, and can not be replayed
+         */
+        public boolean isTruncated() { return _truncated; }
+    }
+}
@@ -0,0 +1,186 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+import com.fasterxml.jackson.core.Base64Variant;
+
+/**
+ * {@link Writer} that decodes base64-encoded characters written to it
+ * incrementally, and writes decoded bytes to an {@link OutputStream},
+ * using a fixed-size buffer. White space is ignored, since YAML binary
+ * values are usually split on multiple lines.
+ *<p>
+ * Used by {@link YAMLParser} for decoding binary values directly from
+ * the text buffer, without constructing a {@link String} or buffering
+ * whole decoded content; invalid content is reported as
+ * {@link IllegalArgumentException}, to be converted by caller.
+ *
+ * @since 2.9
+ */
+public final class Base64DecodingWriter extends Writer
+{
+    private final Base64Variant _variant;
+
+    private final OutputStream _out;
+
+    private final byte[] _buffer;
+
+    private int _bufferPtr;
+
+    /**
+     * Total number of bytes decoded (including ones still in buffer)
+     */
+    private int _decoded;
+
+    /**
+     * Bits of the quad being decoded
+     */
+    private int _bits;
+
+    /**
+     * Number of characters of the current quad decoded (0 - 3)
+     */
+    private int _chars;
+
+    /**
+     * Flag set when the first of two padding characters has been seen
+     */
+    private boolean _padding;
+
+    /**
+     * Flag set when padding has been completed: no more content allowed
+     */
+    private boolean _ended;
+
+    /**
+     * @param buffer Buffer to use for decoded bytes; must have length of at least 3
+     */
+    public Base64DecodingWriter(Base64Variant variant, OutputStream out, byte[] buffer)
+    {
+        _variant = variant;
+        _out = out;
+        _buffer = buffer;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException
+    {
+        for (int end = off + len; off < end; ++off) {
+            _decode(cbuf[off]);
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException
+    {
+        for (int end = off + len; off < end; ++off) {
+            _decode(str.charAt(off));
+        }
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        _decode((char) c);
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        if (_bufferPtr > 0) {
+            _out.write(_buffer, 0, _bufferPtr);
+            _bufferPtr = 0;
+        }
+    }
+
+    @Override
+    public void close() { }
+
+    /**
+     * Method to call once all content has been written: verifies that the last
+     * quad is complete (or, if variant allows, unpadded) and flushes decoded bytes.
+     *
+     * @return Total number of bytes decoded
+     */
+    public int finish() throws IOException
+    {
+        if (_padding && !_ended) {
+            throw new IllegalArgumentException("Unexpected end of base64 content: missing second padding character");
+        }
+        if ((_chars > 0) && !_ended) {
+            if (_variant.usesPadding() || (_chars == 1)) {
+                throw new IllegalArgumentException("Unexpected end of base64 content: missing padding");
+            }
+            if (_chars == 2) {
+                _append(_bits >> 4);
+            } else {
+                _append(_bits >> 10);
+                _append(_bits >> 2);
+            }
+        }
+        flush();
+        return _decoded;
+    }
+
+    private void _decode(char c) throws IOException
+    {
+        if (c <= ' ') { // white space ignored
+            return;
+        }
+        if (_ended) {
+            throw _illegal(c, "content after padding");
+        }
+        final int v = _variant.decodeBase64Char(c);
+        if (v >= 0) {
+            if (_padding) {
+                throw _illegal(c, "expected padding character '"+_variant.getPaddingChar()+"'");
+            }
+            _bits = (_bits << 6) | v;
+            if (++_chars == 4) {
+                _append(_bits >> 16);
+                _append(_bits >> 8);
+                _append(_bits);
+                _bits = 0;
+                _chars = 0;
+            }
+            return;
+        }
+        if (v == Base64Variant.BASE64_VALUE_PADDING) {
+            if (_chars == 3) {
+                _append(_bits >> 10);
+                _append(_bits >> 2);
+                _ended = true;
+                return;
+            }
+            if (_chars == 2) {
+                if (_padding) {
+                    _append(_bits >> 4);
+                    _ended = true;
+                } else {
+                    _padding = true;
+                }
+                return;
+            }
+        }
+        throw _illegal(c, null);
+    }
+
+    private void _append(int b) throws IOException
+    {
+        if (_bufferPtr == _buffer.length) {
+            flush();
+        }
+        _buffer[_bufferPtr++] = (byte) b;
+        ++_decoded;
+    }
+
+    private IllegalArgumentException _illegal(char c, String msg)
+    {
+        String base = "Illegal character '"+c+"' (code 0x"+Integer.toHexString(c)+") in base64 content";
+        if (msg != null) {
+            base = base + ": " + msg;
+        }
+        return new IllegalArgumentException(base);
+    }
+}
@@ -0,0 +1,65 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Simple {@link InputStream} implementation for reading contents of a
+ * {@link ByteBuffer} (direct or memory-mapped, most commonly), used by
+ * {@link YAMLFactory#createParser(ByteBuffer)}. Reads are bulk copies from
+ * the buffer, so no system calls are made.
+ *
+ * @since 2.9
+ */
+public final class ByteBufferInputStream extends InputStream
+{
+    private final ByteBuffer _buffer;
+
+    /**
+     * @param buffer Buffer to read, from its current position to its limit;
+     *    position of the buffer is modified as content is read
+     */
+    public ByteBufferInputStream(ByteBuffer buffer) {
+        _buffer = buffer;
+    }
+
+    public ByteBuffer getBuffer() {
+        return _buffer;
+    }
+
+    @Override
+    public int available() {
+        return _buffer.remaining();
+    }
+
+    @Override
+    public int read()
+    {
+        return _buffer.hasRemaining() ? (_buffer.get() & 0xFF) : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len)
+    {
+        if (len == 0) {
+            return 0;
+        }
+        int count = Math.min(len, _buffer.remaining());
+        if (count == 0) {
+            return -1;
+        }
+        _buffer.get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long n)
+    {
+        if (n <= 0L) {
+            return 0L;
+        }
+        int count = (int) Math.min(n, _buffer.remaining());
+        _buffer.position(_buffer.position() + count);
+        return count;
+    }
+}
@@ -0,0 +1,203 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+/**
+ * Helper class for decoding YAML floating-point values directly from
+ * character buffers, without constructing intermediate {@link String}s;
+ * underscores are skipped, and YAML special values (<code>.inf</code>,
+ * <code>-.Inf</code>, <code>.nan</code> and so on) are recognized.
+ *<p>
+ * Values whose significand fits in 53 bits (with no non-zero digits
+ * beyond the first 18 significant ones) and decimal exponent is within
+ * [-22, 22] are decoded using exact floating-point operations (the "fast path"
+ * by Clinger); since both operands are exactly representable, the result is
+ * correctly rounded. All other values are handed to {@link Double#parseDouble}.
+ *
+ * @since 2.9
+ */
+public final class FastDoubleParser
+{
+    private final static double[] POWERS_OF_TEN = new double[] {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20,
+        1e21, 1e22
+    };
+
+    private final static long MAX_EXACT_SIGNIFICAND = (1L << 53);
+
+    /**
+     * Maximum number of significant digits to accumulate: enough to never
+     * overflow a <code>long</code>
+     */
+    private final static int MAX_DIGITS = 18;
+
+    private FastDoubleParser() { }
+
+    /**
+     * @throws NumberFormatException If content is not a valid YAML floating-point
+     *    (or integer) value
+     */
+    public static double parseDouble(char[] buf, int offset, int len)
+        throws NumberFormatException
+    {
+        final int end = offset + len;
+        int i = offset;
+        if (len == 0) {
+            throw _invalid(buf, offset, len);
+        }
+        char c = buf[i];
+        final boolean negative = (c == '-');
+        if (negative || c == '+') {
+            if (++i == end) {
+                throw _invalid(buf, offset, len);
+            }
+        }
+        // Special values first: ".inf", ".nan"
+        if ((end - i) == 4 && buf[i] == '.') {
+            if (_isInf(buf, i+1)) {
+                return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+            }
+            if (_isNaN(buf, i+1)) {
+                return Double.NaN;
+            }
+        }
+
+        long significand = 0L;
+        int digits = 0; // significant digits accumulated
+        int exp10 = 0;
+        boolean truncated = false;
+        boolean gotDigits = false;
+
+        // Integral part
+        for (; i < end; ++i) {
+            c = buf[i];
+            if (c == '_') {
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                break;
+            }
+            gotDigits = true;
+            int d = c - '0';
+            if (digits < MAX_DIGITS) {
+                if (digits > 0 || d != 0) { // skip leading zeroes
+                    significand = (significand * 10) + d;
+                    ++digits;
+                }
+            } else {
+                ++exp10;
+                truncated |= (d != 0);
+            }
+        }
+        // Fractional part
+        if (i < end && buf[i] == '.') {
+            while (++i < end) {
+                c = buf[i];
+                if (c == '_') {
+                    continue;
+                }
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                gotDigits = true;
+                int d = c - '0';
+                if (digits < MAX_DIGITS) {
+                    if (digits > 0 || d != 0) {
+                        significand = (significand * 10) + d;
+                        ++digits;
+                    }
+                    --exp10;
+                } else {
+                    truncated |= (d != 0);
+                }
+            }
+        }
+        if (!gotDigits) {
+            throw _invalid(buf, offset, len);
+        }
+        // Exponent
+        if (i < end) {
+            c = buf[i];
+            if (c != 'e' && c != 'E') {
+                throw _invalid(buf, offset, len);
+            }
+            if (++i == end) {
+                throw _invalid(buf, offset, len);
+            }
+            c = buf[i];
+            boolean negExp = (c == '-');
+            if (negExp || c == '+') {
+                if (++i == end) {
+                    throw _invalid(buf, offset, len);
+                }
+            }
+            int exp = 0;
+            for (; i < end; ++i) {
+                c = buf[i];
+                if (c < '0' || c > '9') {
+                    throw _invalid(buf, offset, len);
+                }
+                if (exp < 100000) { // no need to track beyond double range
+                    exp = (exp * 10) + (c - '0');
+                }
+            }
+            exp10 += negExp ? -exp : exp;
+        }
+
+        if (significand == 0L) {
+            return negative ? -0.0 : 0.0;
+        }
+        if (!truncated && (significand <= MAX_EXACT_SIGNIFICAND)
+                && (exp10 >= -22) && (exp10 <= 22)) {
+            double d = (double) significand;
+            if (exp10 < 0) {
+                d /= POWERS_OF_TEN[-exp10];
+            } else if (exp10 > 0) {
+                d *= POWERS_OF_TEN[exp10];
+            }
+            return negative ? -d : d;
+        }
+        return Double.parseDouble(_clean(buf, offset, end));
+    }
+
+    // Accepts "inf", "Inf" and "INF"
+    private static boolean _isInf(char[] buf, int i)
+    {
+        char c0 = buf[i], c1 = buf[i+1], c2 = buf[i+2];
+        if (c0 == 'i') {
+            return (c1 == 'n') && (c2 == 'f');
+        }
+        return (c0 == 'I') && (((c1 == 'n') && (c2 == 'f')) || ((c1 == 'N') && (c2 == 'F')));
+    }
+
+    // Accepts "nan", "NaN" and "NAN"
+    private static boolean _isNaN(char[] buf, int i)
+    {
+        char c0 = buf[i], c1 = buf[i+1], c2 = buf[i+2];
+        if (c0 == 'n') {
+            return (c1 == 'a') && (c2 == 'n');
+        }
+        return (c0 == 'N') && (c2 == 'N') && ((c1 == 'a') || (c1 == 'A'));
+    }
+
+    /**
+     * Helper method for constructing JDK-compatible representation, in
+     * the rare case that the fast path can not be used.
+     */
+    private static String _clean(char[] buf, int i, int end)
+    {
+        StringBuilder sb = new StringBuilder(end - i);
+        for (; i < end; ++i) {
+            char c = buf[i];
+            if (c != '_') {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static NumberFormatException _invalid(char[] buf, int offset, int len)
+    {
+        return new NumberFormatException("Malformed floating-point value '"
+                +new String(buf, offset, len)+"'");
+    }
+}
@@ -13,4 +13,31 @@ public class JacksonYAMLParseException extends JsonParseException
     public JacksonYAMLParseException(JsonParser p, String msg, Exception e) {
         super(p, msg, e);
     }
+
+    /**
+     * Factory method used by parsers; if <code>stackTrace</code> is false, constructed
+     * exception will not capture stack trace (see {@link YAMLParser.Feature#CAPTURE_STACK_TRACES}).
+     *
+     * @since 2.9
+     */
+    public static JacksonYAMLParseException construct(JsonParser p, String msg, Exception e,
+            boolean stackTrace)
+    {
+        return stackTrace ? new JacksonYAMLParseException(p, msg, e)
+                : new Untraced(p, msg, e);
+    }
+
+    private final static class Untraced extends JacksonYAMLParseException
+    {
+        private static final long serialVersionUID = 1L;
+
+        Untraced(JsonParser p, String msg, Exception e) {
+            super(p, msg, e);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
 }
@@ -0,0 +1,162 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.util.Arrays;
+
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Helper class used by {@link YAMLParser} (when {@link YAMLParser.Feature#MERGE_KEYS}
+ * is enabled) for applying merge keys (<code>&lt;&lt;</code>): keeps track of
+ * field names and merged mappings of all currently open mappings, and constructs
+ * token sequences of merged fields to replay at the end of a mapping.
+ *<p>
+ * Merged mappings are referenced as {@link AnchorReplayBuffer.Recording}s, so
+ * merging the same anchored mapping multiple times only costs replaying of its
+ * tokens. Since merged fields are only replayed once all explicitly defined
+ * fields of the mapping have been read, fields of merged mappings that the
+ * mapping itself defines (or that earlier merged mappings define) can be
+ * left out, and no duplicate fields are exposed.
+ *
+ * @since 2.9
+ */
+public final class MergeKeyTracker
+{
+    /**
+     * Field names of all open mappings, outermost first
+     */
+    private String[] _names = new String[16];
+
+    private int _nameCount;
+
+    /**
+     * Mappings to merge for all open mappings, outermost first
+     */
+    private AnchorReplayBuffer.Recording[] _sources = new AnchorReplayBuffer.Recording[4];
+
+    private int _sourceCount;
+
+    /**
+     * Indexes of the first name and merged mapping of each open mapping
+     */
+    private int[] _nameStarts = new int[8], _sourceStarts = new int[8];
+
+    private int _depth;
+
+    public MergeKeyTracker() { }
+
+    public void reset() {
+        Arrays.fill(_names, 0, _nameCount, null);
+        Arrays.fill(_sources, 0, _sourceCount, null);
+        _nameCount = 0;
+        _sourceCount = 0;
+        _depth = 0;
+    }
+
+    public void startObject()
+    {
+        if (_depth == _nameStarts.length) {
+            _nameStarts = Arrays.copyOf(_nameStarts, _depth << 1);
+            _sourceStarts = Arrays.copyOf(_sourceStarts, _depth << 1);
+        }
+        _nameStarts[_depth] = _nameCount;
+        _sourceStarts[_depth] = _sourceCount;
+        ++_depth;
+    }
+
+    public void endObject()
+    {
+        if (_depth > 0) {
+            --_depth;
+            final int names = _nameStarts[_depth];
+            Arrays.fill(_names, names, _nameCount, null);
+            _nameCount = names;
+            final int sources = _sourceStarts[_depth];
+            Arrays.fill(_sources, sources, _sourceCount, null);
+            _sourceCount = sources;
+        }
+    }
+
+    public void fieldName(String name)
+    {
+        if (_depth > 0) {
+            if (_nameCount == _names.length) {
+                _names = Arrays.copyOf(_names, _nameCount << 1);
+            }
+            _names[_nameCount++] = name;
+        }
+    }
+
+    /**
+     * Method called to add a mapping to merge into the innermost open mapping;
+     * recording must be of a complete mapping.
+     */
+    public void addSource(AnchorReplayBuffer.Recording r)
+    {
+        if (_sourceCount == _sources.length) {
+            _sources = Arrays.copyOf(_sources, _sourceCount << 1);
+        }
+        _sources[_sourceCount++] = r;
+    }
+
+    /**
+     * @return True if the innermost open mapping has mappings to merge
+     */
+    public boolean hasSources() {
+        return (_depth > 0) && (_sourceCount > _sourceStarts[_depth-1]);
+    }
+
+    /**
+     * Method called at the end of the innermost open mapping, if it has mappings
+     * to merge: constructs token sequence of fields to add, followed by
+     * {@link JsonToken#END_OBJECT}. Mapping stays open (but without mappings to
+     * merge) until {@link #endObject} is called.
+     */
+    public AnchorReplayBuffer.Recording merge()
+    {
+        final int nameStart = _nameStarts[_depth-1];
+        final int sourceStart = _sourceStarts[_depth-1];
+        AnchorReplayBuffer.Recording result = new AnchorReplayBuffer.Recording();
+        for (int i = sourceStart; i < _sourceCount; ++i) {
+            final AnchorReplayBuffer.Recording src = _sources[i];
+            // skip START_OBJECT/END_OBJECT of merged mapping itself
+            final int end = src.tokenCount() - 1;
+            int ix = 1;
+            while (ix < end) {
+                final String name = src.textAt(ix);
+                // value is either a scalar, or a collection up to its matching end
+                int valueEnd = ix + 1;
+                if (src.tokenAt(valueEnd).isStructStart()) {
+                    for (int open = 1; open > 0; ) {
+                        JsonToken t = src.tokenAt(++valueEnd);
+                        if (t.isStructStart()) {
+                            ++open;
+                        } else if (t.isStructEnd()) {
+                            --open;
+                        }
+                    }
+                }
+                if (!_hasName(nameStart, name)) {
+                    fieldName(name);
+                    for (; ix <= valueEnd; ++ix) {
+                        result._append(src.tokenAt(ix), src.textAt(ix));
+                    }
+                }
+                ix = valueEnd + 1;
+            }
+        }
+        result._append(JsonToken.END_OBJECT, null);
+        Arrays.fill(_sources, sourceStart, _sourceCount, null);
+        _sourceCount = sourceStart;
+        return result;
+    }
+
+    private boolean _hasName(int start, String name)
+    {
+        for (int i = start; i < _nameCount; ++i) {
+            if (name.equals(_names[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
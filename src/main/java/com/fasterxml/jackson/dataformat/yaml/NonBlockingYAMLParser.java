@@ -0,0 +1,483 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.core.async.NonBlockingInputFeeder;
+import com.fasterxml.jackson.core.io.IOContext;
+import com.fasterxml.jackson.core.sym.CharsToNameCanonicalizer;
+
+/**
+ * Non-blocking variant of {@link UTF8YAMLParser}: content is fed using
+ * {@link ByteArrayFeeder} methods, and {@link JsonToken#NOT_AVAILABLE} is
+ * returned when the next token can not be decoded without more input.
+ *<p>
+ * Instead of keeping partially decoded tokens, parser remembers the last point
+ * from which decoding can be restarted, and retains undecoded input from that
+ * point on; earlier content is discarded when more input is fed. This means that
+ * memory usage is bounded by the length of the longest token (plus that of
+ * input chunks), not by the length of the whole document.
+ *<p>
+ * The cost is that a token that spans input chunks is decoded from its
+ * start again when decoding is retried. To keep this from making decoding
+ * of long scalars quadratic, decoding of an unfinished scalar is only
+ * retried once input that may end it has been fed: the closing quote of a
+ * quoted scalar; a line with less indentation than content of a block scalar;
+ * or, for a plain scalar, a line break followed by less indentation (or any line
+ * break within flow collections), {@code ": "}, {@code " #"} or flow indicators.
+ * So each scalar is usually decoded once or twice; only plain scalars that
+ * contain many such sequences (like multi-line scalars within flow collections)
+ * may be decoded once per input chunk.
+ *<p>
+ * Instances are constructed using {@link YAMLFactory#createNonBlockingByteArrayParser()}.
+ *
+ * @since 2.9
+ */
+public class NonBlockingYAMLParser
+    extends UTF8YAMLParser
+    implements ByteArrayFeeder
+{
+    /**
+     * Marker exception thrown when more input is needed to decode current token;
+     * caught by {@link #nextToken} and never exposed to callers.
+     */
+    @SuppressWarnings("serial")
+    private final static class NeedMoreInput extends IOException
+    {
+        public NeedMoreInput() { super("Need more input"); }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this; // no need for (costly) stack trace
+        }
+    }
+
+    private final static NeedMoreInput NEED_MORE_INPUT = new NeedMoreInput();
+
+    /**
+     * Flag that is set when {@link #endOfInput()} has been called
+     */
+    protected boolean _endOfInput;
+
+    /**
+     * Flag set when last call to {@link #nextToken} ran out of input, and
+     * more is needed before making progress.
+     */
+    protected boolean _needMoreInput = true;
+
+    /*
+    /**********************************************************************
+    /* State for unfinished scalars
+    /**********************************************************************
+     */
+
+    protected final static int SCALAR_NONE = 0;
+    protected final static int SCALAR_PLAIN = 1;
+    protected final static int SCALAR_QUOTED = 2;
+    protected final static int SCALAR_BLOCK = 3;
+
+    /**
+     * Kind of scalar being scanned, if any (one of <code>SCALAR_xxx</code> constants)
+     */
+    protected int _scanKind;
+
+    /**
+     * Kind of scalar that could not be decoded without more input, if any: if
+     * set, decoding is only retried once input that may end it has been fed.
+     */
+    protected int _pendingScalar;
+
+    /**
+     * For pending quoted scalars, quote character; for pending block scalars,
+     * indentation of content lines (or -1 if not yet known); for pending plain
+     * scalars, minimum column of continuation lines (or -1 within flow
+     * collections).
+     */
+    protected int _pendingScalarArg;
+
+    /**
+     * Offset in the input buffer from which fed input has not yet been checked
+     * for content that may end the pending scalar
+     */
+    protected int _checkPtr;
+
+    /**
+     * Number of leading spaces (and for plain scalars, tabs) seen on the line
+     * of input at {@link #_checkPtr}; or -1 if line has other content before it.
+     */
+    protected int _checkIndent;
+
+    /*
+    /**********************************************************************
+    /* State at the last restart point
+    /**********************************************************************
+     */
+
+    protected int _rpInputPtr, _rpInputRow, _rpInputRowStart;
+
+    protected int _rpCtxDepth, _rpCtxState, _rpFlowLevel, _rpDocState, _rpDocumentIndex;
+
+    protected boolean _rpAtLineStart;
+
+    protected Map<String,String> _rpTagHandles;
+
+    protected boolean _rpHasPendingProps, _rpPendingPropsAtLineStart;
+
+    protected String _rpPendingAnchor, _rpPendingTag;
+
+    protected int _rpPendingPropsRow, _rpPendingPropsCol;
+
+    /*
+    /**********************************************************************
+    /* Life-cycle
+    /**********************************************************************
+     */
+
+    public NonBlockingYAMLParser(IOContext ctxt, int parserFeatures, int formatFeatures,
+            ObjectCodec codec, CharsToNameCanonicalizer symbols)
+    {
+        super(ctxt, parserFeatures, formatFeatures, codec, symbols,
+                null, ctxt.allocReadIOBuffer(), 0, 0, true);
+    }
+
+    @Override
+    public boolean canParseAsync() {
+        return true;
+    }
+
+    @Override
+    public NonBlockingInputFeeder getNonBlockingInputFeeder() {
+        return this;
+    }
+
+    /**
+     * Resets parser to its initial state and feeds given content as the first chunk
+     * of new input (as if by {@link #feedInput}); {@link #endOfInput()} needs to be
+     * called once all input has been fed, as usual.
+     */
+    @Override
+    public void reset(byte[] data, int offset, int len) throws IOException
+    {
+        _resetState();
+        if (_inputBuffer == null) { // released when previous input was closed
+            _inputBuffer = _ioContext.allocReadIOBuffer();
+            _bufferRecyclable = true;
+        }
+        feedInput(data, offset, offset + len);
+    }
+
+    /**
+     * Resets parser to its initial state and feeds all content of given reader
+     * (encoded as UTF-8) as the first chunk of new input; {@link #endOfInput()}
+     * needs to be called once all input has been fed, as usual.
+     */
+    @Override
+    public void reset(Reader r) throws IOException
+    {
+        super.reset(r);
+        _needMoreInput = (_inputEnd == 0);
+    }
+
+    @Override
+    protected void _resetState() throws IOException
+    {
+        super._resetState();
+        _endOfInput = false;
+        _needMoreInput = true;
+        _scanKind = SCALAR_NONE;
+        _pendingScalar = SCALAR_NONE;
+    }
+
+    /*
+    /**********************************************************************
+    /* ByteArrayFeeder implementation
+    /**********************************************************************
+     */
+
+    @Override
+    public final boolean needMoreInput() {
+        return !_endOfInput && (_needMoreInput || (_inputPtr >= _inputEnd));
+    }
+
+    @Override
+    public void feedInput(byte[] buf, int start, int end) throws IOException
+    {
+        if (_endOfInput) {
+            _reportError("Already closed, can not feed more input");
+        }
+        if (end < start) {
+            _reportError("Input end ("+end+") may not be before start ("+start+")");
+        }
+        if (_closed) {
+            return;
+        }
+        // First: get rid of content that has been decoded
+        final int remaining = _inputEnd - _inputPtr;
+        if (_inputPtr > 0) {
+            if (remaining > 0) {
+                System.arraycopy(_inputBuffer, _inputPtr, _inputBuffer, 0, remaining);
+            }
+            _currInputProcessed += _inputPtr;
+            _currInputRowStart -= _inputPtr;
+            _checkPtr -= _inputPtr;
+            _inputPtr = 0;
+            _inputEnd = remaining;
+        }
+        // then make room for new content, if need be
+        final int len = end - start;
+        final int needed = remaining + len;
+        if (needed > _inputBuffer.length) {
+            final byte[] old = _inputBuffer;
+            _inputBuffer = Arrays.copyOf(old, Math.max(needed, old.length + (old.length >> 1)));
+            // grown buffer is not to be retained by the (per-thread) buffer recycler
+            if (_bufferRecyclable) {
+                _bufferRecyclable = false;
+                _ioContext.releaseReadIOBuffer(old);
+            }
+        }
+        System.arraycopy(buf, start, _inputBuffer, _inputEnd, len);
+        _inputEnd += len;
+        _needMoreInput = false;
+    }
+
+    @Override
+    public void endOfInput() {
+        _endOfInput = true;
+    }
+
+    /*
+    /**********************************************************************
+    /* Parsing
+    /**********************************************************************
+     */
+
+    @Override
+    public JsonToken nextToken() throws IOException
+    {
+        if (_pendingScalar != SCALAR_NONE) {
+            if (!_endOfInput && !_pendingScalarMayEnd()) {
+                _needMoreInput = true;
+                return (_currToken = JsonToken.NOT_AVAILABLE);
+            }
+            _pendingScalar = SCALAR_NONE;
+        }
+        _scanKind = SCALAR_NONE;
+        try {
+            return super.nextToken();
+        } catch (NeedMoreInput e) {
+            if (_scanKind != SCALAR_NONE) {
+                _startPendingScalar();
+            }
+            _restart();
+            _needMoreInput = true;
+            return (_currToken = JsonToken.NOT_AVAILABLE);
+        }
+    }
+
+    /**
+     * Overridden to ignore the call: merge key values span multiple tokens,
+     * and reading them could not be restarted if more input is needed.
+     */
+    @Override
+    protected void _setMergeKeyTracker(MergeKeyTracker tracker) { }
+
+    @Override
+    protected void _markRestartPoint()
+    {
+        _rpInputPtr = _inputPtr;
+        _rpInputRow = _currInputRow;
+        _rpInputRowStart = _currInputRowStart;
+        _rpCtxDepth = _ctxDepth;
+        _rpCtxState = _ctxStates[_ctxDepth];
+        _rpFlowLevel = _flowLevel;
+        _rpDocState = _docState;
+        _rpDocumentIndex = _documentIndex;
+        _rpAtLineStart = _atLineStart;
+        _rpTagHandles = _tagHandles;
+        _rpHasPendingProps = _hasPendingProps;
+        if (_hasPendingProps) {
+            _rpPendingAnchor = _pendingAnchor;
+            _rpPendingTag = _pendingTag;
+            _rpPendingPropsRow = _pendingPropsRow;
+            _rpPendingPropsCol = _pendingPropsCol;
+            _rpPendingPropsAtLineStart = _pendingPropsAtLineStart;
+        }
+    }
+
+    /**
+     * Method called to roll back state to the last restart point, when
+     * current token could not be completely decoded.
+     */
+    protected void _restart()
+    {
+        _inputPtr = _rpInputPtr;
+        _currInputRow = _rpInputRow;
+        _currInputRowStart = _rpInputRowStart;
+        _ctxDepth = _rpCtxDepth;
+        _ctxStates[_ctxDepth] = _rpCtxState;
+        _flowLevel = _rpFlowLevel;
+        _docState = _rpDocState;
+        _documentIndex = _rpDocumentIndex;
+        _atLineStart = _rpAtLineStart;
+        _tagHandles = _rpTagHandles;
+        if (_rpHasPendingProps) {
+            _hasPendingProps = true;
+            _pendingAnchor = _rpPendingAnchor;
+            _pendingTag = _rpPendingTag;
+            _pendingPropsRow = _rpPendingPropsRow;
+            _pendingPropsCol = _rpPendingPropsCol;
+            _pendingPropsAtLineStart = _rpPendingPropsAtLineStart;
+        } else {
+            _clearProperties();
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Handling of unfinished scalars
+    /**********************************************************************
+     */
+
+    @Override
+    protected void _scanPlain() throws IOException
+    {
+        _scanKind = SCALAR_PLAIN;
+        _pendingScalarArg = (_flowLevel > 0) ? -1 : (_blockIndent() + 1);
+        super._scanPlain();
+        _scanKind = SCALAR_NONE;
+    }
+
+    @Override
+    protected void _scanQuoted(boolean doubleQuoted) throws IOException
+    {
+        _scanKind = SCALAR_QUOTED;
+        _pendingScalarArg = doubleQuoted ? '"' : '\'';
+        super._scanQuoted(doubleQuoted);
+        _scanKind = SCALAR_NONE;
+    }
+
+    @Override
+    protected void _scanBlockScalar(boolean folded, int parentIndent) throws IOException
+    {
+        _scanKind = SCALAR_BLOCK;
+        super._scanBlockScalar(folded, parentIndent);
+        _scanKind = SCALAR_NONE;
+    }
+
+    /**
+     * Method called when scalar being scanned could not be decoded with the input
+     * available: all of that input has been checked by scanner, so only input fed
+     * after this needs to be checked for content that may end the scalar.
+     */
+    protected void _startPendingScalar()
+    {
+        _pendingScalar = _scanKind;
+        if (_scanKind == SCALAR_BLOCK) {
+            _pendingScalarArg = _blockScalarIndent;
+        }
+        final boolean tabs = (_scanKind == SCALAR_PLAIN);
+        int indent = 0;
+        for (int i = _inputEnd; --i >= 0; ) {
+            int c = _inputBuffer[i];
+            if (c == '\n' || c == '\r') {
+                break;
+            }
+            if (c != ' ' && !(tabs && c == '\t')) {
+                indent = -1;
+                break;
+            }
+            ++indent;
+        }
+        _checkPtr = _inputEnd;
+        _checkIndent = indent;
+    }
+
+    /**
+     * Method for checking whether input fed since the last check contains content
+     * that may end the pending scalar, so that decoding it should be retried.
+     * May give false positives (which only cost a retry), but not false negatives.
+     */
+    protected boolean _pendingScalarMayEnd()
+    {
+        final byte[] buf = _inputBuffer;
+        final int end = _inputEnd;
+        final int arg = _pendingScalarArg;
+        final boolean plain = (_pendingScalar == SCALAR_PLAIN);
+        int indent = _checkIndent;
+        int i = _checkPtr;
+        // For quoted scalars, we may have been looking past the closing quote
+        int prev = (i > 0) ? buf[i-1] : -1;
+
+        for (; i < end; ++i) {
+            final int c = buf[i];
+            if (_pendingScalar == SCALAR_QUOTED) {
+                if (c == arg || prev == arg) {
+                    return true;
+                }
+            } else if (c == '\n' || c == '\r') {
+                if (plain && (arg < 0 || prev == ':')) { // line break within flow collection, or after colon
+                    return true;
+                }
+                indent = 0;
+            } else if (c == ' ' || (plain && c == '\t')) {
+                if (indent >= 0) {
+                    ++indent;
+                } else if (plain && prev == ':') {
+                    return true;
+                }
+            } else {
+                if (indent >= 0) { // first non-white-space content on a line
+                    if (plain) {
+                        if ((indent < arg) || (c == '#') || (indent == 0 && (c == '-' || c == '.'))) {
+                            return true;
+                        }
+                    } else if ((arg < 0) || (indent < arg)) {
+                        return true;
+                    }
+                    indent = -1;
+                }
+                if (plain && ((c == '#' && (prev == ' ' || prev == '\t'))
+                        || ((arg < 0) && (c == ',' || c == '[' || c == ']' || c == '{' || c == '}')))) {
+                    return true;
+                }
+            }
+            prev = c;
+        }
+        _checkPtr = end;
+        _checkIndent = indent;
+        return false;
+    }
+
+    /*
+    /**********************************************************************
+    /* Input handling: no blocking reads, just indication of missing content
+    /**********************************************************************
+     */
+
+    @Override
+    protected boolean _loadMore() throws IOException
+    {
+        if (_endOfInput) {
+            return false;
+        }
+        throw NEED_MORE_INPUT;
+    }
+
+    @Override
+    protected boolean _loadToHaveAtLeast(int minAvailable) throws IOException
+    {
+        if (_endOfInput) {
+            return false;
+        }
+        throw NEED_MORE_INPUT;
+    }
+
+    @Override
+    public Object getInputSource() {
+        // since input is fed, no source to expose
+        return null;
+    }
+}
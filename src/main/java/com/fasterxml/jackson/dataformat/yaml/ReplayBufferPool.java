@@ -0,0 +1,66 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Bounded pool of anchor replay buffers and merge key trackers of closed
+ * {@link YAMLParser}s held by a {@link YAMLFactory}
+ * (see {@link YAMLFactory#setReplayBufferPoolSize}), so that these helper objects
+ * that grow with content can be handed over to new parsers instead of being
+ * constructed for each document. Parsers themselves are never pooled, since callers hold
+ * on to them: each parser gives up its helpers (at most once) when closed,
+ * and if pool is full, they are simply dropped.
+ *<p>
+ * Pool is thread-safe: parsers may be closed by threads other than the
+ * one that constructed them.
+ *
+ * @since 2.9
+ */
+public final class ReplayBufferPool
+{
+    private final ArrayBlockingQueue<Helpers> _helpers;
+
+    public ReplayBufferPool(int maxSize) {
+        _helpers = new ArrayBlockingQueue<Helpers>(maxSize);
+    }
+
+    /**
+     * @return Pooled helpers if any are available; null if not
+     */
+    public Helpers acquire() {
+        return _helpers.poll();
+    }
+
+    /**
+     * @return True if helpers were added to the pool; false if pool was full
+     */
+    public boolean release(Helpers h) {
+        return _helpers.offer(h);
+    }
+
+    /**
+     * @return Number of helper sets currently available in the pool
+     */
+    public int size() {
+        return _helpers.size();
+    }
+
+    public int getMaxSize() {
+        return _helpers.size() + _helpers.remainingCapacity();
+    }
+
+    /**
+     * Helper objects given up by a closed parser; either may be null if
+     * parser did not use it.
+     */
+    public final static class Helpers
+    {
+        final AnchorReplayBuffer anchorBuffer;
+        final MergeKeyTracker mergeKeys;
+
+        Helpers(AnchorReplayBuffer anchorBuffer, MergeKeyTracker mergeKeys) {
+            this.anchorBuffer = anchorBuffer;
+            this.mergeKeys = mergeKeys;
+        }
+    }
+}
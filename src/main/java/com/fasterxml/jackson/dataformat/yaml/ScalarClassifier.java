@@ -0,0 +1,663 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+/**
+ * Helper class that resolves implicit types of plain (unquoted, untagged)
+ * scalars, using YAML 1.1 type definitions: same rules as the default
+ * <code>org.yaml.snakeyaml.resolver.Resolver</code> implements with regular
+ * expressions, but done in a single pass over characters, without
+ * creating a {@link String} first.
+ *<p>
+ * As with <code>Resolver</code>, the first character determines which types
+ * are checked, and in which order; for example "1" would match both
+ * <code>int</code> and <code>float</code> definitions, but resolves as the former.
+ *
+ * @since 2.9
+ */
+public final class ScalarClassifier
+{
+    /**
+     * Type for all values that do not match any of other types
+     */
+    public final static int TYPE_STRING = 0;
+
+    public final static int TYPE_NULL = 1;
+
+    /**
+     * Boolean value <code>true</code>; "yes", "true" or "on" (in one of 3 casings)
+     */
+    public final static int TYPE_TRUE = 2;
+
+    /**
+     * Boolean value <code>false</code>; "no", "false" or "off" (in one of 3 casings)
+     */
+    public final static int TYPE_FALSE = 3;
+
+    public final static int TYPE_INT = 4;
+
+    public final static int TYPE_FLOAT = 5;
+
+    public final static int TYPE_TIMESTAMP = 6;
+
+    /**
+     * Merge key, "&lt;&lt;"
+     */
+    public final static int TYPE_MERGE = 7;
+
+    private ScalarClassifier() { }
+
+    /*
+    /**********************************************************************
+    /* Public API
+    /**********************************************************************
+     */
+
+    /**
+     * Quick check for determining whether a non-empty plain scalar that starts with
+     * given character could resolve to anything other than {@link #TYPE_STRING}.
+     */
+    public static boolean mayBeTyped(int firstChar)
+    {
+        switch (firstChar) {
+        case 'y': case 'Y': case 'n': case 'N': case 't': case 'T':
+        case 'f': case 'F': case 'o': case 'O':
+        case '~': case '<': case '.': case '-': case '+':
+        case ' ': // only matters for single space (null), which can not be plain scalar
+        case '0': case '1': case '2': case '3': case '4':
+        case '5': case '6': case '7': case '8': case '9':
+            return true;
+        }
+        return false;
+    }
+
+    public static int classify(String value)
+    {
+        final int len = value.length();
+        if (len == 0) {
+            return TYPE_NULL;
+        }
+        if (!mayBeTyped(value.charAt(0))) {
+            return TYPE_STRING;
+        }
+        return classify(value.toCharArray(), 0, len);
+    }
+
+    /**
+     * Main classification method; returns one of <code>TYPE_xxx</code> constants
+     * for given plain scalar value.
+     */
+    public static int classify(char[] buf, int offset, int len)
+    {
+        if (len == 0) {
+            return TYPE_NULL;
+        }
+        final int end = offset + len;
+        switch (buf[offset]) {
+        case 'y': case 'Y': case 't': case 'T':
+        case 'f': case 'F': case 'o': case 'O':
+            return _bool(buf, offset, len);
+        case 'n': case 'N':
+            {
+                int type = _bool(buf, offset, len);
+                if (type == TYPE_STRING && _matchWord(buf, offset, len, "null")) {
+                    type = TYPE_NULL;
+                }
+                return type;
+            }
+        case '~': case ' ':
+            return (len == 1) ? TYPE_NULL : TYPE_STRING;
+        case '<':
+            return (len == 2 && buf[offset+1] == '<') ? TYPE_MERGE : TYPE_STRING;
+        case '.':
+            return _isFloat(buf, offset, end) ? TYPE_FLOAT : TYPE_STRING;
+        case '-': case '+':
+            if (_isInt(buf, offset, end)) {
+                return TYPE_INT;
+            }
+            return _isFloat(buf, offset, end) ? TYPE_FLOAT : TYPE_STRING;
+        case '0': case '1': case '2': case '3': case '4':
+        case '5': case '6': case '7': case '8': case '9':
+            if (_isInt(buf, offset, end)) {
+                return TYPE_INT;
+            }
+            if (_isFloat(buf, offset, end)) {
+                return TYPE_FLOAT;
+            }
+            return _isTimestamp(buf, offset, end) ? TYPE_TIMESTAMP : TYPE_STRING;
+        }
+        return TYPE_STRING;
+    }
+
+    /*
+    /**********************************************************************
+    /* Public API, YAML 1.2 Core Schema
+    /**********************************************************************
+     */
+
+    /**
+     * Quick check similar to {@link #mayBeTyped}, for resolution using
+     * YAML 1.2 Core Schema (see {@link #classifyCore}).
+     */
+    public static boolean mayBeTypedCore(int firstChar)
+    {
+        switch (firstChar) {
+        case 'n': case 'N': case 't': case 'T': case 'f': case 'F':
+        case '~': case '.': case '-': case '+':
+        case '0': case '1': case '2': case '3': case '4':
+        case '5': case '6': case '7': case '8': case '9':
+            return true;
+        }
+        return false;
+    }
+
+    public static int classifyCore(String value) {
+        return classifyCore(value.toCharArray(), 0, value.length());
+    }
+
+    /**
+     * Classification method that uses YAML 1.2 Core Schema, instead of
+     * YAML 1.1 types: nulls are "null" (in one of 3 casings), "~" or empty;
+     * booleans only "true" and "false" (in one of 3 casings); integers decimal,
+     * octal ("0o") or hexadecimal ("0x"), without underscores; floats with
+     * optional exponent, ".inf" and ".nan". There are no sexagesimal numbers,
+     * timestamps or merge keys, so type is mostly determined by the first character.
+     */
+    public static int classifyCore(char[] buf, int offset, int len)
+    {
+        if (len == 0) {
+            return TYPE_NULL;
+        }
+        final int end = offset + len;
+        char c = buf[offset];
+        switch (c) {
+        case 'n': case 'N':
+            return _matchWord(buf, offset, len, "null") ? TYPE_NULL : TYPE_STRING;
+        case 't': case 'T':
+            return _matchWord(buf, offset, len, "true") ? TYPE_TRUE : TYPE_STRING;
+        case 'f': case 'F':
+            return _matchWord(buf, offset, len, "false") ? TYPE_FALSE : TYPE_STRING;
+        case '~':
+            return (len == 1) ? TYPE_NULL : TYPE_STRING;
+        case '.':
+            if (len == 4) { // ".inf" or ".nan"?
+                if (_matchWord(buf, offset+1, 3, "inf")
+                        || _matchExact(buf, offset+1, "nan") || _matchExact(buf, offset+1, "NaN")
+                        || _matchExact(buf, offset+1, "NAN")) {
+                    return TYPE_FLOAT;
+                }
+            }
+            return _coreNumber(buf, offset, end);
+        case '-': case '+':
+            if (len == 5 && buf[offset+1] == '.' && _matchWord(buf, offset+2, 3, "inf")) {
+                return TYPE_FLOAT;
+            }
+            return _coreNumber(buf, offset+1, end);
+        case '0':
+            if (len > 2) {
+                c = buf[offset+1];
+                if (c == 'o') {
+                    return _coreDigits(buf, offset+2, end, 8) ? TYPE_INT : TYPE_STRING;
+                }
+                if (c == 'x') {
+                    return _coreDigits(buf, offset+2, end, 16) ? TYPE_INT : TYPE_STRING;
+                }
+            }
+            // fall through
+        case '1': case '2': case '3': case '4':
+        case '5': case '6': case '7': case '8': case '9':
+            return _coreNumber(buf, offset, end);
+        }
+        return TYPE_STRING;
+    }
+
+    /*
+    /**********************************************************************
+    /* Internal methods, booleans
+    /**********************************************************************
+     */
+
+    private static int _bool(char[] buf, int offset, int len)
+    {
+        switch (len) {
+        case 2:
+            if (_matchWord(buf, offset, len, "no")) return TYPE_FALSE;
+            if (_matchWord(buf, offset, len, "on")) return TYPE_TRUE;
+            break;
+        case 3:
+            if (_matchWord(buf, offset, len, "yes")) return TYPE_TRUE;
+            if (_matchWord(buf, offset, len, "off")) return TYPE_FALSE;
+            break;
+        case 4:
+            if (_matchWord(buf, offset, len, "true")) return TYPE_TRUE;
+            break;
+        case 5:
+            if (_matchWord(buf, offset, len, "false")) return TYPE_FALSE;
+            break;
+        }
+        return TYPE_STRING;
+    }
+
+    /**
+     * Helper method for matching given lower-case word in one of allowed
+     * casings: all lower-case ("true"), capitalized ("True") or all upper-case ("TRUE").
+     */
+    private static boolean _matchWord(char[] buf, int offset, int len, String word)
+    {
+        if (len != word.length()) {
+            return false;
+        }
+        int c = buf[offset];
+        int exp = word.charAt(0);
+        boolean upper;
+        if (c == exp) { // lower-case first, must all be
+            upper = false;
+        } else if (c == (exp - 32)) { // capitalized or upper-case; second char determines
+            upper = (buf[offset+1] == (word.charAt(1) - 32));
+        } else {
+            return false;
+        }
+        for (int i = 1; i < len; ++i) {
+            exp = word.charAt(i);
+            if (upper) {
+                exp -= 32;
+            }
+            if (buf[offset+i] != exp) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean _matchExact(char[] buf, int offset, String word)
+    {
+        for (int i = 0, len = word.length(); i < len; ++i) {
+            if (buf[offset+i] != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+    /**********************************************************************
+    /* Internal methods, numbers
+    /**********************************************************************
+     */
+
+    /**
+     * Matches (unsigned part of) YAML 1.2 Core Schema decimal integers and floats:
+     *<pre>
+     * [0-9]+
+     * (\.[0-9]+|[0-9]+(\.[0-9]*)?)([eE][-+]?[0-9]+)?
+     *</pre>
+     */
+    private static int _coreNumber(char[] buf, int i, final int end)
+    {
+        final int start = i;
+        while (i < end && _isDigit(buf[i])) {
+            ++i;
+        }
+        final boolean intDigits = (i > start);
+        if (i == end) {
+            return intDigits ? TYPE_INT : TYPE_STRING;
+        }
+        if (buf[i] == '.') {
+            final int fractStart = ++i;
+            while (i < end && _isDigit(buf[i])) {
+                ++i;
+            }
+            if (!intDigits && (i == fractStart)) {
+                return TYPE_STRING;
+            }
+        } else if (!intDigits) {
+            return TYPE_STRING;
+        }
+        if (i < end && (buf[i] == 'e' || buf[i] == 'E')) {
+            if (++i < end && (buf[i] == '-' || buf[i] == '+')) {
+                ++i;
+            }
+            final int expStart = i;
+            while (i < end && _isDigit(buf[i])) {
+                ++i;
+            }
+            if (i == expStart) {
+                return TYPE_STRING;
+            }
+        }
+        return (i == end) ? TYPE_FLOAT : TYPE_STRING;
+    }
+
+    private static boolean _coreDigits(char[] buf, int i, final int end, final int radix)
+    {
+        for (; i < end; ++i) {
+            char c = buf[i];
+            boolean valid = (radix == 8) ? (c >= '0' && c <= '7')
+                    : (_isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'));
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Matches YAML 1.1 integers:
+     *<pre>
+     * [-+]?0b[0-1_]+
+     * [-+]?0[0-7_]+
+     * [-+]?(0|[1-9][0-9_]*)
+     * [-+]?0x[0-9a-fA-F_]+
+     * [-+]?[1-9][0-9_]*(:[0-5]?[0-9])+
+     *</pre>
+     */
+    private static boolean _isInt(char[] buf, int i, final int end)
+    {
+        char c = buf[i];
+        if (c == '-' || c == '+') {
+            if (++i == end) {
+                return false;
+            }
+            c = buf[i];
+        }
+        if (c == '0') {
+            if (++i == end) { // plain zero
+                return true;
+            }
+            c = buf[i];
+            if (c == 'b') { // binary
+                if (++i == end) {
+                    return false;
+                }
+                for (; i < end; ++i) {
+                    c = buf[i];
+                    if (c != '0' && c != '1' && c != '_') {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            if (c == 'x') { // hex
+                if (++i == end) {
+                    return false;
+                }
+                for (; i < end; ++i) {
+                    c = buf[i];
+                    if (!_isDigit(c) && c != '_'
+                            && (c < 'a' || c > 'f') && (c < 'A' || c > 'F')) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            // octal
+            for (; i < end; ++i) {
+                c = buf[i];
+                if ((c < '0' || c > '7') && c != '_') {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (c < '1' || c > '9') {
+            return false;
+        }
+        while (++i < end) {
+            c = buf[i];
+            if (!_isDigit(c) && c != '_') {
+                // sexagesimal ("base 60")?
+                return (c == ':') && (_skipSexagesimal(buf, i, end) == end);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Matches YAML 1.1 floating-point numbers:
+     *<pre>
+     * [-+]?(\.[0-9]+|[0-9_]+(\.[0-9_]*)?)([eE][-+]?[0-9]+)?
+     * [-+]?[0-9][0-9_]*(:[0-5]?[0-9])+\.[0-9_]*
+     * [-+]?\.(inf|Inf|INF)
+     * \.(nan|NaN|NAN)
+     *</pre>
+     */
+    private static boolean _isFloat(char[] buf, int i, final int end)
+    {
+        char c = buf[i];
+        boolean signed = false;
+        if (c == '-' || c == '+') {
+            if (++i == end) {
+                return false;
+            }
+            c = buf[i];
+            signed = true;
+        }
+        if (c == '.') {
+            if (++i == end) {
+                return false;
+            }
+            c = buf[i];
+            if (_isDigit(c)) {
+                while (++i < end && _isDigit(buf[i])) { }
+                return _isExponentOrEnd(buf, i, end);
+            }
+            if (end - i != 3) {
+                return false;
+            }
+            if (_matchWord(buf, i, 3, "inf")) {
+                return true;
+            }
+            // note: casing differs from other keywords
+            if (signed || (buf[i+1] != 'a' && buf[i+1] != 'A')) {
+                return false;
+            }
+            c = buf[i];
+            char c2 = buf[i+2];
+            return ((c == 'n') && (c2 == 'n') && buf[i+1] == 'a')
+                    || ((c == 'N') && (c2 == 'N'));
+        }
+        final int start = i;
+        for (; i < end; ++i) {
+            c = buf[i];
+            if (!_isDigit(c) && c != '_') {
+                break;
+            }
+        }
+        if (i == end) {
+            return true;
+        }
+        if (i == start) {
+            return false;
+        }
+        if (c == '.') {
+            while (++i < end) {
+                c = buf[i];
+                if (!_isDigit(c) && c != '_') {
+                    break;
+                }
+            }
+            return _isExponentOrEnd(buf, i, end);
+        }
+        if (c == ':') { // sexagesimal; must start with digit
+            if (!_isDigit(buf[start])) {
+                return false;
+            }
+            i = _skipSexagesimal(buf, i, end);
+            if (i < 0 || i == end || buf[i] != '.') {
+                return false;
+            }
+            while (++i < end) {
+                c = buf[i];
+                if (!_isDigit(c) && c != '_') {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return _isExponentOrEnd(buf, i, end);
+    }
+
+    /**
+     * Helper method for matching optional exponent ("[eE][-+]?[0-9]+"),
+     * followed by end of value
+     */
+    private static boolean _isExponentOrEnd(char[] buf, int i, final int end)
+    {
+        if (i == end) {
+            return true;
+        }
+        char c = buf[i];
+        if (c != 'e' && c != 'E') {
+            return false;
+        }
+        if (++i == end) {
+            return false;
+        }
+        c = buf[i];
+        if (c == '-' || c == '+') {
+            if (++i == end) {
+                return false;
+            }
+        }
+        for (; i < end; ++i) {
+            if (!_isDigit(buf[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Helper method for skipping sexagesimal parts, "(:[0-5]?[0-9])+", starting
+     * at colon (index <code>i</code>)
+     *
+     * @return Index after the last part, if at least one valid one found; -1 if not
+     */
+    private static int _skipSexagesimal(char[] buf, int i, final int end)
+    {
+        while (i < end && buf[i] == ':') {
+            int start = ++i;
+            while (i < end && _isDigit(buf[i])) {
+                ++i;
+            }
+            int count = i - start;
+            if (count == 1 || (count == 2 && buf[start] <= '5')) {
+                continue;
+            }
+            return -1;
+        }
+        return i;
+    }
+
+    /*
+    /**********************************************************************
+    /* Internal methods, timestamps
+    /**********************************************************************
+     */
+
+    /**
+     * Matches YAML 1.1 timestamps:
+     *<pre>
+     * [0-9]{4}-[0-9]{2}-[0-9]{2}
+     * [0-9]{4}-[0-9]{1,2}-[0-9]{1,2}([Tt]|[ \t]+)[0-9]{1,2}:[0-9]{2}:[0-9]{2}(\.[0-9]*)?
+     *    ([ \t]*(Z|[-+][0-9]{1,2}(:[0-9]{2})?))?
+     *</pre>
+     */
+    private static boolean _isTimestamp(char[] buf, int i, final int end)
+    {
+        if ((end - i) < 10) { // "yyyy-mm-dd" is the shortest valid value
+            return false;
+        }
+        if (_digits(buf, i, end, 4) != 4) {
+            return false;
+        }
+        i += 4;
+        if (buf[i++] != '-') {
+            return false;
+        }
+        final int monthDigits = _digits(buf, i, end, 2);
+        i += monthDigits;
+        if (monthDigits == 0 || i == end || buf[i++] != '-') {
+            return false;
+        }
+        final int dayDigits = _digits(buf, i, end, 2);
+        i += dayDigits;
+        if (dayDigits == 0) {
+            return false;
+        }
+        if (i == end) { // date-only variant requires 2 digits for both
+            return (monthDigits == 2) && (dayDigits == 2);
+        }
+        // and then time
+        char c = buf[i];
+        if (c == 'T' || c == 't') {
+            ++i;
+        } else if (c == ' ' || c == '\t') {
+            while (++i < end && ((c = buf[i]) == ' ' || c == '\t')) { }
+        } else {
+            return false;
+        }
+        int count = _digits(buf, i, end, 2);
+        i += count;
+        if (count == 0 || i == end || buf[i++] != ':') {
+            return false;
+        }
+        if (_digits(buf, i, end, 2) != 2) {
+            return false;
+        }
+        i += 2;
+        if (i == end || buf[i++] != ':') {
+            return false;
+        }
+        if (_digits(buf, i, end, 2) != 2) {
+            return false;
+        }
+        i += 2;
+        if (i < end && buf[i] == '.') { // fractions
+            while (++i < end && _isDigit(buf[i])) { }
+        }
+        if (i == end) {
+            return true;
+        }
+        // and finally optional time zone
+        while ((c = buf[i]) == ' ' || c == '\t') {
+            if (++i == end) {
+                return false;
+            }
+        }
+        ++i;
+        if (c == 'Z') {
+            return (i == end);
+        }
+        if (c != '-' && c != '+') {
+            return false;
+        }
+        count = _digits(buf, i, end, 2);
+        i += count;
+        if (count == 0) {
+            return false;
+        }
+        if (i == end) {
+            return true;
+        }
+        if (buf[i++] != ':') {
+            return false;
+        }
+        return (_digits(buf, i, end, 2) == 2) && (i + 2 == end);
+    }
+
+    /**
+     * @return Number of consecutive digits at given index, up to the maximum
+     */
+    private static int _digits(char[] buf, int i, final int end, final int max)
+    {
+        int count = 0;
+        while (count < max && i < end && _isDigit(buf[i])) {
+            ++i;
+            ++count;
+        }
+        return count;
+    }
+
+    private static boolean _isDigit(char c) {
+        return (c >= '0') && (c <= '9');
+    }
+}
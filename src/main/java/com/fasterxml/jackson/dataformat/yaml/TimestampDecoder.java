@@ -0,0 +1,190 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+/**
+ * Helper class for decoding YAML 1.1 timestamps (see
+ * <a href="http://yaml.org/type/timestamp.html">timestamp type</a>) into
+ * milliseconds since epoch, without constructing calendars, formats or
+ * intermediate objects. Values without time zone are considered to be in UTC,
+ * as are date-only values (at midnight); fractions of seconds are truncated
+ * to milliseconds.
+ *<p>
+ * Used by {@link YAMLParser} when {@link YAMLParser.Feature#DECODE_TIMESTAMPS}
+ * is enabled.
+ *
+ * @since 2.9
+ */
+public final class TimestampDecoder
+{
+    /**
+     * Value returned for content that is not a valid timestamp
+     */
+    public final static long INVALID = Long.MIN_VALUE;
+
+    private final static long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private TimestampDecoder() { }
+
+    public static long decode(String value) {
+        return decode(value.toCharArray(), 0, value.length());
+    }
+
+    /**
+     * Main decoding method: verifies that contents match timestamp syntax
+     * and that all fields are within valid ranges.
+     *
+     * @return Milliseconds since epoch, or {@link #INVALID} if content is
+     *    not a valid timestamp
+     */
+    public static long decode(char[] buf, int i, int len)
+    {
+        final int end = i + len;
+        if (len < 10) {
+            return INVALID;
+        }
+        final int year = _number(buf, i, 4);
+        if (year < 0 || buf[i+4] != '-') {
+            return INVALID;
+        }
+        i += 5;
+        // month and day may be single digits if time is included
+        int ptr = _skipDigits(buf, i, end, 2);
+        final int month = _number(buf, i, ptr - i);
+        if (month < 1 || month > 12 || ptr == end || buf[ptr] != '-') {
+            return INVALID;
+        }
+        i = ptr + 1;
+        ptr = _skipDigits(buf, i, end, 2);
+        final int day = _number(buf, i, ptr - i);
+        if (day < 1 || day > _daysInMonth(year, month)) {
+            return INVALID;
+        }
+        final long days = _epochDays(year, month, day);
+        i = ptr;
+        if (i == end) { // date-only variant requires 2 digits for both month and day
+            return (len == 10) ? (days * MILLIS_PER_DAY) : INVALID;
+        }
+        char c = buf[i];
+        if (c == 'T' || c == 't') {
+            ++i;
+        } else if (c == ' ' || c == '\t') {
+            while (++i < end && ((c = buf[i]) == ' ' || c == '\t')) { }
+        } else {
+            return INVALID;
+        }
+        ptr = _skipDigits(buf, i, end, 2);
+        final int hour = _number(buf, i, ptr - i);
+        if (hour < 0 || hour > 23 || (ptr + 6) > end
+                || buf[ptr] != ':' || buf[ptr+3] != ':') {
+            return INVALID;
+        }
+        final int minute = _number(buf, ptr+1, 2);
+        final int second = _number(buf, ptr+4, 2);
+        if (minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return INVALID;
+        }
+        i = ptr + 6;
+        int millis = 0;
+        if (i < end && buf[i] == '.') {
+            int scale = 100;
+            while (++i < end && (c = buf[i]) >= '0' && c <= '9') {
+                millis += (c - '0') * scale;
+                scale /= 10;
+            }
+        }
+        long result = days * MILLIS_PER_DAY
+                + ((hour * 60 + minute) * 60 + second) * 1000L + millis;
+        if (i == end) {
+            return result;
+        }
+        // optional time zone, possibly preceded by white space
+        while ((c = buf[i]) == ' ' || c == '\t') {
+            if (++i == end) {
+                return INVALID;
+            }
+        }
+        if (c == 'Z') {
+            return (i + 1 == end) ? result : INVALID;
+        }
+        if (c != '-' && c != '+') {
+            return INVALID;
+        }
+        ptr = _skipDigits(buf, ++i, end, 2);
+        final int tzHours = _number(buf, i, ptr - i);
+        int tzMinutes = 0;
+        if (tzHours < 0 || tzHours > 23) {
+            return INVALID;
+        }
+        if (ptr < end) {
+            if (buf[ptr] != ':' || (ptr + 3) != end) {
+                return INVALID;
+            }
+            tzMinutes = _number(buf, ptr+1, 2);
+            if (tzMinutes < 0 || tzMinutes > 59) {
+                return INVALID;
+            }
+        }
+        final long offset = (tzHours * 60 + tzMinutes) * 60000L;
+        // local time is ahead of UTC for positive offsets
+        return (c == '+') ? (result - offset) : (result + offset);
+    }
+
+    /**
+     * @return Value of given number of decimal digits; -1 if there are
+     *    no digits, or non-digit characters
+     */
+    private static int _number(char[] buf, int i, int count)
+    {
+        if (count == 0) {
+            return -1;
+        }
+        int value = 0;
+        for (final int end = i + count; i < end; ++i) {
+            int d = buf[i] - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            value = (value * 10) + d;
+        }
+        return value;
+    }
+
+    private static int _skipDigits(char[] buf, int i, int end, int max)
+    {
+        for (end = Math.min(end, i + max); i < end; ++i) {
+            char c = buf[i];
+            if (c < '0' || c > '9') {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static int _daysInMonth(int year, int month)
+    {
+        switch (month) {
+        case 2:
+            return ((year & 3) == 0 && ((year % 100) != 0 || (year % 400) == 0)) ? 29 : 28;
+        case 4: case 6: case 9: case 11:
+            return 30;
+        }
+        return 31;
+    }
+
+    /**
+     * Number of days from 1970-01-01 to given date of the proleptic
+     * Gregorian calendar (using algorithm for converting civil dates to
+     * days by Howard Hinnant).
+     */
+    private static long _epochDays(int year, int month, int day)
+    {
+        if (month <= 2) {
+            --year;
+        }
+        // year is never negative, since it only has 4 digits; but may be -1 after adjustment
+        final int era = ((year >= 0) ? year : (year - 399)) / 400;
+        final int yearOfEra = year - era * 400;
+        final int dayOfYear = (153 * (month + ((month > 2) ? -3 : 9)) + 2) / 5 + day - 1;
+        final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+}
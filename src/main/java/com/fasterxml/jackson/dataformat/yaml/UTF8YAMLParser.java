@@ -0,0 +1,2083 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.core.io.IOContext;
+import com.fasterxml.jackson.core.sym.CharsToNameCanonicalizer;
+
+/**
+ * {@link YAMLParser} implementation that decodes UTF-8 encoded YAML content
+ * directly from bytes, instead of going through SnakeYAML (its
+ * <code>StreamReader</code>, <code>ScannerImpl</code> and <code>ParserImpl</code>).
+ * No intermediate event objects are created: scanning state is kept in
+ * primitive fields and {@link JsonToken}s are produced directly.
+ *<p>
+ * Parser supports block and flow collections, all scalar styles (plain,
+ * single- and double-quoted, literal and folded block scalars), anchors and aliases,
+ * tags (including <code>%TAG</code> directives) and multiple documents.
+ * Explicit ("?") and complex (non-scalar) mapping keys are not supported, as they
+ * can not be exposed as JSON field names anyway.
+ *<p>
+ * Instances are created by {@link YAMLFactory} when
+ * {@link YAMLParser.Feature#USE_UTF8_PARSER} is enabled.
+ *
+ * @since 2.9
+ */
+public class UTF8YAMLParser extends YAMLParser
+{
+    // Types of structural contexts we keep track of
+
+    protected final static int CTX_BLOCK_SEQ = 1;
+    protected final static int CTX_BLOCK_MAP = 2;
+    protected final static int CTX_FLOW_SEQ = 3;
+    protected final static int CTX_FLOW_MAP = 4;
+
+    /**
+     * Single-pair mapping within flow sequence, like <code>[ key: value ]</code>
+     */
+    protected final static int CTX_FLOW_PAIR = 5;
+
+    // States within structural contexts
+
+    /**
+     * Expecting a sequence entry ("- " for block sequences), or a mapping key
+     */
+    protected final static int STATE_ENTRY = 0;
+
+    /**
+     * Expecting a sequence item, or a mapping value
+     */
+    protected final static int STATE_VALUE = 1;
+
+    /**
+     * Expecting a separator (comma) or end marker of a flow collection
+     */
+    protected final static int STATE_SEPARATOR = 2;
+
+    // States for the document level
+
+    protected final static int DOC_STREAM_START = 0;
+    protected final static int DOC_EXPECT_NODE = 1;
+    protected final static int DOC_DONE = 2;
+    protected final static int DOC_BETWEEN = 3;
+
+    protected final static String TAG_PREFIX_DEFAULT = "tag:yaml.org,2002:";
+
+    /*
+    /**********************************************************************
+    /* Input source config
+    /**********************************************************************
+     */
+
+    protected InputStream _inputStream;
+
+    /**
+     * Current buffer from which data is read; generally data is read into
+     * buffer from input source, but in some cases pre-loaded buffer
+     * is handed to the parser.
+     */
+    protected byte[] _inputBuffer;
+
+    /**
+     * Flag that indicates whether the input buffer is recycable (and
+     * needs to be returned to recycler once we are done) or not.
+     */
+    protected boolean _bufferRecyclable;
+
+    /*
+    /**********************************************************************
+    /* Structural state
+    /**********************************************************************
+     */
+
+    protected int[] _ctxTypes = new int[16];
+    protected int[] _ctxIndents = new int[16];
+    protected int[] _ctxStates = new int[16];
+
+    /**
+     * Number of open collections; 0 when at the document level
+     */
+    protected int _ctxDepth;
+
+    /**
+     * Number of open flow collections (which are always innermost ones)
+     */
+    protected int _flowLevel;
+
+    protected int _docState = DOC_STREAM_START;
+
+    /**
+     * Flag set when a line break has been passed since the last content
+     * that was consumed: indentation only matters for the first content
+     * on a line.
+     */
+    protected boolean _atLineStart = true;
+
+    /**
+     * Tag handles declared with <code>%TAG</code> directives for the current
+     * document, if any
+     */
+    protected Map<String,String> _tagHandles;
+
+    /**
+     * Recently seen tag shorthands (as written in content) and matching resolved
+     * tags, used in round-robin fashion; only valid for current tag handles.
+     */
+    protected final String[] _recentTagTokens = new String[8];
+    protected final String[] _recentTags = new String[8];
+    protected int _recentTagCount, _recentTagNext;
+
+    /**
+     * Buffer reused for scanning tag shorthands
+     */
+    protected final StringBuilder _tagBuilder = new StringBuilder();
+
+    /**
+     * When skipping content (see {@link #skipChildren}), collection depth at which
+     * skipping ends; -1 when not skipping. While skipping, only structural
+     * state is tracked: no read contexts, names or scalar values are constructed.
+     */
+    protected int _skipDepth = -1;
+
+    /*
+    /**********************************************************************
+    /* Token state
+    /**********************************************************************
+     */
+
+    /**
+     * YAML tag of the current token, if any (fully resolved)
+     */
+    protected String _currentTag;
+
+    /**
+     * Anchor and tag read but not yet attached to a node
+     */
+    protected String _pendingAnchor, _pendingTag;
+
+    /**
+     * Anchor of the last scalar value decoded, if any; only needed for
+     * alias replay, as scalar anchors are not exposed via {@link #getObjectId}.
+     */
+    protected String _scalarAnchor;
+
+    protected boolean _hasPendingProps;
+
+    /**
+     * Row and column of the first pending node property; needed to know
+     * whether properties go with the mapping or its first key.
+     */
+    protected int _pendingPropsRow, _pendingPropsCol;
+
+    /**
+     * Whether the first pending node property was the first thing on its line,
+     * in which case a block collection may still start after properties.
+     */
+    protected boolean _pendingPropsAtLineStart;
+
+    /**
+     * Name of the first key of a block mapping, to be returned as
+     * {@link JsonToken#FIELD_NAME} right after {@link JsonToken#START_OBJECT}.
+     */
+    protected String _pendingName;
+
+    protected String _pendingNameAnchor, _pendingNameTag;
+
+    /**
+     * Set if last scalar scanned spanned multiple lines (and so
+     * can not be an implicit key)
+     */
+    protected boolean _scalarMultiLine;
+
+    /**
+     * First byte of the last plain scalar scanned
+     */
+    protected int _plainFirstByte;
+
+    /**
+     * Indentation of content lines of the block scalar being scanned, once
+     * known; -1 if not (yet) known. Used by {@link NonBlockingYAMLParser}.
+     */
+    protected int _blockScalarIndent = -1;
+
+    /**
+     * Temporary buffer for whitespace that may or may not be included
+     * in a plain scalar
+     */
+    protected char[] _spaceBuffer = new char[16];
+
+    /*
+    /**********************************************************************
+    /* Life-cycle
+    /**********************************************************************
+     */
+
+    public UTF8YAMLParser(IOContext ctxt, int parserFeatures, int formatFeatures,
+            ObjectCodec codec, CharsToNameCanonicalizer symbols, InputStream in,
+            byte[] inputBuffer, int start, int end, boolean bufferRecyclable)
+    {
+        super(ctxt, parserFeatures, formatFeatures, codec, symbols);
+        _inputStream = in;
+        _inputBuffer = inputBuffer;
+        _inputPtr = start;
+        _inputEnd = end;
+        _currInputRowStart = start;
+        // If we have offset, need to omit that from byte offset, so:
+        _currInputProcessed = -start;
+        _bufferRecyclable = bufferRecyclable;
+    }
+
+    @Override
+    protected void _closeInput() throws IOException
+    {
+        if (_inputStream != null) {
+            if (_ioContext.isResourceManaged() || isEnabled(JsonParser.Feature.AUTO_CLOSE_SOURCE)) {
+                _inputStream.close();
+            }
+            _inputStream = null;
+        }
+    }
+
+    @Override
+    protected void _releaseBuffers() throws IOException
+    {
+        super._releaseBuffers();
+        if (_bufferRecyclable) {
+            byte[] buf = _inputBuffer;
+            if (buf != null) {
+                _inputBuffer = null;
+                _ioContext.releaseReadIOBuffer(buf);
+            }
+        }
+    }
+
+    /**
+     * Since this parser only reads UTF-8 encoded byte content, all content of
+     * given {@link Reader} is read and encoded as UTF-8 first, into a
+     * (recycled) input buffer; reader is closed afterwards.
+     */
+    @Override
+    public void reset(Reader r) throws IOException
+    {
+        _resetState();
+        byte[] outBuf = _inputBuffer;
+        if (!_bufferRecyclable || (outBuf == null)) {
+            outBuf = _ioContext.allocReadIOBuffer();
+            _bufferRecyclable = true;
+        }
+        // text buffer not yet in use, so can use its segment as scratch space
+        final char[] inBuf = _textBuffer.emptyAndGetCurrentSegment();
+        int outPtr = 0;
+        int surrogate = 0;
+        try {
+            int count;
+            while ((count = r.read(inBuf, 0, inBuf.length)) >= 0) {
+                // at most 3 bytes per char (surrogate pairs take 4 bytes for 2 chars)
+                final int needed = outPtr + 3 * (count + 1);
+                if (needed > outBuf.length) {
+                    final byte[] old = outBuf;
+                    outBuf = Arrays.copyOf(old, Math.max(needed, old.length + (old.length >> 1)));
+                    // grown buffer is not to be retained by the (per-thread) buffer recycler
+                    if (_bufferRecyclable) {
+                        _bufferRecyclable = false;
+                        _ioContext.releaseReadIOBuffer(old);
+                    }
+                }
+                for (int i = 0; i < count; ++i) {
+                    int c = inBuf[i];
+                    if (surrogate != 0) {
+                        if (c >= 0xDC00 && c <= 0xDFFF) {
+                            c = 0x10000 + ((surrogate - 0xD800) << 10) + (c - 0xDC00);
+                            surrogate = 0;
+                            outBuf[outPtr++] = (byte) (0xF0 | (c >> 18));
+                            outBuf[outPtr++] = (byte) (0x80 | ((c >> 12) & 0x3F));
+                            outBuf[outPtr++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                            outBuf[outPtr++] = (byte) (0x80 | (c & 0x3F));
+                            continue;
+                        }
+                        outPtr = _appendUTF8(outBuf, outPtr, surrogate);
+                        surrogate = 0;
+                    }
+                    if (c < 0x80) {
+                        outBuf[outPtr++] = (byte) c;
+                    } else if (c >= 0xD800 && c <= 0xDBFF) { // first half of pair, may span reads
+                        surrogate = c;
+                    } else {
+                        outPtr = _appendUTF8(outBuf, outPtr, c);
+                    }
+                }
+            }
+            if (surrogate != 0) {
+                outPtr = _appendUTF8(outBuf, outPtr, surrogate);
+            }
+        } finally {
+            _textBuffer.resetWithEmpty();
+            _inputBuffer = outBuf;
+            r.close();
+        }
+        _inputStream = null;
+        _inputPtr = 0;
+        _inputEnd = outPtr;
+        _currInputRowStart = 0;
+        _currInputProcessed = 0;
+    }
+
+    /**
+     * Helper method for encoding a char (other than half of a valid surrogate
+     * pair; lone surrogates are encoded as is) as 1 to 3 bytes of UTF-8.
+     */
+    private static int _appendUTF8(byte[] buf, int ptr, int c)
+    {
+        if (c < 0x80) {
+            buf[ptr++] = (byte) c;
+        } else if (c < 0x800) {
+            buf[ptr++] = (byte) (0xC0 | (c >> 6));
+            buf[ptr++] = (byte) (0x80 | (c & 0x3F));
+        } else {
+            buf[ptr++] = (byte) (0xE0 | (c >> 12));
+            buf[ptr++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buf[ptr++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return ptr;
+    }
+
+    @Override
+    public void reset(byte[] data, int offset, int len) throws IOException
+    {
+        _resetState();
+        _inputStream = null;
+        // recycled buffer (if any) no longer needed
+        if (_bufferRecyclable && (_inputBuffer != null)) {
+            _ioContext.releaseReadIOBuffer(_inputBuffer);
+        }
+        _inputBuffer = data;
+        _bufferRecyclable = false;
+        _inputPtr = offset;
+        _inputEnd = offset + len;
+        _currInputRowStart = offset;
+        _currInputProcessed = -offset;
+    }
+
+    @Override
+    protected void _resetState() throws IOException
+    {
+        super._resetState();
+        _ctxDepth = 0;
+        _flowLevel = 0;
+        _docState = DOC_STREAM_START;
+        _atLineStart = true;
+        _tagHandles = null;
+        _resetRecentTags();
+        _tagBuilder.setLength(0);
+        _skipDepth = -1;
+        _currentTag = null;
+        _pendingAnchor = null;
+        _pendingTag = null;
+        _scalarAnchor = null;
+        _hasPendingProps = false;
+        _pendingName = null;
+        _pendingNameAnchor = null;
+        _pendingNameTag = null;
+        _scalarMultiLine = false;
+    }
+
+    @Override
+    public int releaseBuffered(OutputStream out) throws IOException
+    {
+        int count = _inputEnd - _inputPtr;
+        if (count < 1) {
+            return 0;
+        }
+        out.write(_inputBuffer, _inputPtr, count);
+        return count;
+    }
+
+    @Override
+    public Object getInputSource() {
+        return _inputStream;
+    }
+
+    /*
+    /**********************************************************************
+    /* Location info
+    /**********************************************************************
+     */
+
+    @Override
+    public JsonLocation getTokenLocation()
+    {
+        if (!YAMLParser.Feature.TRACK_LOCATIONS.enabledIn(_formatFeatures)) {
+            return JsonLocation.NA;
+        }
+        return new JsonLocation(_ioContext.getSourceReference(),
+                _tokenInputTotal, -1L, _tokenInputRow, _tokenInputCol + 1);
+    }
+
+    @Override
+    public JsonLocation getCurrentLocation()
+    {
+        if (!YAMLParser.Feature.TRACK_LOCATIONS.enabledIn(_formatFeatures)) {
+            return JsonLocation.NA;
+        }
+        return new JsonLocation(_ioContext.getSourceReference(),
+                _currInputProcessed + _inputPtr, -1L,
+                _currInputRow, _inputPtr - _currInputRowStart + 1);
+    }
+
+    /*
+    /**********************************************************************
+    /* Parsing
+    /**********************************************************************
+     */
+
+    @Override
+    protected JsonToken _decodeNextToken() throws IOException
+    {
+        _currentIsAlias = false;
+        _binaryValue = null;
+        _timestampValue = TimestampDecoder.INVALID;
+        _implicitTag = null;
+        _currentAnchor = null;
+        _currentTag = null;
+        _textInBuffer = false;
+        if (_closed) {
+            return null;
+        }
+        if (_pendingName != null) {
+            String name = _pendingName;
+            _pendingName = null;
+            _currentFieldName = name;
+            _nameCopied = false;
+            if (_skipDepth < 0) {
+                _parsingContext.setCurrentName(name);
+            }
+            _currentAnchor = _pendingNameAnchor;
+            _currentTag = _pendingNameTag;
+            return (_currToken = JsonToken.FIELD_NAME);
+        }
+        while (true) {
+            _markRestartPoint();
+            int c = _skipWhitespace();
+            if (_flowLevel > 0) {
+                if (c < 0) {
+                    _reportInvalidEOF(": expected close marker for flow collection", null);
+                }
+                JsonToken t = _nextInFlow(c);
+                if (t != null) {
+                    return t;
+                }
+                continue;
+            }
+            final int col = _inputPtr - _currInputRowStart;
+            if (c < 0 || (col == 0 && _atDocumentMarker(c))) {
+                if (_ctxDepth > 0) {
+                    _markToken();
+                    if (_ctxStates[_ctxDepth] == STATE_VALUE) {
+                        return _emptyValue();
+                    }
+                    return _closeCollection();
+                }
+                if (_docState == DOC_EXPECT_NODE || _hasPendingProps) {
+                    _markToken();
+                    return _emptyValue();
+                }
+                if ((_docState == DOC_DONE)
+                        && YAMLParser.Feature.EXPOSE_DOCUMENT_BOUNDARIES.enabledIn(_formatFeatures)) {
+                    // end of document; marker (if any) handled on next call
+                    _docState = DOC_BETWEEN;
+                    _tagHandles = null;
+                    _resetRecentTags();
+                    return (_currToken = null);
+                }
+                if (c < 0) { // end-of-input; force closure
+                    _closeAtEndOfInput();
+                    return (_currToken = null);
+                }
+                _handleDocumentMarker(c);
+                continue;
+            }
+            if (_atLineStart && _ctxDepth > 0) {
+                JsonToken t = _checkIndentation(c, col);
+                if (t != null) {
+                    return t;
+                }
+            }
+            if (_ctxDepth == 0) {
+                switch (_docState) {
+                case DOC_STREAM_START:
+                case DOC_BETWEEN:
+                    if (c == '%' && col == 0) {
+                        _scanDirective();
+                        _docState = DOC_BETWEEN;
+                        continue;
+                    }
+                    if (_docState == DOC_BETWEEN) {
+                        _reportUnexpectedChar(c, "expected '---' (document start marker)");
+                    }
+                    // implicit document, starts with its root node
+                    _startDocument(_currInputProcessed + _inputPtr, -1L,
+                            _currInputRow, col + 1);
+                    _docState = DOC_EXPECT_NODE;
+                    break;
+                case DOC_DONE:
+                    _reportUnexpectedChar(c, "expected '---' (document start marker) or end-of-input after root value");
+                }
+                JsonToken t = _parseNode(c, col, true);
+                if (t != null) {
+                    return t;
+                }
+                continue;
+            }
+            final int indent = _ctxIndents[_ctxDepth];
+            if (_ctxTypes[_ctxDepth] == CTX_BLOCK_MAP) {
+                if (_ctxStates[_ctxDepth] == STATE_ENTRY) {
+                    // key must start the line, possibly preceded by its properties
+                    if (_hasPendingProps && _pendingPropsRow == _currInputRow) {
+                        if (_pendingPropsCol != indent) {
+                            _reportError("Mapping key properties not properly indented");
+                        }
+                    } else if (!_atLineStart || col != indent) {
+                        _reportUnexpectedChar(c, "expected end-of-line or a comment after mapping value");
+                    }
+                    JsonToken t = _parseBlockKey(c);
+                    if (t != null) {
+                        return t;
+                    }
+                    continue;
+                }
+                JsonToken t = _parseNode(c, col,
+                        _atLineStart || (_hasPendingProps && _pendingPropsAtLineStart));
+                if (t != null) {
+                    return t;
+                }
+                continue;
+            }
+            // must be block sequence, then
+            if (_ctxStates[_ctxDepth] == STATE_ENTRY) {
+                if (col != indent || !_isSequenceEntry(c)) {
+                    _reportUnexpectedChar(c, "expected '-' (block sequence entry)");
+                }
+                ++_inputPtr;
+                _atLineStart = false;
+                _ctxStates[_ctxDepth] = STATE_VALUE;
+                continue;
+            }
+            JsonToken t = _parseNode(c, col, true);
+            if (t != null) {
+                return t;
+            }
+        }
+    }
+
+    /**
+     * Hook method called by {@link #nextToken} at points where all consumed input
+     * has been fully processed, so that decoding could be restarted from the
+     * current input position. Used by {@link NonBlockingYAMLParser}; no-op
+     * for blocking parsers.
+     */
+    protected void _markRestartPoint() { }
+
+    /**
+     * Overridden to skip content at scanner level: structure is tracked only
+     * by indentation and flow nesting state, without constructing read
+     * contexts, field names or scalar values (or resolving their types)
+     * for skipped content.
+     */
+    @Override
+    public JsonParser skipChildren() throws IOException
+    {
+        if ((_currToken != JsonToken.START_OBJECT) && (_currToken != JsonToken.START_ARRAY)) {
+            return this;
+        }
+        // with alias replay, skipped content must be decoded normally
+        if (_anchorBuffer != null) {
+            return _skipChildrenByToken();
+        }
+        // matching end marker is the one that gets us back to the enclosing level
+        _skipDepth = _ctxDepth - 1;
+        try {
+            while (true) {
+                JsonToken t = nextToken();
+                if (t == null) {
+                    _handleEOF();
+                    return this;
+                }
+                if (t.isStructEnd()) {
+                    if (_ctxDepth == _skipDepth) {
+                        return this;
+                    }
+                } else if (t == JsonToken.NOT_AVAILABLE) {
+                    _reportError("Not enough content available for `skipChildren()`: non-blocking parser? ("
+                            +getClass().getName()+")");
+                }
+            }
+        } finally {
+            _skipDepth = -1;
+        }
+    }
+
+    /**
+     * Method called for the first content on a line, within a block
+     * collection, to check whether it closes collections or means
+     * that a value is missing.
+     */
+    protected JsonToken _checkIndentation(int c, int col) throws IOException
+    {
+        final int indent = _ctxIndents[_ctxDepth];
+        final int state = _ctxStates[_ctxDepth];
+
+        if (col > indent) {
+            return null;
+        }
+        if (_ctxTypes[_ctxDepth] == CTX_BLOCK_SEQ) {
+            if (col == indent && _isSequenceEntry(c)) {
+                if (state == STATE_VALUE) { // "-" without value
+                    _markToken();
+                    return _emptyValue();
+                }
+                return null;
+            }
+        } else { // block mapping
+            if (col == indent) {
+                if (state == STATE_ENTRY) {
+                    return null;
+                }
+                // indentless sequence as mapping value is fine
+                if (_isSequenceEntry(c)) {
+                    return null;
+                }
+            }
+        }
+        _markToken();
+        if (state == STATE_VALUE) {
+            return _emptyValue();
+        }
+        return _closeCollection();
+    }
+
+    protected JsonToken _nextInFlow(int c) throws IOException
+    {
+        final int type = _ctxTypes[_ctxDepth];
+        final int state = _ctxStates[_ctxDepth];
+
+        _atLineStart = false;
+        if (type == CTX_FLOW_SEQ) {
+            if (state == STATE_SEPARATOR) {
+                if (c == ',') {
+                    ++_inputPtr;
+                    _ctxStates[_ctxDepth] = STATE_VALUE;
+                    return null;
+                }
+                if (c != ']') {
+                    _reportUnexpectedChar(c, "expected ',' or ']' in flow sequence");
+                }
+            }
+            if (c == ']') {
+                if (_hasPendingProps) {
+                    _markToken();
+                    return _emptyValue();
+                }
+                ++_inputPtr;
+                _markToken();
+                return _closeCollection();
+            }
+            if (c == ',') {
+                _reportUnexpectedChar(c, "expected a value in flow sequence");
+            }
+            return _parseNode(c, -1, false);
+        }
+        if (type == CTX_FLOW_PAIR) {
+            if (state == STATE_SEPARATOR) {
+                _markToken();
+                return _closeCollection();
+            }
+            if (c == ',' || c == ']') {
+                _markToken();
+                return _emptyValue();
+            }
+            return _parseNode(c, -1, false);
+        }
+        // flow mapping
+        if (state == STATE_SEPARATOR) {
+            if (c == ',') {
+                ++_inputPtr;
+                _ctxStates[_ctxDepth] = STATE_ENTRY;
+                return null;
+            }
+            if (c != '}') {
+                _reportUnexpectedChar(c, "expected ',' or '}' in flow mapping");
+            }
+        }
+        if (state == STATE_VALUE) {
+            if (c == ',' || c == '}') {
+                _markToken();
+                return _emptyValue();
+            }
+            return _parseNode(c, -1, false);
+        }
+        if (c == '}') {
+            ++_inputPtr;
+            _markToken();
+            return _closeCollection();
+        }
+        return _parseFlowKey(c);
+    }
+
+    /**
+     * Method called to parse a node (value) starting with given character.
+     * Returns null if only node properties (anchor, tag) were read and caller
+     * is to continue.
+     *
+     * @param col Column of the first character (for block context)
+     * @param blockAllowed Whether a block collection may start here
+     */
+    protected JsonToken _parseNode(int c, int col, boolean blockAllowed) throws IOException
+    {
+        _markToken();
+        switch (c) {
+        case '&':
+            _scanAnchor();
+            return null;
+        case '!':
+            _scanTag();
+            return null;
+        case '*':
+            {
+                String alias = _scanAlias();
+                if (_hasPendingProps) {
+                    _reportError("Alias can not have properties (anchor, tag)");
+                }
+                if (_flowLevel == 0 && _atImplicitKey(false)) {
+                    _reportError("Alias can not be used as a mapping key");
+                }
+                _currentIsAlias = true;
+                _textValue = alias;
+                _valueComplete();
+                return (_currToken = JsonToken.VALUE_STRING);
+            }
+        case '[':
+            ++_inputPtr;
+            _atLineStart = false;
+            _pushContext(CTX_FLOW_SEQ, col);
+            _takeProperties();
+            _createChildContext(true);
+            return (_currToken = JsonToken.START_ARRAY);
+        case '{':
+            ++_inputPtr;
+            _atLineStart = false;
+            _pushContext(CTX_FLOW_MAP, col);
+            _takeProperties();
+            _createChildContext(false);
+            return (_currToken = JsonToken.START_OBJECT);
+        case '|':
+        case '>':
+            if (_flowLevel > 0) {
+                _reportUnexpectedChar(c, "block scalars not allowed in flow context");
+            }
+            _scanBlockScalar(c == '>', _blockIndent());
+            _valueComplete();
+            return _decodeNodeScalar(false);
+        case '"':
+        case '\'':
+            _scanQuoted(c == '"');
+            return _handleScalar(col, blockAllowed, false);
+        case '-':
+            if (_isSequenceEntry(c)) {
+                if (!blockAllowed || _flowLevel > 0) {
+                    _reportError("Block sequence entries are not allowed here");
+                }
+                _pushContext(CTX_BLOCK_SEQ, col);
+                _takeProperties();
+                _createChildContext(true);
+                return (_currToken = JsonToken.START_ARRAY);
+            }
+            break;
+        case '?':
+            if (_followedByBlank(1)) {
+                _reportError("Explicit mapping keys ('? ') not supported");
+            }
+            break;
+        case ':':
+            if (_followedByBlank(1)) {
+                _reportError("Empty mapping keys not supported");
+            }
+            break;
+        case ',': case ']': case '}':
+        case '%': case '@': case '`':
+            _reportUnexpectedChar(c, "character can not start a YAML value");
+        }
+        _scanPlain();
+        return _handleScalar(col, blockAllowed, true);
+    }
+
+    /**
+     * Helper method called after scanning a scalar value, to see if it is
+     * actually an implicit key of a new block mapping (or flow pair).
+     */
+    protected JsonToken _handleScalar(int col, boolean blockAllowed, boolean plain) throws IOException
+    {
+        if (_flowLevel > 0) {
+            if (_ctxTypes[_ctxDepth] == CTX_FLOW_SEQ && _atImplicitKey(!plain)) {
+                ++_inputPtr;
+                _startMapping(CTX_FLOW_PAIR, -1);
+                return (_currToken = JsonToken.START_OBJECT);
+            }
+        } else if (_atImplicitKey(false)) {
+            if (!blockAllowed) {
+                _reportError("Mapping values are not allowed here");
+            }
+            if (_scalarMultiLine) {
+                _reportError("Implicit mapping keys can not span multiple lines");
+            }
+            ++_inputPtr;
+            // properties on the same line belong to key; otherwise to mapping itself
+            if (_hasPendingProps && _pendingPropsRow == _tokenInputRow) {
+                col = _pendingPropsCol;
+            }
+            _startMapping(CTX_BLOCK_MAP, col);
+            return (_currToken = JsonToken.START_OBJECT);
+        }
+        _valueComplete();
+        return _decodeNodeScalar(plain);
+    }
+
+    private void _startMapping(int type, int col) throws IOException
+    {
+        String name = _findName();
+        _pendingNameAnchor = null;
+        _pendingNameTag = null;
+        if (_hasPendingProps && (type == CTX_FLOW_PAIR || _pendingPropsRow == _tokenInputRow)) {
+            _pendingNameAnchor = _pendingAnchor;
+            _pendingNameTag = _pendingTag;
+            _clearProperties();
+        }
+        _pushContext(type, col);
+        _ctxStates[_ctxDepth] = STATE_VALUE;
+        _takeProperties();
+        _createChildContext(false);
+        _pendingName = name;
+    }
+
+    protected JsonToken _parseBlockKey(int c) throws IOException
+    {
+        _markToken();
+        switch (c) {
+        case '&':
+            _scanAnchor();
+            return null;
+        case '!':
+            _scanTag();
+            return null;
+        case '"':
+        case '\'':
+            _scanQuoted(c == '"');
+            break;
+        case '?':
+            if (_followedByBlank(1)) {
+                _reportError("Explicit mapping keys ('? ') not supported");
+            }
+            _scanPlain();
+            break;
+        case '*':
+            _reportError("Alias can not be used as a mapping key");
+            break;
+        case '[': case '{':
+            _reportError("Complex (non-scalar) mapping keys not supported");
+            break;
+        case '|': case '>': case ',': case ']': case '}': case '%': case '@': case '`':
+            _reportUnexpectedChar(c, "expected a mapping key");
+            break;
+        default:
+            if (_isSequenceEntry(c)) {
+                _reportError("Block sequence entries are not allowed here; expected a mapping key");
+            }
+            _scanPlain();
+        }
+        if (!_atImplicitKey(false) || _scalarMultiLine) {
+            _reportError("Could not find expected ':' after mapping key");
+        }
+        ++_inputPtr;
+        return _fieldName();
+    }
+
+    protected JsonToken _parseFlowKey(int c) throws IOException
+    {
+        _markToken();
+        boolean plain = false;
+        switch (c) {
+        case '&':
+            _scanAnchor();
+            return null;
+        case '!':
+            _scanTag();
+            return null;
+        case '"':
+        case '\'':
+            _scanQuoted(c == '"');
+            break;
+        case '*':
+            _reportError("Alias can not be used as a mapping key");
+            break;
+        case '[': case '{':
+            _reportError("Complex (non-scalar) mapping keys not supported");
+            break;
+        case ',': case ']': case '|': case '>': case '%': case '@': case '`':
+            _reportUnexpectedChar(c, "expected a mapping key");
+            break;
+        case '?':
+            if (_followedByBlank(1)) {
+                _reportError("Explicit mapping keys ('? ') not supported");
+            }
+            // fall through
+        default:
+            if (c == ':' && _followedByBlank(1)) {
+                _reportError("Empty mapping keys not supported");
+            }
+            _scanPlain();
+            plain = true;
+        }
+        if (_atImplicitKey(!plain)) {
+            ++_inputPtr;
+        } else {
+            // no value, like "{ a, b }": need to get null for it
+            int ch = _skipWhitespace();
+            if (ch != ',' && ch != '}') {
+                _reportError("Could not find expected ':' after mapping key");
+            }
+        }
+        return _fieldName();
+    }
+
+    private JsonToken _fieldName() throws IOException
+    {
+        String name = _findName();
+        _currentFieldName = name;
+        _nameCopied = false;
+        // no contexts for skipped content: names would clash in enclosing one
+        if (_skipDepth < 0) {
+            _parsingContext.setCurrentName(name);
+        }
+        _takeProperties();
+        _ctxStates[_ctxDepth] = STATE_VALUE;
+        return (_currToken = JsonToken.FIELD_NAME);
+    }
+
+    /**
+     * Method for constructing field name from the scalar just scanned: will use
+     * symbol table to find canonical instance, if one is available.
+     */
+    protected final String _findName() throws IOException
+    {
+        if (_skipDepth >= 0) { // names of skipped entries are not needed
+            return "";
+        }
+        if (_symbols == null) {
+            return _textBuffer.contentsAsString();
+        }
+        final char[] buf = _textBuffer.getTextBuffer();
+        final int start = _textBuffer.getTextOffset();
+        final int len = _textBuffer.size();
+        return _symbols.findSymbol(buf, start, len, _symbols.calcHash(buf, start, len));
+    }
+
+    protected JsonToken _decodeNodeScalar(boolean plain) throws IOException
+    {
+        if (_skipDepth >= 0) { // no need to resolve type when skipping
+            _clearProperties();
+            return (_currToken = JsonToken.VALUE_STRING);
+        }
+        String tag = _pendingTag;
+        _takeProperties();
+        // as with SnakeYAML-backed parsing, anchors of scalar values are not exposed
+        _scalarAnchor = _currentAnchor;
+        _currentAnchor = null;
+        _textInBuffer = true;
+        // Untagged values can be resolved without constructing a String; if so, construct lazily
+        if (tag == null) {
+            _textValue = null;
+            if (!plain || ((_textBuffer.size() > 0) && !_scalarResolver.mayBeTyped(_plainFirstByte,
+                    YAMLParser.Feature.USE_CORE_SCHEMA.enabledIn(_formatFeatures)))) {
+                return (_currToken = JsonToken.VALUE_STRING);
+            }
+            return (_currToken = _decodeImplicitScalar());
+        }
+        boolean implicit = "!".equals(tag);
+        if (!implicit) {
+            switch (_tagCache.find(tag).scalarType) {
+            case YAMLTagCache.SCALAR_BINARY: // decoded directly from text buffer, when accessed
+                _textValue = null;
+                return (_currToken = JsonToken.VALUE_EMBEDDED_OBJECT);
+            case YAMLTagCache.SCALAR_OTHER: // like "!!str" or custom tags: String only if requested
+                _textValue = null;
+                return (_currToken = JsonToken.VALUE_STRING);
+            }
+        }
+        JsonToken t = _decodeScalar(_textBuffer.contentsAsString(), tag, implicit);
+        return (_currToken = t);
+    }
+
+    /**
+     * Method called when a value is missing; YAML considers these empty scalars,
+     * which are usually resolved as nulls.
+     */
+    protected JsonToken _emptyValue() throws IOException
+    {
+        _textBuffer.resetWithEmpty();
+        JsonToken t = _decodeNodeScalar(true);
+        _valueComplete();
+        return t;
+    }
+
+    protected JsonToken _closeCollection() throws IOException
+    {
+        final int type = _ctxTypes[_ctxDepth];
+        --_ctxDepth;
+        if (type >= CTX_FLOW_SEQ) {
+            --_flowLevel;
+        }
+        final JsonToken t = (type == CTX_BLOCK_SEQ || type == CTX_FLOW_SEQ)
+                ? JsonToken.END_ARRAY : JsonToken.END_OBJECT;
+        // when skipping, contexts only exist for the outermost skipped collection
+        if (_skipDepth < 0 || _ctxDepth <= _skipDepth) {
+            if (t == JsonToken.END_ARRAY) {
+                if (!_parsingContext.inArray()) { // sanity check is optional, but let's do it for now
+                    _reportMismatchedEndMarker(']', '}');
+                }
+            } else if (!_parsingContext.inObject()) {
+                _reportMismatchedEndMarker('}', ']');
+            }
+            _parsingContext = _parsingContext.getParent();
+        }
+        _valueComplete();
+        return (_currToken = t);
+    }
+
+    /**
+     * Method called when a value has been completely read, to update
+     * state of the enclosing context.
+     */
+    protected void _valueComplete()
+    {
+        if (_ctxDepth == 0) {
+            _docState = DOC_DONE;
+            return;
+        }
+        switch (_ctxTypes[_ctxDepth]) {
+        case CTX_BLOCK_SEQ:
+        case CTX_BLOCK_MAP:
+            _ctxStates[_ctxDepth] = STATE_ENTRY;
+            break;
+        default:
+            _ctxStates[_ctxDepth] = STATE_SEPARATOR;
+        }
+    }
+
+    private void _pushContext(int type, int indent)
+    {
+        int ix = ++_ctxDepth;
+        if (ix >= _ctxTypes.length) {
+            int newLen = ix + (ix >> 1);
+            _ctxTypes = java.util.Arrays.copyOf(_ctxTypes, newLen);
+            _ctxIndents = java.util.Arrays.copyOf(_ctxIndents, newLen);
+            _ctxStates = java.util.Arrays.copyOf(_ctxStates, newLen);
+        }
+        _ctxTypes[ix] = type;
+        _ctxIndents[ix] = indent;
+        // flow sequences have no entry indicator, can start with value directly
+        _ctxStates[ix] = (type == CTX_FLOW_SEQ) ? STATE_VALUE : STATE_ENTRY;
+        if (type >= CTX_FLOW_SEQ) {
+            ++_flowLevel;
+        }
+    }
+
+    private void _createChildContext(boolean array)
+    {
+        if (_skipDepth < 0) { // no contexts needed for skipped content
+            _parsingContext = array
+                    ? _parsingContext.createChildArrayContext(_tokenInputRow, _tokenInputCol)
+                    : _parsingContext.createChildObjectContext(_tokenInputRow, _tokenInputCol);
+        }
+    }
+
+    /**
+     * Indentation of the innermost block collection; -1 for document level
+     */
+    protected int _blockIndent()
+    {
+        for (int i = _ctxDepth; i > 0; --i) {
+            int type = _ctxTypes[i];
+            if (type == CTX_BLOCK_SEQ || type == CTX_BLOCK_MAP) {
+                return _ctxIndents[i];
+            }
+        }
+        return -1;
+    }
+
+    private void _takeProperties()
+    {
+        if (_hasPendingProps) {
+            _currentAnchor = _pendingAnchor;
+            _currentTag = _pendingTag;
+            _clearProperties();
+        }
+    }
+
+    protected void _clearProperties()
+    {
+        _pendingAnchor = null;
+        _pendingTag = null;
+        _hasPendingProps = false;
+    }
+
+    @Override
+    protected String _nodeAnchor()
+    {
+        if ((_currToken != null) && _currToken.isScalarValue()) {
+            return _currentIsAlias ? null : _scalarAnchor;
+        }
+        return _currentAnchor;
+    }
+
+    @Override
+    protected void _clearTokenProperties()
+    {
+        super._clearTokenProperties();
+        _currentTag = null;
+    }
+
+    private void _markToken()
+    {
+        _tokenInputTotal = _currInputProcessed + _inputPtr;
+        _tokenInputRow = _currInputRow;
+        _tokenInputCol = _inputPtr - _currInputRowStart;
+    }
+
+    /*
+    /**********************************************************************
+    /* Internal methods, documents and directives
+    /**********************************************************************
+     */
+
+    protected void _handleDocumentMarker(int c) throws IOException
+    {
+        if (c == '-') {
+            _startDocument(_currInputProcessed + _inputPtr, -1L,
+                    _currInputRow, _inputPtr - _currInputRowStart + 1);
+        }
+        _inputPtr += 3;
+        _atLineStart = false;
+        if (c == '-') {
+            if (_docState == DOC_DONE) { // directives only apply to a single document
+                _tagHandles = null;
+                _resetRecentTags();
+            }
+            _docState = DOC_EXPECT_NODE;
+        } else {
+            _docState = DOC_BETWEEN;
+            _tagHandles = null;
+            _resetRecentTags();
+        }
+    }
+
+    protected void _scanDirective() throws IOException
+    {
+        ++_inputPtr;
+        String name = _scanToken(false);
+        if ("TAG".equals(name)) {
+            _skipSpacesOnLine();
+            String handle = _scanToken(false);
+            _skipSpacesOnLine();
+            String prefix = _scanToken(false);
+            if (handle.isEmpty() || handle.charAt(0) != '!' || handle.charAt(handle.length()-1) != '!'
+                    || prefix.isEmpty()) {
+                _reportError("Invalid %TAG directive: handle '"+handle+"', prefix '"+prefix+"'");
+            }
+            if (_tagHandles == null) {
+                _tagHandles = new HashMap<String,String>();
+            }
+            _tagHandles.put(handle, prefix);
+            _resetRecentTags();
+        } else if ("YAML".equals(name)) {
+            _skipSpacesOnLine();
+            String version = _scanToken(false);
+            if (!version.startsWith("1.")) {
+                _reportError("Unsupported YAML version '"+version+"' (only 1.x supported)");
+            }
+        }
+        // and whatever else there is, is ignored
+        _skipToEndOfLine();
+    }
+
+    /*
+    /**********************************************************************
+    /* Internal methods, node properties
+    /**********************************************************************
+     */
+
+    private void _markProperties()
+    {
+        if (!_hasPendingProps) {
+            _hasPendingProps = true;
+            _pendingPropsRow = _currInputRow;
+            _pendingPropsCol = _inputPtr - _currInputRowStart;
+            _pendingPropsAtLineStart = _atLineStart;
+        }
+    }
+
+    protected void _scanAnchor() throws IOException
+    {
+        if (_pendingAnchor != null) {
+            _reportError("Node can not have more than one anchor");
+        }
+        _markProperties();
+        _pendingAnchor = _scanAnchorName();
+        _atLineStart = false;
+    }
+
+    protected String _scanAlias() throws IOException
+    {
+        String name = _scanAnchorName();
+        _atLineStart = false;
+        return name;
+    }
+
+    private String _scanAnchorName() throws IOException
+    {
+        ++_inputPtr; // '&' or '*'
+        StringBuilder sb = new StringBuilder();
+        while (_inputPtr < _inputEnd || _loadMore()) {
+            int c = _inputBuffer[_inputPtr];
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_') {
+                sb.append((char) c);
+                ++_inputPtr;
+                continue;
+            }
+            switch (c) {
+            case ' ': case '\t': case '\r': case '\n':
+            case '?': case ':': case ',': case ']': case '}': case '%': case '@': case '`':
+                break;
+            default:
+                _reportUnexpectedChar(c & 0xFF, "expected alphabetic or numeric character for anchor name");
+            }
+            break;
+        }
+        if (sb.length() == 0) {
+            _reportError("Expected anchor name after '&' or '*'");
+        }
+        return sb.toString();
+    }
+
+    protected void _scanTag() throws IOException
+    {
+        if (_pendingTag != null) {
+            _reportError("Node can not have more than one tag");
+        }
+        _markProperties();
+        _atLineStart = false;
+        ++_inputPtr; // '!'
+        int c = _peekByte(0);
+        String tag = null;
+        if (c == '<') { // verbatim
+            ++_inputPtr;
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                c = _nextByteInLine();
+                if (c == '>') {
+                    break;
+                }
+                if (c < 0) {
+                    _reportError("Unexpected end of tag: expected '>'");
+                }
+                _appendTagChar(sb, c);
+            }
+            tag = sb.toString();
+        } else if (_isBlankOrEnd(c)) {
+            tag = "!";
+        } else {
+            StringBuilder sb = _tagBuilder;
+            sb.setLength(0);
+            _scanToken(sb, _flowLevel > 0);
+            tag = _findRecentTag(sb);
+        }
+        if (tag == null) {
+            String str = _tagBuilder.toString();
+            String handle, suffix;
+            int ix = str.indexOf('!');
+            if (ix < 0) {
+                handle = "!";
+                suffix = str;
+            } else {
+                handle = "!"+str.substring(0, ix+1);
+                suffix = str.substring(ix+1);
+            }
+            String prefix = (_tagHandles == null) ? null : _tagHandles.get(handle);
+            if (prefix == null) {
+                if ("!".equals(handle)) {
+                    prefix = "!";
+                } else if ("!!".equals(handle)) {
+                    prefix = TAG_PREFIX_DEFAULT;
+                } else {
+                    _reportError("Undefined tag handle '"+handle+"'");
+                }
+            }
+            // use cached instance, to avoid further allocations when resolving type
+            tag = _tagCache.find(prefix + _decodeTagUri(suffix)).tag;
+            _addRecentTag(str, tag);
+        }
+        c = _peekByte(0);
+        if (!_isBlankOrEnd(c) && !(_flowLevel > 0 && _isFlowIndicator(c))) {
+            _reportUnexpectedChar(c, "expected white space after tag");
+        }
+        _pendingTag = tag;
+    }
+
+    private void _appendTagChar(StringBuilder sb, int c) throws IOException
+    {
+        if (c >= 0x80) {
+            _reportUnexpectedChar(c, "non-ASCII characters in tags must be %-escaped");
+        }
+        sb.append((char) c);
+    }
+
+    private String _decodeTagUri(String str) throws IOException
+    {
+        int ix = str.indexOf('%');
+        if (ix < 0) {
+            return str;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (int i = 0, len = str.length(); i < len; ++i) {
+            char c = str.charAt(i);
+            if (c == '%' && (i+2) < len) {
+                int hi = Character.digit(str.charAt(i+1), 16);
+                int lo = Character.digit(str.charAt(i+2), 16);
+                if (hi >= 0 && lo >= 0) {
+                    bytes.write((hi << 4) + lo);
+                    i += 2;
+                    continue;
+                }
+            }
+            bytes.write(c);
+        }
+        return new String(bytes.toByteArray(), "UTF-8");
+    }
+
+    /*
+    /**********************************************************************
+    /* Internal methods, scalars
+    /**********************************************************************
+     */
+
+    /**
+     * Method for scanning a plain (unquoted) scalar; contents are accumulated
+     * in the text buffer.
+     */
+    protected void _scanPlain() throws IOException
+    {
+        final boolean flow = (_flowLevel > 0);
+        final int minCol = flow ? 0 : (_blockIndent() + 1);
+        _textBuffer.emptyAndGetCurrentSegment();
+        _atLineStart = false;
+        _scalarMultiLine = false;
+        _plainFirstByte = _inputBuffer[_inputPtr] & 0xFF;
+        int spaces = 0; // pending in-line white space
+        int breaks = 0; // pending line breaks
+
+        while (_inputPtr < _inputEnd || _loadMore()) {
+            int c = _inputBuffer[_inputPtr] & 0xFF;
+            switch (c) {
+            case ' ':
+            case '\t':
+                if (spaces == _spaceBuffer.length) {
+                    _spaceBuffer = java.util.Arrays.copyOf(_spaceBuffer, spaces + spaces);
+                }
+                _spaceBuffer[spaces++] = (char) c;
+                ++_inputPtr;
+                continue;
+            case '\r':
+            case '\n':
+                spaces = 0;
+                breaks = 0;
+                do {
+                    _skipLineBreak(c);
+                    ++breaks;
+                    c = _skipSpacesOnLine();
+                } while (c == '\r' || c == '\n');
+                // So: does the scalar continue on this line?
+                if (c < 0) {
+                    return;
+                }
+                int col = _inputPtr - _currInputRowStart;
+                if (c == '#' || (!flow && col < minCol) || (col == 0 && _atDocumentMarker(c))) {
+                    return;
+                }
+                _atLineStart = false;
+                continue;
+            case ':':
+                if (_followedByBlank(1)
+                        || (flow && _isFlowIndicator(_peekByte(1)))) {
+                    return;
+                }
+                break;
+            case '#':
+                if (spaces > 0) {
+                    return;
+                }
+                break;
+            case ',': case '[': case ']': case '{': case '}':
+                if (flow) {
+                    return;
+                }
+                break;
+            }
+            if (breaks > 0) {
+                if (breaks == 1) {
+                    _textBuffer.append(' ');
+                } else {
+                    while (--breaks > 0) {
+                        _textBuffer.append('\n');
+                    }
+                }
+                breaks = 0;
+                spaces = 0;
+                _scalarMultiLine = true;
+            } else if (spaces > 0) {
+                _textBuffer.append(_spaceBuffer, 0, spaces);
+                spaces = 0;
+            }
+            if (c < 0x80) {
+                _textBuffer.append((char) c);
+                ++_inputPtr;
+            } else {
+                _appendMultiByte(c);
+            }
+        }
+    }
+
+    /**
+     * Method for scanning a single- or double-quoted scalar; contents are accumulated
+     * in the text buffer.
+     */
+    protected void _scanQuoted(boolean doubleQuoted) throws IOException
+    {
+        _textBuffer.emptyAndGetCurrentSegment();
+        _atLineStart = false;
+        _scalarMultiLine = false;
+        final int quote = doubleQuoted ? '"' : '\'';
+        ++_inputPtr;
+        int spaces = 0;
+
+        while (true) {
+            if (_inputPtr >= _inputEnd && !_loadMore()) {
+                _reportInvalidEOF(": unexpected end of input in quoted scalar", JsonToken.VALUE_STRING);
+            }
+            int c = _inputBuffer[_inputPtr] & 0xFF;
+            if (c == ' ' || c == '\t') {
+                if (spaces == _spaceBuffer.length) {
+                    _spaceBuffer = java.util.Arrays.copyOf(_spaceBuffer, spaces + spaces);
+                }
+                _spaceBuffer[spaces++] = (char) c;
+                ++_inputPtr;
+                continue;
+            }
+            if (c == '\r' || c == '\n') { // folding: trailing white space dropped
+                spaces = 0;
+                _skipLineBreak(c);
+                int breaks = _scanFlowScalarBreaks();
+                if (breaks == 0) {
+                    _textBuffer.append(' ');
+                } else {
+                    while (--breaks >= 0) {
+                        _textBuffer.append('\n');
+                    }
+                }
+                _scalarMultiLine = true;
+                continue;
+            }
+            if (spaces > 0) {
+                _textBuffer.append(_spaceBuffer, 0, spaces);
+                spaces = 0;
+            }
+            if (c == quote) {
+                ++_inputPtr;
+                if (doubleQuoted || _peekByte(0) != '\'') {
+                    break;
+                }
+                // two single quotes is an escaped single quote
+                ++_inputPtr;
+                _textBuffer.append('\'');
+                continue;
+            }
+            if (c == '\\' && doubleQuoted) {
+                ++_inputPtr;
+                _decodeEscape();
+                continue;
+            }
+            if (c < 0x80) {
+                _textBuffer.append((char) c);
+                ++_inputPtr;
+            } else {
+                _appendMultiByte(c);
+            }
+        }
+    }
+
+    /**
+     * Helper method for skipping line breaks (and leading white space) within
+     * quoted scalars; returns number of line breaks skipped
+     */
+    private int _scanFlowScalarBreaks() throws IOException
+    {
+        int breaks = 0;
+        while (true) {
+            if (_inputPtr - _currInputRowStart == 0) {
+                int c = _peekByte(0);
+                if ((c == '-' || c == '.') && _atDocumentMarker(c)) {
+                    _reportError("Unexpected document marker within quoted scalar");
+                }
+            }
+            int c = _skipSpacesOnLine();
+            if (c != '\r' && c != '\n') {
+                return breaks;
+            }
+            _skipLineBreak(c);
+            ++breaks;
+        }
+    }
+
+    private void _decodeEscape() throws IOException
+    {
+        if (_inputPtr >= _inputEnd && !_loadMore()) {
+            _reportInvalidEOF(": unexpected end of input in quoted scalar", JsonToken.VALUE_STRING);
+        }
+        int c = _inputBuffer[_inputPtr++] & 0xFF;
+        int digits = 0;
+        switch (c) {
+        case '0': _textBuffer.append('\0'); return;
+        case 'a': _textBuffer.append('\u0007'); return;
+        case 'b': _textBuffer.append('\b'); return;
+        case 't': case '\t': _textBuffer.append('\t'); return;
+        case 'n': _textBuffer.append('\n'); return;
+        case 'v': _textBuffer.append('\u000B'); return;
+        case 'f': _textBuffer.append('\f'); return;
+        case 'r': _textBuffer.append('\r'); return;
+        case 'e': _textBuffer.append('\u001B'); return;
+        case ' ': case '"': case '/': case '\\':
+            _textBuffer.append((char) c);
+            return;
+        case 'N': _textBuffer.append('\u0085'); return;
+        case '_': _textBuffer.append('\u00A0'); return;
+        case 'L': _textBuffer.append('\u2028'); return;
+        case 'P': _textBuffer.append('\u2029'); return;
+        case 'x': digits = 2; break;
+        case 'u': digits = 4; break;
+        case 'U': digits = 8; break;
+        case '\r':
+        case '\n': // escaped line break: no folding
+            --_inputPtr;
+            _skipLineBreak(c);
+            for (int breaks = _scanFlowScalarBreaks(); --breaks >= 0; ) {
+                _textBuffer.append('\n');
+            }
+            return;
+        default:
+            _reportUnexpectedChar(c, "unrecognized character escape in double-quoted scalar");
+        }
+        int value = 0;
+        for (int i = 0; i < digits; ++i) {
+            if (_inputPtr >= _inputEnd && !_loadMore()) {
+                _reportInvalidEOF(": unexpected end of input in quoted scalar", JsonToken.VALUE_STRING);
+            }
+            int ch = _inputBuffer[_inputPtr++];
+            int digit = Character.digit(ch, 16);
+            if (digit < 0) {
+                _reportUnexpectedChar(ch & 0xFF, "expected a hex-digit for character escape sequence");
+            }
+            value = (value << 4) | digit;
+        }
+        _appendCodePoint(value);
+    }
+
+    /**
+     * Method for scanning a literal or folded block scalar; contents are
+     * accumulated in the text buffer.
+     *
+     * @param parentIndent Indentation of the enclosing block collection, if any (-1 if none)
+     */
+    protected void _scanBlockScalar(boolean folded, int parentIndent) throws IOException
+    {
+        _blockScalarIndent = -1;
+        ++_inputPtr; // '|' or '>'
+        _atLineStart = false;
+        _scalarMultiLine = true;
+        // First: chomping and indentation indicators, in either order
+        int chomping = 0; // 0 for "clip", 1 for "keep", -1 for "strip"
+        int increment = -1;
+        for (int i = 0; i < 2; ++i) {
+            int c = _peekByte(0);
+            if ((c == '+' || c == '-') && chomping == 0) {
+                chomping = (c == '+') ? 1 : -1;
+            } else if (c >= '0' && c <= '9' && increment < 0) {
+                if (c == '0') {
+                    _reportError("Block scalar indentation indicator must be between 1 and 9");
+                }
+                increment = c - '0';
+            } else {
+                break;
+            }
+            ++_inputPtr;
+        }
+        int c = _skipSpacesOnLine();
+        if (c == '#') {
+            _skipToEndOfLine();
+            c = _peekByte(0);
+        }
+        if (c >= 0) {
+            if (c != '\r' && c != '\n') {
+                _reportUnexpectedChar(c, "expected a comment or line break after block scalar indicator");
+            }
+            _skipLineBreak(c);
+        }
+        _textBuffer.emptyAndGetCurrentSegment();
+
+        int minIndent = Math.max(parentIndent + 1, 1);
+        int indent;
+        int breaks;
+        if (increment < 0) { // auto-detect, based on the first non-empty line
+            int maxIndent = 0;
+            breaks = 0;
+            while (true) {
+                c = _peekByte(0);
+                if (c == ' ') {
+                    ++_inputPtr;
+                    maxIndent = Math.max(maxIndent, _inputPtr - _currInputRowStart);
+                } else if (c == '\r' || c == '\n') {
+                    _skipLineBreak(c);
+                    ++breaks;
+                } else {
+                    break;
+                }
+            }
+            indent = Math.max(minIndent, maxIndent);
+        } else {
+            indent = minIndent + increment - 1;
+            _blockScalarIndent = indent;
+            breaks = _scanBlockBreaks(indent);
+        }
+        _blockScalarIndent = indent;
+
+        boolean lineBreak = false;
+        while ((_inputPtr - _currInputRowStart) == indent && (c = _peekByte(0)) >= 0) {
+            for (; breaks > 0; --breaks) {
+                _textBuffer.append('\n');
+            }
+            final boolean leadingNonSpace = (c != ' ' && c != '\t');
+            // Copy contents of the line as is
+            while (true) {
+                if (_inputPtr >= _inputEnd && !_loadMore()) {
+                    c = -1;
+                    break;
+                }
+                c = _inputBuffer[_inputPtr] & 0xFF;
+                if (c == '\r' || c == '\n') {
+                    break;
+                }
+                if (c < 0x80) {
+                    _textBuffer.append((char) c);
+                    ++_inputPtr;
+                } else {
+                    _appendMultiByte(c);
+                }
+            }
+            lineBreak = (c >= 0);
+            if (lineBreak) {
+                _skipLineBreak(c);
+            }
+            breaks = _scanBlockBreaks(indent);
+            if ((_inputPtr - _currInputRowStart) != indent || (c = _peekByte(0)) < 0) {
+                break;
+            }
+            if (folded && lineBreak && leadingNonSpace && c != ' ' && c != '\t') {
+                if (breaks == 0) {
+                    _textBuffer.append(' ');
+                }
+            } else if (lineBreak) {
+                _textBuffer.append('\n');
+            }
+        }
+        // Chomp the tail
+        if (lineBreak && chomping >= 0) {
+            _textBuffer.append('\n');
+        }
+        if (chomping > 0) {
+            for (; breaks > 0; --breaks) {
+                _textBuffer.append('\n');
+            }
+        }
+        _atLineStart = true;
+    }
+
+    /**
+     * Helper method for skipping empty lines (and indentation up to given
+     * level) within block scalars; returns number of line breaks skipped.
+     */
+    private int _scanBlockBreaks(int indent) throws IOException
+    {
+        int breaks = 0;
+        while (true) {
+            while ((_inputPtr - _currInputRowStart) < indent && _peekByte(0) == ' ') {
+                ++_inputPtr;
+            }
+            int c = _peekByte(0);
+            if (c != '\r' && c != '\n') {
+                return breaks;
+            }
+            _skipLineBreak(c);
+            ++breaks;
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Internal methods, character decoding
+    /**********************************************************************
+     */
+
+    /**
+     * Method called to decode a multi-byte UTF-8 character, given its first byte,
+     * and append it to the text buffer.
+     */
+    protected void _appendMultiByte(int c) throws IOException
+    {
+        ++_inputPtr;
+        int needed;
+        if ((c & 0xE0) == 0xC0) { // 2 bytes (0x0080 - 0x07FF)
+            c &= 0x1F;
+            needed = 1;
+        } else if ((c & 0xF0) == 0xE0) { // 3 bytes (0x0800 - 0xFFFF)
+            c &= 0x0F;
+            needed = 2;
+        } else if ((c & 0xF8) == 0xF0) { // 4 bytes; double-char with surrogates and all...
+            c &= 0x07;
+            needed = 3;
+        } else {
+            _reportInvalidUTF8(c, "invalid UTF-8 start byte");
+            return;
+        }
+        for (int i = 0; i < needed; ++i) {
+            if (_inputPtr >= _inputEnd && !_loadMore()) {
+                _reportInvalidEOF(" in a multi-byte UTF-8 character", JsonToken.VALUE_STRING);
+            }
+            int d = _inputBuffer[_inputPtr++];
+            if ((d & 0xC0) != 0x080) {
+                _reportInvalidUTF8(d & 0xFF, "invalid UTF-8 middle byte");
+            }
+            c = (c << 6) | (d & 0x3F);
+        }
+        _appendCodePoint(c);
+    }
+
+    private void _appendCodePoint(int c) throws IOException
+    {
+        if (c > 0xFFFF) {
+            c -= 0x10000;
+            _textBuffer.append((char) (0xD800 | (c >> 10)));
+            c = 0xDC00 | (c & 0x3FF);
+        }
+        _textBuffer.append((char) c);
+    }
+
+    protected void _reportInvalidUTF8(int b, String msg) throws JsonParseException {
+        _reportError("Invalid UTF-8 encoding: "+msg+" 0x"+Integer.toHexString(b));
+    }
+
+    /*
+    /**********************************************************************
+    /* Internal methods, white space and low-level input access
+    /**********************************************************************
+     */
+
+    /**
+     * Method that skips all white space (including line breaks) and comments,
+     * and returns the next byte without consuming it; or -1 if end-of-input
+     * is reached.
+     */
+    protected int _skipWhitespace() throws IOException
+    {
+        while (_inputPtr < _inputEnd || _loadMore()) {
+            int c = _inputBuffer[_inputPtr] & 0xFF;
+            switch (c) {
+            case ' ':
+            case '\t':
+                ++_inputPtr;
+                continue;
+            case '\r':
+            case '\n':
+                _skipLineBreak(c);
+                continue;
+            case '#':
+                _skipToEndOfLine();
+                continue;
+            case 0xEF: // UTF-8 BOM?
+                if (_peekByte(1) == 0xBB && _peekByte(2) == 0xBF) {
+                    _inputPtr += 3;
+                    continue;
+                }
+                break;
+            }
+            return c;
+        }
+        return -1;
+    }
+
+    /**
+     * Skips spaces and tabs (but not line breaks); returns next byte without
+     * consuming it, or -1 for end-of-input
+     */
+    protected int _skipSpacesOnLine() throws IOException
+    {
+        while (_inputPtr < _inputEnd || _loadMore()) {
+            int c = _inputBuffer[_inputPtr] & 0xFF;
+            if (c != ' ' && c != '\t') {
+                return c;
+            }
+            ++_inputPtr;
+        }
+        return -1;
+    }
+
+    protected void _skipToEndOfLine() throws IOException
+    {
+        while (_inputPtr < _inputEnd || _loadMore()) {
+            int c = _inputBuffer[_inputPtr];
+            if (c == '\r' || c == '\n') {
+                return;
+            }
+            ++_inputPtr;
+        }
+    }
+
+    /**
+     * Method called to consume a line break (given its first byte), and update
+     * row information
+     */
+    protected void _skipLineBreak(int c) throws IOException
+    {
+        ++_inputPtr;
+        if (c == '\r' && _peekByte(0) == '\n') {
+            ++_inputPtr;
+        }
+        ++_currInputRow;
+        _currInputRowStart = _inputPtr;
+        _atLineStart = true;
+    }
+
+    /**
+     * Reads a sequence of non-blank characters (stopping at flow indicators
+     * if so specified), as used for directives and tags.
+     */
+    private String _scanToken(boolean stopAtFlowIndicator) throws IOException
+    {
+        StringBuilder sb = new StringBuilder();
+        _scanToken(sb, stopAtFlowIndicator);
+        return sb.toString();
+    }
+
+    private void _scanToken(StringBuilder sb, boolean stopAtFlowIndicator) throws IOException
+    {
+        while (true) {
+            int c = _peekByte(0);
+            if (_isBlankOrEnd(c) || (stopAtFlowIndicator && _isFlowIndicator(c))) {
+                break;
+            }
+            ++_inputPtr;
+            _appendTagChar(sb, c);
+        }
+    }
+
+    /**
+     * Helper method for finding fully resolved tag for given tag shorthand, if
+     * it has been seen recently (in the current document); this avoids construction
+     * of tag Strings for documents that use small number of distinct tags.
+     */
+    private String _findRecentTag(StringBuilder shorthand)
+    {
+        final String[] tokens = _recentTagTokens;
+        for (int i = 0, end = _recentTagCount; i < end; ++i) {
+            if (tokens[i].contentEquals(shorthand)) {
+                return _recentTags[i];
+            }
+        }
+        return null;
+    }
+
+    private void _addRecentTag(String shorthand, String tag)
+    {
+        int ix = _recentTagNext;
+        _recentTagTokens[ix] = shorthand;
+        _recentTags[ix] = tag;
+        _recentTagNext = (ix + 1) % _recentTagTokens.length;
+        if (_recentTagCount < _recentTagTokens.length) {
+            ++_recentTagCount;
+        }
+    }
+
+    /**
+     * Method called when tag handles change (that is, at document boundaries,
+     * and for <code>%TAG</code> directives), as resolution of shorthands depends on them.
+     */
+    private void _resetRecentTags()
+    {
+        _recentTagCount = 0;
+        _recentTagNext = 0;
+    }
+
+    private int _nextByteInLine() throws IOException
+    {
+        int c = _peekByte(0);
+        if (c == '\r' || c == '\n') {
+            return -1;
+        }
+        if (c >= 0) {
+            ++_inputPtr;
+        }
+        return c;
+    }
+
+    /**
+     * Method that checks whether we are at a "---" or "..." marker (which has
+     * to be at start of line, something caller has to verify)
+     */
+    protected boolean _atDocumentMarker(int c) throws IOException
+    {
+        return (c == '-' || c == '.')
+                && (_peekByte(1) == c) && (_peekByte(2) == c)
+                && _followedByBlank(3);
+    }
+
+    /**
+     * Method called after a scalar (or alias) to see if it is followed by
+     * the mapping value indicator on the same line; if so, pointer is
+     * left at the colon.
+     */
+    protected boolean _atImplicitKey(boolean adjacentAllowed) throws IOException
+    {
+        int c = _skipSpacesOnLine();
+        if (c == ':') {
+            if (_followedByBlank(1)) {
+                return true;
+            }
+            if (_flowLevel > 0) {
+                return adjacentAllowed || _isFlowIndicator(_peekByte(1));
+            }
+        }
+        return false;
+    }
+
+    protected boolean _isSequenceEntry(int c) throws IOException {
+        return (c == '-') && _followedByBlank(1);
+    }
+
+    private boolean _followedByBlank(int offset) throws IOException {
+        return _isBlankOrEnd(_peekByte(offset));
+    }
+
+    private final static boolean _isBlankOrEnd(int c) {
+        return (c <= ' ') && (c == ' ' || c == '\t' || c == '\r' || c == '\n' || c < 0);
+    }
+
+    private final static boolean _isFlowIndicator(int c) {
+        return (c == ',') || (c == '[') || (c == ']') || (c == '{') || (c == '}');
+    }
+
+    /**
+     * Returns byte at given offset from the current input pointer, without
+     * consuming anything; or -1 if end-of-input would be reached.
+     */
+    protected final int _peekByte(int offset) throws IOException
+    {
+        int ix = _inputPtr + offset;
+        if (ix >= _inputEnd) {
+            if (!_loadToHaveAtLeast(offset+1)) {
+                return -1;
+            }
+            ix = _inputPtr + offset;
+        }
+        return _inputBuffer[ix] & 0xFF;
+    }
+
+    protected boolean _loadMore() throws IOException
+    {
+        if (_inputStream != null) {
+            _currInputProcessed += _inputEnd;
+            _currInputRowStart -= _inputEnd;
+            int count = _inputStream.read(_inputBuffer, 0, _inputBuffer.length);
+            if (count > 0) {
+                _inputPtr = 0;
+                _inputEnd = count;
+                return true;
+            }
+            _inputPtr = _inputEnd = 0;
+            // End of input; close here  to free resources asap
+            _closeInput();
+            // Should never return 0, so let's fail
+            if (count == 0) {
+                throw new IOException("InputStream.read() returned 0 characters when trying to read "+_inputBuffer.length+" bytes");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Helper method that will try to load at least specified number bytes in
+     * input buffer, possible moving existing data around if necessary
+     */
+    protected boolean _loadToHaveAtLeast(int minAvailable) throws IOException
+    {
+        // No input stream, no leading (either we are closed, or have non-stream input source)
+        if (_inputStream == null) {
+            return false;
+        }
+        // Need to move remaining data in front?
+        int amount = _inputEnd - _inputPtr;
+        if (amount > 0 && _inputPtr > 0) {
+            System.arraycopy(_inputBuffer, _inputPtr, _inputBuffer, 0, amount);
+        }
+        _currInputProcessed += _inputPtr;
+        _currInputRowStart -= _inputPtr;
+        _inputEnd = amount;
+        _inputPtr = 0;
+        while (_inputEnd < minAvailable) {
+            int count = _inputStream.read(_inputBuffer, _inputEnd, _inputBuffer.length - _inputEnd);
+            if (count < 1) {
+                // End of input
+                _closeInput();
+                // Should never return 0, so let's fail
+                if (count == 0) {
+                    throw new IOException("InputStream.read() returned 0 characters when trying to read "+amount+" bytes");
+                }
+                return false;
+            }
+            _inputEnd += count;
+        }
+        return true;
+    }
+
+    /*
+    /**********************************************************************
+    /* Native id (type id) access, error reporting
+    /**********************************************************************
+     */
+
+    @Override
+    public String getTypeId() throws IOException, JsonGenerationException
+    {
+        String tag = (_implicitTag == null) ? _currentTag : _implicitTag;
+        return (tag == null) ? null : _tagCache.find(tag).typeId;
+    }
+}
@@ -0,0 +1,154 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+
+/**
+ * Iterator for lazily binding documents of multi-document YAML content, one
+ * document at a time. Unlike {@link com.fasterxml.jackson.databind.MappingIterator},
+ * each document is bound using a new deserialization context, and parser
+ * releases anchor information at the start of each document, so that no state
+ * accumulates across documents regardless of their number.
+ *<p>
+ * Instances are constructed using {@link YAMLMapper#readDocuments}.
+ *
+ * @since 2.9
+ */
+public class YAMLDocumentIterator<T> implements Iterator<T>, Closeable
+{
+    protected final ObjectReader _reader;
+
+    protected final YAMLParser _parser;
+
+    /**
+     * Flag that indicates whether next document has been located, with parser
+     * pointing to its first token.
+     */
+    protected boolean _hasNext;
+
+    protected boolean _closed;
+
+    protected YAMLDocumentIterator(ObjectReader r, YAMLParser p)
+    {
+        _reader = r;
+        _parser = p;
+        p.enable(YAMLParser.Feature.EXPOSE_DOCUMENT_BOUNDARIES);
+    }
+
+    /*
+    /**********************************************************************
+    /* Iterator implementation
+    /**********************************************************************
+     */
+
+    @Override
+    public boolean hasNext()
+    {
+        try {
+            return hasNextDocument();
+        } catch (JsonMappingException e) {
+            throw new RuntimeJsonMappingException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public T next()
+    {
+        try {
+            return nextDocument();
+        } catch (JsonMappingException e) {
+            throw new RuntimeJsonMappingException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (!_closed) {
+            _closed = true;
+            _parser.close();
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Extended API
+    /**********************************************************************
+     */
+
+    /**
+     * Equivalent of {@link #hasNext} but one that may throw checked
+     * exceptions from parsing.
+     */
+    public boolean hasNextDocument() throws IOException
+    {
+        if (_hasNext) {
+            return true;
+        }
+        if (_closed) {
+            return false;
+        }
+        while (true) {
+            JsonToken t = _parser.nextToken();
+            if (t != null) {
+                _hasNext = true;
+                return true;
+            }
+            // either end of a document (if so, just advance), or end of content
+            if (_parser.isClosed()) {
+                close();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Equivalent of {@link #next} but one that may throw checked
+     * exceptions from parsing and binding.
+     */
+    public T nextDocument() throws IOException
+    {
+        if (!hasNextDocument()) {
+            throw new NoSuchElementException();
+        }
+        _hasNext = false;
+        // note: end-of-document marker is consumed by the next call to `hasNextDocument()`
+        return _reader.readValue(_parser);
+    }
+
+    /**
+     * Accessor for index of the document last returned (or, if called after
+     * {@link #hasNext} but before {@link #next}, the next document), starting with 0.
+     */
+    public int getDocumentIndex() {
+        return _parser.getDocumentIndex();
+    }
+
+    /**
+     * Accessor for location of the start of document last returned (or, if called after
+     * {@link #hasNext} but before {@link #next}, the next document).
+     */
+    public JsonLocation getDocumentStartLocation() {
+        return _parser.getDocumentStartLocation();
+    }
+
+    public YAMLParser getParser() {
+        return _parser;
+    }
+}
@@ -0,0 +1,147 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.util.Arrays;
+
+/**
+ * Helper class for locating boundaries of documents within multi-document
+ * YAML content, without actually parsing it, so that documents can be
+ * parsed independently (and in parallel).
+ *<p>
+ * Scanning only considers document markers (<code>---</code> and <code>...</code>)
+ * at the start of a line: as per YAML specification these can not occur
+ * within content of a document (including block scalars, which must be indented
+ * within a root-level document, and flow scalars, which must not contain them),
+ * so no tracking of scalar state is needed.
+ * Directives (lines starting with <code>%</code>) are included in the
+ * document that follows them.
+ *<p>
+ * Only ASCII-compatible encodings (UTF-8) are supported: content that
+ * starts with UTF-16 or UTF-32 byte-order mark (or null byte) can not be split.
+ *
+ * @since 2.9
+ */
+public final class YAMLDocumentSplitter
+{
+    private YAMLDocumentSplitter() { }
+
+    /**
+     * Method for finding boundaries of documents within given content.
+     *
+     * @return Array that contains start (inclusive) and end (exclusive) offset
+     *    of each document, so that length of array is twice the number of
+     *    documents found. Segments that contain no document (only comments,
+     *    directives or white space) are not included.
+     *    Null if content is in an encoding that is not supported.
+     */
+    public static int[] findDocuments(byte[] buf, int offset, int len)
+    {
+        final int end = offset + len;
+        int[] result = new int[8];
+        int count = 0;
+
+        if (len > 0) {
+            int b = buf[offset] & 0xFF;
+            if (b == 0x00 || b == 0xFE || b == 0xFF) { // UTF-16/32, can not scan
+                return null;
+            }
+        }
+        int ptr = offset;
+        // skip UTF-8 BOM, if any, to recognize possible start marker
+        if (len >= 3 && (buf[ptr] & 0xFF) == 0xEF
+                && (buf[ptr+1] & 0xFF) == 0xBB && (buf[ptr+2] & 0xFF) == 0xBF) {
+            ptr += 3;
+        }
+        int segmentStart = offset;
+        // whether current segment contains a document (content or start marker)
+        boolean hasContent = false;
+
+        while (ptr < end) {
+            final int lineStart = ptr;
+            // find end of the line first
+            int eol = lineStart;
+            while (eol < end && buf[eol] != '\n' && buf[eol] != '\r') {
+                ++eol;
+            }
+            int next = eol;
+            if (next < end) {
+                if (buf[next] == '\r' && (next+1) < end && buf[next+1] == '\n') {
+                    ++next;
+                }
+                ++next;
+            }
+            ptr = next;
+
+            switch (_lineType(buf, lineStart, eol)) {
+            case LINE_DOC_START:
+                if (hasContent) {
+                    if (count == result.length) {
+                        result = Arrays.copyOf(result, count << 1);
+                    }
+                    result[count++] = segmentStart;
+                    result[count++] = lineStart;
+                    segmentStart = lineStart;
+                }
+                hasContent = true;
+                break;
+            case LINE_DOC_END:
+                if (hasContent) {
+                    if (count == result.length) {
+                        result = Arrays.copyOf(result, count << 1);
+                    }
+                    result[count++] = segmentStart;
+                    result[count++] = next;
+                    hasContent = false;
+                }
+                segmentStart = next;
+                break;
+            case LINE_CONTENT:
+                hasContent = true;
+                break;
+            default: // blank, comment, directive (if not within a document)
+            }
+        }
+        if (hasContent) {
+            if (count == result.length) {
+                result = Arrays.copyOf(result, count + 2);
+            }
+            result[count++] = segmentStart;
+            result[count++] = end;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private final static int LINE_EMPTY = 0;
+    private final static int LINE_CONTENT = 1;
+    private final static int LINE_DOC_START = 2;
+    private final static int LINE_DOC_END = 3;
+
+    private static int _lineType(byte[] buf, int start, int end)
+    {
+        if (start == end) {
+            return LINE_EMPTY;
+        }
+        byte b = buf[start];
+        if (b == '-' || b == '.') {
+            if ((start + 3) <= end && buf[start+1] == b && buf[start+2] == b
+                    && ((start + 3) == end || buf[start+3] == ' ' || buf[start+3] == '\t')) {
+                return (b == '-') ? LINE_DOC_START : LINE_DOC_END;
+            }
+            return LINE_CONTENT;
+        }
+        // Directives only allowed outside documents; within a document, content
+        // line can not start with '%' (as it is a reserved indicator)
+        if (b == '%') {
+            return LINE_EMPTY;
+        }
+        for (int i = start; i < end; ++i) {
+            b = buf[i];
+            if (b == '#') {
+                return LINE_EMPTY;
+            }
+            if (b != ' ' && b != '\t') {
+                return LINE_CONTENT;
+            }
+        }
+        return LINE_EMPTY;
+    }
+}
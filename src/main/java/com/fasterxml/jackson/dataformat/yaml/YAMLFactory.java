@@ -2,7 +2,12 @@ package com.fasterxml.jackson.dataformat.yaml;
 
 import java.io.*;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 import org.yaml.snakeyaml.DumperOptions;
 
@@ -10,6 +15,7 @@ import com.fasterxml.jackson.core.*;
 import com.fasterxml.jackson.core.format.InputAccessor;
 import com.fasterxml.jackson.core.format.MatchStrength;
 import com.fasterxml.jackson.core.io.IOContext;
+import com.fasterxml.jackson.core.sym.CharsToNameCanonicalizer;
 
 @SuppressWarnings("resource")
 public class YAMLFactory extends JsonFactory
@@ -47,7 +53,78 @@ public class YAMLFactory extends JsonFactory
     protected int _yamlParserFeatures = DEFAULT_YAML_PARSER_FEATURE_FLAGS;
 
     protected int _yamlGeneratorFeatures = DEFAULT_YAML_GENERATOR_FEATURE_FLAGS;
-    
+
+    /**
+     * Maximum estimated size (in bytes) of anchored content each parser may
+     * retain for replaying aliases, when {@link YAMLParser.Feature#REPLAY_ALIASES}
+     * is enabled.
+     *
+     * @since 2.9
+     */
+    protected int _maxAnchorReplaySize = AnchorReplayBuffer.DEFAULT_MAX_SIZE;
+
+    /**
+     * Limits for anchors and aliases parsers accept, to bound resources used
+     * for untrusted content: see {@link #setMaxAnchors}, {@link #setMaxAliases}
+     * and {@link #setMaxAliasExpansionRatio}.
+     *
+     * @since 2.9
+     */
+    protected int _maxAnchors = YAMLParser.DEFAULT_MAX_ANCHORS;
+
+    protected int _maxAliases = YAMLParser.DEFAULT_MAX_ALIASES;
+
+    /**
+     * Whether {@link #_maxAnchors} and {@link #_maxAliases} have been explicitly
+     * set: if not, default limits only apply when aliases are expanded.
+     *
+     * @since 2.9
+     */
+    protected boolean _maxAnchorsSet, _maxAliasesSet;
+
+    protected int _maxAliasExpansionRatio = YAMLParser.DEFAULT_MAX_ALIAS_EXPANSION_RATIO;
+
+    /**
+     * Minimum size (in bytes) of files for which parsers read memory-mapped
+     * content (see {@link #setFileMappingThreshold}); negative if files are
+     * never mapped.
+     *
+     * @since 2.9
+     */
+    protected long _fileMappingThreshold = -1L;
+
+    /**
+     * Cache of resolved tags shared by parsers this factory constructs
+     *
+     * @since 2.9
+     */
+    protected final YAMLTagCache _tagCache = new YAMLTagCache();
+
+    /**
+     * Resolver for implicit types of plain scalars, shared by parsers this
+     * factory constructs
+     *
+     * @since 2.9
+     */
+    protected YAMLScalarResolver _scalarResolver = YAMLScalarResolver.DEFAULT;
+
+    /**
+     * Maximum number of anchor replay buffers (and merge key trackers) of closed
+     * parsers retained for reuse; 0 if they are not pooled
+     * (see {@link #setReplayBufferPoolSize}).
+     *
+     * @since 2.9
+     */
+    protected int _replayBufferPoolSize;
+
+    /**
+     * Pool of anchor replay buffers (and merge key trackers) of closed parsers
+     * available for reuse, if pooling is enabled
+     *
+     * @since 2.9
+     */
+    protected transient ReplayBufferPool _replayBufferPool;
+
     /*
     /**********************************************************************
     /* Factory construction, configuration
@@ -89,6 +166,16 @@ public class YAMLFactory extends JsonFactory
         _version = src._version;
         _yamlParserFeatures = src._yamlParserFeatures;
         _yamlGeneratorFeatures = src._yamlGeneratorFeatures;
+        _maxAnchorReplaySize = src._maxAnchorReplaySize;
+        _maxAnchors = src._maxAnchors;
+        _maxAliases = src._maxAliases;
+        _maxAnchorsSet = src._maxAnchorsSet;
+        _maxAliasesSet = src._maxAliasesSet;
+        _maxAliasExpansionRatio = src._maxAliasExpansionRatio;
+        _fileMappingThreshold = src._fileMappingThreshold;
+        _scalarResolver = src._scalarResolver;
+        // configuration is copied, but pooled parsers are not shared
+        setReplayBufferPoolSize(src._replayBufferPoolSize);
     }
 
     @Override
@@ -131,9 +218,13 @@ public class YAMLFactory extends JsonFactory
     /**********************************************************
      */
 
-    // No, we can't make use of char[] optimizations
+    // Yes: parsers can expose textual content as char[] (since 2.9)
     @Override
-    public boolean canUseCharArrays() { return false; }
+    public boolean canUseCharArrays() { return true; }
+
+    // Yes, we do support non-blocking parsing (since 2.9)
+    @Override
+    public boolean canParseAsync() { return true; }
 
     // Add these in 2.7:
 
@@ -245,6 +336,176 @@ public class YAMLFactory extends JsonFactory
         return (_yamlParserFeatures & f.getMask()) != 0;
     }
 
+    /**
+     * Method for specifying maximum estimated size (in bytes) of anchored content
+     * that each parser may retain for replaying aliases and merging mappings, when
+     * {@link YAMLParser.Feature#REPLAY_ALIASES} or {@link YAMLParser.Feature#MERGE_KEYS}
+     * is enabled.
+     * Default value is {@link AnchorReplayBuffer#DEFAULT_MAX_SIZE}.
+     *
+     * @since 2.9
+     */
+    public YAMLFactory setMaxAnchorReplaySize(int maxSize) {
+        _maxAnchorReplaySize = maxSize;
+        return this;
+    }
+
+    /**
+     * @since 2.9
+     */
+    public int getMaxAnchorReplaySize() {
+        return _maxAnchorReplaySize;
+    }
+
+    /**
+     * Method for specifying maximum number of anchors a parser accepts in a single
+     * document (of multi-document content); exceeding
+     * it results in a {@link JacksonYAMLParseException}.
+     * Default value is {@link YAMLParser#DEFAULT_MAX_ANCHORS}, but unless limit is
+     * explicitly set, it only applies if aliases are expanded (that is, if
+     * {@link YAMLParser.Feature#REPLAY_ALIASES} or {@link YAMLParser.Feature#MERGE_KEYS}
+     * is enabled); <code>Integer.MAX_VALUE</code> means "no limit".
+     *
+     * @since 2.9
+     */
+    public YAMLFactory setMaxAnchors(int maxAnchors) {
+        _maxAnchors = maxAnchors;
+        _maxAnchorsSet = true;
+        return this;
+    }
+
+    /**
+     * @since 2.9
+     */
+    public int getMaxAnchors() {
+        return _maxAnchors;
+    }
+
+    /**
+     * Method for specifying maximum number of aliases a parser accepts in a single
+     * document (of multi-document content); exceeding
+     * it results in a {@link JacksonYAMLParseException}.
+     * Default value is {@link YAMLParser#DEFAULT_MAX_ALIASES}, but unless limit is
+     * explicitly set, it only applies if aliases are expanded (that is, if
+     * {@link YAMLParser.Feature#REPLAY_ALIASES} or {@link YAMLParser.Feature#MERGE_KEYS}
+     * is enabled); <code>Integer.MAX_VALUE</code> means "no limit".
+     *
+     * @since 2.9
+     */
+    public YAMLFactory setMaxAliases(int maxAliases) {
+        _maxAliases = maxAliases;
+        _maxAliasesSet = true;
+        return this;
+    }
+
+    /**
+     * @since 2.9
+     */
+    public int getMaxAliases() {
+        return _maxAliases;
+    }
+
+    /**
+     * Method for specifying maximum ratio of tokens a parser produces (including
+     * ones replayed for aliases) to tokens actually read, when
+     * {@link YAMLParser.Feature#REPLAY_ALIASES} is enabled; exceeding it results
+     * in a {@link JacksonYAMLParseException}. Ratio is only checked after the first
+     * 10000 tokens, to allow reasonable use of aliases in small documents.
+     * Default value is {@link YAMLParser#DEFAULT_MAX_ALIAS_EXPANSION_RATIO}.
+     *
+     * @since 2.9
+     */
+    public YAMLFactory setMaxAliasExpansionRatio(int ratio) {
+        _maxAliasExpansionRatio = ratio;
+        return this;
+    }
+
+    /**
+     * @since 2.9
+     */
+    public int getMaxAliasExpansionRatio() {
+        return _maxAliasExpansionRatio;
+    }
+
+    /**
+     * Method for specifying minimum size (in bytes) of files that parsers
+     * constructed with {@link #createParser(File)} and {@link #createParser(Path)}
+     * memory-map, instead of reading through a stream: for large files this avoids
+     * per-read system calls and copying through intermediate buffers.
+     * Negative value (default) means that files are never mapped; 0 that
+     * all files are mapped. Files larger than 2 gigabytes are never mapped.
+     *<p>
+     * Note that mapped content is released only when mapped buffer is garbage collected,
+     * and on some platforms (Windows) file can not be deleted or truncated until
+     * then: this is why mapping is disabled by default.
+     *
+     * @since 2.9
+     */
+    public YAMLFactory setFileMappingThreshold(long minSize) {
+        _fileMappingThreshold = minSize;
+        return this;
+    }
+
+    /**
+     * @since 2.9
+     */
+    public long getFileMappingThreshold() {
+        return _fileMappingThreshold;
+    }
+
+    /**
+     * Method for specifying resolver of implicit types of plain scalars; needed
+     * to use custom implicit types (see {@link YAMLScalarResolver#withImplicitType}).
+     * Resolver is shared by all parsers factory constructs.
+     * Default value is {@link YAMLScalarResolver#DEFAULT}.
+     *
+     * @since 2.9
+     */
+    public YAMLFactory setScalarResolver(YAMLScalarResolver resolver) {
+        _scalarResolver = (resolver == null) ? YAMLScalarResolver.DEFAULT : resolver;
+        return this;
+    }
+
+    /**
+     * @since 2.9
+     */
+    public YAMLScalarResolver getScalarResolver() {
+        return _scalarResolver;
+    }
+
+    /**
+     * Method for enabling pooling of anchor replay buffers and merge key trackers,
+     * helper objects that grow with content and are only used when
+     * {@link YAMLParser.Feature#REPLAY_ALIASES} or {@link YAMLParser.Feature#MERGE_KEYS}
+     * is enabled: up to specified number of them from closed parsers
+     * are retained, and handed over to parsers constructed later.
+     * 0 (default) means that they are not pooled; without either feature
+     * pooling has no effect.
+     *<p>
+     * Parsers themselves (and their input and text buffers, which are recycled
+     * separately) are never pooled, as callers may hold on to them after
+     * closing. Helper objects are returned to the pool by {@link JsonParser#close}
+     * (only once, and not when end of input is reached), so parsers need to be
+     * closed explicitly for pooling to be effective; closed parsers can not be
+     * reset (see {@link YAMLParser#reset(Reader)}). To avoid most of setup cost
+     * when parsing many small documents, a single parser may be reset for
+     * each document instead.
+     *
+     * @since 2.9
+     */
+    public YAMLFactory setReplayBufferPoolSize(int maxSize) {
+        _replayBufferPoolSize = Math.max(0, maxSize);
+        _replayBufferPool = (_replayBufferPoolSize > 0) ? new ReplayBufferPool(_replayBufferPoolSize) : null;
+        return this;
+    }
+
+    /**
+     * @since 2.9
+     */
+    public int getReplayBufferPoolSize() {
+        return _replayBufferPoolSize;
+    }
+
     /*
     /**********************************************************
     /* Configuration, generator settings
@@ -298,15 +559,53 @@ public class YAMLFactory extends JsonFactory
 
     @Override
     public YAMLParser createParser(String content) throws IOException {
+        if (YAMLParser.Feature.USE_UTF8_PARSER.enabledIn(_yamlParserFeatures)) {
+            return createParser(content.getBytes(UTF8));
+        }
         return createParser(new StringReader(content));
     }
 
     @Override
     public YAMLParser createParser(File f) throws IOException {
+        if (_shouldMapFile(f.length())) {
+            return _createMappedParser(new RandomAccessFile(f, "r").getChannel(), f);
+        }
         IOContext ctxt = _createContext(f, true);
         return _createParser(_decorate(new FileInputStream(f), ctxt), ctxt);
     }
 
+    /**
+     * Method for constructing parser for reading contents of given file; file may be
+     * memory-mapped, depending on {@link #setFileMappingThreshold}.
+     *
+     * @since 2.9
+     */
+    public YAMLParser createParser(Path p) throws IOException {
+        if (_shouldMapFile(Files.size(p))) {
+            return _createMappedParser(FileChannel.open(p, StandardOpenOption.READ), p);
+        }
+        IOContext ctxt = _createContext(p, true);
+        return _createParser(_decorate(Files.newInputStream(p), ctxt), ctxt);
+    }
+
+    /**
+     * Method for constructing parser for reading contents of given buffer, from
+     * its current position to its limit; position of the buffer is not modified.
+     * Content of heap buffers is read directly from the backing array; that of
+     * direct (including memory-mapped) buffers with bulk copies, in chunks.
+     *
+     * @since 2.9
+     */
+    public YAMLParser createParser(ByteBuffer buffer) throws IOException
+    {
+        if (buffer.hasArray()) {
+            return createParser(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                    buffer.remaining());
+        }
+        IOContext ctxt = _createContext(buffer, false);
+        return _createParser(_decorate(new ByteBufferInputStream(buffer.duplicate()), ctxt), ctxt);
+    }
+
     @Override
     public YAMLParser createParser(URL url) throws IOException
     {
@@ -330,26 +629,20 @@ public class YAMLFactory extends JsonFactory
 
     @Override // since 2.4
     public YAMLParser createParser(char[] data) throws IOException {
-        return createParser(new CharArrayReader(data, 0, data.length));
+        return createParser(data, 0, data.length);
     }
     
     @Override // since 2.4
     public YAMLParser createParser(char[] data, int offset, int len) throws IOException {
+        if (YAMLParser.Feature.USE_UTF8_PARSER.enabledIn(_yamlParserFeatures)) {
+            return createParser(new String(data, offset, len));
+        }
         return createParser(new CharArrayReader(data, offset, len));
     }
 
     @Override
-    public YAMLParser createParser(byte[] data) throws IOException
-    {
-        IOContext ctxt = _createContext(data, true);
-        // [JACKSON-512]: allow wrapping with InputDecorator
-        if (_inputDecorator != null) {
-            InputStream in = _inputDecorator.decorate(ctxt, data, 0, data.length);
-            if (in != null) {
-                return _createParser(in, ctxt);
-            }
-        }
-        return _createParser(data, 0, data.length, ctxt);
+    public YAMLParser createParser(byte[] data) throws IOException {
+        return createParser(data, 0, data.length);
     }
 
     @Override
@@ -366,6 +659,24 @@ public class YAMLFactory extends JsonFactory
         return _createParser(data, offset, len, ctxt);
     }
     
+    /**
+     * Method for constructing a non-blocking parser, to which content is fed using
+     * {@link com.fasterxml.jackson.core.async.ByteArrayFeeder} (accessed through
+     * {@link JsonParser#getNonBlockingInputFeeder()}). Content must be UTF-8 encoded.
+     *<p>
+     * Note that the returned parser is always based on {@link UTF8YAMLParser},
+     * regardless of whether {@link YAMLParser.Feature#USE_UTF8_PARSER} is enabled.
+     *
+     * @since 2.9
+     */
+    @Override
+    public YAMLParser createNonBlockingByteArrayParser() throws IOException
+    {
+        IOContext ctxt = _createContext(null, false);
+        return _initParser(new NonBlockingYAMLParser(ctxt, _parserFeatures, _yamlParserFeatures, _objectCodec,
+                _childSymbols()));
+    }
+
     /*
     /**********************************************************
     /* Overridden generator factory methods (2.1)
@@ -417,28 +728,113 @@ public class YAMLFactory extends JsonFactory
 
     @Override
     protected YAMLParser _createParser(InputStream in, IOContext ctxt) throws IOException {
-        return new YAMLParser(ctxt, _getBufferRecycler(), _parserFeatures, _yamlParserFeatures,
-                _objectCodec, _createReader(in, null, ctxt));
+        if (YAMLParser.Feature.USE_UTF8_PARSER.enabledIn(_yamlParserFeatures)) {
+            return _initParser(new UTF8YAMLParser(ctxt, _parserFeatures, _yamlParserFeatures,
+                    _objectCodec, _childSymbols(),
+                    in, ctxt.allocReadIOBuffer(), 0, 0, true));
+        }
+        return _initParser(new YAMLParser(ctxt, _getBufferRecycler(), _parserFeatures, _yamlParserFeatures,
+                _objectCodec, _createReader(in, null, ctxt), _childSymbols()));
     }
 
     @Override
     protected YAMLParser _createParser(Reader r, IOContext ctxt) throws IOException {
-        return new YAMLParser(ctxt, _getBufferRecycler(), _parserFeatures, _yamlParserFeatures,
-                _objectCodec, r);
+        return _initParser(new YAMLParser(ctxt, _getBufferRecycler(), _parserFeatures, _yamlParserFeatures,
+                _objectCodec, r, _childSymbols()));
     }
 
     // since 2.4
     @Override
     protected YAMLParser _createParser(char[] data, int offset, int len, IOContext ctxt,
             boolean recyclable) throws IOException {
-        return new YAMLParser(ctxt, _getBufferRecycler(), _parserFeatures, _yamlParserFeatures,
-                _objectCodec, new CharArrayReader(data, offset, len));
+        return _initParser(new YAMLParser(ctxt, _getBufferRecycler(), _parserFeatures, _yamlParserFeatures,
+                _objectCodec, new CharArrayReader(data, offset, len),
+                _childSymbols()));
     }
 
     @Override
     protected YAMLParser _createParser(byte[] data, int offset, int len, IOContext ctxt) throws IOException {
-        return new YAMLParser(ctxt, _getBufferRecycler(), _parserFeatures, _yamlParserFeatures,
-                _objectCodec, _createReader(data, offset, len, null, ctxt));
+        if (YAMLParser.Feature.USE_UTF8_PARSER.enabledIn(_yamlParserFeatures)) {
+            return _initParser(new UTF8YAMLParser(ctxt, _parserFeatures, _yamlParserFeatures,
+                    _objectCodec, _childSymbols(),
+                    null, data, offset, offset+len, false));
+        }
+        return _initParser(new YAMLParser(ctxt, _getBufferRecycler(), _parserFeatures, _yamlParserFeatures,
+                _objectCodec, _createReader(data, offset, len, null, ctxt),
+                _childSymbols()));
+    }
+
+    /**
+     * @since 2.9
+     */
+    protected boolean _shouldMapFile(long size) {
+        return (_fileMappingThreshold >= 0L) && (size >= _fileMappingThreshold)
+                && (size <= Integer.MAX_VALUE);
+    }
+
+    /**
+     * Helper method for constructing parser that reads memory-mapped contents of
+     * given file channel; channel is closed once content has been mapped (as
+     * mapping remains valid regardless).
+     *
+     * @since 2.9
+     */
+    protected YAMLParser _createMappedParser(FileChannel ch, Object srcRef) throws IOException
+    {
+        ByteBuffer buffer;
+        try {
+            buffer = ch.map(FileChannel.MapMode.READ_ONLY, 0L, ch.size());
+        } finally {
+            ch.close();
+        }
+        IOContext ctxt = _createContext(srcRef, true);
+        return _createParser(_decorate(new ByteBufferInputStream(buffer), ctxt), ctxt);
+    }
+
+    /**
+     * Helper method for applying factory-level configuration that is not passed
+     * to parser constructors.
+     *
+     * @since 2.9
+     */
+    protected YAMLParser _initParser(YAMLParser p) {
+        final boolean merge = YAMLParser.Feature.MERGE_KEYS.enabledIn(_yamlParserFeatures);
+        final boolean expand = merge || YAMLParser.Feature.REPLAY_ALIASES.enabledIn(_yamlParserFeatures);
+        // default anchor and alias limits only needed if aliases are expanded
+        p._setAliasLimits((expand || _maxAnchorsSet) ? _maxAnchors : Integer.MAX_VALUE,
+                (expand || _maxAliasesSet) ? _maxAliases : Integer.MAX_VALUE,
+                _maxAliasExpansionRatio);
+        p._setTagCache(_tagCache);
+        p._setScalarResolver(_scalarResolver);
+        if (expand) {
+            // pooled helpers of closed parsers are reused, unless size limit has changed
+            final ReplayBufferPool pool = _replayBufferPool;
+            ReplayBufferPool.Helpers helpers = (pool == null) ? null : pool.acquire();
+            AnchorReplayBuffer buffer = (helpers == null) ? null : helpers.anchorBuffer;
+            if ((buffer == null) || (buffer.getMaxSize() != _maxAnchorReplaySize)) {
+                buffer = new AnchorReplayBuffer(_maxAnchorReplaySize);
+            }
+            p._setAnchorReplayBuffer(buffer);
+            if (merge) {
+                MergeKeyTracker tracker = (helpers == null) ? null : helpers.mergeKeys;
+                p._setMergeKeyTracker((tracker == null) ? new MergeKeyTracker() : tracker);
+            }
+            p._setReplayBufferPool(pool);
+        }
+        return p;
+    }
+
+    /**
+     * Helper method for constructing a per-parser child of the root symbol table,
+     * if field names are to be canonicalized; null if not.
+     *
+     * @since 2.9
+     */
+    protected CharsToNameCanonicalizer _childSymbols() {
+        if (JsonFactory.Feature.CANONICALIZE_FIELD_NAMES.enabledIn(_factoryFeatures)) {
+            return _rootCharSymbols.makeChild(_factoryFeatures);
+        }
+        return null;
     }
 
     @Override
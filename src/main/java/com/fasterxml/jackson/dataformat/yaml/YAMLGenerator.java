@@ -112,7 +112,22 @@ public class YAMLGenerator extends GeneratorBase
          *
          * @since 2.9
          */
-        INDENT_ARRAYS(false)
+        INDENT_ARRAYS(false),
+
+        /**
+         * Feature that determines which String values need to be quoted when
+         * {@link #MINIMIZE_QUOTES} is enabled. If enabled, decision is based on YAML 1.2
+         * Core Schema (see {@link YAMLParser.Feature#USE_CORE_SCHEMA}): values are
+         * quoted if and only if they would otherwise be read as nulls, booleans or
+         * numbers, so values like "yes", "on" or "1:30" are written without quotes.
+         * If disabled, only "true" and "false" are quoted (along with numbers, if
+         * {@link #ALWAYS_QUOTE_NUMBERS_AS_STRINGS} is enabled).
+         *<p>
+         * Default value is `false` for backwards compatibility
+         *
+         * @since 2.9
+         */
+        USE_CORE_SCHEMA(false)
         ;
 
         protected final boolean _defaultState;
@@ -509,12 +524,8 @@ public class YAMLGenerator extends GeneratorBase
         }
         _verifyValueWrite("write String value");
         Character style = STYLE_QUOTED;
-        if (Feature.MINIMIZE_QUOTES.enabledIn(_formatFeatures) && !isBooleanContent(text)) {
-          // If this string could be interpreted as a number, it must be quoted.
-            if (Feature.ALWAYS_QUOTE_NUMBERS_AS_STRINGS.enabledIn(_formatFeatures)
-                    && PLAIN_NUMBER_P.matcher(text).matches()) {
-                style = STYLE_QUOTED;
-            } else if (text.indexOf('\n') >= 0) {
+        if (Feature.MINIMIZE_QUOTES.enabledIn(_formatFeatures) && !_needsQuotes(text)) {
+            if (text.indexOf('\n') >= 0) {
                 style = STYLE_LITERAL;
             } else {
                 style = STYLE_PLAIN;
@@ -525,6 +536,23 @@ public class YAMLGenerator extends GeneratorBase
         _writeScalar(text, "string", style);
     }
 
+    /**
+     * Helper method for checking whether String value must be quoted, when
+     * {@link Feature#MINIMIZE_QUOTES} is enabled, to be read back as a String.
+     */
+    private boolean _needsQuotes(String text)
+    {
+        if (Feature.USE_CORE_SCHEMA.enabledIn(_formatFeatures)) {
+            return ScalarClassifier.classifyCore(text) != ScalarClassifier.TYPE_STRING;
+        }
+        if (isBooleanContent(text)) {
+            return true;
+        }
+        // If this string could be interpreted as a number, it must be quoted.
+        return Feature.ALWAYS_QUOTE_NUMBERS_AS_STRINGS.enabledIn(_formatFeatures)
+                && PLAIN_NUMBER_P.matcher(text).matches();
+    }
+
     private boolean isBooleanContent(String text) {
         return text.equals("true") || text.equals("false");
     }
@@ -1,9 +1,15 @@
 package com.fasterxml.jackson.dataformat.yaml;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.concurrent.Executor;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-//import com.fasterxml.jackson.databind.ObjectMapper;
-
 /**
  * Convenience version of {@link ObjectMapper} which is configured
  * with {@link com.fasterxml.jackson.dataformat.yaml.YAMLFactory}.
@@ -83,4 +89,151 @@ public class YAMLMapper extends ObjectMapper
     public final YAMLFactory getFactory() {
         return (YAMLFactory) _jsonFactory;
     }
+
+    /*
+    /**********************************************************************
+    /* Reading multi-document content
+    /**********************************************************************
+     */
+
+    /**
+     * Method for lazily reading documents of multi-document content (separated by
+     * <code>---</code> markers), binding root value of each document as specified
+     * type. Documents are read one at a time, and no state is retained across
+     * documents, so that memory usage does not grow with number of documents.
+     * Underlying input is closed when iterator is closed, or all content has been read.
+     *
+     * @since 2.9
+     */
+    public <T> YAMLDocumentIterator<T> readDocuments(InputStream in, Class<T> valueType)
+        throws IOException
+    {
+        return readDocuments(getFactory().createParser(in), constructType(valueType));
+    }
+
+    /**
+     * @since 2.9
+     */
+    public <T> YAMLDocumentIterator<T> readDocuments(Reader r, Class<T> valueType)
+        throws IOException
+    {
+        return readDocuments(getFactory().createParser(r), constructType(valueType));
+    }
+
+    /**
+     * @since 2.9
+     */
+    public <T> YAMLDocumentIterator<T> readDocuments(File f, Class<T> valueType)
+        throws IOException
+    {
+        return readDocuments(getFactory().createParser(f), constructType(valueType));
+    }
+
+    /**
+     * @since 2.9
+     */
+    public <T> YAMLDocumentIterator<T> readDocuments(YAMLParser p, JavaType valueType)
+        throws IOException
+    {
+        return new YAMLDocumentIterator<T>(readerFor(valueType), p);
+    }
+
+    /**
+     * Method for reading documents of multi-document content in parallel, using
+     * given executor: document boundaries are first located by scanning content
+     * for document markers, after which documents are parsed and bound independently.
+     * Results are returned in document order.
+     * At most <code>2 * Runtime.availableProcessors()</code> documents are read
+     * ahead of the caller.
+     *<p>
+     * Content must be UTF-8 encoded.
+     *
+     * @since 2.9
+     */
+    public <T> YAMLParallelDocumentIterator<T> readDocumentsParallel(byte[] content,
+            Class<T> valueType, Executor executor)
+    {
+        return readDocumentsParallel(content, 0, content.length, constructType(valueType),
+                executor, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param maxPending Maximum number of documents being read, or read but not
+     *    yet returned, at any given time
+     *
+     * @throws IllegalArgumentException If content is not UTF-8 encoded
+     *
+     * @since 2.9
+     */
+    public <T> YAMLParallelDocumentIterator<T> readDocumentsParallel(byte[] content,
+            int offset, int len, JavaType valueType, Executor executor, int maxPending)
+    {
+        return new YAMLParallelDocumentIterator<T>(readerFor(valueType), executor,
+                content, offset, len, maxPending);
+    }
+
+    /*
+    /**********************************************************************
+    /* Reading projected content
+    /**********************************************************************
+     */
+
+    /**
+     * Method for reading only values at specified paths of the content (see
+     * {@link YAMLProjection}), bound as specified type; content outside paths is
+     * skipped without decoding, and reading stops once all paths have been read.
+     * Returns null if none of the paths matched.
+     * Underlying input is closed before returning.
+     *
+     * @since 2.9
+     */
+    public <T> T readProjected(InputStream in, YAMLProjection projection, Class<T> valueType)
+        throws IOException
+    {
+        return readProjected(getFactory().createParser(in), projection, constructType(valueType));
+    }
+
+    /**
+     * @since 2.9
+     */
+    public <T> T readProjected(Reader r, YAMLProjection projection, Class<T> valueType)
+        throws IOException
+    {
+        return readProjected(getFactory().createParser(r), projection, constructType(valueType));
+    }
+
+    /**
+     * @since 2.9
+     */
+    public <T> T readProjected(File f, YAMLProjection projection, Class<T> valueType)
+        throws IOException
+    {
+        return readProjected(getFactory().createParser(f), projection, constructType(valueType));
+    }
+
+    /**
+     * @since 2.9
+     */
+    public <T> T readProjected(byte[] content, YAMLProjection projection, Class<T> valueType)
+        throws IOException
+    {
+        return readProjected(getFactory().createParser(content), projection, constructType(valueType));
+    }
+
+    /**
+     * @since 2.9
+     */
+    public <T> T readProjected(JsonParser p, YAMLProjection projection, JavaType valueType)
+        throws IOException
+    {
+        JsonParser proj = projection.createParser(p);
+        try {
+            if (proj.nextToken() == null) {
+                return null;
+            }
+            return readerFor(valueType).readValue(proj);
+        } finally {
+            proj.close();
+        }
+    }
 }
@@ -0,0 +1,223 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+
+/**
+ * Iterator for reading documents of multi-document YAML content in parallel:
+ * documents are located using {@link YAMLDocumentSplitter}, then parsed and bound
+ * independently using given {@link Executor}. Results are returned in document
+ * order; number of documents being read (or read but not yet returned) at any
+ * given time is limited, so that memory usage does not depend on number of
+ * documents.
+ *<p>
+ * Since each document is parsed separately, locations included in exceptions
+ * are relative to the start of the document: {@link #getDocumentIndex} and
+ * {@link #getDocumentStartOffset} may be used to find the document.
+ *<p>
+ * If the executor rejects a document (for example, because it is saturated or
+ * has been shut down), document is read in the calling thread instead.
+ *<p>
+ * Instances are constructed using {@link YAMLMapper#readDocumentsParallel}.
+ *
+ * @since 2.9
+ */
+public class YAMLParallelDocumentIterator<T> implements Iterator<T>, Closeable
+{
+    protected final ObjectReader _reader;
+
+    protected final Executor _executor;
+
+    protected final byte[] _content;
+
+    /**
+     * Start and end offsets of documents, as returned by
+     * {@link YAMLDocumentSplitter#findDocuments}
+     */
+    protected final int[] _documents;
+
+    /**
+     * Maximum number of documents submitted to executor but not yet returned
+     */
+    protected final int _maxPending;
+
+    protected final ArrayDeque<FutureTask<T>> _pending;
+
+    /**
+     * Index of the next document to submit for reading
+     */
+    protected int _nextToSubmit;
+
+    /**
+     * Index of the next document to return
+     */
+    protected int _nextToReturn;
+
+    protected boolean _closed;
+
+    protected YAMLParallelDocumentIterator(ObjectReader r, Executor executor,
+            byte[] content, int offset, int len, int maxPending)
+    {
+        if (maxPending < 1) {
+            throw new IllegalArgumentException("maxPending must be at least 1 (was "+maxPending+")");
+        }
+        _documents = YAMLDocumentSplitter.findDocuments(content, offset, len);
+        if (_documents == null) {
+            throw new IllegalArgumentException("Parallel reading only supported for UTF-8 encoded content");
+        }
+        _reader = r;
+        _executor = executor;
+        _content = content;
+        _maxPending = maxPending;
+        _pending = new ArrayDeque<FutureTask<T>>(maxPending);
+    }
+
+    /*
+    /**********************************************************************
+    /* Iterator implementation
+    /**********************************************************************
+     */
+
+    @Override
+    public boolean hasNext() {
+        return !_closed && (_nextToReturn < getDocumentCount());
+    }
+
+    @Override
+    public T next()
+    {
+        try {
+            return nextDocument();
+        } catch (JsonMappingException e) {
+            throw new RuntimeJsonMappingException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Method for closing iterator: documents not yet read are cancelled.
+     */
+    @Override
+    public void close()
+    {
+        if (!_closed) {
+            _closed = true;
+            for (FutureTask<T> task : _pending) {
+                task.cancel(false);
+            }
+            _pending.clear();
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Extended API
+    /**********************************************************************
+     */
+
+    /**
+     * Equivalent of {@link #next} but one that may throw checked
+     * exceptions from parsing and binding; exception thrown is the one thrown
+     * when reading the document.
+     */
+    public T nextDocument() throws IOException
+    {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        _submit();
+        FutureTask<T> task = _pending.removeFirst();
+        ++_nextToReturn;
+        // keep executor busy while caller handles the result
+        _submit();
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException ie = new InterruptedIOException("Interrupted while waiting for document #"
+                    +(_nextToReturn-1));
+            ie.initCause(e);
+            throw ie;
+        } catch (ExecutionException e) {
+            Throwable t = e.getCause();
+            if (t instanceof IOException) {
+                throw (IOException) t;
+            }
+            if (t instanceof RuntimeException) {
+                throw (RuntimeException) t;
+            }
+            if (t instanceof Error) {
+                throw (Error) t;
+            }
+            throw new RuntimeException(t.getMessage(), t);
+        }
+    }
+
+    public int getDocumentCount() {
+        return _documents.length >> 1;
+    }
+
+    /**
+     * Accessor for index of the document last returned (or being returned, if
+     * reading failed), starting with 0; -1 if none yet.
+     */
+    public int getDocumentIndex() {
+        return _nextToReturn - 1;
+    }
+
+    /**
+     * Accessor for byte offset of the start of the document last returned
+     * (or being returned, if reading failed); -1 if none yet.
+     */
+    public int getDocumentStartOffset() {
+        return (_nextToReturn == 0) ? -1 : _documents[(_nextToReturn - 1) << 1];
+    }
+
+    /*
+    /**********************************************************************
+    /* Internal methods
+    /**********************************************************************
+     */
+
+    protected void _submit()
+    {
+        final int count = getDocumentCount();
+        while ((_pending.size() < _maxPending) && (_nextToSubmit < count)) {
+            final int start = _documents[_nextToSubmit << 1];
+            final int end = _documents[(_nextToSubmit << 1) + 1];
+            FutureTask<T> task = new FutureTask<T>(new Callable<T>() {
+                @Override
+                public T call() throws Exception {
+                    return _reader.readValue(_content, start, end - start);
+                }
+            });
+            try {
+                _executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                // no need to fail: just read it in the calling thread
+                task.run();
+            }
+            _pending.addLast(task);
+            ++_nextToSubmit;
+        }
+    }
+}
@@ -7,19 +7,18 @@ import java.util.regex.Pattern;
 
 import org.yaml.snakeyaml.error.Mark;
 import org.yaml.snakeyaml.events.*;
-import org.yaml.snakeyaml.nodes.NodeId;
-import org.yaml.snakeyaml.nodes.Tag;
 import org.yaml.snakeyaml.parser.ParserImpl;
 import org.yaml.snakeyaml.reader.StreamReader;
 
 import com.fasterxml.jackson.core.*;
 import com.fasterxml.jackson.core.base.ParserBase;
 import com.fasterxml.jackson.core.io.IOContext;
+import com.fasterxml.jackson.core.json.DupDetector;
+import com.fasterxml.jackson.core.json.JsonReadContext;
+import com.fasterxml.jackson.core.sym.CharsToNameCanonicalizer;
 import com.fasterxml.jackson.core.util.BufferRecycler;
 import com.fasterxml.jackson.core.util.ByteArrayBuilder;
 
-import org.yaml.snakeyaml.resolver.Resolver;
-
 /**
  * {@link JsonParser} implementation used to expose YAML documents
  * in form that allows other Jackson functionality to process YAML content,
@@ -32,6 +31,183 @@ public class YAMLParser extends ParserBase
      */
     public enum Feature implements FormatFeature // in 2.9
     {
+        /**
+         * Feature that determines whether byte-based input (<code>InputStream</code>,
+         * <code>byte[]</code>, <code>File</code>, <code>URL</code>; as well as
+         * <code>String</code> and <code>char[]</code> content, which is first encoded
+         * as UTF-8) is decoded by Jackson's own {@link UTF8YAMLParser} instead
+         * of SnakeYAML. Doing so avoids conversion of input into characters
+         * and code points, and creation of intermediate event objects; text of
+         * scalar values is also kept in a segmented buffer, and only constructed
+         * as a {@link String} when requested (see {@link YAMLParser#getText(Writer)}).
+         * Input given as {@link java.io.Reader} is always decoded using SnakeYAML.
+         *<p>
+         * Note that this feature only has effect when enabled on {@link YAMLFactory}
+         * (or {@link YAMLMapper}), as the parser implementation is chosen on construction.
+         *<p>
+         * Feature is disabled by default.
+         *
+         * @since 2.9
+         */
+        USE_UTF8_PARSER(false),
+
+        /**
+         * Feature that determines whether floating-point values are decoded
+         * by {@link FastDoubleParser}, directly from the scalar contents, instead
+         * of first constructing a cleaned-up {@link String} to pass to
+         * {@link Double#parseDouble}. Results are the same either way; feature
+         * only affects performance.
+         *<p>
+         * Feature is disabled by default.
+         *
+         * @since 2.9
+         */
+        USE_FAST_DOUBLE_PARSER(false),
+
+        /**
+         * Feature that determines whether parser keeps track of input locations
+         * so that {@link JsonParser#getTokenLocation()} and
+         * {@link JsonParser#getCurrentLocation()} can return them.
+         * If disabled, both methods return {@link JsonLocation#NA}, and
+         * SnakeYAML-backed parsers avoid constructing location markers for every
+         * event; this improves throughput, but also means that locations included in
+         * error messages are not accurate.
+         *<p>
+         * Note that this feature only has effect when enabled on {@link YAMLFactory}
+         * (or {@link YAMLMapper}), as the underlying decoder is configured on construction.
+         *<p>
+         * Feature is enabled by default.
+         *
+         * @since 2.9
+         */
+        TRACK_LOCATIONS(true),
+
+        /**
+         * Feature that determines whether aliases (like <code>*name</code>) are
+         * exposed as-is, as {@link JsonToken#VALUE_STRING} tokens with the anchor name
+         * (see {@link YAMLParser#isCurrentAlias()}), or replaced by the full token
+         * sequence of the anchored node they refer to. If enabled, tokens of anchored
+         * nodes are recorded into an {@link AnchorReplayBuffer} as they are parsed,
+         * up to the limit configured with {@link YAMLFactory#setMaxAnchorReplaySize};
+         * aliases to content exceeding the limit result in a parse exception.
+         * Aliases that can not be replayed for other reasons (unknown anchor,
+         * recursive reference) are exposed as-is.
+         *<p>
+         * Note that replayed content does not expose anchors or tags of the
+         * original content.
+         *<p>
+         * Note that this feature only has effect when enabled on {@link YAMLFactory}
+         * (or {@link YAMLMapper}), as the recording buffer is configured on construction.
+         *<p>
+         * Feature is disabled by default.
+         *
+         * @since 2.9
+         */
+        REPLAY_ALIASES(false),
+
+        /**
+         * Feature that determines whether end of each document of a multi-document
+         * stream is indicated by returning <code>null</code> from {@link JsonParser#nextToken()}
+         * (without closing the parser), or whether root values of all documents
+         * are exposed as a sequence, as if they were in the same document.
+         * If enabled, end of content is indicated by another <code>null</code>
+         * token, after which {@link JsonParser#isClosed()} returns true.
+         * In either case {@link YAMLParser#getDocumentIndex()} and
+         * {@link YAMLParser#getDocumentStartLocation()} may be used to find out which
+         * document is being read.
+         *<p>
+         * Feature is disabled by default.
+         *
+         * @since 2.9
+         */
+        EXPOSE_DOCUMENT_BOUNDARIES(false),
+
+        /**
+         * Feature that determines whether merge keys (<code>&lt;&lt;</code>) are
+         * exposed as-is, as regular fields, or applied by replacing them with fields
+         * of the merged mapping (or mappings, if value is a sequence), as specified by
+         * the <a href="http://yaml.org/type/merge.html">merge key type</a>. If enabled,
+         * merged fields are exposed after explicitly defined fields of the mapping,
+         * leaving out fields that the mapping itself (or an earlier merged mapping)
+         * defines. Anchored content is recorded the same way as with
+         * {@link #REPLAY_ALIASES}, and is subject to the same limits; enabling this
+         * feature does not, however, enable replay of other aliases.
+         *<p>
+         * Note that all fields named <code>&lt;&lt;</code> are considered merge keys,
+         * including quoted ones; and that merge keys are not applied by
+         * non-blocking parsers.
+         *<p>
+         * Note that this feature only has effect when enabled on {@link YAMLFactory}
+         * (or {@link YAMLMapper}), as the recording buffer is configured on construction.
+         *<p>
+         * Feature is disabled by default.
+         *
+         * @since 2.9
+         */
+        MERGE_KEYS(false),
+
+        /**
+         * Feature that determines whether values that are YAML timestamps (untagged
+         * plain scalars that match timestamp syntax, as well as values tagged
+         * as <code>!!timestamp</code>) are exposed as
+         * {@link JsonToken#VALUE_EMBEDDED_OBJECT}s, for which
+         * {@link JsonParser#getEmbeddedObject()} returns decoded {@link java.util.Date},
+         * or as {@link JsonToken#VALUE_STRING}s. Timestamps are decoded without use of
+         * date formats or calendars; values without time zone are considered to be in UTC.
+         * Textual value is still available via {@link JsonParser#getText()}.
+         *<p>
+         * Note that since databind does not accept embedded values for all types,
+         * {@link YAMLTimestampModule} should be registered to allow binding
+         * timestamps as {@link java.util.Date}s and {@link String}s.
+         *<p>
+         * Feature is disabled by default.
+         *
+         * @since 2.9
+         */
+        DECODE_TIMESTAMPS(false),
+
+        /**
+         * Feature that determines whether types of plain scalars are resolved using
+         * YAML 1.2 Core Schema (true), or YAML 1.1 types (false). With Core Schema,
+         * only "true" and "false" are booleans (not "yes", "no", "on" or "off"),
+         * "0o" prefix is used for octal integers (and leading zeroes are allowed
+         * for decimal ones), and there are no sexagesimal numbers, underscores in
+         * numbers, or implicit timestamps. Same rules apply to values explicitly
+         * tagged as <code>!!bool</code> or <code>!!int</code>.
+         *<p>
+         * Feature is disabled by default, for backwards compatibility.
+         *
+         * @since 2.9
+         */
+        USE_CORE_SCHEMA(false),
+
+        /**
+         * Feature that determines whether parse exceptions (both ones converted from
+         * SnakeYAML exceptions and ones reported by parser itself) capture stack trace
+         * on construction. Capturing stack trace is often the most expensive part of
+         * exception handling, so disabling this feature may be useful for systems where
+         * invalid input is common and exceptions are just reported, not logged
+         * with stack traces.
+         *<p>
+         * Feature is enabled by default.
+         *
+         * @since 2.9
+         */
+        CAPTURE_STACK_TRACES(true),
+
+        /**
+         * Feature that determines whether integers with a leading zero (like "017")
+         * are decoded as YAML 1.1 octal numbers (value 15), or as decimal numbers
+         * with leading zeroes (value 17), as done by earlier versions. Integers
+         * with "0o" prefix are always octal. Feature has no effect if
+         * {@link #USE_CORE_SCHEMA} is enabled, as Core Schema has no such octal numbers.
+         *<p>
+         * Feature is disabled by default, so that zero-padded values (identifiers,
+         * postal codes and such) keep their values.
+         *
+         * @since 2.9
+         */
+        DECODE_LEGACY_OCTAL(false),
         ;
 
         final boolean _defaultState;
@@ -65,6 +241,56 @@ public class YAMLParser extends ParserBase
         public int getMask() { return _mask; }
     }
 
+    /**
+     * Default maximum number of anchors in content parsed by a single parser,
+     * if {@link Feature#REPLAY_ALIASES} or {@link Feature#MERGE_KEYS} is enabled.
+     *
+     * @since 2.9
+     */
+    public final static int DEFAULT_MAX_ANCHORS = 10000;
+
+    /**
+     * Default maximum number of aliases in content parsed by a single parser,
+     * if {@link Feature#REPLAY_ALIASES} or {@link Feature#MERGE_KEYS} is enabled.
+     *
+     * @since 2.9
+     */
+    public final static int DEFAULT_MAX_ALIASES = 1000;
+
+    /**
+     * Default maximum ratio of tokens produced (with replayed aliases) to tokens
+     * decoded, if {@link Feature#REPLAY_ALIASES} is enabled.
+     *
+     * @since 2.9
+     */
+    public final static int DEFAULT_MAX_ALIAS_EXPANSION_RATIO = 100;
+
+    /**
+     * Expansion ratio is only checked once this many tokens have been
+     * produced, to allow small documents to refer to anchored content freely.
+     */
+    protected final static int MIN_TOKENS_FOR_EXPANSION_CHECK = 10000;
+
+    /**
+     * Name of the merge key field
+     *
+     * @since 2.9
+     */
+    protected final static String MERGE_KEY = "<<";
+
+    // Event types, as returned by `_eventType()`
+    protected final static int EVENT_OTHER = 0;
+    protected final static int EVENT_SCALAR = 1;
+    protected final static int EVENT_MAPPING_START = 2;
+    protected final static int EVENT_MAPPING_END = 3;
+    protected final static int EVENT_SEQUENCE_START = 4;
+    protected final static int EVENT_SEQUENCE_END = 5;
+    protected final static int EVENT_ALIAS = 6;
+    protected final static int EVENT_DOCUMENT_START = 7;
+    protected final static int EVENT_DOCUMENT_END = 8;
+    protected final static int EVENT_STREAM_START = 9;
+    protected final static int EVENT_STREAM_END = 10;
+
     // note: does NOT include '0', handled separately
 //    private final static Pattern PATTERN_INT = Pattern.compile("-?[1-9][0-9]*");
 
@@ -96,12 +322,29 @@ public class YAMLParser extends ParserBase
 
     /**
      * Need to keep track of underlying {@link Reader} to be able to
-     * auto-close it (if required to)
+     * auto-close it (if required to); not final as parser may be
+     * reset to read from another source (see {@link #reset(Reader)}).
+     */
+    protected Reader _reader;
+
+    protected ParserImpl _yamlParser;
+
+    /**
+     * Resolver for implicit types of plain scalars, shared by all parsers
+     * of the factory.
+     *
+     * @since 2.9
      */
-    protected final Reader _reader;
+    protected YAMLScalarResolver _scalarResolver = YAMLScalarResolver.DEFAULT;
 
-    protected final ParserImpl _yamlParser;
-    protected final Resolver _yamlResolver = new Resolver();
+    /**
+     * Symbol table used for canonicalizing field names; child of
+     * the root table owned by {@link YAMLFactory}. Null if names are not
+     * to be canonicalized (see {@link JsonFactory.Feature#CANONICALIZE_FIELD_NAMES}).
+     *
+     * @since 2.9
+     */
+    protected final CharsToNameCanonicalizer _symbols;
 
     /*
     /**********************************************************************
@@ -116,9 +359,40 @@ public class YAMLParser extends ParserBase
 
     /**
      * We need to keep track of text values.
+     *<p>
+     * Note that since 2.9 this may be left <code>null</code> for
+     * {@link JsonToken#VALUE_STRING} and {@link JsonToken#VALUE_EMBEDDED_OBJECT}
+     * tokens, if {@link #_textInBuffer} is set, in which case it is only
+     * constructed on demand.
      */
     protected String _textValue;
 
+    /**
+     * Flag set when text of the current scalar value is available in
+     * {@link #_textBuffer}, so it can be accessed without constructing
+     * a {@link String} (see {@link #getTextCharacters()}).
+     *
+     * @since 2.9
+     */
+    protected boolean _textInBuffer;
+
+    /**
+     * Value of the current timestamp token (if {@link Feature#DECODE_TIMESTAMPS}
+     * is enabled), as milliseconds since epoch; {@link TimestampDecoder#INVALID}
+     * if current token is not a timestamp.
+     *
+     * @since 2.9
+     */
+    protected long _timestampValue = TimestampDecoder.INVALID;
+
+    /**
+     * Tag of the custom implicit type current plain scalar resolved to, if any
+     * (see {@link YAMLScalarResolver#withImplicitType}).
+     *
+     * @since 2.9
+     */
+    protected String _implicitTag;
+
     /**
      * Let's also have a local copy of the current field name
      */
@@ -137,6 +411,124 @@ public class YAMLParser extends ParserBase
      * structured types, value whose first token current token is.
      */
     protected String _currentAnchor;
+
+    /**
+     * Buffer for recording anchored content, if
+     * {@link Feature#REPLAY_ALIASES} is enabled; null if not.
+     *
+     * @since 2.9
+     */
+    protected AnchorReplayBuffer _anchorBuffer;
+
+    /**
+     * Helper for applying merge keys, if {@link Feature#MERGE_KEYS} is enabled;
+     * null if not.
+     *
+     * @since 2.9
+     */
+    protected MergeKeyTracker _mergeKeys;
+
+    /**
+     * Index of the current document within content, starting with 0;
+     * -1 before the first document.
+     *
+     * @since 2.9
+     */
+    protected int _documentIndex = -1;
+
+    /**
+     * Location of the start of the current document (either explicit document
+     * start marker, or the first token of implicit document)
+     *
+     * @since 2.9
+     */
+    protected long _documentStartByte = -1L, _documentStartChar = -1L;
+
+    protected int _documentStartRow = -1, _documentStartCol = -1;
+
+    /**
+     * Maximum number of anchors allowed in content read
+     *
+     * @since 2.9
+     */
+    protected int _maxAnchors = Integer.MAX_VALUE;
+
+    /**
+     * Maximum number of aliases allowed in content read
+     *
+     * @since 2.9
+     */
+    protected int _maxAliases = Integer.MAX_VALUE;
+
+    /**
+     * Maximum ratio of tokens produced (including replayed ones) to tokens
+     * decoded, when {@link Feature#REPLAY_ALIASES} is enabled
+     *
+     * @since 2.9
+     */
+    protected int _maxAliasExpansionRatio = DEFAULT_MAX_ALIAS_EXPANSION_RATIO;
+
+    /**
+     * Flag that indicates whether decoded tokens need to be checked for
+     * anchors and aliases: true if alias replay is enabled, or there are limits
+     * to check.
+     *
+     * @since 2.9
+     */
+    protected boolean _trackAnchors;
+
+    /**
+     * Cache of resolved tags, shared with other parsers constructed by the
+     * same factory
+     *
+     * @since 2.9
+     */
+    protected YAMLTagCache _tagCache = YAMLTagCache.DEFAULT;
+
+    /**
+     * Counters for limit checks
+     *
+     * @since 2.9
+     */
+    protected int _anchorCount, _aliasCount;
+
+    /**
+     * Counters for checking alias expansion ratio
+     *
+     * @since 2.9
+     */
+    protected long _decodedTokens, _replayedTokens;
+
+    /**
+     * Recording being replayed for an alias, if any
+     *
+     * @since 2.9
+     */
+    protected AnchorReplayBuffer.Recording _replayed;
+
+    /**
+     * Index of the next token of {@link #_replayed} to return
+     *
+     * @since 2.9
+     */
+    protected int _replayIndex;
+
+    /**
+     * Pool helper objects of this parser (anchor replay buffer, merge key tracker)
+     * are to be returned to when parser is closed, if any; cleared when they
+     * are returned, to avoid returning them more than once.
+     *
+     * @since 2.9
+     */
+    protected ReplayBufferPool _replayBufferPool;
+
+    /**
+     * Flag set when helper objects of this parser have been returned to the pool,
+     * after which parser can not be reset to read new content.
+     *
+     * @since 2.9
+     */
+    protected boolean _helpersReleased;
     
     /*
     /**********************************************************************
@@ -147,12 +539,41 @@ public class YAMLParser extends ParserBase
     public YAMLParser(IOContext ctxt, BufferRecycler br,
             int parserFeatures, int formatFeatures,
             ObjectCodec codec, Reader reader)
+    {
+        this(ctxt, br, parserFeatures, formatFeatures, codec, reader, null);
+    }
+
+    /**
+     * @since 2.9
+     */
+    public YAMLParser(IOContext ctxt, BufferRecycler br,
+            int parserFeatures, int formatFeatures,
+            ObjectCodec codec, Reader reader, CharsToNameCanonicalizer symbols)
     {
         super(ctxt, parserFeatures);    
         _objectCodec = codec;
         _formatFeatures = formatFeatures;
         _reader = reader;
-        _yamlParser = new ParserImpl(new StreamReader(reader));
+        _yamlParser = new ParserImpl(Feature.TRACK_LOCATIONS.enabledIn(formatFeatures)
+                ? new StreamReader(reader) : new UntrackedStreamReader(reader));
+        _symbols = symbols;
+    }
+
+    /**
+     * Constructor used by sub-classes that do not use SnakeYAML for decoding
+     * content, such as {@link UTF8YAMLParser}.
+     *
+     * @since 2.9
+     */
+    protected YAMLParser(IOContext ctxt, int parserFeatures, int formatFeatures,
+            ObjectCodec codec, CharsToNameCanonicalizer symbols)
+    {
+        super(ctxt, parserFeatures);
+        _objectCodec = codec;
+        _formatFeatures = formatFeatures;
+        _reader = null;
+        _yamlParser = null;
+        _symbols = symbols;
     }
 
 
@@ -182,6 +603,18 @@ public class YAMLParser extends ParserBase
         return _currentIsAlias;
     }
 
+    /**
+     * Method that can be used to check whether current token is a
+     * {@link JsonToken#VALUE_EMBEDDED_OBJECT} for a decoded timestamp
+     * (see {@link Feature#DECODE_TIMESTAMPS}).
+     *
+     * @since 2.9
+     */
+    public boolean isCurrentTimestamp() {
+        return (_currToken == JsonToken.VALUE_EMBEDDED_OBJECT)
+                && (_timestampValue != TimestampDecoder.INVALID);
+    }
+
     /**
      * Method that can be used to check if the current token has an
      * associated anchor (id to reference via Alias)
@@ -192,6 +625,37 @@ public class YAMLParser extends ParserBase
     public String getCurrentAnchor() {
         return _currentAnchor;
     }
+
+    /**
+     * Accessor for finding index of the document (within multi-document content)
+     * current token belongs to, starting with 0; -1 if no content has been
+     * read yet.
+     *
+     * @since 2.9
+     */
+    public int getDocumentIndex() {
+        return _documentIndex;
+    }
+
+    /**
+     * Accessor for location of the start of the current document: either its
+     * start marker (<code>---</code>), or the first token of the document if there is
+     * no marker. Parsers reading from byte sources report byte offset, others
+     * character offset; SnakeYAML-backed parser also includes directives that
+     * precede the start marker.
+     * Returns {@link JsonLocation#NA} if no content has been read yet, or if
+     * {@link Feature#TRACK_LOCATIONS} is disabled.
+     *
+     * @since 2.9
+     */
+    public JsonLocation getDocumentStartLocation() {
+        if ((_documentIndex < 0) || !Feature.TRACK_LOCATIONS.enabledIn(_formatFeatures)) {
+            return JsonLocation.NA;
+        }
+        return new JsonLocation(_ioContext.getSourceReference(),
+                _documentStartByte, _documentStartChar,
+                _documentStartRow, _documentStartCol);
+    }
     
     /*                                                                                       
     /**********************************************************                              
@@ -210,11 +674,98 @@ public class YAMLParser extends ParserBase
     /**********************************************************                              
      */
 
+    /**
+     * Overridden to return helper objects of parser to the pool of its factory,
+     * if pooling is enabled (see {@link YAMLFactory#setReplayBufferPoolSize}). Parser
+     * itself is not pooled, so closing it more than once is harmless.
+     */
+    @Override
+    public void close() throws IOException {
+        super.close();
+        ReplayBufferPool pool = _replayBufferPool;
+        if (pool != null) {
+            _replayBufferPool = null;
+            _helpersReleased = true;
+            // recordings being replayed live in the buffer handed over
+            _replayed = null;
+            if (_anchorBuffer != null) {
+                _anchorBuffer.reset();
+            }
+            if (_mergeKeys != null) {
+                _mergeKeys.reset();
+            }
+            pool.release(new ReplayBufferPool.Helpers(_anchorBuffer, _mergeKeys));
+            _anchorBuffer = null;
+            _mergeKeys = null;
+        }
+    }
+
+    /**
+     * Method called when end of input is reached: closes input and releases
+     * buffers but, unlike {@link #close}, does not return helper objects to
+     * the pool, as caller may still be accessing parser (or reset it).
+     *
+     * @since 2.9
+     */
+    protected void _closeAtEndOfInput() throws IOException {
+        super.close();
+    }
+
     @Override
     protected void _closeInput() throws IOException {
         _reader.close();
     }
+
+    @Override
+    protected void _releaseBuffers() throws IOException {
+        super._releaseBuffers();
+        // Merge found symbols, if any:
+        if (_symbols != null) {
+            _symbols.release();
+        }
+    }
     
+    /*
+    /**********************************************************
+    /* Reuse
+    /**********************************************************
+     */
+
+    /**
+     * Method for resetting this parser to read content from given {@link Reader},
+     * as if it was a new parser constructed for it. Current input is closed
+     * first (as with {@link #close}), but helper objects (symbol table, anchor
+     * replay buffer and so on) are retained, to reduce the cost of parsing many
+     * small documents.
+     *<p>
+     * Note that the {@link IOContext} parser was constructed with is retained as
+     * well, so source reference of locations does not change. Parsers constructed by
+     * a factory that pools helper objects (see {@link YAMLFactory#setReplayBufferPoolSize})
+     * can not be reset once explicitly closed.
+     *
+     * @throws IllegalStateException if parser has been closed, and its helper
+     *    objects returned to the pool
+     *
+     * @since 2.9
+     */
+    public void reset(Reader reader) throws IOException
+    {
+        _resetState();
+        _reader = reader;
+        _yamlParser = new ParserImpl(Feature.TRACK_LOCATIONS.enabledIn(_formatFeatures)
+                ? new StreamReader(reader) : new UntrackedStreamReader(reader));
+    }
+
+    /**
+     * Method for resetting this parser to read UTF-8 encoded content from given
+     * byte array; see {@link #reset(Reader)} for details.
+     *
+     * @since 2.9
+     */
+    public void reset(byte[] data, int offset, int len) throws IOException {
+        reset(new UTF8Reader(data, offset, len, true));
+    }
+
     /*
     /**********************************************************                              
     /* FormatFeature support
@@ -291,7 +842,7 @@ public class YAMLParser extends ParserBase
     @Override
     public JsonLocation getTokenLocation()
     {
-        if (_lastEvent == null) {
+        if ((_lastEvent == null) || !Feature.TRACK_LOCATIONS.enabledIn(_formatFeatures)) {
             return JsonLocation.NA;
         }
         return _locationFor(_lastEvent.getStartMark());
@@ -300,12 +851,17 @@ public class YAMLParser extends ParserBase
     @Override
     public JsonLocation getCurrentLocation() {
         // can assume we are at the end of token now...
-        if (_lastEvent == null) {
+        if ((_lastEvent == null) || !Feature.TRACK_LOCATIONS.enabledIn(_formatFeatures)) {
             return JsonLocation.NA;
         }
         return _locationFor(_lastEvent.getEndMark());
     }
     
+    /**
+     * Helper method for constructing location from SnakeYAML marker; only called
+     * when location is actually requested, so event processing itself need not
+     * do anything beyond retaining the last event.
+     */
     protected JsonLocation _locationFor(Mark m)
     {
         if (m == null) {
@@ -313,7 +869,7 @@ public class YAMLParser extends ParserBase
                     -1, -1, -1);
         }
         return new JsonLocation(_ioContext.getSourceReference(),
-                -1,
+                m.getIndex(), // character offset (in code points)
                 m.getLine() + 1, // from 0- to 1-based
                 m.getColumn() + 1); // ditto
     }
@@ -329,170 +885,754 @@ public class YAMLParser extends ParserBase
     @SuppressWarnings("deprecation")
     @Override
     public JsonToken nextToken() throws IOException
+    {
+        if (_replayed != null) {
+            JsonToken t = _replayToken();
+            if (_mergeKeys != null) {
+                _trackMergeKeys(t);
+            }
+            if (_anchorBuffer.isRecording()) {
+                _anchorBuffer.append(t, _tokenText(t), null);
+            }
+            return t;
+        }
+        JsonToken t = _decodeNextToken();
+        if (!_trackAnchors || (t == null) || (t == JsonToken.NOT_AVAILABLE)) {
+            return t;
+        }
+        final String anchor = _checkDecoded();
+        if (_currentIsAlias && (_anchorBuffer != null)
+                && Feature.REPLAY_ALIASES.enabledIn(_formatFeatures)) {
+            AnchorReplayBuffer.Recording r = _anchorBuffer.findRecording(_textValue);
+            if (r != null) {
+                _checkReplayable(r);
+                _replayed = r;
+                _replayIndex = 0;
+                t = _replayToken();
+            }
+        }
+        if (_mergeKeys != null) {
+            if ((t == JsonToken.FIELD_NAME) && MERGE_KEY.equals(_currentFieldName)) {
+                _readMergeKeyValue();
+                return nextToken();
+            }
+            // merged fields are added at the end, once all explicit fields are known
+            if ((t == JsonToken.END_OBJECT) && _mergeKeys.hasSources()) {
+                _parsingContext = _parsingContext.createChildObjectContext(-1, -1);
+                _replayed = _mergeKeys.merge();
+                _replayIndex = 0;
+                t = _replayToken();
+            }
+            _trackMergeKeys(t);
+        }
+        if ((_anchorBuffer != null) && ((anchor != null) || _anchorBuffer.isRecording())) {
+            _anchorBuffer.append(t, _tokenText(t), anchor);
+        }
+        return t;
+    }
+
+    /**
+     * Helper method called for each token decoded (as opposed to replayed)
+     * when anchors are tracked, to check limits for anchors and aliases.
+     *
+     * @return Anchor of the token, if any
+     */
+    private String _checkDecoded() throws IOException
+    {
+        ++_decodedTokens;
+        final String anchor = _nodeAnchor();
+        if ((anchor != null) && (++_anchorCount > _maxAnchors)) {
+            _reportLimitExceeded("Maximum number of anchors ("+_maxAnchors
+                    +") exceeded: use `YAMLFactory.setMaxAnchors()` to increase");
+        }
+        if (_currentIsAlias && (++_aliasCount > _maxAliases)) {
+            _reportLimitExceeded("Maximum number of aliases ("+_maxAliases
+                    +") exceeded: use `YAMLFactory.setMaxAliases()` to increase");
+        }
+        return anchor;
+    }
+
+    private void _checkReplayable(AnchorReplayBuffer.Recording r) throws IOException
+    {
+        if (r.isTruncated()) {
+            _reportLimitExceeded("Can not replay alias '*"+_textValue
+                    +"': anchored content exceeds maximum replay buffer size ("
+                    +_anchorBuffer.getMaxSize()+" bytes)");
+        }
+    }
+
+    private void _trackMergeKeys(JsonToken t)
+    {
+        if (t == JsonToken.FIELD_NAME) {
+            _mergeKeys.fieldName(_currentFieldName);
+        } else if (t == JsonToken.START_OBJECT) {
+            _mergeKeys.startObject();
+        } else if (t == JsonToken.END_OBJECT) {
+            _mergeKeys.endObject();
+        }
+    }
+
+    /**
+     * Method called when a merge key has been decoded, to read its value
+     * (alias of a mapping, inline mapping, or a sequence of those) and add
+     * mappings to merge into the current mapping; value itself is not exposed.
+     *
+     * @since 2.9
+     */
+    protected void _readMergeKeyValue() throws IOException
+    {
+        JsonToken t = _decodeMergeKeyToken();
+        if (t == JsonToken.START_ARRAY) {
+            while ((t = _decodeMergeKeyToken()) != JsonToken.END_ARRAY) {
+                _addMergeSource(t);
+            }
+        } else {
+            _addMergeSource(t);
+        }
+    }
+
+    private JsonToken _decodeMergeKeyToken() throws IOException
+    {
+        JsonToken t = _decodeNextToken();
+        if ((t == null) || (t == JsonToken.NOT_AVAILABLE)) {
+            _reportError("Unexpected end of content in value of merge key ('<<')");
+        }
+        return t;
+    }
+
+    private void _addMergeSource(JsonToken t) throws IOException
+    {
+        final String anchor = _checkDecoded();
+        if (_currentIsAlias) {
+            AnchorReplayBuffer.Recording r = _anchorBuffer.findRecording(_textValue);
+            if (r == null) {
+                _reportError("Unknown anchor '"+_textValue+"' referenced by merge key ('<<')");
+            }
+            _checkReplayable(r);
+            if (r.tokenAt(0) != JsonToken.START_OBJECT) {
+                _reportError("Invalid value for merge key ('<<'): alias '*"+_textValue
+                        +"' does not refer to a mapping");
+            }
+            _mergeKeys.addSource(r);
+            return;
+        }
+        if (t != JsonToken.START_OBJECT) {
+            _reportError("Invalid value for merge key ('<<'): expected a mapping, alias of a mapping,"
+                    +" or a sequence of those, got "+t);
+        }
+        // inline mapping: needs to be recorded, without being exposed
+        AnchorReplayBuffer.Recording r = _anchorBuffer.startCapture();
+        _anchorBuffer.append(t, null, anchor);
+        _mergeKeys.startObject();
+        for (int open = 1; open > 0; ) {
+            t = nextToken();
+            if ((t == null) || (t == JsonToken.NOT_AVAILABLE)) {
+                _reportError("Unexpected end of content in value of merge key ('<<')");
+            }
+            if (t.isStructStart()) {
+                ++open;
+            } else if (t.isStructEnd()) {
+                --open;
+            }
+        }
+        if (r.isTruncated()) {
+            _reportLimitExceeded("Can not merge mapping: content exceeds maximum replay buffer size ("
+                    +_anchorBuffer.getMaxSize()+" bytes)");
+        }
+        _mergeKeys.addSource(r);
+    }
+
+    private String _tokenText(JsonToken t) throws IOException
+    {
+        if (t == JsonToken.FIELD_NAME) {
+            return _currentFieldName;
+        }
+        if (t.isScalarValue()) {
+            return getText();
+        }
+        return null;
+    }
+
+    /**
+     * Method that decodes the next token from input, without considering
+     * alias replay.
+     *
+     * @since 2.9
+     */
+    protected JsonToken _decodeNextToken() throws IOException
     {
         _currentIsAlias = false;
         _binaryValue = null;
+        _timestampValue = TimestampDecoder.INVALID;
+        _implicitTag = null;
         _currentAnchor = null;
+        _textInBuffer = false;
         if (_closed) {
             return null;
         }
 
         while (true) {
-            Event evt;
-            try {
-                evt = _yamlParser.getEvent();
-            } catch (org.yaml.snakeyaml.error.YAMLException e) {
-                if (e instanceof org.yaml.snakeyaml.error.MarkedYAMLException) {
-                    throw com.fasterxml.jackson.dataformat.yaml.snakeyaml.error.MarkedYAMLException.from
-                        (this, (org.yaml.snakeyaml.error.MarkedYAMLException) e);
-                }
-                throw com.fasterxml.jackson.dataformat.yaml.snakeyaml.error.YAMLException.from(this, e);
-            }
+            Event evt = _nextEvent();
             // is null ok? Assume it is, for now, consider to be same as end-of-doc
             if (evt == null) {
                 return (_currToken = null);
             }
             _lastEvent = evt;
-            
+            final int type = _eventType(evt);
+
             /* One complication: field names are only inferred from the
              * fact that we are in Object context...
              */
             if (_parsingContext.inObject() && _currToken != JsonToken.FIELD_NAME) {
-                if (!evt.is(Event.ID.Scalar)) {
-                    // end is fine
-                    if (evt.is(Event.ID.MappingEnd)) {
-                        if (!_parsingContext.inObject()) { // sanity check is optional, but let's do it for now
-                            _reportMismatchedEndMarker('}', ']');
-                        }
-                        _parsingContext = _parsingContext.getParent();
-                        return (_currToken = JsonToken.END_OBJECT);
-                    }
-                    _reportError("Expected a field name (Scalar value in YAML), got this instead: "+evt);
-                }
-                ScalarEvent scalar = (ScalarEvent) evt;
-                String name = scalar.getValue();
-                _currentFieldName = name;
-                _parsingContext.setCurrentName(name);
-                _currentAnchor = scalar.getAnchor();
-                return (_currToken = JsonToken.FIELD_NAME);
-            }
-            // Ugh. Why not expose id, to be able to Switch?
-
-            // scalar values are probably the commonest:
-            if (evt.is(Event.ID.Scalar)) {
-                JsonToken t = _decodeScalar((ScalarEvent) evt);
-                _currToken = t;
-                return t;
+                return (_currToken = _decodeFieldName(evt, type));
             }
-
-            // followed by maps, then arrays
-            if (evt.is(Event.ID.MappingStart)) {
-                Mark m = evt.getStartMark();
-                MappingStartEvent map = (MappingStartEvent) evt;
-                _currentAnchor = map.getAnchor();
-                _parsingContext = _parsingContext.createChildObjectContext(m.getLine(), m.getColumn());
+            switch (type) {
+            case EVENT_SCALAR: // scalar values are probably the commonest
+                return (_currToken = _decodeScalar((ScalarEvent) evt));
+            case EVENT_MAPPING_START:
+                {
+                    Mark m = evt.getStartMark();
+                    _currentAnchor = ((NodeEvent) evt).getAnchor();
+                    _parsingContext = _parsingContext.createChildObjectContext(m.getLine(), m.getColumn());
+                }
                 return (_currToken = JsonToken.START_OBJECT);
-            }
-            if (evt.is(Event.ID.MappingEnd)) { // actually error; can not have map-end here
+            case EVENT_MAPPING_END: // actually error; can not have map-end here
                 _reportError("Not expecting END_OBJECT but a value");
-            }
-            if (evt.is(Event.ID.SequenceStart)) {
-                Mark m = evt.getStartMark();
-                _currentAnchor = ((NodeEvent)evt).getAnchor();
-                _parsingContext = _parsingContext.createChildArrayContext(m.getLine(), m.getColumn());
+                break;
+            case EVENT_SEQUENCE_START:
+                {
+                    Mark m = evt.getStartMark();
+                    _currentAnchor = ((NodeEvent) evt).getAnchor();
+                    _parsingContext = _parsingContext.createChildArrayContext(m.getLine(), m.getColumn());
+                }
                 return (_currToken = JsonToken.START_ARRAY);
-            }
-            if (evt.is(Event.ID.SequenceEnd)) {
+            case EVENT_SEQUENCE_END:
                 if (!_parsingContext.inArray()) { // sanity check is optional, but let's do it for now
                     _reportMismatchedEndMarker(']', '}');
                 }
                 _parsingContext = _parsingContext.getParent();
                 return (_currToken = JsonToken.END_ARRAY);
-            }
-
-            // after this, less common tokens:
-
-            if (evt.is(Event.ID.DocumentEnd)) {
-                // [dataformat-yaml#72]: logical end of doc; fine. Two choices; either skip,
-                // or return null as marker (but do NOT close). Earlier returned `null`, but
-                // to allow multi-document reading should actually just skip.
-//                return (_currToken = null);
-                continue;
-            }
-            if (evt.is(Event.ID.DocumentStart)) {
-//                DocumentStartEvent dd = (DocumentStartEvent) evt;
-                // does this matter? Shouldn't, should it?
-                continue;
-            }
-            if (evt.is(Event.ID.Alias)) {
-                AliasEvent alias = (AliasEvent) evt;
+            case EVENT_ALIAS:
                 _currentIsAlias = true;
-                _textValue = alias.getAnchor();
+                _textValue = ((AliasEvent) evt).getAnchor();
                 // for now, nothing to do: in future, maybe try to expose as ObjectIds?
                 return (_currToken = JsonToken.VALUE_STRING);
-            }
-            if (evt.is(Event.ID.StreamEnd)) { // end-of-input; force closure
-                close();
+            case EVENT_STREAM_END: // end-of-input; force closure
+                _closeAtEndOfInput();
                 return (_currToken = null);
-            }
-            if (evt.is(Event.ID.StreamStart)) { // useless, skip
-                continue;
+
+            // [dataformat-yaml#72]: logical end of doc; fine. Two choices; either skip,
+            // or return null as marker (but do NOT close). Earlier returned `null`, but
+            // to allow multi-document reading should actually just skip, unless
+            // boundaries are explicitly requested
+            case EVENT_DOCUMENT_END:
+                if (Feature.EXPOSE_DOCUMENT_BOUNDARIES.enabledIn(_formatFeatures)) {
+                    return (_currToken = null);
+                }
+                break;
+            case EVENT_DOCUMENT_START:
+                {
+                    Mark m = evt.getStartMark();
+                    _startDocument(-1L, m.getIndex(), m.getLine() + 1, m.getColumn() + 1);
+                }
+                break;
+            case EVENT_STREAM_START: // useless, skip
+            default:
+                break;
             }
         }
     }
 
-    protected JsonToken _decodeScalar(ScalarEvent scalar)
+    /**
+     * Helper method called to handle an event in Object context where a
+     * field name is expected: either a scalar (name) or end of the Object.
+     *
+     * @since 2.9
+     */
+    protected JsonToken _decodeFieldName(Event evt, int type) throws IOException
     {
-        String value = scalar.getValue();
-        _textValue = value;
-        // we may get an explicit tag, if so, use for corroborating...
-        String typeTag = scalar.getTag();
-        final int len = value.length();
+        if (type == EVENT_SCALAR) {
+            ScalarEvent scalar = (ScalarEvent) evt;
+            String name = _canonicalName(scalar.getValue());
+            _currentFieldName = name;
+            _parsingContext.setCurrentName(name);
+            _currentAnchor = scalar.getAnchor();
+            return JsonToken.FIELD_NAME;
+        }
+        // end is fine
+        if (type == EVENT_MAPPING_END) {
+            if (!_parsingContext.inObject()) { // sanity check is optional, but let's do it for now
+                _reportMismatchedEndMarker('}', ']');
+            }
+            _parsingContext = _parsingContext.getParent();
+            return JsonToken.END_OBJECT;
+        }
+        _reportError("Expected a field name (Scalar value in YAML), got this instead: "+evt);
+        return null; // never gets here
+    }
 
-        if (typeTag == null || typeTag.equals("!")) { // no, implicit
-            Tag nodeTag = _yamlResolver.resolve(NodeId.scalar, value, scalar.getImplicit().canOmitTagInPlainScalar());
+    /**
+     * Helper method for determining type of given event, for dispatching
+     * with a <code>switch</code>: SnakeYAML does not expose event ids other than
+     * through virtual {@link Event#is} calls. Since all event types are
+     * <code>final</code> classes, <code>instanceof</code> checks reduce to simple
+     * class pointer comparisons; they are ordered by expected frequency.
+     *
+     * @since 2.9
+     */
+    protected final static int _eventType(Event evt)
+    {
+        if (evt instanceof ScalarEvent) {
+            return EVENT_SCALAR;
+        }
+        if (evt instanceof MappingStartEvent) {
+            return EVENT_MAPPING_START;
+        }
+        if (evt instanceof MappingEndEvent) {
+            return EVENT_MAPPING_END;
+        }
+        if (evt instanceof SequenceStartEvent) {
+            return EVENT_SEQUENCE_START;
+        }
+        if (evt instanceof SequenceEndEvent) {
+            return EVENT_SEQUENCE_END;
+        }
+        if (evt instanceof AliasEvent) {
+            return EVENT_ALIAS;
+        }
+        if (evt instanceof DocumentStartEvent) {
+            return EVENT_DOCUMENT_START;
+        }
+        if (evt instanceof DocumentEndEvent) {
+            return EVENT_DOCUMENT_END;
+        }
+        if (evt instanceof StreamStartEvent) {
+            return EVENT_STREAM_START;
+        }
+        if (evt instanceof StreamEndEvent) {
+            return EVENT_STREAM_END;
+        }
+        return EVENT_OTHER;
+    }
 
-            if (nodeTag == Tag.STR) {
-                return JsonToken.VALUE_STRING;
+    /**
+     * Overridden to skip content at event level, without decoding scalar
+     * values or constructing read contexts for nested collections.
+     */
+    @Override
+    public JsonParser skipChildren() throws IOException
+    {
+        if ((_currToken != JsonToken.START_OBJECT) && (_currToken != JsonToken.START_ARRAY)) {
+            return this;
+        }
+        // with alias replay, skipped content may need to be recorded (or be replayed)
+        if (_anchorBuffer != null) {
+            return _skipChildrenByToken();
+        }
+        int open = 1;
+        while (true) {
+            Event evt = _nextEvent();
+            final int type = (evt == null) ? EVENT_STREAM_END : _eventType(evt);
+            if (type == EVENT_STREAM_END) {
+                _handleEOF();
+                return this;
             }
-            if (nodeTag == Tag.INT) {
-                return _decodeNumberScalar(value, len);
+            _lastEvent = evt;
+            if ((type == EVENT_MAPPING_START) || (type == EVENT_SEQUENCE_START)) {
+                ++open;
+            } else if ((type == EVENT_MAPPING_END) || (type == EVENT_SEQUENCE_END)) {
+                if (--open == 0) {
+                    break;
+                }
             }
-            if (nodeTag == Tag.FLOAT) {
-                _numTypesValid = 0;
-                return JsonToken.VALUE_NUMBER_FLOAT;
+        }
+        _currentIsAlias = false;
+        _binaryValue = null;
+        _timestampValue = TimestampDecoder.INVALID;
+        _implicitTag = null;
+        _currentAnchor = null;
+        _textInBuffer = false;
+        if (_lastEvent instanceof MappingEndEvent) {
+            if (!_parsingContext.inObject()) {
+                _reportMismatchedEndMarker('}', ']');
             }
-            if (nodeTag == Tag.BOOL) {
-                Boolean B = _matchYAMLBoolean(value, len);
-                if (B != null) {
-                    return B ? JsonToken.VALUE_TRUE : JsonToken.VALUE_FALSE;
+            _currToken = JsonToken.END_OBJECT;
+        } else {
+            if (!_parsingContext.inArray()) {
+                _reportMismatchedEndMarker(']', '}');
+            }
+            _currToken = JsonToken.END_ARRAY;
+        }
+        _parsingContext = _parsingContext.getParent();
+        return this;
+    }
+
+    /**
+     * Helper method for skipping contents of the current collection token by token,
+     * when content must go through {@link #nextToken} (for alias replay).
+     *
+     * @since 2.9
+     */
+    protected JsonParser _skipChildrenByToken() throws IOException
+    {
+        int open = 1;
+        while (true) {
+            JsonToken t = nextToken();
+            if (t == null) {
+                _handleEOF();
+                return this;
+            }
+            if (t.isStructStart()) {
+                ++open;
+            } else if (t.isStructEnd()) {
+                if (--open == 0) {
+                    return this;
                 }
-            } else if (nodeTag == Tag.NULL) {
-                return JsonToken.VALUE_NULL;
-            } else {
-                // what to do with timestamp and binary and merge etc.
+            } else if (t == JsonToken.NOT_AVAILABLE) {
+                _reportError("Not enough content available for `skipChildren()`: non-blocking parser? ("
+                        +getClass().getName()+")");
+            }
+        }
+    }
+
+    /**
+     * Method called to return the next token of the recording being replayed.
+     *
+     * @since 2.9
+     */
+    protected JsonToken _replayToken() throws IOException
+    {
+        final AnchorReplayBuffer.Recording r = _replayed;
+        final int ix = _replayIndex++;
+        if (_replayIndex == r.tokenCount()) {
+            _replayed = null;
+        }
+        _clearTokenProperties();
+        // "tokens produced" includes ones decoded, so ratio is (decoded + replayed) / decoded
+        final long produced = _decodedTokens + (++_replayedTokens);
+        if ((produced > MIN_TOKENS_FOR_EXPANSION_CHECK)
+                && (produced > (long) _maxAliasExpansionRatio * _decodedTokens)) {
+            _reportLimitExceeded("Maximum alias expansion ratio ("+_maxAliasExpansionRatio
+                    +") exceeded: "+produced+" tokens produced from "+_decodedTokens
+                    +" read; use `YAMLFactory.setMaxAliasExpansionRatio()` to increase");
+        }
+        final JsonToken t = r.tokenAt(ix);
+        _currToken = t;
+        switch (t.id()) {
+        case JsonTokenId.ID_START_OBJECT:
+            _parsingContext = _parsingContext.createChildObjectContext(-1, -1);
+            break;
+        case JsonTokenId.ID_START_ARRAY:
+            _parsingContext = _parsingContext.createChildArrayContext(-1, -1);
+            break;
+        case JsonTokenId.ID_END_OBJECT:
+        case JsonTokenId.ID_END_ARRAY:
+            _parsingContext = _parsingContext.getParent();
+            break;
+        case JsonTokenId.ID_FIELD_NAME:
+            {
+                String name = r.textAt(ix);
+                _currentFieldName = name;
+                _nameCopied = false;
+                _parsingContext.setCurrentName(name);
+            }
+            break;
+        case JsonTokenId.ID_NUMBER_INT:
+            _textValue = r.textAt(ix);
+            _parseNumericValue(NR_INT); // integral values are always decoded eagerly
+            break;
+        case JsonTokenId.ID_EMBEDDED_OBJECT:
+            // either timestamp or base64-encoded binary: latter never matches former
+            _textValue = r.textAt(ix);
+            _timestampValue = TimestampDecoder.decode(_textValue);
+            break;
+        default:
+            _textValue = r.textAt(ix);
+            _numTypesValid = NR_UNKNOWN;
+        }
+        return t;
+    }
+
+    /**
+     * Accessor for anchor of the node of the token just decoded, if any (null
+     * for aliases). Unlike {@link #getObjectId()}, includes anchors of scalar values.
+     *
+     * @since 2.9
+     */
+    protected String _nodeAnchor()
+    {
+        if (!_currentIsAlias && (_lastEvent instanceof NodeEvent)) {
+            return ((NodeEvent) _lastEvent).getAnchor();
+        }
+        return null;
+    }
+
+    /**
+     * Method called to clear information about properties of the previous
+     * token, before replaying a token.
+     *
+     * @since 2.9
+     */
+    protected void _clearTokenProperties()
+    {
+        _currentIsAlias = false;
+        _binaryValue = null;
+        _timestampValue = TimestampDecoder.INVALID;
+        _implicitTag = null;
+        _currentAnchor = null;
+        _textInBuffer = false;
+    }
+
+    /**
+     * Method called when a new document starts, to update document information
+     * and release state that only applies to a single document (anchors).
+     *
+     * @since 2.9
+     */
+    protected void _startDocument(long byteOffset, long charOffset, int row, int col)
+    {
+        ++_documentIndex;
+        _documentStartByte = byteOffset;
+        _documentStartChar = charOffset;
+        _documentStartRow = row;
+        _documentStartCol = col;
+        // anchors are scoped to a single document, and so are limits for them
+        _anchorCount = 0;
+        _aliasCount = 0;
+        _decodedTokens = 0L;
+        _replayedTokens = 0L;
+        if (_anchorBuffer != null) {
+            _anchorBuffer.reset();
+        }
+        if (_mergeKeys != null) {
+            _mergeKeys.reset();
+        }
+    }
+
+    /**
+     * Method called by {@link YAMLFactory} to enable recording of anchored content,
+     * if {@link Feature#REPLAY_ALIASES} or {@link Feature#MERGE_KEYS} is enabled.
+     *
+     * @since 2.9
+     */
+    protected void _setAnchorReplayBuffer(AnchorReplayBuffer buffer) {
+        _anchorBuffer = buffer;
+        _trackAnchors = _hasAliasChecks();
+    }
+
+    /**
+     * Method called by {@link YAMLFactory} to enable applying of merge keys, if
+     * {@link Feature#MERGE_KEYS} is enabled; requires anchor recording buffer
+     * to have been set.
+     *
+     * @since 2.9
+     */
+    protected void _setMergeKeyTracker(MergeKeyTracker tracker) {
+        _mergeKeys = tracker;
+    }
+
+    /**
+     * Method called by {@link YAMLFactory} to configure limits for anchors and aliases;
+     * <code>Integer.MAX_VALUE</code> means "no limit".
+     *
+     * @since 2.9
+     */
+    protected void _setAliasLimits(int maxAnchors, int maxAliases, int maxAliasExpansionRatio) {
+        _maxAnchors = maxAnchors;
+        _maxAliases = maxAliases;
+        _maxAliasExpansionRatio = maxAliasExpansionRatio;
+        _trackAnchors = _hasAliasChecks();
+    }
+
+    /**
+     * Method called by {@link YAMLFactory} to make parser use its tag cache.
+     *
+     * @since 2.9
+     */
+    protected void _setTagCache(YAMLTagCache cache) {
+        _tagCache = cache;
+    }
+
+    /**
+     * Method called by {@link YAMLFactory} to make parser use its scalar resolver.
+     *
+     * @since 2.9
+     */
+    protected void _setScalarResolver(YAMLScalarResolver resolver) {
+        _scalarResolver = resolver;
+    }
+
+    /**
+     * Method called by {@link YAMLFactory} to make parser return its helper
+     * objects to given pool when closed.
+     *
+     * @since 2.9
+     */
+    protected void _setReplayBufferPool(ReplayBufferPool pool) {
+        _replayBufferPool = pool;
+    }
+
+    /**
+     * Method called to close current input (if not yet closed), and to reset
+     * all parsing state, before reading from new input; sub-classes need to
+     * override it to reset their own state as well.
+     *
+     * @since 2.9
+     */
+    protected void _resetState() throws IOException
+    {
+        if (_helpersReleased) {
+            throw new IllegalStateException("Can not reset "+getClass().getName()
+                    +" after it has been closed: its helper objects were returned to the parser pool");
+        }
+        // like close(), except that helper objects are not to be returned to the pool
+        if (!_closed) {
+            _closeAtEndOfInput();
+        }
+        _closed = false;
+        _currToken = null;
+        _lastClearedToken = null;
+        _nextToken = null;
+        _inputPtr = 0;
+        _inputEnd = 0;
+        _currInputProcessed = 0L;
+        _currInputRow = 1;
+        _currInputRowStart = 0;
+        _tokenInputTotal = 0L;
+        _tokenInputRow = 1;
+        _tokenInputCol = 0;
+        _numTypesValid = NR_UNKNOWN;
+        _nameCopied = false;
+        _textBuffer.resetWithEmpty();
+        _parsingContext = JsonReadContext.createRootContext(
+                JsonParser.Feature.STRICT_DUPLICATE_DETECTION.enabledIn(_features)
+                ? DupDetector.rootDetector(this) : null);
+
+        _lastEvent = null;
+        _textValue = null;
+        _currentFieldName = null;
+        _clearTokenProperties();
+        _documentIndex = -1;
+        _documentStartByte = -1L;
+        _documentStartChar = -1L;
+        _documentStartRow = -1;
+        _documentStartCol = -1;
+        _anchorCount = 0;
+        _aliasCount = 0;
+        _decodedTokens = 0L;
+        _replayedTokens = 0L;
+        _replayed = null;
+        _replayIndex = 0;
+        if (_anchorBuffer != null) {
+            _anchorBuffer.reset();
+        }
+        if (_mergeKeys != null) {
+            _mergeKeys.reset();
+        }
+    }
+
+    private boolean _hasAliasChecks() {
+        return (_anchorBuffer != null) || (_maxAnchors < Integer.MAX_VALUE)
+                || (_maxAliases < Integer.MAX_VALUE);
+    }
+
+    /**
+     * Method called when a limit for anchors or aliases is exceeded; separate
+     * from {@link #_reportError} to always throw {@link JacksonYAMLParseException}.
+     *
+     * @since 2.9
+     */
+    protected void _reportLimitExceeded(String msg) throws JacksonYAMLParseException {
+        throw _constructError(msg);
+    }
+
+    @Override
+    protected JacksonYAMLParseException _constructError(String msg) {
+        return JacksonYAMLParseException.construct(this, msg, null,
+                Feature.CAPTURE_STACK_TRACES.enabledIn(_formatFeatures));
+    }
+
+    /**
+     * Helper method for getting the next event from SnakeYAML parser, converting
+     * SnakeYAML exceptions as necessary.
+     *
+     * @since 2.9
+     */
+    @SuppressWarnings("deprecation")
+    protected Event _nextEvent() throws IOException
+    {
+        try {
+            return _yamlParser.getEvent();
+        } catch (org.yaml.snakeyaml.error.YAMLException e) {
+            final boolean stackTrace = Feature.CAPTURE_STACK_TRACES.enabledIn(_formatFeatures);
+            if (e instanceof org.yaml.snakeyaml.error.MarkedYAMLException) {
+                throw com.fasterxml.jackson.dataformat.yaml.snakeyaml.error.MarkedYAMLException.from
+                    (this, (org.yaml.snakeyaml.error.MarkedYAMLException) e, stackTrace);
+            }
+            throw com.fasterxml.jackson.dataformat.yaml.snakeyaml.error.YAMLException.from(this, e, stackTrace);
+        }
+    }
+
+    protected JsonToken _decodeScalar(ScalarEvent scalar) throws IOException
+    {
+        // we may get an explicit tag, if so, use for corroborating...
+        return _decodeScalar(scalar.getValue(), scalar.getTag(),
+                scalar.getImplicit().canOmitTagInPlainScalar());
+    }
+
+    /**
+     * @param implicit Whether type of an untagged value may be resolved from
+     *    its contents (true for plain scalars)
+     *
+     * @since 2.9
+     */
+    protected JsonToken _decodeScalar(String value, String typeTag, boolean implicit)
+        throws IOException
+    {
+        _textValue = value;
+        final int len = value.length();
+
+        if (typeTag == null || typeTag.equals("!")) { // no, implicit
+            if (!implicit) {
                 return JsonToken.VALUE_STRING;
             }
-        } else { // yes, got type tag
-            if (typeTag.startsWith("tag:yaml.org,2002:")) {
-                typeTag = typeTag.substring("tag:yaml.org,2002:".length());
-                if (typeTag.contains(",")) {
-                    typeTag = typeTag.split(",")[0];
-                }
+            // Only values starting with specific characters (or empty) may be typed
+            if ((len > 0) && !_scalarResolver.mayBeTyped(value.charAt(0),
+                    Feature.USE_CORE_SCHEMA.enabledIn(_formatFeatures))) {
+                return JsonToken.VALUE_STRING;
             }
-            // canonical values by YAML are actually 'y' and 'n'; but plenty more unofficial:
-            if ("bool".equals(typeTag)) { // must be "true" or "false"
-                Boolean B = _matchYAMLBoolean(value, len);
+            // copy in buffer for classification; will also be needed for number decoding
+            _textBuffer.emptyAndGetCurrentSegment();
+            _textBuffer.append(value, 0, len);
+            _textInBuffer = true;
+            return _decodeImplicitScalar();
+        } else { // yes, got type tag
+            switch (_tagCache.find(typeTag).scalarType) {
+            case YAMLTagCache.SCALAR_BOOL:
+                // canonical values by YAML are actually 'y' and 'n'; but plenty more unofficial:
+                Boolean B = Feature.USE_CORE_SCHEMA.enabledIn(_formatFeatures)
+                        ? _matchCoreBoolean(value, len) : _matchYAMLBoolean(value, len);
                 if (B != null) {
                     return B ? JsonToken.VALUE_TRUE : JsonToken.VALUE_FALSE;
                 }
-            } else if ("int".equals(typeTag)) {
+                break;
+            case YAMLTagCache.SCALAR_INT:
                 return _decodeNumberScalar(value, len);
-            } else if ("float".equals(typeTag)) {
+            case YAMLTagCache.SCALAR_FLOAT:
                 _numTypesValid = 0;
                 return JsonToken.VALUE_NUMBER_FLOAT;
-            } else if ("null".equals(typeTag)) {
+            case YAMLTagCache.SCALAR_NULL:
                 return JsonToken.VALUE_NULL;
+            case YAMLTagCache.SCALAR_BINARY: // decoded lazily
+                return JsonToken.VALUE_EMBEDDED_OBJECT;
+            case YAMLTagCache.SCALAR_TIMESTAMP:
+                if (Feature.DECODE_TIMESTAMPS.enabledIn(_formatFeatures)) {
+                    _timestampValue = TimestampDecoder.decode(value);
+                    if (_timestampValue != TimestampDecoder.INVALID) {
+                        return JsonToken.VALUE_EMBEDDED_OBJECT;
+                    }
+                }
+                break;
             }
         }
         
@@ -500,6 +1640,76 @@ public class YAMLParser extends ParserBase
         return JsonToken.VALUE_STRING;
     }
 
+    /**
+     * Method for resolving type of an untagged plain scalar, contents of which
+     * are in {@link #_textBuffer}; {@link #_textValue} may or may not have
+     * been constructed.
+     *
+     * @since 2.9
+     */
+    protected JsonToken _decodeImplicitScalar() throws IOException
+    {
+        final char[] buf = _textBuffer.getTextBuffer();
+        final int offset = _textBuffer.getTextOffset();
+        final int len = _textBuffer.size();
+        switch (_scalarResolver.classify(buf, offset, len,
+                Feature.USE_CORE_SCHEMA.enabledIn(_formatFeatures))) {
+        case ScalarClassifier.TYPE_NULL:
+            return JsonToken.VALUE_NULL;
+        case ScalarClassifier.TYPE_TRUE:
+            return JsonToken.VALUE_TRUE;
+        case ScalarClassifier.TYPE_FALSE:
+            return JsonToken.VALUE_FALSE;
+        case ScalarClassifier.TYPE_INT:
+            // Sexagesimal values ("3:00") are reported as Strings, as per
+            // [dataformat-yaml#69]; explicit `!!int` tag may be used for them
+            if (_decodeIntValue(buf, offset, len, false)) {
+                return JsonToken.VALUE_NUMBER_INT;
+            }
+            return JsonToken.VALUE_STRING;
+        case ScalarClassifier.TYPE_FLOAT:
+            _numTypesValid = 0;
+            return JsonToken.VALUE_NUMBER_FLOAT;
+        case ScalarClassifier.TYPE_TIMESTAMP:
+            if (Feature.DECODE_TIMESTAMPS.enabledIn(_formatFeatures)) {
+                _timestampValue = TimestampDecoder.decode(buf, offset, len);
+                if (_timestampValue != TimestampDecoder.INVALID) {
+                    return JsonToken.VALUE_EMBEDDED_OBJECT;
+                }
+            }
+            break;
+        case ScalarClassifier.TYPE_STRING:
+            if (_scalarResolver.hasImplicitTypes()) {
+                String tag = _scalarResolver.findImplicitTag(buf, offset, len);
+                if (tag != null) {
+                    // handled as if tag was explicit
+                    _implicitTag = tag;
+                    return _decodeScalar(_textBuffer.contentsAsString(), tag, false);
+                }
+            }
+            break;
+        }
+        // what to do with binary and merge etc.
+        return JsonToken.VALUE_STRING;
+    }
+
+    /**
+     * Method for decoding value explicitly tagged as <code>!!bool</code>, when
+     * {@link Feature#USE_CORE_SCHEMA} is enabled.
+     *
+     * @since 2.9
+     */
+    protected Boolean _matchCoreBoolean(String value, int len)
+    {
+        switch (ScalarClassifier.classifyCore(value)) {
+        case ScalarClassifier.TYPE_TRUE:
+            return Boolean.TRUE;
+        case ScalarClassifier.TYPE_FALSE:
+            return Boolean.FALSE;
+        }
+        return null;
+    }
+
     protected Boolean _matchYAMLBoolean(String value, int len)
     {
         switch (len) {
@@ -527,38 +1737,19 @@ public class YAMLParser extends ParserBase
         return null;
     }
 
+    /**
+     * Method called to decode value explicitly tagged as <code>!!int</code>.
+     */
     protected JsonToken _decodeNumberScalar(String value, final int len)
+        throws IOException
     {
-        if ("0".equals(value)) { // special case for regexp (can't take minus etc)
-            _numberNegative = false;
-            _numberInt = 0;
-            _numTypesValid = NR_INT;
-            return JsonToken.VALUE_NUMBER_INT;
+        if (!_textInBuffer) {
+            _textBuffer.emptyAndGetCurrentSegment();
+            _textBuffer.append(value, 0, len);
+            _textInBuffer = true;
         }
-        /* 05-May-2012, tatu: Turns out this is a hot spot; so let's write it
-         *   out and avoid regexp overhead...
-         */
-        //if (PATTERN_INT.matcher(value).matches()) {
-        int i;
-        if (value.charAt(0) == '-') {
-            _numberNegative = true;
-            i = 1;
-            if (len == 1) {
-                return null;
-            }
-        } else {
-            _numberNegative = false;
-            i = 0;
-        }
-        while (true) {
-            int c = value.charAt(i);
-            if (c > '9' || c < '0') {
-                break;
-            }
-            if (++i == len) {
-                _numTypesValid = 0;
-                return JsonToken.VALUE_NUMBER_INT;
-            }
+        if (_decodeIntValue(_textBuffer.getTextBuffer(), _textBuffer.getTextOffset(), len, true)) {
+            return JsonToken.VALUE_NUMBER_INT;
         }
         if (PATTERN_FLOAT.matcher(value).matches()) {
             _numTypesValid = 0;
@@ -568,7 +1759,195 @@ public class YAMLParser extends ParserBase
         // 25-Aug-2016, tatu: If we can't actually match it to valid number,
         //    consider String; better than claiming there's not toekn
         return JsonToken.VALUE_STRING;
-    }   
+    }
+
+    /**
+     * Method for decoding YAML integer value in a single pass, accumulating
+     * value as digits are validated, so that no further parsing is needed
+     * when value is accessed. Supports all YAML 1.1 forms: optional sign,
+     * decimal, binary ("0b"), octal ("0o"; or "0" if {@link Feature#DECODE_LEGACY_OCTAL}
+     * is enabled), hexadecimal ("0x") and (optionally) sexagesimal ("1:30") notations,
+     * all with optional underscores.
+     *
+     * @return True if content was a valid integer (and number value was set);
+     *    false if not
+     *
+     * @since 2.9
+     */
+    protected boolean _decodeIntValue(char[] buf, int offset, int len,
+            boolean allowSexagesimal)
+    {
+        final int end = offset + len;
+        int i = offset;
+        if (len == 0) {
+            return false;
+        }
+        char c = buf[i];
+        final boolean negative = (c == '-');
+        if (negative || c == '+') {
+            if (++i == end) {
+                return false;
+            }
+        }
+        if (Feature.USE_CORE_SCHEMA.enabledIn(_formatFeatures)) {
+            // no binary, sexagesimal or leading-zero octal numbers, nor underscores;
+            // prefixed ones unsigned
+            for (int j = i; j < end; ++j) {
+                if (buf[j] == '_') {
+                    return false;
+                }
+            }
+            if (buf[i] == '0' && (i+1) < end && i == offset) {
+                switch (buf[i+1]) {
+                case 'o':
+                    return _decodeIntDigits(buf, i+2, end, 8, false, false);
+                case 'x':
+                    return _decodeIntDigits(buf, i+2, end, 16, false, false);
+                }
+            }
+            return _decodeIntDigits(buf, i, end, 10, negative, false);
+        }
+        if (buf[i] == '0' && (i+1) < end) { // prefixed (or leading zero for octal)
+            switch (buf[i+1]) {
+            case 'b':
+                return _decodeIntDigits(buf, i+2, end, 2, negative, false);
+            case 'o':
+                return _decodeIntDigits(buf, i+2, end, 8, negative, false);
+            case 'x':
+                return _decodeIntDigits(buf, i+2, end, 16, negative, false);
+            }
+            // "0" itself is valid octal digit, no need to skip; but if not valid
+            // octal (explicitly tagged values are not validated), try as decimal
+            if (Feature.DECODE_LEGACY_OCTAL.enabledIn(_formatFeatures)
+                    && _decodeIntDigits(buf, i, end, 8, negative, false)) {
+                return true;
+            }
+        }
+        return _decodeIntDigits(buf, i, end, 10, negative, allowSexagesimal);
+    }
+
+    private boolean _decodeIntDigits(char[] buf, final int start, final int end,
+            final int radix, final boolean negative, boolean allowSexagesimal)
+    {
+        if (start == end) {
+            return false;
+        }
+        final long limit = Long.MAX_VALUE / radix;
+        long value = 0L;
+        boolean overflow = false;
+        boolean digits = false;
+
+        for (int i = start; i < end; ++i) {
+            char c = buf[i];
+            if (c == '_') {
+                continue;
+            }
+            int digit = _digitValue(c);
+            if (digit < 0 || digit >= radix) {
+                if (c == ':' && allowSexagesimal && !overflow && digits) {
+                    return _decodeSexagesimal(buf, i, end, value, negative);
+                }
+                return false;
+            }
+            digits = true;
+            if (!overflow) {
+                if (value > limit) {
+                    overflow = true;
+                } else {
+                    value = (value * radix) + digit;
+                    if (value < 0L) {
+                        overflow = true;
+                    }
+                }
+            }
+        }
+        // underscores alone (like "0x_") do not make a number
+        if (!digits) {
+            return false;
+        }
+        _numberNegative = negative;
+        if (overflow) { // rare, so no need to optimize
+            StringBuilder sb = new StringBuilder(end - start);
+            for (int i = start; i < end; ++i) {
+                if (buf[i] != '_') {
+                    sb.append(buf[i]);
+                }
+            }
+            BigInteger big = new BigInteger(sb.toString(), radix);
+            if (negative) {
+                big = big.negate();
+            }
+            // Could still fit in a long (Long.MIN_VALUE), need to check
+            if (big.bitLength() <= 63) {
+                _numberLong = big.longValue();
+                _numTypesValid = NR_LONG;
+            } else {
+                _numberBigInt = big;
+                _numTypesValid = NR_BIGINT;
+            }
+            return true;
+        }
+        _setIntValue(negative ? -value : value);
+        return true;
+    }
+
+    /**
+     * Helper method for decoding rest of sexagesimal ("base 60") integer
+     * value, starting at the first colon.
+     */
+    private boolean _decodeSexagesimal(char[] buf, int i, final int end,
+            long value, boolean negative)
+    {
+        final long limit = (Long.MAX_VALUE - 59) / 60;
+        while (i < end) {
+            if (buf[i] != ':') {
+                return false;
+            }
+            final int start = ++i;
+            int part = 0;
+            for (; i < end; ++i) {
+                char c = buf[i];
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                part = (part * 10) + (c - '0');
+            }
+            final int count = i - start;
+            if (count == 0 || count > 2 || part >= 60 || value > limit) {
+                return false;
+            }
+            value = (value * 60) + part;
+        }
+        _numberNegative = negative;
+        _setIntValue(negative ? -value : value);
+        return true;
+    }
+
+    private void _setIntValue(long l)
+    {
+        int i = (int) l;
+        if (i == l) {
+            _numberInt = i;
+            _numTypesValid = NR_INT;
+        } else {
+            _numberLong = l;
+            _numTypesValid = NR_LONG;
+        }
+    }
+
+    private static int _digitValue(char c)
+    {
+        if (c <= '9') {
+            return (c >= '0') ? (c - '0') : -1;
+        }
+        if (c >= 'a') {
+            return (c <= 'f') ? (c - 'a' + 10) : -1;
+        }
+        if (c >= 'A') {
+            return (c <= 'F') ? (c - 'A' + 10) : -1;
+        }
+        return -1;
+    }
 
     /*
     /**********************************************************
@@ -576,16 +1955,21 @@ public class YAMLParser extends ParserBase
     /**********************************************************
      */
 
-    // For now we do not store char[] representation...
     @Override
     public boolean hasTextCharacters() {
-        return false;
+        if (_currToken == JsonToken.FIELD_NAME) {
+            return _nameCopied;
+        }
+        return _textInBuffer;
     }
-    
+
     @Override
     public String getText() throws IOException
     {
         if (_currToken == JsonToken.VALUE_STRING) {
+            if (_textValue == null) {
+                _textValue = _textBuffer.contentsAsString();
+            }
             return _textValue;
         }
         if (_currToken == JsonToken.FIELD_NAME) {
@@ -593,6 +1977,9 @@ public class YAMLParser extends ParserBase
         }
         if (_currToken != null) {
             if (_currToken.isScalarValue()) {
+                if ((_textValue == null) && _textInBuffer) {
+                    _textValue = _textBuffer.contentsAsString();
+                }
                 return _textValue;
             }
             return _currToken.asString();
@@ -610,25 +1997,67 @@ public class YAMLParser extends ParserBase
     }
 
     @Override
-    public char[] getTextCharacters() throws IOException {
-        String text = getText();
-        return (text == null) ? null : text.toCharArray();
+    public char[] getTextCharacters() throws IOException
+    {
+        if (_currToken == null) {
+            return null;
+        }
+        if (_currToken == JsonToken.FIELD_NAME) {
+            if (!_nameCopied) {
+                _copyName(_currentFieldName);
+            }
+            return _nameCopyBuffer;
+        }
+        if (_currToken.isScalarValue()) {
+            if (!_textInBuffer) { // value only available as String; copy once
+                _textBuffer.emptyAndGetCurrentSegment();
+                _textBuffer.append(_textValue, 0, _textValue.length());
+                _textInBuffer = true;
+            }
+            return _textBuffer.getTextBuffer();
+        }
+        return _currToken.asCharArray();
     }
 
     @Override
-    public int getTextLength() throws IOException {
-        String text = getText();
-        return (text == null) ? 0 : text.length();
+    public int getTextLength() throws IOException
+    {
+        if (_currToken == null) {
+            return 0;
+        }
+        if (_currToken == JsonToken.FIELD_NAME) {
+            return _currentFieldName.length();
+        }
+        if (_currToken.isScalarValue()) {
+            return _textInBuffer ? _textBuffer.size() : _textValue.length();
+        }
+        return _currToken.asCharArray().length;
     }
 
     @Override
-    public int getTextOffset() throws IOException {
+    public int getTextOffset() throws IOException
+    {
+        if (_textInBuffer && (_currToken != JsonToken.FIELD_NAME)) {
+            return _textBuffer.getTextOffset();
+        }
         return 0;
     }
 
+    /**
+     * Method for writing text of the current token to given {@link Writer}.
+     * If text of a scalar value is still in {@link #_textBuffer} (as is always
+     * the case with {@link Feature#USE_UTF8_PARSER}), it is copied segment by
+     * segment and no {@link String} is constructed, so even very long
+     * (multi-megabyte) block scalars can be accessed without allocating
+     * a single contiguous copy. SnakeYAML-backed parsing always constructs
+     * a {@link String} for scalar values, which is then written as is.
+     */
     @Override // since 2.8
     public int getText(Writer writer) throws IOException
     {
+        if (_textInBuffer && (_currToken != null) && _currToken.isScalarValue()) {
+            return _textBuffer.contentsToWriter(writer);
+        }
         String str = getText();
         if (str == null) {
             return 0;
@@ -637,33 +2066,125 @@ public class YAMLParser extends ParserBase
         return str.length();
     }
 
+    /**
+     * Helper method for finding canonical instance of given field name, when
+     * name is only available as a {@link String} (as is the case with SnakeYAML).
+     * As a side effect, name is also left in the name copy buffer.
+     *
+     * @since 2.9
+     */
+    protected String _canonicalName(String name) throws IOException
+    {
+        if (_symbols == null) {
+            _nameCopied = false;
+            return name;
+        }
+        final int len = _copyName(name);
+        return _symbols.findSymbol(_nameCopyBuffer, 0, len,
+                _symbols.calcHash(_nameCopyBuffer, 0, len));
+    }
+
+    /**
+     * @since 2.9
+     */
+    protected int _copyName(String name)
+    {
+        final int len = name.length();
+        if (_nameCopyBuffer == null) {
+            _nameCopyBuffer = _ioContext.allocNameCopyBuffer(len);
+        } else if (_nameCopyBuffer.length < len) {
+            _nameCopyBuffer = new char[len];
+        }
+        name.getChars(0, len, _nameCopyBuffer, 0);
+        _nameCopied = true;
+        return len;
+    }
+
     /*
     /**********************************************************************
     /* Binary (base64)
     /**********************************************************************
      */
 
+    /**
+     * Values tagged as <code>!!binary</code> are exposed as
+     * {@link JsonToken#VALUE_EMBEDDED_OBJECT}s, for which decoded contents
+     * are returned as <code>byte[]</code>; as are timestamps, if
+     * {@link Feature#DECODE_TIMESTAMPS} is enabled, returned as {@link java.util.Date}.
+     */
     @Override
-    public Object getEmbeddedObject() throws IOException {
+    public Object getEmbeddedObject() throws IOException
+    {
+        if (_currToken == JsonToken.VALUE_EMBEDDED_OBJECT) {
+            if (_timestampValue != TimestampDecoder.INVALID) {
+                return new java.util.Date(_timestampValue);
+            }
+            return getBinaryValue(Base64Variants.getDefaultVariant());
+        }
         return null;
     }
 
-    // TODO: can remove from 2.9 or so (base impl added in 2.8)
-    @SuppressWarnings("resource")
     @Override
     public byte[] getBinaryValue(Base64Variant variant) throws IOException
     {
         if (_binaryValue == null) {
-            if (_currToken != JsonToken.VALUE_STRING) {
-                _reportError("Current token ("+_currToken+") not VALUE_STRING, can not access as binary");
-            }
+            _verifyBinaryToken();
+            @SuppressWarnings("resource")
             ByteArrayBuilder builder = _getByteArrayBuilder();
-            _decodeBase64(getText(), builder, variant);
+            _decodeBinary(variant, builder);
             _binaryValue = builder.toByteArray();
         }
         return _binaryValue;
     }
 
+    /**
+     * Implementation that decodes base64 content in chunks, directly from the
+     * text buffer (or value String, if that is where content is), without
+     * buffering decoded content.
+     */
+    @Override
+    public int readBinaryValue(Base64Variant variant, OutputStream out) throws IOException
+    {
+        if (_binaryValue != null) { // already decoded
+            out.write(_binaryValue);
+            return _binaryValue.length;
+        }
+        _verifyBinaryToken();
+        return _decodeBinary(variant, out);
+    }
+
+    private void _verifyBinaryToken() throws IOException
+    {
+        if ((_currToken != JsonToken.VALUE_STRING) && (_currToken != JsonToken.VALUE_EMBEDDED_OBJECT)) {
+            _reportError("Current token ("+_currToken+") not VALUE_STRING or VALUE_EMBEDDED_OBJECT, can not access as binary");
+        }
+        if (_timestampValue != TimestampDecoder.INVALID) {
+            _reportError("Current token (VALUE_EMBEDDED_OBJECT) is a timestamp, can not access as binary");
+        }
+    }
+
+    /**
+     * @since 2.9
+     */
+    protected int _decodeBinary(Base64Variant variant, OutputStream out) throws IOException
+    {
+        byte[] buf = _ioContext.allocBase64Buffer();
+        try {
+            Base64DecodingWriter w = new Base64DecodingWriter(variant, out, buf);
+            if (_textInBuffer) {
+                _textBuffer.contentsToWriter(w);
+            } else {
+                w.write(_textValue, 0, _textValue.length());
+            }
+            return w.finish();
+        } catch (IllegalArgumentException e) {
+            _reportError("Failed to decode "+_currToken+" as base64 ("+variant+"): "+e.getMessage());
+            return 0; // never gets here
+        } finally {
+            _ioContext.releaseBase64Buffer(buf);
+        }
+    }
+
     /*
     /**********************************************************************
     /* Number accessor overrides
@@ -675,64 +2196,43 @@ public class YAMLParser extends ParserBase
     {
         // Int or float?
         if (_currToken == JsonToken.VALUE_NUMBER_INT) {
-            int len = _textValue.length();
-            if (_numberNegative) {
-                len--;
-            }
-            if (len <= 9) { // definitely fits in int
-                _numberInt = Integer.parseInt(_textValue);
-                _numTypesValid = NR_INT;
-                return;
-            }
-            if (len <= 18) { // definitely fits AND is easy to parse using 2 int parse calls
-                long l = Long.parseLong(_textValue);
-                // [JACKSON-230] Could still fit in int, need to check
-                if (len == 10) {
-                    if (_numberNegative) {
-                        if (l >= Integer.MIN_VALUE) {
-                            _numberInt = (int) l;
-                            _numTypesValid = NR_INT;
-                            return;
-                        }
-                    } else {
-                        if (l <= Integer.MAX_VALUE) {
-                            _numberInt = (int) l;
-                            _numTypesValid = NR_INT;
-                            return;
-                        }
-                    }
-                }
-                _numberLong = l;
-                _numTypesValid = NR_LONG;
-                return;
+            // Integer values are usually decoded along with token, but just in case
+            // (sub-class did not) decode now
+            String text = getText();
+            _textBuffer.emptyAndGetCurrentSegment();
+            _textBuffer.append(text, 0, text.length());
+            _textInBuffer = true;
+            if (!_decodeIntValue(_textBuffer.getTextBuffer(), _textBuffer.getTextOffset(),
+                    text.length(), true)) {
+                _reportError("Malformed numeric value '"+text+"'");
             }
-            // !!! TODO: implement proper bounds checks; now we'll just use BigInteger for convenience
-            try {
-                BigInteger n = new BigInteger(_textValue);
-                // Could still fit in a long, need to check
-                if (len == 19 && n.bitLength() <= 63) {
-                    _numberLong = n.longValue();
-                    _numTypesValid = NR_LONG;
+            return;
+        }
+        if (_currToken == JsonToken.VALUE_NUMBER_FLOAT) {
+            if ((expType != NR_BIGDECIMAL) && Feature.USE_FAST_DOUBLE_PARSER.enabledIn(_formatFeatures)) {
+                if (!_textInBuffer) {
+                    _textBuffer.emptyAndGetCurrentSegment();
+                    _textBuffer.append(_textValue, 0, _textValue.length());
+                    _textInBuffer = true;
+                }
+                try {
+                    _numberDouble = FastDoubleParser.parseDouble(_textBuffer.getTextBuffer(),
+                            _textBuffer.getTextOffset(), _textBuffer.size());
+                    _numTypesValid = NR_DOUBLE;
                     return;
+                } catch (NumberFormatException e) {
+                    // not necessarily invalid (sexagesimal, or lenient JDK notation), fall through
                 }
-                _numberBigInt = n;
-                _numTypesValid = NR_BIGINT;
-                return;
-            } catch (NumberFormatException nex) {
-                // Can this ever occur? Due to overflow, maybe?
-                _wrapError("Malformed numeric value '"+_textValue+"'", nex);
             }
-        }
-        if (_currToken == JsonToken.VALUE_NUMBER_FLOAT) {
             // related to [Issue-4]: strip out optional underscores, if any:
-            String str = _cleanYamlDouble(_textValue);
+            String str = _cleanYamlDouble(getText());
             try {
                 if (expType == NR_BIGDECIMAL) {
                     _numberBigDecimal = new BigDecimal(str);
                     _numTypesValid = NR_BIGDECIMAL;
                 } else {
                     // Otherwise double has to do
-                    _numberDouble = Double.parseDouble(str);
+                    _numberDouble = _parseYamlDouble(str);
                     _numTypesValid = NR_DOUBLE;
                 }
             } catch (NumberFormatException nex) {
@@ -744,26 +2244,6 @@ public class YAMLParser extends ParserBase
         _reportError("Current token ("+_currToken+") not numeric, can not use numeric value accessors");
     }
 
-    @Override
-    protected int _parseIntValue() throws IOException
-    {
-        if (_currToken == JsonToken.VALUE_NUMBER_INT) {
-            int len = _textValue.length();
-            if (_numberNegative) {
-                len--;
-            }
-            if (len <= 9) { // definitely fits in int
-                _numTypesValid = NR_INT;
-                return (_numberInt = Integer.parseInt(_textValue));
-            }
-        }
-        _parseNumericValue(NR_INT);
-        if ((_numTypesValid & NR_INT) == 0) {
-            convertNumberToInt();
-        }
-        return _numberInt;
-    }
-
     /*
     /**********************************************************************
     /* Native id (type id) access
@@ -789,7 +2269,10 @@ public class YAMLParser extends ParserBase
     @Override
     public String getTypeId() throws IOException, JsonGenerationException
     {
-        String tag;
+        String tag = _implicitTag;
+        if (tag != null) {
+            return _tagCache.find(tag).typeId;
+        }
         if (_lastEvent instanceof CollectionStartEvent) {
             tag = ((CollectionStartEvent) _lastEvent).getTag();
         } else if (_lastEvent instanceof ScalarEvent) {
@@ -800,12 +2283,9 @@ public class YAMLParser extends ParserBase
         if (tag != null) {
             /* 04-Aug-2013, tatu: Looks like YAML parser's expose these in...
              *   somewhat exotic ways sometimes. So let's prepare to peel off
-             *   some wrappings:
+             *   some wrappings (pre-stripped ids are cached)
              */
-            while (tag.startsWith("!")) {
-                tag = tag.substring(1);
-            }
-            return tag;
+            return _tagCache.find(tag).typeId;
         }
         return null;
     }
@@ -839,4 +2319,61 @@ public class YAMLParser extends ParserBase
         }
         return sb.toString();
     }
+
+    /**
+     * Helper method for decoding YAML floating-point value (with underscores
+     * already removed) using JDK, handling YAML-specific notations JDK does not
+     * accept: special values (".inf", "-.Inf", ".nan") and sexagesimal values ("1:30.5").
+     */
+    private double _parseYamlDouble(String str)
+    {
+        final int len = str.length();
+        final int start = (len > 0 && (str.charAt(0) == '-' || str.charAt(0) == '+')) ? 1 : 0;
+        if ((len - start) == 4 && str.charAt(start) == '.') {
+            return FastDoubleParser.parseDouble(str.toCharArray(), 0, len);
+        }
+        final int ix = str.indexOf(':');
+        if (ix < 0) {
+            return Double.parseDouble(str);
+        }
+        final boolean negative = str.startsWith("-");
+        double value = Double.parseDouble(str.substring(0, ix));
+        if (negative) {
+            value = -value;
+        }
+        int partStart = ix+1;
+        for (int end; (end = str.indexOf(':', partStart)) >= 0; partStart = end+1) {
+            value = (value * 60.0) + Integer.parseInt(str.substring(partStart, end));
+        }
+        value = (value * 60.0) + Double.parseDouble(str.substring(partStart));
+        return negative ? -value : value;
+    }
+
+    /*
+    /**********************************************************************
+    /* Helper classes
+    /**********************************************************************
+     */
+
+    /**
+     * {@link StreamReader} used when {@link Feature#TRACK_LOCATIONS} is disabled:
+     * SnakeYAML asks for a {@link Mark} for start and end of every token and event,
+     * so instead of constructing new ones we just keep on returning the first one.
+     */
+    private final static class UntrackedStreamReader extends StreamReader
+    {
+        private Mark _mark;
+
+        public UntrackedStreamReader(Reader r) {
+            super(r);
+        }
+
+        @Override
+        public Mark getMark() {
+            if (_mark == null) {
+                _mark = super.getMark();
+            }
+            return _mark;
+        }
+    }
 }
@@ -0,0 +1,304 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
+import com.fasterxml.jackson.core.filter.TokenFilter;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+
+/**
+ * Projection of content to values at a set of {@link JsonPointer} paths:
+ * parsers constructed by {@link #createParser} only expose the selected values
+ * (along with enclosing structure, to keep token stream valid). Subtrees that
+ * can not contain selected values are skipped using {@link JsonParser#skipChildren},
+ * without decoding their contents, and once all selected values have been
+ * read, reading stops and remaining input is not parsed at all.
+ *<p>
+ * Note that since only selected elements of arrays are exposed, indexes of
+ * exposed elements are not retained; and that only the first match of each
+ * path is considered for early termination.
+ *<p>
+ * Instances are immutable and may be shared; a new parser should be
+ * constructed for each read.
+ *
+ * @since 2.9
+ */
+public final class YAMLProjection
+{
+    private final JsonPointer[] _paths;
+
+    /**
+     * Whether projection includes the whole document (one of paths is the
+     * empty pointer)
+     */
+    private final boolean _includeAll;
+
+    public YAMLProjection(Collection<JsonPointer> paths)
+    {
+        if (paths.isEmpty()) {
+            throw new IllegalArgumentException("Need at least one path to project");
+        }
+        _paths = paths.toArray(new JsonPointer[paths.size()]);
+        boolean all = false;
+        for (JsonPointer p : _paths) {
+            if (p.matches()) {
+                all = true;
+            }
+        }
+        _includeAll = all;
+    }
+
+    public YAMLProjection(JsonPointer... paths) {
+        this(Arrays.asList(paths));
+    }
+
+    public static YAMLProjection forPaths(String... paths)
+    {
+        JsonPointer[] ptrs = new JsonPointer[paths.length];
+        for (int i = 0; i < paths.length; ++i) {
+            ptrs[i] = JsonPointer.compile(paths[i]);
+        }
+        return new YAMLProjection(ptrs);
+    }
+
+    /**
+     * Factory method for constructing a parser that exposes projected content
+     * of given parser; closing returned parser closes the underlying parser.
+     */
+    public JsonParser createParser(JsonParser p)
+    {
+        if (_includeAll) {
+            return p;
+        }
+        TerminatingParser tp = new TerminatingParser(p, _paths.length);
+        int[] ids = new int[_paths.length];
+        for (int i = 0; i < ids.length; ++i) {
+            ids[i] = i;
+        }
+        return new FilteringParserDelegate(tp, new PathFilter(_paths, ids, tp),
+                true, true);
+    }
+
+    /*
+    /**********************************************************************
+    /* Helper classes
+    /**********************************************************************
+     */
+
+    /**
+     * Filter that matches remaining parts of a set of paths, and reports full
+     * matches to {@link TerminatingParser}.
+     */
+    private final static class PathFilter extends TokenFilter
+    {
+        private final JsonPointer[] _tails;
+
+        /**
+         * Indexes of original paths for {@link #_tails}
+         */
+        private final int[] _ids;
+
+        private final TerminatingParser _parser;
+
+        PathFilter(JsonPointer[] tails, int[] ids, TerminatingParser p) {
+            _tails = tails;
+            _ids = ids;
+            _parser = p;
+        }
+
+        @Override
+        public TokenFilter includeProperty(String name) {
+            return _child(name, -1);
+        }
+
+        @Override
+        public TokenFilter includeElement(int index) {
+            return _child(null, index);
+        }
+
+        // Scalars are only included via INCLUDE_ALL, for full matches
+        @Override
+        protected boolean _includeScalar() {
+            return false;
+        }
+
+        private TokenFilter _child(String name, int index)
+        {
+            JsonPointer[] tails = null;
+            int[] ids = null;
+            int count = 0;
+            boolean fullMatch = false;
+
+            for (int i = 0, len = _tails.length; i < len; ++i) {
+                JsonPointer p = _tails[i];
+                if ((name == null) ? !p.matchesElement(index) : !p.matchesProperty(name)) {
+                    continue;
+                }
+                p = p.tail();
+                if (p.matches()) {
+                    fullMatch = true;
+                    _parser._matched(_ids[i]);
+                    continue;
+                }
+                if (tails == null) {
+                    tails = new JsonPointer[len - i];
+                    ids = new int[len - i];
+                }
+                tails[count] = p;
+                ids[count] = _ids[i];
+                ++count;
+            }
+            if (fullMatch) {
+                // any longer paths are within included content, so also matched
+                for (int i = 0; i < count; ++i) {
+                    _parser._matched(ids[i]);
+                }
+                return TokenFilter.INCLUDE_ALL;
+            }
+            if (count == 0) {
+                return null;
+            }
+            if (count < tails.length) {
+                tails = Arrays.copyOf(tails, count);
+                ids = Arrays.copyOf(ids, count);
+            }
+            return new PathFilter(tails, ids, _parser);
+        }
+    }
+
+    /**
+     * Wrapper for the actual parser that keeps track of nesting, and once all
+     * paths have been matched (and the last matched value completely read),
+     * closes underlying parser and only returns end markers for collections
+     * still open.
+     */
+    private final static class TerminatingParser extends JsonParserDelegate
+    {
+        private final boolean[] _matched;
+
+        private int _remaining;
+
+        /**
+         * Nesting depth of the value last matched, if all paths have been
+         * matched; -1 otherwise.
+         */
+        private int _matchDepth = -1;
+
+        /**
+         * Types of open collections: true for Objects, false for Arrays
+         */
+        private boolean[] _objects = new boolean[16];
+
+        private int _depth;
+
+        /**
+         * Token returned once underlying parser is no longer read
+         */
+        private JsonToken _endToken;
+
+        private boolean _terminated;
+
+        TerminatingParser(JsonParser p, int pathCount) {
+            super(p);
+            _matched = new boolean[pathCount];
+            _remaining = pathCount;
+        }
+
+        void _matched(int id)
+        {
+            if (!_matched[id]) {
+                _matched[id] = true;
+                if (--_remaining == 0) {
+                    // start of a collection is already counted as nested
+                    _matchDepth = delegate.hasToken(JsonToken.START_OBJECT)
+                            || delegate.hasToken(JsonToken.START_ARRAY) ? (_depth - 1) : _depth;
+                }
+            }
+        }
+
+        @Override
+        public JsonToken nextToken() throws IOException
+        {
+            if (!_terminated && (_matchDepth == _depth)
+                    && !delegate.hasToken(JsonToken.FIELD_NAME)) {
+                _terminated = true;
+                delegate.close();
+            }
+            if (_terminated) {
+                if (_depth == 0) {
+                    _endToken = null;
+                } else {
+                    _endToken = _objects[--_depth] ? JsonToken.END_OBJECT : JsonToken.END_ARRAY;
+                }
+                return _endToken;
+            }
+            JsonToken t = delegate.nextToken();
+            if (t != null) {
+                if (t.isStructStart()) {
+                    if (_depth == _objects.length) {
+                        _objects = Arrays.copyOf(_objects, _depth << 1);
+                    }
+                    _objects[_depth++] = (t == JsonToken.START_OBJECT);
+                } else if (t.isStructEnd()) {
+                    --_depth;
+                }
+            }
+            return t;
+        }
+
+        @Override
+        public JsonParser skipChildren() throws IOException
+        {
+            if (!_terminated) {
+                JsonToken t = delegate.getCurrentToken();
+                if ((t != null) && t.isStructStart()) {
+                    delegate.skipChildren();
+                    --_depth;
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public JsonToken getCurrentToken() {
+            return _terminated ? _endToken : delegate.getCurrentToken();
+        }
+
+        @Override
+        public JsonToken currentToken() {
+            return _terminated ? _endToken : delegate.currentToken();
+        }
+
+        @Override
+        public int getCurrentTokenId() {
+            return _terminated ? _tokenId() : delegate.getCurrentTokenId();
+        }
+
+        @Override
+        public int currentTokenId() {
+            return _terminated ? _tokenId() : delegate.currentTokenId();
+        }
+
+        @Override
+        public boolean hasCurrentToken() {
+            return _terminated ? (_endToken != null) : delegate.hasCurrentToken();
+        }
+
+        @Override
+        public boolean hasTokenId(int id) {
+            return _terminated ? (_tokenId() == id) : delegate.hasTokenId(id);
+        }
+
+        @Override
+        public boolean hasToken(JsonToken t) {
+            return _terminated ? (_endToken == t) : delegate.hasToken(t);
+        }
+
+        private int _tokenId() {
+            return (_endToken == null) ? JsonTokenId.ID_NO_TOKEN : _endToken.id();
+        }
+    }
+}
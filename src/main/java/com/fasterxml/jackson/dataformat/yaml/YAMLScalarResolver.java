@@ -0,0 +1,182 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable (and so thread-safe) resolver of implicit types of plain scalars,
+ * shared by all parsers a {@link YAMLFactory} constructs (see
+ * {@link YAMLFactory#setScalarResolver}). Standard types (YAML 1.1 types, or YAML 1.2
+ * Core Schema) are resolved using {@link ScalarClassifier}; in addition, custom implicit types may be
+ * registered, similar to <code>Resolver.addImplicitResolver()</code> of SnakeYAML.
+ *<p>
+ * Custom types are only checked for values that do not resolve to any of
+ * standard types, in order of registration, and only if the first character
+ * of the value is one of characters specified for the type. Values resolved
+ * to custom types are handled as if they had the type tag: that is, tag determines
+ * type of the token (for example <code>tag:yaml.org,2002:int</code> makes value
+ * a number), and is exposed as type id (see {@link YAMLParser#getTypeId}).
+ *
+ * @since 2.9
+ */
+public final class YAMLScalarResolver
+    implements java.io.Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Resolver that only resolves standard types
+     */
+    public final static YAMLScalarResolver DEFAULT = new YAMLScalarResolver(new ImplicitType[0]);
+
+    private final ImplicitType[] _implicitTypes;
+
+    /**
+     * ASCII characters that values of custom types may start with
+     */
+    private final boolean[] _firstChars = new boolean[128];
+
+    /**
+     * Whether values of custom types may start with any character
+     */
+    private final boolean _anyFirstChar;
+
+    /**
+     * Whether values of custom types may start with a non-ASCII character;
+     * exact character is not checked, as parsers reading UTF-8 encoded
+     * content only pass the first byte
+     */
+    private final boolean _nonAsciiFirstChar;
+
+    private YAMLScalarResolver(ImplicitType[] types)
+    {
+        _implicitTypes = types;
+        boolean any = false, nonAscii = false;
+        for (ImplicitType type : types) {
+            if (type.firstChars == null) {
+                any = true;
+                continue;
+            }
+            for (int i = 0, end = type.firstChars.length(); i < end; ++i) {
+                char c = type.firstChars.charAt(i);
+                if (c < 128) {
+                    _firstChars[c] = true;
+                } else {
+                    nonAscii = true;
+                }
+            }
+        }
+        _anyFirstChar = any;
+        _nonAsciiFirstChar = nonAscii || any;
+    }
+
+    /**
+     * Fluent factory method for constructing a resolver that also resolves
+     * plain scalars matching given pattern as values with given tag.
+     *
+     * @param tag Fully resolved tag, like <code>tag:yaml.org,2002:int</code>, or a
+     *    local tag like <code>!color</code>
+     * @param pattern Pattern that whole value must match
+     * @param firstChars Characters that values may start with (to avoid matching
+     *    of other values against pattern); null if any character is possible
+     */
+    public YAMLScalarResolver withImplicitType(String tag, Pattern pattern, String firstChars)
+    {
+        if ((firstChars != null) && firstChars.isEmpty()) {
+            throw new IllegalArgumentException("Empty set of first characters for implicit type '"+tag+"'");
+        }
+        ImplicitType[] types = Arrays.copyOf(_implicitTypes, _implicitTypes.length + 1);
+        types[_implicitTypes.length] = new ImplicitType(tag, pattern, firstChars);
+        return new YAMLScalarResolver(types);
+    }
+
+    public boolean hasImplicitTypes() {
+        return _implicitTypes.length > 0;
+    }
+
+    /**
+     * Quick check for determining whether a non-empty plain scalar that starts with
+     * given character (or, for parsers reading UTF-8 encoded content, byte) could
+     * resolve to anything other than a String.
+     */
+    public boolean mayBeTyped(int firstChar) {
+        return mayBeTyped(firstChar, false);
+    }
+
+    /**
+     * @param coreSchema Whether YAML 1.2 Core Schema is used for standard types
+     *    (see {@link YAMLParser.Feature#USE_CORE_SCHEMA}), instead of YAML 1.1 types
+     */
+    public boolean mayBeTyped(int firstChar, boolean coreSchema)
+    {
+        if (coreSchema ? ScalarClassifier.mayBeTypedCore(firstChar)
+                : ScalarClassifier.mayBeTyped(firstChar)) {
+            return true;
+        }
+        if (firstChar >= 128) {
+            return _nonAsciiFirstChar;
+        }
+        return _anyFirstChar || _firstChars[firstChar];
+    }
+
+    /**
+     * Method for resolving standard type of a plain scalar.
+     *
+     * @return One of <code>TYPE_xxx</code> constants of {@link ScalarClassifier}
+     */
+    public int classify(char[] buf, int offset, int len) {
+        return ScalarClassifier.classify(buf, offset, len);
+    }
+
+    /**
+     * @param coreSchema Whether YAML 1.2 Core Schema is used for standard types
+     *    (see {@link YAMLParser.Feature#USE_CORE_SCHEMA}), instead of YAML 1.1 types
+     */
+    public int classify(char[] buf, int offset, int len, boolean coreSchema) {
+        return coreSchema ? ScalarClassifier.classifyCore(buf, offset, len)
+                : ScalarClassifier.classify(buf, offset, len);
+    }
+
+    /**
+     * Method for finding custom implicit type of a plain scalar that did not
+     * resolve to any of standard types.
+     *
+     * @return Tag of the first custom type that matches value, if any; null if none
+     */
+    public String findImplicitTag(char[] buf, int offset, int len)
+    {
+        if (len == 0) {
+            return null;
+        }
+        final char first = buf[offset];
+        CharSequence value = null;
+        for (ImplicitType type : _implicitTypes) {
+            if ((type.firstChars == null) || (type.firstChars.indexOf(first) >= 0)) {
+                if (value == null) {
+                    value = CharBuffer.wrap(buf, offset, len);
+                }
+                if (type.pattern.matcher(value).matches()) {
+                    return type.tag;
+                }
+            }
+        }
+        return null;
+    }
+
+    private final static class ImplicitType
+        implements java.io.Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        final String tag;
+        final Pattern pattern;
+        final String firstChars;
+
+        ImplicitType(String tag, Pattern pattern, String firstChars) {
+            this.tag = tag;
+            this.pattern = pattern;
+            this.firstChars = firstChars;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of resolved YAML tags, shared by all parsers constructed by a
+ * {@link YAMLFactory}: maps fully resolved tags (as reported by SnakeYAML,
+ * or constructed by {@link UTF8YAMLParser}) to {@link Tag} instances that contain
+ * type id (as exposed via {@link YAMLParser#getTypeId}) and type of standard
+ * scalar tags, so that handling of tagged values allocates nothing once
+ * tags have been seen.
+ *<p>
+ * Size of the cache is limited (see {@link #MAX_ENTRIES}); once full, tags not
+ * yet cached are resolved for each use without caching, so content with
+ * unbounded number of distinct tags can not exhaust memory.
+ *
+ * @since 2.9
+ */
+public final class YAMLTagCache
+{
+    /**
+     * Maximum number of tags cached
+     */
+    public final static int MAX_ENTRIES = 1000;
+
+    private final static String TAG_PREFIX_DEFAULT = "tag:yaml.org,2002:";
+
+    /**
+     * Types of standard scalar tags (prefixed with <code>tag:yaml.org,2002:</code>)
+     * that affect type of tokens parsers report; {@link #SCALAR_OTHER} for all
+     * other tags.
+     */
+    public final static int SCALAR_OTHER = 0;
+    public final static int SCALAR_BOOL = 1;
+    public final static int SCALAR_INT = 2;
+    public final static int SCALAR_FLOAT = 3;
+    public final static int SCALAR_NULL = 4;
+    public final static int SCALAR_BINARY = 5;
+    public final static int SCALAR_TIMESTAMP = 6;
+
+    /**
+     * Shared instance used by parsers not constructed by a factory
+     */
+    final static YAMLTagCache DEFAULT = new YAMLTagCache();
+
+    private final ConcurrentHashMap<String,Tag> _tags = new ConcurrentHashMap<String,Tag>(16, 0.75f, 4);
+
+    public YAMLTagCache() { }
+
+    /**
+     * Method for finding (or creating, and caching if there is room) resolved
+     * information for given tag.
+     */
+    public Tag find(String tag)
+    {
+        Tag t = _tags.get(tag);
+        if (t == null) {
+            t = new Tag(tag);
+            if (_tags.size() < MAX_ENTRIES) {
+                Tag old = _tags.putIfAbsent(tag, t);
+                if (old != null) {
+                    t = old;
+                }
+            }
+        }
+        return t;
+    }
+
+    public int size() {
+        return _tags.size();
+    }
+
+    /**
+     * Resolved information about a single tag.
+     */
+    public final static class Tag
+    {
+        /**
+         * Fully resolved tag
+         */
+        public final String tag;
+
+        /**
+         * Tag without leading exclamation marks, as exposed via
+         * {@link YAMLParser#getTypeId}
+         */
+        public final String typeId;
+
+        /**
+         * One of <code>SCALAR_xxx</code> constants
+         */
+        public final int scalarType;
+
+        Tag(String t)
+        {
+            tag = t;
+            int i = 0;
+            final int len = t.length();
+            while (i < len && t.charAt(i) == '!') {
+                ++i;
+            }
+            typeId = (i == 0) ? t : t.substring(i);
+            scalarType = _scalarType(t);
+        }
+
+        private static int _scalarType(String t)
+        {
+            if (!t.startsWith(TAG_PREFIX_DEFAULT)) {
+                return SCALAR_OTHER;
+            }
+            int end = t.indexOf(',', TAG_PREFIX_DEFAULT.length());
+            if (end < 0) {
+                end = t.length();
+            }
+            String name = t.substring(TAG_PREFIX_DEFAULT.length(), end);
+            if ("bool".equals(name)) {
+                return SCALAR_BOOL;
+            }
+            if ("int".equals(name)) {
+                return SCALAR_INT;
+            }
+            if ("float".equals(name)) {
+                return SCALAR_FLOAT;
+            }
+            if ("null".equals(name)) {
+                return SCALAR_NULL;
+            }
+            if ("binary".equals(name)) {
+                return SCALAR_BINARY;
+            }
+            if ("timestamp".equals(name)) {
+                return SCALAR_TIMESTAMP;
+            }
+            return SCALAR_OTHER;
+        }
+    }
+}
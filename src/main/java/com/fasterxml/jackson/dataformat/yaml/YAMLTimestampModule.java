@@ -0,0 +1,80 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.io.IOException;
+import java.text.DateFormat;
+import java.util.Date;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.DateDeserializers;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+/**
+ * Module to register when {@link YAMLParser.Feature#DECODE_TIMESTAMPS} is enabled:
+ * adds deserializers that accept timestamps exposed as
+ * {@link JsonToken#VALUE_EMBEDDED_OBJECT}s: {@link Date}s are used as-is,
+ * without parsing textual value, and textual value is used for {@link String}s.
+ * Other values are handled the same way as by standard deserializers.
+ *
+ * @since 2.9
+ */
+public class YAMLTimestampModule extends SimpleModule
+{
+    private static final long serialVersionUID = 1L;
+
+    public YAMLTimestampModule()
+    {
+        super("YAMLTimestampModule", PackageVersion.VERSION);
+        addDeserializer(Date.class, new TimestampDateDeserializer());
+        addDeserializer(String.class, new TimestampStringDeserializer());
+    }
+
+    public static class TimestampDateDeserializer extends DateDeserializers.DateDeserializer
+    {
+        private static final long serialVersionUID = 1L;
+
+        public TimestampDateDeserializer() { }
+
+        public TimestampDateDeserializer(TimestampDateDeserializer base, DateFormat df, String formatString) {
+            super(base, df, formatString);
+        }
+
+        @Override
+        protected TimestampDateDeserializer withDateFormat(DateFormat df, String formatString) {
+            return new TimestampDateDeserializer(this, df, formatString);
+        }
+
+        @Override
+        public Date deserialize(JsonParser p, DeserializationContext ctxt) throws IOException
+        {
+            if (p.hasToken(JsonToken.VALUE_EMBEDDED_OBJECT)) {
+                Object ob = p.getEmbeddedObject();
+                if (ob instanceof Date) {
+                    return (Date) ob;
+                }
+            }
+            return super.deserialize(p, ctxt);
+        }
+    }
+
+    public static class TimestampStringDeserializer
+        extends com.fasterxml.jackson.databind.deser.std.StringDeserializer
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String deserialize(JsonParser p, DeserializationContext ctxt) throws IOException
+        {
+            if (p.hasToken(JsonToken.VALUE_STRING)) {
+                return p.getText();
+            }
+            // timestamps as they were in content, not Date.toString()
+            if (p.hasToken(JsonToken.VALUE_EMBEDDED_OBJECT)
+                    && (p instanceof YAMLParser) && ((YAMLParser) p).isCurrentTimestamp()) {
+                return p.getText();
+            }
+            return super.deserialize(p, ctxt);
+        }
+    }
+}
@@ -27,6 +27,17 @@ public class MarkedYAMLException extends YAMLException
         return new MarkedYAMLException(p, src);
     }
 
+    /**
+     * @param stackTrace Whether exception should capture stack trace (see
+     *   {@link com.fasterxml.jackson.dataformat.yaml.YAMLParser.Feature#CAPTURE_STACK_TRACES})
+     *
+     * @since 2.9
+     */
+    public static MarkedYAMLException from(JsonParser p,
+            org.yaml.snakeyaml.error.MarkedYAMLException src, boolean stackTrace) {
+        return stackTrace ? new MarkedYAMLException(p, src) : new Untraced(p, src);
+    }
+
     public String getContext() {
         return _source.getContext();
     }
@@ -42,4 +53,18 @@ public class MarkedYAMLException extends YAMLException
     public Mark getProblemMark() {
         return Mark.from(_source.getProblemMark());
     }
+
+    private final static class Untraced extends MarkedYAMLException
+    {
+        private static final long serialVersionUID = 1L;
+
+        Untraced(JsonParser p, org.yaml.snakeyaml.error.MarkedYAMLException src) {
+            super(p, src);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
 }
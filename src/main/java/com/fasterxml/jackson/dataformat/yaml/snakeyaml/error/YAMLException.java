@@ -7,6 +7,9 @@ import com.fasterxml.jackson.dataformat.yaml.JacksonYAMLParseException;
  * Replacement for formerly shaded exception type from SnakeYAML; included
  * in 2.8 solely for backwards compatibility: new code that relies on Jackson 2.8
  * and alter should NOT use this type but only base type {@link YAMLException}.
+ *<p>
+ * Since 2.9, message of the SnakeYAML exception (which includes snippets of
+ * input for marked exceptions) is only built when message is actually requested.
  *
  * @deprecated Since 2.8
  */
@@ -15,13 +18,60 @@ public class YAMLException extends JacksonYAMLParseException
 {
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Message of the underlying SnakeYAML exception, once built
+     *
+     * @since 2.9
+     */
+    protected transient String _sourceMessage;
+
     public YAMLException(JsonParser p,
             org.yaml.snakeyaml.error.YAMLException src) {
-        super(p, src.getMessage(), src);
+        // actual message is appended as suffix, on demand
+        super(p, "", src);
     }
 
     public static YAMLException from(JsonParser p,
             org.yaml.snakeyaml.error.YAMLException src) {
         return new YAMLException(p, src);
     }
+
+    /**
+     * @param stackTrace Whether exception should capture stack trace (see
+     *   {@link com.fasterxml.jackson.dataformat.yaml.YAMLParser.Feature#CAPTURE_STACK_TRACES})
+     *
+     * @since 2.9
+     */
+    public static YAMLException from(JsonParser p,
+            org.yaml.snakeyaml.error.YAMLException src, boolean stackTrace) {
+        return stackTrace ? new YAMLException(p, src) : new Untraced(p, src);
+    }
+
+    @Override
+    public String getOriginalMessage() {
+        if (_sourceMessage == null) {
+            String msg = getCause().getMessage();
+            _sourceMessage = (msg == null) ? "N/A" : msg;
+        }
+        return _sourceMessage;
+    }
+
+    @Override
+    protected String getMessageSuffix() {
+        return getOriginalMessage();
+    }
+
+    private final static class Untraced extends YAMLException
+    {
+        private static final long serialVersionUID = 1L;
+
+        Untraced(JsonParser p, org.yaml.snakeyaml.error.YAMLException src) {
+            super(p, src);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
 }
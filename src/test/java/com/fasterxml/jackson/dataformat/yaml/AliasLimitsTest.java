@@ -0,0 +1,190 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import com.fasterxml.jackson.core.*;
+
+/**
+ * Tests for limits on anchors, aliases and alias expansion.
+ */
+public class AliasLimitsTest extends ModuleTestBase
+{
+    public void testExpansionRatio() throws Exception
+    {
+        // "billion laughs", 9 levels deep
+        StringBuilder sb = new StringBuilder();
+        sb.append("a: &a [lol, lol, lol, lol, lol, lol, lol, lol, lol, lol]\n");
+        for (char c = 'b'; c <= 'i'; ++c) {
+            char prev = (char) (c - 1);
+            sb.append(c).append(": &").append(c).append(" [");
+            for (int i = 0; i < 10; ++i) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append('*').append(prev);
+            }
+            sb.append("]\n");
+        }
+        final String DOC = sb.toString();
+        for (YAMLFactory f : _factories(true)) {
+            JsonParser p = f.createParser(DOC);
+            try {
+                while (p.nextToken() != null) { }
+                fail("Should not pass");
+            } catch (JacksonYAMLParseException e) {
+                verifyException(e, "Maximum alias expansion ratio (100) exceeded");
+            }
+            p.close();
+
+            // but fine with higher limit and shallower content
+            f.setMaxAliasExpansionRatio(1000);
+            int count = _count(f.createParser(DOC.substring(0, DOC.indexOf("e:"))));
+            assertTrue(count > 10000);
+        }
+    }
+
+    public void testMaxAliases() throws Exception
+    {
+        final String DOC = "a: &a 1\nb: [*a, *a, *a, *a, *a, *a]\n";
+        for (boolean replay : new boolean[] { false, true }) {
+            for (YAMLFactory f : _factories(replay)) {
+                assertEquals(13, _count(f.createParser(DOC)));
+                f.setMaxAliases(5);
+                JsonParser p = f.createParser(DOC);
+                try {
+                    _count(p);
+                    fail("Should not pass");
+                } catch (JacksonYAMLParseException e) {
+                    verifyException(e, "Maximum number of aliases (5) exceeded");
+                }
+                p.close();
+            }
+        }
+    }
+
+    public void testMaxAnchors() throws Exception
+    {
+        final String DOC = "a: &a 1\n&b b: 2\nc: &c [&d 3, &e {f: &f g}]\n";
+        for (boolean replay : new boolean[] { false, true }) {
+            for (YAMLFactory f : _factories(replay)) {
+                f.setMaxAnchors(6);
+                assertEquals(14, _count(f.createParser(DOC)));
+                f.setMaxAnchors(5);
+                JsonParser p = f.createParser(DOC);
+                try {
+                    _count(p);
+                    fail("Should not pass");
+                } catch (JacksonYAMLParseException e) {
+                    verifyException(e, "Maximum number of anchors (5) exceeded");
+                }
+                p.close();
+            }
+        }
+    }
+
+    public void testNoLimits() throws Exception
+    {
+        StringBuilder sb = new StringBuilder("a: &a 1\nb:\n");
+        for (int i = 0; i < 2000; ++i) {
+            sb.append("- *a\n");
+        }
+        final String DOC = sb.toString();
+        for (YAMLFactory f : _factories(true)) {
+            JsonParser p = f.createParser(DOC);
+            try {
+                _count(p);
+                fail("Should not pass");
+            } catch (JacksonYAMLParseException e) {
+                verifyException(e, "Maximum number of aliases (1000) exceeded");
+            }
+            p.close();
+            f.setMaxAliases(Integer.MAX_VALUE);
+            assertEquals(2007, _count(f.createParser(DOC)));
+        }
+    }
+
+    // Default limit for aliases only applies if they are expanded
+    public void testDefaultLimitWithoutExpansion() throws Exception
+    {
+        StringBuilder sb = new StringBuilder("a: &b 1\nb:\n");
+        for (int i = 0; i < 1500; ++i) {
+            sb.append("- *b\n");
+        }
+        final String DOC = sb.toString();
+        for (YAMLFactory f : _factories(false)) {
+            assertEquals(YAMLParser.DEFAULT_MAX_ALIASES, f.getMaxAliases());
+            assertEquals(1507, _count(f.createParser(DOC)));
+            // but explicitly set one does
+            f.setMaxAliases(YAMLParser.DEFAULT_MAX_ALIASES);
+            JsonParser p = f.createParser(DOC);
+            try {
+                _count(p);
+                fail("Should not pass");
+            } catch (JacksonYAMLParseException e) {
+                verifyException(e, "Maximum number of aliases (1000) exceeded");
+            }
+            p.close();
+        }
+        YAMLFactory f = new YAMLFactory().enable(YAMLParser.Feature.MERGE_KEYS);
+        JsonParser p = f.createParser(DOC);
+        try {
+            _count(p);
+            fail("Should not pass");
+        } catch (JacksonYAMLParseException e) {
+            verifyException(e, "Maximum number of aliases (1000) exceeded");
+        }
+        p.close();
+    }
+
+    // Same for default limit for anchors
+    public void testDefaultAnchorLimitWithoutExpansion() throws Exception
+    {
+        final int count = YAMLParser.DEFAULT_MAX_ANCHORS + 1;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; ++i) {
+            sb.append("- &a").append(i).append(" v\n");
+        }
+        final String DOC = sb.toString();
+        for (YAMLFactory f : _factories(false)) {
+            assertEquals(YAMLParser.DEFAULT_MAX_ANCHORS, f.getMaxAnchors());
+            assertEquals(count + 2, _count(f.createParser(DOC)));
+            // but explicitly set one does
+            f.setMaxAnchors(YAMLParser.DEFAULT_MAX_ANCHORS);
+            JsonParser p = f.createParser(DOC);
+            try {
+                _count(p);
+                fail("Should not pass");
+            } catch (JacksonYAMLParseException e) {
+                verifyException(e, "Maximum number of anchors (10000) exceeded");
+            }
+            p.close();
+        }
+        for (YAMLFactory f : _factories(true)) {
+            JsonParser p = f.createParser(DOC);
+            try {
+                _count(p);
+                fail("Should not pass");
+            } catch (JacksonYAMLParseException e) {
+                verifyException(e, "Maximum number of anchors (10000) exceeded");
+            }
+            p.close();
+        }
+    }
+
+    private YAMLFactory[] _factories(boolean replay)
+    {
+        return new YAMLFactory[] {
+            new YAMLFactory().configure(YAMLParser.Feature.REPLAY_ALIASES, replay),
+            new YAMLFactory().configure(YAMLParser.Feature.REPLAY_ALIASES, replay)
+                .enable(YAMLParser.Feature.USE_UTF8_PARSER)
+        };
+    }
+
+    private int _count(JsonParser p) throws Exception
+    {
+        int count = 0;
+        while (p.nextToken() != null) {
+            ++count;
+        }
+        p.close();
+        return count;
+    }
+}
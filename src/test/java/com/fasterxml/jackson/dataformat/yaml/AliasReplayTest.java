@@ -0,0 +1,195 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Tests for {@link YAMLParser.Feature#REPLAY_ALIASES}.
+ */
+public class AliasReplayTest extends ModuleTestBase
+{
+    private final static String DOC =
+            "defaults: &defaults\n"
+            +"  adapter: postgres\n"
+            +"  host: &host localhost\n"
+            +"  ports: [5432, 5433]\n"
+            +"  ratio: 0.5\n"
+            +"dev:\n"
+            +"  db: *defaults\n"
+            +"  host: *host\n"
+            +"test: [*defaults, *host]\n";
+
+    private final static String EXPANDED =
+            "defaults:\n"
+            +"  adapter: postgres\n"
+            +"  host: localhost\n"
+            +"  ports: [5432, 5433]\n"
+            +"  ratio: 0.5\n"
+            +"dev:\n"
+            +"  db: {adapter: postgres, host: localhost, ports: [5432, 5433], ratio: 0.5}\n"
+            +"  host: localhost\n"
+            +"test: [{adapter: postgres, host: localhost, ports: [5432, 5433], ratio: 0.5}, localhost]\n";
+
+    private final YAMLFactory SNAKE_F = new YAMLFactory()
+            .enable(YAMLParser.Feature.REPLAY_ALIASES);
+
+    private final YAMLFactory NATIVE_F = new YAMLFactory()
+            .enable(YAMLParser.Feature.REPLAY_ALIASES)
+            .enable(YAMLParser.Feature.USE_UTF8_PARSER);
+
+    /*
+    /**********************************************************************
+    /* Test methods
+    /**********************************************************************
+     */
+
+    public void testReplaySameAsExpanded() throws Exception
+    {
+        final String exp = _tokens(new YAMLFactory().createParser(EXPANDED));
+        assertEquals(exp, _tokens(SNAKE_F.createParser(DOC)));
+        assertEquals(exp, _tokens(NATIVE_F.createParser(DOC)));
+        assertEquals(exp, _tokens(NATIVE_F.createParser(
+                new UTF8ParserTest.ThrottledInputStream(DOC.getBytes("UTF-8")))));
+    }
+
+    public void testReplayedValues() throws Exception
+    {
+        for (YAMLFactory f : new YAMLFactory[] { SNAKE_F, NATIVE_F }) {
+            YAMLParser p = f.createParser("a: &x [1, 2.5, true, ~]\nb: *x\n");
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertToken(JsonToken.START_ARRAY, p.nextToken());
+            assertEquals("x", p.getObjectId());
+            for (int i = 0; i < 4; ++i) {
+                p.nextToken();
+            }
+            assertToken(JsonToken.END_ARRAY, p.nextToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertEquals("b", p.getCurrentName());
+            assertToken(JsonToken.START_ARRAY, p.nextToken());
+            assertFalse(p.isCurrentAlias());
+            assertNull(p.getObjectId());
+            assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+            assertEquals(1, p.getIntValue());
+            assertToken(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+            assertEquals(2.5, p.getDoubleValue());
+            assertToken(JsonToken.VALUE_TRUE, p.nextToken());
+            assertToken(JsonToken.VALUE_NULL, p.nextToken());
+            assertToken(JsonToken.END_ARRAY, p.nextToken());
+            assertEquals("b", p.getParsingContext().getCurrentName());
+            assertToken(JsonToken.END_OBJECT, p.nextToken());
+            assertNull(p.nextToken());
+            p.close();
+        }
+    }
+
+    public void testReplayWithDatabind() throws Exception
+    {
+        for (YAMLFactory f : new YAMLFactory[] { SNAKE_F, NATIVE_F }) {
+            @SuppressWarnings("unchecked")
+            Map<String,Object> result = new ObjectMapper(f).readValue(DOC, Map.class);
+            @SuppressWarnings("unchecked")
+            Map<String,Object> dev = (Map<String,Object>) result.get("dev");
+            assertEquals(result.get("defaults"), dev.get("db"));
+            assertEquals("localhost", dev.get("host"));
+            List<?> test = (List<?>) result.get("test");
+            assertEquals(result.get("defaults"), test.get(0));
+        }
+    }
+
+    // Aliases to anchors that were not (completely) recorded are exposed as-is
+    public void testUnresolvableAliases() throws Exception
+    {
+        for (YAMLFactory f : new YAMLFactory[] { SNAKE_F, NATIVE_F }) {
+            YAMLParser p = f.createParser("- *missing\n- &r [1, *r]\n");
+            assertToken(JsonToken.START_ARRAY, p.nextToken());
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+            assertTrue(p.isCurrentAlias());
+            assertEquals("missing", p.getText());
+            assertToken(JsonToken.START_ARRAY, p.nextToken());
+            assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+            assertTrue(p.isCurrentAlias());
+            assertEquals("r", p.getText());
+            assertToken(JsonToken.END_ARRAY, p.nextToken());
+            assertToken(JsonToken.END_ARRAY, p.nextToken());
+            p.close();
+        }
+    }
+
+    public void testSizeLimit() throws Exception
+    {
+        StringBuilder sb = new StringBuilder("big: &big\n");
+        for (int i = 0; i < 100; ++i) {
+            sb.append("  - value").append(i).append('\n');
+        }
+        sb.append("small: &small [1]\n");
+        sb.append("copy: *small\n");
+        final String smallOnly = sb.toString();
+        sb.append("copy2: *big\n");
+        final String doc = sb.toString();
+
+        for (YAMLFactory f : new YAMLFactory[] { SNAKE_F.copy(), NATIVE_F.copy() }) {
+            f.setMaxAnchorReplaySize(1000);
+            // fine as long as big anchor is not referenced
+            _tokens(f.createParser(smallOnly));
+            JsonParser p = f.createParser(doc);
+            try {
+                _tokens(p);
+                fail("Should not pass");
+            } catch (JsonParseException e) {
+                verifyException(e, "Can not replay alias '*big'");
+                verifyException(e, "maximum replay buffer size (1000 bytes)");
+            }
+            p.close();
+        }
+    }
+
+    public void testSkipChildren() throws Exception
+    {
+        for (YAMLFactory f : new YAMLFactory[] { SNAKE_F, NATIVE_F }) {
+            JsonParser p = f.createParser("skipped: {a: &x [1, {b: 2}]}\nb: *x\n");
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            p.skipChildren();
+            assertToken(JsonToken.END_OBJECT, p.getCurrentToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertToken(JsonToken.START_ARRAY, p.nextToken());
+            p.skipChildren();
+            assertToken(JsonToken.END_ARRAY, p.getCurrentToken());
+            assertEquals("b", p.getParsingContext().getCurrentName());
+            assertToken(JsonToken.END_OBJECT, p.nextToken());
+            assertNull(p.nextToken());
+            p.close();
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Helper methods
+    /**********************************************************************
+     */
+
+    private String _tokens(JsonParser p) throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        JsonToken t;
+        while ((t = p.nextToken()) != null) {
+            sb.append(t);
+            if (t == JsonToken.FIELD_NAME) {
+                sb.append('[').append(p.getCurrentName()).append(']');
+            } else if (t.isNumeric()) {
+                sb.append('[').append(p.getNumberValue()).append(']');
+            } else if (t.isScalarValue()) {
+                sb.append('[').append(p.getText()).append(']');
+            }
+            sb.append('\n');
+        }
+        p.close();
+        return sb.toString();
+    }
+}
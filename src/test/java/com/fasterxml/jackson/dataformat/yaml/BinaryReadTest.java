@@ -0,0 +1,137 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import com.fasterxml.jackson.core.*;
+
+/**
+ * Tests for reading binary content: both <code>!!binary</code> tagged values
+ * and base64-encoded Strings.
+ */
+public class BinaryReadTest extends ModuleTestBase
+{
+    static class Bytes {
+        public byte[] data;
+    }
+
+    private final YAMLFactory[] FACTORIES = new YAMLFactory[] {
+            new YAMLFactory(),
+            new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER)
+    };
+
+    public void testBinaryTag() throws Exception
+    {
+        for (int size : new int[] { 0, 1, 2, 3, 100, 70000 }) {
+            final byte[] input = _bytes(size);
+            final String doc = "data: !!binary |\n"+_encode(input, "  ")+"other: 1\n";
+            for (YAMLFactory f : FACTORIES) {
+                YAMLParser p = f.createParser(doc);
+                assertToken(JsonToken.START_OBJECT, p.nextToken());
+                assertToken(JsonToken.FIELD_NAME, p.nextToken());
+                assertToken(JsonToken.VALUE_EMBEDDED_OBJECT, p.nextToken());
+                Object ob = p.getEmbeddedObject();
+                assertTrue(ob instanceof byte[]);
+                assertTrue(Arrays.equals(input, (byte[]) ob));
+                // also available as text (literal block scalar, so with trailing linefeed)
+                assertEquals(input.length, Base64Variants.MIME.decode(p.getText().trim()).length);
+                assertToken(JsonToken.FIELD_NAME, p.nextToken());
+                assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+                assertToken(JsonToken.END_OBJECT, p.nextToken());
+                p.close();
+            }
+        }
+    }
+
+    public void testReadBinaryValue() throws Exception
+    {
+        final byte[] input = _bytes(50000);
+        final String doc = "- !!binary |\n"+_encode(input, "  ")
+                +"- \""+Base64Variants.MIME_NO_LINEFEEDS.encode(input)+"\"\n"
+                +"- !!binary "+Base64Variants.MIME_NO_LINEFEEDS.encode(input)+"\n";
+        for (YAMLFactory f : FACTORIES) {
+            YAMLParser p = f.createParser(doc);
+            assertToken(JsonToken.START_ARRAY, p.nextToken());
+            assertToken(JsonToken.VALUE_EMBEDDED_OBJECT, p.nextToken());
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            assertEquals(input.length, p.readBinaryValue(bytes));
+            assertTrue(Arrays.equals(input, bytes.toByteArray()));
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+            bytes.reset();
+            assertEquals(input.length, p.readBinaryValue(bytes));
+            assertTrue(Arrays.equals(input, bytes.toByteArray()));
+            // and if already decoded, still fine
+            assertTrue(Arrays.equals(input, p.getBinaryValue()));
+            bytes.reset();
+            assertEquals(input.length, p.readBinaryValue(bytes));
+            assertTrue(Arrays.equals(input, bytes.toByteArray()));
+            assertToken(JsonToken.VALUE_EMBEDDED_OBJECT, p.nextToken());
+            bytes.reset();
+            assertEquals(input.length, p.readBinaryValue(bytes));
+            assertTrue(Arrays.equals(input, bytes.toByteArray()));
+            assertToken(JsonToken.END_ARRAY, p.nextToken());
+            p.close();
+        }
+    }
+
+    public void testInvalidBinary() throws Exception
+    {
+        for (String value : new String[] { "\"AB*D\"", "\"ABC\"", "\"AB=C\"", "\"ABC=D\"" }) {
+            for (YAMLFactory f : FACTORIES) {
+                YAMLParser p = f.createParser("key: "+value);
+                p.nextToken();
+                p.nextToken();
+                assertToken(JsonToken.VALUE_STRING, p.nextToken());
+                try {
+                    p.readBinaryValue(new ByteArrayOutputStream());
+                    fail("Should not pass for "+value);
+                } catch (JsonParseException e) {
+                    verifyException(e, "Failed to decode VALUE_STRING as base64");
+                }
+                p.close();
+            }
+        }
+        // and not for non-textual values
+        YAMLParser p = FACTORIES[0].createParser("[1]");
+        p.nextToken();
+        try {
+            p.getBinaryValue();
+            fail("Should not pass");
+        } catch (JsonParseException e) {
+            verifyException(e, "can not access as binary");
+        }
+        p.close();
+    }
+
+    public void testBinaryWithDatabind() throws Exception
+    {
+        final byte[] input = _bytes(1000);
+        final String doc = "data: !!binary |\n"+_encode(input, "  ");
+        for (YAMLFactory f : FACTORIES) {
+            YAMLMapper mapper = new YAMLMapper(f);
+            assertTrue(Arrays.equals(input, mapper.readValue(doc, Bytes.class).data));
+            Map<?,?> map = mapper.readValue(doc, Map.class);
+            assertTrue(Arrays.equals(input, (byte[]) map.get("data")));
+        }
+    }
+
+    private byte[] _bytes(int size)
+    {
+        byte[] b = new byte[size];
+        new Random(size).nextBytes(b);
+        return b;
+    }
+
+    private String _encode(byte[] data, String indent)
+    {
+        // MIME variant uses "\\n" as line separator
+        String enc = Base64Variants.MIME.encode(data);
+        StringBuilder sb = new StringBuilder();
+        for (String line : enc.split("\\\\n")) {
+            sb.append(indent).append(line).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,105 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.*;
+
+/**
+ * Tests for reading content from {@link ByteBuffer}s and memory-mapped files.
+ */
+public class ByteBufferInputTest extends ModuleTestBase
+{
+    private final static String DOC = "name: \"Bob\"\n"
+            +"values: [1, 2.5, true]\n"
+            +"text: |\n  multi-line\n  ä€ text\n";
+
+    public void testHeapBuffer() throws Exception
+    {
+        final byte[] data = ("xxx"+DOC+"yyy").getBytes("UTF-8");
+        for (YAMLFactory f : _factories()) {
+            final String exp = _tokens(f.createParser(DOC));
+            ByteBuffer bb = ByteBuffer.wrap(data, 3, data.length - 6);
+            assertEquals(exp, _tokens(f.createParser(bb)));
+            // position of the buffer not changed
+            assertEquals(3, bb.position());
+            // also slices with offset
+            bb = ByteBuffer.wrap(data, 3, data.length - 3).slice();
+            bb.limit(bb.limit() - 3);
+            assertEquals(exp, _tokens(f.createParser(bb)));
+        }
+    }
+
+    public void testDirectBuffer() throws Exception
+    {
+        final byte[] data = DOC.getBytes("UTF-8");
+        for (YAMLFactory f : _factories()) {
+            final String exp = _tokens(f.createParser(DOC));
+            ByteBuffer bb = ByteBuffer.allocateDirect(data.length + 10);
+            bb.position(5);
+            bb.put(data);
+            bb.flip();
+            bb.position(5);
+            YAMLParser p = f.createParser(bb);
+            assertEquals(exp, _tokens(p));
+            assertEquals(5, bb.position());
+        }
+    }
+
+    public void testMappedFile() throws Exception
+    {
+        File file = File.createTempFile("yaml-mapped", ".yaml");
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(DOC.getBytes("UTF-8"));
+        out.close();
+
+        for (YAMLFactory f : _factories()) {
+            assertEquals(-1L, f.getFileMappingThreshold());
+            final String exp = _tokens(f.createParser(DOC));
+            assertEquals(exp, _tokens(f.createParser(file)));
+            f.setFileMappingThreshold(0L);
+            YAMLParser p = f.createParser(file);
+            if (p instanceof UTF8YAMLParser) {
+                assertTrue(((ByteBufferInputStream) p.getInputSource()).getBuffer().isDirect());
+            }
+            assertEquals(exp, _tokens(p));
+            assertEquals(exp, _tokens(f.createParser(file.toPath())));
+            // and copies retain the setting
+            assertEquals(0L, f.copy().getFileMappingThreshold());
+            // not mapped if smaller than threshold
+            f.setFileMappingThreshold(file.length() + 1);
+            p = f.createParser(file.toPath());
+            assertFalse(p.getInputSource() instanceof ByteBufferInputStream);
+            assertEquals(exp, _tokens(p));
+
+            @SuppressWarnings("unchecked")
+            Map<String,Object> result = new YAMLMapper(f.setFileMappingThreshold(0L))
+                .readValue(file, Map.class);
+            assertEquals("Bob", result.get("name"));
+        }
+    }
+
+    private YAMLFactory[] _factories()
+    {
+        return new YAMLFactory[] { new YAMLFactory(),
+            new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER) };
+    }
+
+    private String _tokens(JsonParser p) throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        JsonToken t;
+        while ((t = p.nextToken()) != null) {
+            sb.append(t);
+            if (t == JsonToken.FIELD_NAME || t.isScalarValue()) {
+                sb.append('[').append(p.getText()).append(']');
+            }
+            sb.append('\n');
+        }
+        p.close();
+        return sb.toString();
+    }
+}
@@ -23,4 +23,39 @@ public class ExceptionConversionTest extends ModuleTestBase
             fail("Unknown exception: "+e);
         }
     }
+
+    @SuppressWarnings("deprecation")
+    public void testLazyMessage() throws Exception
+    {
+        YAMLParser p = new YAMLFactory().disable(YAMLParser.Feature.USE_UTF8_PARSER)
+                .createParser("foo:\nbar: true\n  baz: false");
+        try {
+            while (p.nextToken() != null) { }
+            fail("Should not pass with invalid YAML");
+        } catch (com.fasterxml.jackson.dataformat.yaml.snakeyaml.error.MarkedYAMLException e) {
+            assertEquals(e.getCause().getMessage(), e.getOriginalMessage());
+            assertTrue(e.getMessage().startsWith(e.getOriginalMessage()+"\n at [Source: "));
+            assertEquals("mapping values are not allowed here", e.getProblem());
+            assertEquals(2, e.getProblemMark().getLine());
+            assertTrue(e.getStackTrace().length > 0);
+        }
+        p.close();
+    }
+
+    public void testWithoutStackTraces() throws Exception
+    {
+        for (YAMLFactory f : new YAMLFactory[] { new YAMLFactory(),
+                new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER) }) {
+            assertTrue(f.isEnabled(YAMLParser.Feature.CAPTURE_STACK_TRACES));
+            f.disable(YAMLParser.Feature.CAPTURE_STACK_TRACES);
+            YAMLMapper mapper = new YAMLMapper(f);
+            try {
+                mapper.readTree("foo:\nbar: true\n  baz: false");
+                fail("Should not pass with invalid YAML");
+            } catch (JacksonYAMLParseException e) {
+                verifyException(e, "mapping values are not allowed");
+                assertEquals(0, e.getStackTrace().length);
+            }
+        }
+    }
 }
@@ -0,0 +1,119 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.util.Random;
+
+/**
+ * Tests for {@link FastDoubleParser}, verifying that results are identical
+ * to those of {@link Double#parseDouble}.
+ */
+public class FastDoubleParserTest extends ModuleTestBase
+{
+    public void testSimple()
+    {
+        _verify("0");
+        _verify("-0.0");
+        _verify("1.5");
+        _verify("+1.5");
+        _verify("-.5");
+        _verify("1.");
+        _verify("3.25e2");
+        _verify("1E-5");
+        _verify("0.1");
+        _verify("0.000001234");
+        _verify("123456789012345678");
+        _verify("1234567890123456789012345");
+        _verify("9007199254740993");
+        _verify("0.30000000000000004");
+        _verify("2.2250738585072014E-308");
+        _verify("4.9e-324");
+        _verify("1.7976931348623157e308");
+        _verify("1e400");
+        _verify("1e-400");
+        _verify("123.456e-5");
+    }
+
+    public void testUnderscores()
+    {
+        assertEquals(1000.5, _parse("1_000.5"));
+        assertEquals(-1000.25, _parse("-1_000.2_5"));
+        assertEquals(0.5, _parse("._5"));
+    }
+
+    public void testSpecialValues()
+    {
+        assertEquals(Double.POSITIVE_INFINITY, _parse(".inf"));
+        assertEquals(Double.POSITIVE_INFINITY, _parse("+.Inf"));
+        assertEquals(Double.NEGATIVE_INFINITY, _parse("-.INF"));
+        assertTrue(Double.isNaN(_parse(".nan")));
+        assertTrue(Double.isNaN(_parse(".NaN")));
+        assertTrue(Double.isNaN(_parse(".NAN")));
+    }
+
+    public void testInvalid()
+    {
+        for (String value : new String[] {
+                "", "-", ".", "e5", "1e", "1e+", "1.5.3", "1x", ".iNf", ".Nan", "abc"
+        }) {
+            try {
+                _parse(value);
+                fail("Should not pass for '"+value+"'");
+            } catch (NumberFormatException e) {
+                verifyException(e, "Malformed floating-point value");
+            }
+        }
+    }
+
+    public void testRandomSameAsJDK()
+    {
+        Random r = new Random(1);
+        for (int i = 0; i < 100000; ++i) {
+            double d;
+            switch (i % 4) {
+            case 0:
+                d = r.nextDouble();
+                break;
+            case 1:
+                d = r.nextInt(1000000) / 1000.0;
+                break;
+            case 2:
+                d = Double.longBitsToDouble(r.nextLong());
+                if (Double.isNaN(d) || Double.isInfinite(d)) {
+                    continue;
+                }
+                break;
+            default:
+                d = (r.nextInt(200000) - 100000) * Math.pow(10, r.nextInt(40) - 20);
+            }
+            _verify(String.valueOf(d));
+        }
+        // and then random digit sequences, not limited to shortest representations
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100000; ++i) {
+            sb.setLength(0);
+            for (int j = 1 + r.nextInt(20); j > 0; --j) {
+                sb.append((char) ('0' + r.nextInt(10)));
+            }
+            sb.insert(r.nextInt(sb.length() + 1), '.');
+            if (r.nextBoolean()) {
+                sb.append('e').append(r.nextInt(50) - 25);
+            }
+            if (sb.charAt(0) == '.' && sb.length() > 1 && sb.charAt(1) == 'e') {
+                continue;
+            }
+            _verify(sb.toString());
+        }
+    }
+
+    private void _verify(String value)
+    {
+        double exp = Double.parseDouble(value);
+        double act = _parse(value);
+        if (Double.doubleToRawLongBits(exp) != Double.doubleToRawLongBits(act)) {
+            fail("Wrong value for '"+value+"': expected "+exp+", got "+act);
+        }
+    }
+
+    private double _parse(String value) {
+        return FastDoubleParser.parseDouble(value.toCharArray(), 0, value.length());
+    }
+}
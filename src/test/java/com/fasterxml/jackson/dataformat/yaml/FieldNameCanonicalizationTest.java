@@ -0,0 +1,59 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import com.fasterxml.jackson.core.*;
+
+public class FieldNameCanonicalizationTest extends ModuleTestBase
+{
+    private final static String DOC =
+            "- apiVersion: v1\n"
+            +"  metadata:\n"
+            +"    name: first\n"
+            +"- apiVersion: v1\n"
+            +"  metadata: {name: second}\n";
+
+    public void testCanonicalNames() throws Exception
+    {
+        _testCanonicalNames(new YAMLFactory());
+        _testCanonicalNames(new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER));
+    }
+
+    // Only verified with native parser, since SnakeYAML may reuse String instances
+    public void testNonCanonicalNames() throws Exception
+    {
+        _testNonCanonicalNames(new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER));
+    }
+
+    private void _testCanonicalNames(YAMLFactory f) throws Exception
+    {
+        String[] names1 = _names(f.createParser(DOC.getBytes("UTF-8")));
+        assertEquals(6, names1.length);
+        assertSame(names1[0], names1[3]);
+        assertSame(names1[1], names1[4]);
+        assertSame(names1[2], names1[5]);
+        // and symbols are shared via factory, as well as interned by default
+        String[] names2 = _names(f.createParser(DOC.getBytes("UTF-8")));
+        assertSame(names1[0], names2[0]);
+        assertSame("metadata", names2[1]);
+    }
+
+    private void _testNonCanonicalNames(YAMLFactory f) throws Exception
+    {
+        f.disable(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES);
+        String[] names = _names(f.createParser(DOC.getBytes("UTF-8")));
+        assertEquals(names[0], names[3]);
+        assertNotSame(names[0], names[3]);
+    }
+
+    private String[] _names(JsonParser p) throws Exception
+    {
+        java.util.List<String> names = new java.util.ArrayList<String>();
+        JsonToken t;
+        while ((t = p.nextToken()) != null) {
+            if (t == JsonToken.FIELD_NAME) {
+                names.add(p.getCurrentName());
+            }
+        }
+        p.close();
+        return names.toArray(new String[names.size()]);
+    }
+}
@@ -0,0 +1,85 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.io.StringReader;
+
+import com.fasterxml.jackson.core.*;
+
+/**
+ * Tests for location information exposed by parsers, and for disabling
+ * it with {@link YAMLParser.Feature#TRACK_LOCATIONS}.
+ */
+public class LocationTest extends ModuleTestBase
+{
+    private final static String DOC = "a: 1\nbc:\n  - xyz\n";
+
+    public void testCharOffsets() throws Exception
+    {
+        JsonParser p = new YAMLFactory().createParser(new StringReader(DOC));
+        assertToken(JsonToken.START_OBJECT, p.nextToken());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        _verifyLocation(p.getTokenLocation(), 0, 1, 1);
+        assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+        _verifyLocation(p.getTokenLocation(), 3, 1, 4);
+        _verifyLocation(p.getCurrentLocation(), 4, 1, 5);
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        _verifyLocation(p.getTokenLocation(), 5, 2, 1);
+        assertToken(JsonToken.START_ARRAY, p.nextToken());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        _verifyLocation(p.getTokenLocation(), 13, 3, 5);
+        assertToken(JsonToken.END_ARRAY, p.nextToken());
+        assertToken(JsonToken.END_OBJECT, p.nextToken());
+        assertNull(p.nextToken());
+        p.close();
+    }
+
+    public void testNativeByteOffsets() throws Exception
+    {
+        JsonParser p = new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER)
+                .createParser(DOC.getBytes("UTF-8"));
+        assertToken(JsonToken.START_OBJECT, p.nextToken());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+        JsonLocation loc = p.getTokenLocation();
+        assertEquals(3L, loc.getByteOffset());
+        assertEquals(1, loc.getLineNr());
+        assertEquals(4, loc.getColumnNr());
+        p.close();
+    }
+
+    public void testDisabled() throws Exception
+    {
+        YAMLFactory f = new YAMLFactory().disable(YAMLParser.Feature.TRACK_LOCATIONS);
+        _testDisabled(f.createParser(new StringReader(DOC)));
+        _testDisabled(f.createParser(DOC));
+        f.enable(YAMLParser.Feature.USE_UTF8_PARSER);
+        _testDisabled(f.createParser(DOC.getBytes("UTF-8")));
+    }
+
+    private void _testDisabled(JsonParser p) throws Exception
+    {
+        assertToken(JsonToken.START_OBJECT, p.nextToken());
+        assertSame(JsonLocation.NA, p.getTokenLocation());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        assertEquals("a", p.getCurrentName());
+        assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+        assertEquals(1, p.getIntValue());
+        assertSame(JsonLocation.NA, p.getTokenLocation());
+        assertSame(JsonLocation.NA, p.getCurrentLocation());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        assertEquals("bc", p.getCurrentName());
+        assertToken(JsonToken.START_ARRAY, p.nextToken());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertEquals("xyz", p.getText());
+        assertToken(JsonToken.END_ARRAY, p.nextToken());
+        assertToken(JsonToken.END_OBJECT, p.nextToken());
+        assertNull(p.nextToken());
+        p.close();
+    }
+
+    private void _verifyLocation(JsonLocation loc, long charOffset, int line, int column)
+    {
+        assertEquals(charOffset, loc.getCharOffset());
+        assertEquals(line, loc.getLineNr());
+        assertEquals(column, loc.getColumnNr());
+    }
+}
@@ -0,0 +1,189 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.core.*;
+
+/**
+ * Tests for {@link YAMLParser.Feature#MERGE_KEYS}.
+ */
+public class MergeKeysTest extends ModuleTestBase
+{
+    private final static String DOC =
+            "base: &base\n"
+            +"  adapter: postgres\n"
+            +"  pool: {min: 1, max: 5}\n"
+            +"  host: localhost\n"
+            +"extra: &extra\n"
+            +"  host: extra.host\n"
+            +"  timeout: 30\n"
+            +"dev:\n"
+            +"  host: dev.host\n"
+            +"  <<: *base\n"
+            +"  adapter: mysql\n"
+            +"test:\n"
+            +"  <<: [*extra, *base]\n"
+            +"  name: test\n"
+            +"inline:\n"
+            +"  <<: {a: 1, b: [2, 3]}\n"
+            +"  b: 4\n";
+
+    private final static String EXPANDED =
+            "base:\n"
+            +"  adapter: postgres\n"
+            +"  pool: {min: 1, max: 5}\n"
+            +"  host: localhost\n"
+            +"extra:\n"
+            +"  host: extra.host\n"
+            +"  timeout: 30\n"
+            +"dev:\n"
+            +"  host: dev.host\n"
+            +"  adapter: mysql\n"
+            +"  pool: {min: 1, max: 5}\n"
+            +"test:\n"
+            +"  name: test\n"
+            +"  host: extra.host\n"
+            +"  timeout: 30\n"
+            +"  adapter: postgres\n"
+            +"  pool: {min: 1, max: 5}\n"
+            +"inline:\n"
+            +"  b: 4\n"
+            +"  a: 1\n";
+
+    private final YAMLFactory SNAKE_F = new YAMLFactory()
+            .enable(YAMLParser.Feature.MERGE_KEYS);
+
+    private final YAMLFactory NATIVE_F = new YAMLFactory()
+            .enable(YAMLParser.Feature.MERGE_KEYS)
+            .enable(YAMLParser.Feature.USE_UTF8_PARSER);
+
+    /*
+    /**********************************************************************
+    /* Test methods
+    /**********************************************************************
+     */
+
+    public void testMergedSameAsExpanded() throws Exception
+    {
+        final String exp = _tokens(new YAMLFactory().createParser(EXPANDED));
+        assertEquals(exp, _tokens(SNAKE_F.createParser(DOC)));
+        assertEquals(exp, _tokens(NATIVE_F.createParser(DOC)));
+    }
+
+    public void testMergedWithDatabind() throws Exception
+    {
+        for (YAMLFactory f : new YAMLFactory[] { SNAKE_F, NATIVE_F }) {
+            Map<?,?> result = new YAMLMapper(f).readValue(DOC, Map.class);
+            assertEquals("{host=dev.host, adapter=mysql, pool={min=1, max=5}}",
+                    String.valueOf(result.get("dev")));
+            assertEquals("{b=4, a=1}", String.valueOf(result.get("inline")));
+        }
+        // and without feature, merge key is just a field
+        Map<?,?> result = new YAMLMapper().readValue("a: &a {x: 1}\nb:\n  <<: *a\n", Map.class);
+        assertEquals("{<<=a}", String.valueOf(result.get("b")));
+    }
+
+    // Merged mappings may themselves contain merge keys, and be aliased
+    public void testNestedMerges() throws Exception
+    {
+        final String doc = "a: &a {x: 1, y: 1}\n"
+                +"b: &b\n  <<: *a\n  y: 2\n"
+                +"c:\n  <<: *b\n  z: 3\n"
+                +"d:\n  nested:\n    <<: *a\n  <<: *b\n"
+                +"e: *b\n"
+                +"f: &f\n  <<: {q: 1}\n  r: 2\n"
+                +"g: *f\n";
+        YAMLFactory replayF = new YAMLFactory()
+                .enable(YAMLParser.Feature.MERGE_KEYS)
+                .enable(YAMLParser.Feature.REPLAY_ALIASES);
+        for (YAMLFactory f : new YAMLFactory[] { SNAKE_F, NATIVE_F, replayF }) {
+            Map<?,?> result = new YAMLMapper(f).readValue(doc, Map.class);
+            assertEquals("{y=2, x=1}", String.valueOf(result.get("b")));
+            assertEquals("{z=3, y=2, x=1}", String.valueOf(result.get("c")));
+            assertEquals("{nested={x=1, y=1}, y=2, x=1}", String.valueOf(result.get("d")));
+            if (f == replayF) {
+                assertEquals("{y=2, x=1}", String.valueOf(result.get("e")));
+                assertEquals("{r=2, q=1}", String.valueOf(result.get("g")));
+            } else { // other aliases not replayed
+                assertEquals("b", result.get("e"));
+            }
+        }
+    }
+
+    public void testSkipMerged() throws Exception
+    {
+        for (YAMLFactory f : new YAMLFactory[] { SNAKE_F, NATIVE_F }) {
+            JsonParser p = f.createParser(DOC);
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            int fields = 0;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                ++fields;
+                assertToken(JsonToken.START_OBJECT, p.nextToken());
+                p.skipChildren();
+                assertToken(JsonToken.END_OBJECT, p.currentToken());
+            }
+            assertEquals(5, fields);
+            assertToken(JsonToken.END_OBJECT, p.currentToken());
+            assertNull(p.nextToken());
+            p.close();
+        }
+    }
+
+    public void testInvalidMerge() throws Exception
+    {
+        final String[] DOCS = new String[] {
+                "a: &a [1]\nb:\n  <<: *a\n",
+                "a: &a 1\nb:\n  <<: [*a]\n",
+                "b:\n  <<: 3\n",
+                "b:\n  <<: *unknown\n",
+        };
+        for (YAMLFactory f : new YAMLFactory[] { SNAKE_F, NATIVE_F }) {
+            for (String doc : DOCS) {
+                JsonParser p = f.createParser(doc);
+                try {
+                    while (p.nextToken() != null) { }
+                    fail("Should not pass: "+doc);
+                } catch (JsonParseException e) {
+                    verifyException(e, "does not refer to a mapping", "Invalid value for merge key",
+                            "Unknown anchor 'unknown'");
+                }
+                p.close();
+            }
+        }
+    }
+
+    public void testMergeLimits() throws Exception
+    {
+        StringBuilder sb = new StringBuilder("a: &a\n");
+        for (int i = 0; i < 200; ++i) {
+            sb.append("  key").append(i).append(": value").append(i).append('\n');
+        }
+        sb.append("b:\n  <<: *a\n");
+        YAMLFactory f = new YAMLFactory()
+                .enable(YAMLParser.Feature.MERGE_KEYS)
+                .setMaxAnchorReplaySize(1000);
+        JsonParser p = f.createParser(sb.toString());
+        try {
+            while (p.nextToken() != null) { }
+            fail("Should not pass");
+        } catch (JacksonYAMLParseException e) {
+            verifyException(e, "exceeds maximum replay buffer size");
+        }
+        p.close();
+    }
+
+    private String _tokens(JsonParser p) throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        JsonToken t;
+        while ((t = p.nextToken()) != null) {
+            sb.append(t);
+            if (t == JsonToken.FIELD_NAME || t.isScalarValue()) {
+                sb.append('[').append(p.getText()).append(']');
+            }
+            sb.append('\n');
+        }
+        p.close();
+        return sb.toString();
+    }
+}
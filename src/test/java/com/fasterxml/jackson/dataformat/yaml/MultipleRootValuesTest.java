@@ -1,5 +1,7 @@
 package com.fasterxml.jackson.dataformat.yaml;
 
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
 import java.util.Map;
 
 import com.fasterxml.jackson.core.*;
@@ -52,4 +54,134 @@ public class MultipleRootValuesTest extends ModuleTestBase
         assertEquals(-42, it.nextValue().get("num").intValue());
         it.close();
     }
+
+    public void testDocumentBoundaries() throws Exception
+    {
+        final String YAML = "a: 1\n"
+                +"---\n"
+                +"[2]\n"
+                +"...\n"
+                +"%YAML 1.1\n"
+                +"--- 3\n"
+                +"---\n"
+                +"--- !!str\n"
+                +"---\n"
+                +"x: 4\n";
+        final String EXP = "0@0:1/1{FIELD_NAMEa1}\n"
+                +"1@5:2/1[2]\n"
+                +"2@27:6/1 3\n"
+                +"3@33:7/1 \n"
+                +"4@37:8/1 \n"
+                +"5@47:9/1{FIELD_NAMEx4}\n";
+        YAMLFactory f = new YAMLFactory().enable(YAMLParser.Feature.EXPOSE_DOCUMENT_BOUNDARIES);
+        // SnakeYAML considers preceding directives to be part of the document
+        assertEquals(EXP.replace("2@27:6", "2@17:5"),
+                _documents(f.createParser(new StringReader(YAML)), false));
+        f.enable(YAMLParser.Feature.USE_UTF8_PARSER);
+        assertEquals(EXP, _documents(f.createParser(YAML.getBytes("UTF-8")), true));
+        assertEquals(EXP, _documents(f.createParser(
+                new UTF8ParserTest.ThrottledInputStream(YAML.getBytes("UTF-8"))), true));
+    }
+
+    public void testNoDocumentBoundaries() throws Exception
+    {
+        for (YAMLFactory f : new YAMLFactory[] { YAML_F,
+                new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER) }) {
+            YAMLParser p = f.createParser("1\n--- 2\n");
+            assertEquals(-1, p.getDocumentIndex());
+            assertSame(JsonLocation.NA, p.getDocumentStartLocation());
+            assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+            assertEquals(0, p.getDocumentIndex());
+            assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+            assertEquals(1, p.getDocumentIndex());
+            assertEquals(2, p.getDocumentStartLocation().getLineNr());
+            assertNull(p.nextToken());
+            assertTrue(p.isClosed());
+            p.close();
+        }
+    }
+
+    public void testAnchorsPerDocument() throws Exception
+    {
+        final String YAML = "a: &x [1]\nb: *x\n---\nc: *x\n";
+        for (YAMLFactory f : new YAMLFactory[] {
+                new YAMLFactory().enable(YAMLParser.Feature.REPLAY_ALIASES),
+                new YAMLFactory().enable(YAMLParser.Feature.REPLAY_ALIASES)
+                    .enable(YAMLParser.Feature.USE_UTF8_PARSER) }) {
+            YAMLParser p = f.createParser(YAML);
+            while (p.nextToken() != JsonToken.VALUE_STRING) { }
+            // anchor from the previous document not visible
+            assertTrue(p.isCurrentAlias());
+            assertEquals("x", p.getText());
+            assertEquals("c", p.getCurrentName());
+            p.close();
+        }
+    }
+
+    public void testReadDocuments() throws Exception
+    {
+        final String YAML = "num: 1\n"
+                +"---\n"
+                +"num: 2\n"
+                +"...\n"
+                +"---\n"
+                +"num: 3\n";
+        for (YAMLMapper mapper : new YAMLMapper[] { MAPPER,
+                new YAMLMapper().enable(YAMLParser.Feature.USE_UTF8_PARSER) }) {
+            YAMLDocumentIterator<Point> it = mapper.readDocuments(
+                    new ByteArrayInputStream(YAML.getBytes("UTF-8")), Point.class);
+            for (int i = 0; i < 3; ++i) {
+                assertTrue(it.hasNext());
+                assertEquals(i, it.getDocumentIndex());
+                assertEquals(i+1, it.next().num);
+            }
+            assertFalse(it.hasNext());
+            assertTrue(it.getParser().isClosed());
+            it.close();
+
+            it = mapper.readDocuments(new StringReader(YAML), Point.class);
+            int count = 0;
+            while (it.hasNextDocument()) {
+                it.nextDocument();
+                ++count;
+            }
+            assertEquals(3, count);
+        }
+    }
+
+    static class Point {
+        public int num;
+    }
+
+    private String _documents(YAMLParser p, boolean bytes) throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            JsonToken t = p.nextToken();
+            if (t == null) {
+                if (p.isClosed()) {
+                    break;
+                }
+                fail("Document should not be empty");
+            }
+            JsonLocation loc = p.getDocumentStartLocation();
+            sb.append(p.getDocumentIndex()).append('@')
+                .append(bytes ? loc.getByteOffset() : loc.getCharOffset())
+                .append(':').append(loc.getLineNr()).append('/').append(loc.getColumnNr());
+            if (t.isStructStart()) {
+                sb.append(t == JsonToken.START_OBJECT ? '{' : '[');
+                while ((t = p.nextToken()) != null && !t.isStructEnd()) {
+                    sb.append(t == JsonToken.FIELD_NAME ? t.toString() : "").append(p.getText());
+                }
+                sb.append(t == JsonToken.END_OBJECT ? '}' : ']');
+            } else {
+                sb.append(' ').append(p.getText());
+            }
+            sb.append('\n');
+            assertNull(p.nextToken());
+            assertFalse(p.isClosed());
+        }
+        p.close();
+        return sb.toString();
+    }
 }
@@ -0,0 +1,350 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.core.io.IOContext;
+import com.fasterxml.jackson.core.sym.CharsToNameCanonicalizer;
+
+public class NonBlockingParserTest extends ModuleTestBase
+{
+    /**
+     * Parser that counts attempts to decode scalars
+     */
+    static class CountingParser extends NonBlockingYAMLParser
+    {
+        int scans;
+
+        public CountingParser(IOContext ctxt, int parserFeatures, int formatFeatures,
+                ObjectCodec codec, CharsToNameCanonicalizer symbols) {
+            super(ctxt, parserFeatures, formatFeatures, codec, symbols);
+        }
+
+        @Override
+        protected void _scanPlain() throws IOException {
+            ++scans;
+            super._scanPlain();
+        }
+
+        @Override
+        protected void _scanQuoted(boolean doubleQuoted) throws IOException {
+            ++scans;
+            super._scanQuoted(doubleQuoted);
+        }
+
+        @Override
+        protected void _scanBlockScalar(boolean folded, int parentIndent) throws IOException {
+            ++scans;
+            super._scanBlockScalar(folded, parentIndent);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    static class CountingFactory extends YAMLFactory
+    {
+        @Override
+        public YAMLParser createNonBlockingByteArrayParser() throws IOException {
+            return _initParser(new CountingParser(_createContext(null, false), _parserFeatures,
+                    _yamlParserFeatures, _objectCodec, _childSymbols()));
+        }
+    }
+
+    // Content where scalars end (or do not end) at tricky places
+    private final static String[] EDGE_DOCS = new String[] {
+        "a: 'it''s ''quoted'''\nb: \"esc \\\" \\\\\"\nc: x\n",
+        "a: x:y z#c d #comment\nb: [p q, r: s, t\n  u, v:w]\nc: {k: v, l:m: n}\n",
+        "a: foo\n  bar\n\n  baz\n# c\nb: 1\t# tab\n",
+        "- |\n   x\n  \n   y\n- >+\n\n  z\n\n- |1-\n   w\n- end\n",
+        "a: foo\r\n  bar\r\nb: 'x\r\n y'\r\nc: |\r\n  z\r\n",
+        "multi\nline root\n---\nnext\n...\n",
+        "a: été €\nb: 'ü'\n",
+    };
+
+    private final YAMLFactory YAML_F = new YAMLFactory();
+
+    private final YAMLFactory UTF8_F = new YAMLFactory()
+        .enable(YAMLParser.Feature.USE_UTF8_PARSER);
+
+    public void testFactoryAndParserCapabilities() throws Exception
+    {
+        assertTrue(YAML_F.canParseAsync());
+        YAMLParser p = YAML_F.createNonBlockingByteArrayParser();
+        assertTrue(p.canParseAsync());
+        assertTrue(p.getNonBlockingInputFeeder() instanceof ByteArrayFeeder);
+        assertTrue(p.getNonBlockingInputFeeder().needMoreInput());
+        p.close();
+    }
+
+    public void testSimple() throws Exception
+    {
+        YAMLParser p = YAML_F.createNonBlockingByteArrayParser();
+        ByteArrayFeeder feeder = (ByteArrayFeeder) p.getNonBlockingInputFeeder();
+        assertToken(JsonToken.NOT_AVAILABLE, p.nextToken());
+
+        _feed(feeder, "---\nkey: val");
+        assertToken(JsonToken.START_OBJECT, p.nextToken());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        assertEquals("key", p.getCurrentName());
+        // can't yet know whether scalar continues
+        assertToken(JsonToken.NOT_AVAILABLE, p.nextToken());
+        assertTrue(feeder.needMoreInput());
+
+        _feed(feeder, "ue\nnums: [1, 2");
+        assertFalse(feeder.needMoreInput());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertEquals("value", p.getText());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        assertToken(JsonToken.START_ARRAY, p.nextToken());
+        assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+        assertEquals(1, p.getIntValue());
+        assertToken(JsonToken.NOT_AVAILABLE, p.nextToken());
+
+        _feed(feeder, "]\n");
+        assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+        assertEquals(2, p.getIntValue());
+        assertToken(JsonToken.END_ARRAY, p.nextToken());
+        assertToken(JsonToken.NOT_AVAILABLE, p.nextToken());
+
+        feeder.endOfInput();
+        assertToken(JsonToken.END_OBJECT, p.nextToken());
+        assertNull(p.nextToken());
+        p.close();
+    }
+
+    public void testSameTokensWithChunkedInput() throws Exception
+    {
+        for (String doc : UTF8ParserTest.DOCS) {
+            byte[] b = doc.getBytes("UTF-8");
+            // should get same tokens, locations as with blocking byte-based parser
+            String exp = _tokens(UTF8_F.createParser(b), null, b, 1);
+            for (int chunk : new int[] { 1, 2, 3, 7, 100 }) {
+                assertEquals("(chunk size "+chunk+")", exp,
+                        _tokens(YAML_F.createNonBlockingByteArrayParser(), null, b, chunk));
+            }
+        }
+    }
+
+    public void testSameTokensWithChunkedEdgeCases() throws Exception
+    {
+        for (String doc : EDGE_DOCS) {
+            byte[] b = doc.getBytes("UTF-8");
+            String exp = _tokens(UTF8_F.createParser(b), null, b, 1);
+            for (int chunk = 1; chunk <= 13; ++chunk) {
+                assertEquals("(chunk size "+chunk+")", exp,
+                        _tokens(YAML_F.createNonBlockingByteArrayParser(), null, b, chunk));
+            }
+        }
+    }
+
+    // Long scalars should not be decoded again for every chunk of input
+    public void testLongScalarsNotRescanned() throws Exception
+    {
+        StringBuilder words = new StringBuilder();
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 2000; ++i) {
+            words.append("word:").append(i).append(" a#b ");
+            lines.append("  line ").append(i).append(" of: text\n");
+        }
+        final String[] docs = new String[] {
+            "a: "+words+"\n  "+words+"\nb: 1\n",
+            "a: \""+words+"\n  "+words+"\"\nb: 1\n",
+            "a: '"+words+"'\nb: 1\n",
+            "a: |\n"+lines+"b: 1\n",
+            "a: >-\n"+lines+"b: 1\n",
+            "- ["+words.toString().replace(':', '.')+"]\n",
+        };
+        YAMLFactory f = new CountingFactory();
+        for (String doc : docs) {
+            byte[] b = doc.getBytes("UTF-8");
+            String exp = _tokens(UTF8_F.createParser(b), null, b, 1);
+            CountingParser p = (CountingParser) f.createNonBlockingByteArrayParser();
+            assertEquals(exp, _tokens(p, null, b, 10));
+            assertTrue("Too many scans: "+p.scans, p.scans < 10);
+        }
+    }
+
+    public void testReset() throws Exception
+    {
+        NonBlockingYAMLParser p = (NonBlockingYAMLParser) YAML_F.createNonBlockingByteArrayParser();
+        _feed(p, "a: 1\nb: [2");
+        assertToken(JsonToken.START_OBJECT, p.nextToken());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+
+        byte[] b = "xxc: 'd'\n".getBytes("UTF-8");
+        p.reset(b, 2, b.length - 2);
+        assertNull(p.getCurrentToken());
+        assertToken(JsonToken.START_OBJECT, p.nextToken());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        assertEquals("c", p.getCurrentName());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertEquals("d", p.getText());
+        assertToken(JsonToken.NOT_AVAILABLE, p.nextToken());
+        p.endOfInput();
+        assertToken(JsonToken.END_OBJECT, p.nextToken());
+        assertNull(p.nextToken());
+        assertTrue(p.isClosed());
+
+        // also after end of input has been reached, with content fed in chunks
+        b = UTF8ParserTest.DOCS[1].getBytes("UTF-8");
+        String exp = _tokens(UTF8_F.createParser(b), null, b, 1);
+        p.reset(b, 0, 0);
+        assertEquals(exp, _tokens(p, null, b, 5));
+
+        // or with all content from a reader
+        p.reset(new StringReader("c: 'd'\n"));
+        assertToken(JsonToken.START_OBJECT, p.nextToken());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertEquals("d", p.getText());
+        assertToken(JsonToken.NOT_AVAILABLE, p.nextToken());
+        p.endOfInput();
+        assertToken(JsonToken.END_OBJECT, p.nextToken());
+        assertNull(p.nextToken());
+    }
+
+    // Verify that data already decoded gets dropped from the input buffer
+    public void testBoundedBuffer() throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20000; ++i) {
+            sb.append("- {id: ").append(i).append(", name: \"item ").append(i).append("\"}\n");
+        }
+        final byte[] doc = sb.toString().getBytes("UTF-8");
+        NonBlockingYAMLParser p = (NonBlockingYAMLParser) YAML_F.createNonBlockingByteArrayParser();
+        int count = 0;
+        int offset = 0;
+        JsonToken t;
+        while (true) {
+            t = p.nextToken();
+            if (t == JsonToken.NOT_AVAILABLE) {
+                if (offset == doc.length) {
+                    p.endOfInput();
+                } else {
+                    int end = Math.min(doc.length, offset + 1000);
+                    p.feedInput(doc, offset, end);
+                    offset = end;
+                }
+                continue;
+            }
+            if (t == null) {
+                break;
+            }
+            if (t == JsonToken.VALUE_NUMBER_INT) {
+                ++count;
+            }
+            assertTrue(p._inputBuffer.length < 16000);
+        }
+        assertEquals(20000, count);
+        p.close();
+    }
+
+    public void testDocumentBoundaries() throws Exception
+    {
+        final byte[] doc = "a: 1\n---\n- 2\n...\n--- 3\n".getBytes("UTF-8");
+        for (int chunk = 1; chunk <= doc.length; ++chunk) {
+            YAMLParser p = YAML_F.createNonBlockingByteArrayParser();
+            p.enable(YAMLParser.Feature.EXPOSE_DOCUMENT_BOUNDARIES);
+            ByteArrayFeeder feeder = (ByteArrayFeeder) p.getNonBlockingInputFeeder();
+            StringBuilder sb = new StringBuilder();
+            int offset = 0;
+            while (true) {
+                JsonToken t = p.nextToken();
+                if (t == JsonToken.NOT_AVAILABLE) {
+                    if (offset == doc.length) {
+                        feeder.endOfInput();
+                    } else {
+                        int end = Math.min(doc.length, offset + chunk);
+                        feeder.feedInput(doc, offset, end);
+                        offset = end;
+                    }
+                    continue;
+                }
+                if (t == null) {
+                    if (p.isClosed()) {
+                        break;
+                    }
+                    sb.append('|');
+                    continue;
+                }
+                sb.append(p.getDocumentIndex()).append('@')
+                    .append(p.getDocumentStartLocation().getByteOffset()).append(' ');
+            }
+            assertEquals("chunk "+chunk, "0@0 0@0 0@0 0@0 |1@5 1@5 1@5 |2@17 |", sb.toString());
+            p.close();
+        }
+    }
+
+    public void testInvalidContent() throws Exception
+    {
+        YAMLParser p = YAML_F.createNonBlockingByteArrayParser();
+        ByteArrayFeeder feeder = (ByteArrayFeeder) p.getNonBlockingInputFeeder();
+        _feed(feeder, "a: [1, 2\n");
+        feeder.endOfInput();
+        assertToken(JsonToken.START_OBJECT, p.nextToken());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        assertToken(JsonToken.START_ARRAY, p.nextToken());
+        assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+        assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+        try {
+            p.nextToken();
+            fail("Should not pass");
+        } catch (JsonProcessingException e) {
+            verifyException(e, "Unexpected end-of-input");
+        }
+        p.close();
+    }
+
+    /*
+    /**********************************************************************
+    /* Helper methods
+    /**********************************************************************
+     */
+
+    private void _feed(ByteArrayFeeder feeder, String content) throws Exception
+    {
+        byte[] b = content.getBytes("UTF-8");
+        feeder.feedInput(b, 0, b.length);
+    }
+
+    private String _tokens(JsonParser p, ByteArrayFeeder feeder, byte[] doc, int chunk) throws Exception
+    {
+        if (p.canParseAsync()) {
+            feeder = (ByteArrayFeeder) p.getNonBlockingInputFeeder();
+        }
+        StringBuilder sb = new StringBuilder();
+        int offset = 0;
+        while (true) {
+            JsonToken t = p.nextToken();
+            if (t == JsonToken.NOT_AVAILABLE) {
+                if (offset == doc.length) {
+                    feeder.endOfInput();
+                } else {
+                    int end = Math.min(doc.length, offset + chunk);
+                    feeder.feedInput(doc, offset, end);
+                    offset = end;
+                }
+                continue;
+            }
+            if (t == null) {
+                break;
+            }
+            sb.append(t);
+            if (t == JsonToken.FIELD_NAME || t.isScalarValue()) {
+                sb.append('[').append(p.getText()).append(']');
+            }
+            if (p.getObjectId() != null) {
+                sb.append(" &").append(p.getObjectId());
+            }
+            if (p.getTypeId() != null) {
+                sb.append(" !").append(p.getTypeId());
+            }
+            sb.append(" @").append(p.getTokenLocation().getLineNr())
+                .append(':').append(p.getTokenLocation().getColumnNr());
+            sb.append('\n');
+        }
+        p.close();
+        return sb.toString();
+    }
+}
@@ -0,0 +1,153 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonParseException;
+
+/**
+ * Tests for {@link YAMLDocumentSplitter} and
+ * {@link YAMLMapper#readDocumentsParallel}.
+ */
+public class ParallelDocumentsTest extends ModuleTestBase
+{
+    public void testSplitDocuments() throws Exception
+    {
+        assertEquals("[a: 1\n]", _split("a: 1\n"));
+        assertEquals("[a: 1\n|---\nb: 2\n]", _split("a: 1\n---\nb: 2\n"));
+        assertEquals("[--- 1\n|--- 2\n|---]", _split("--- 1\n--- 2\n---"));
+        assertEquals("[---\r\n|--- \"x\"\r\n]", _split("---\r\n--- \"x\"\r\n"));
+        // not markers
+        assertEquals("[a: ---\n----\n---x\n  --- y\n]", _split("a: ---\n----\n---x\n  --- y\n"));
+        // markers do not occur within block scalars
+        assertEquals("[a: |\n  ---\n  x\n|---\n]", _split("a: |\n  ---\n  x\n---\n"));
+        // directives belong to following document; trailing comments not a document
+        assertEquals("[a\n...\n|# c\n%YAML 1.1\n--- b\n...\n]",
+                _split("a\n...\n# c\n%YAML 1.1\n--- b\n...\n# end\n\n"));
+        assertEquals("[]", _split("# only comments\n\n...\n"));
+        assertEquals("[\uFEFF---\n|---\n]", _split("\uFEFF---\n---\n"));
+        assertNull(YAMLDocumentSplitter.findDocuments(new byte[] { (byte) 0xFE, (byte) 0xFF, 0 }, 0, 3));
+    }
+
+    public void testReadParallel() throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 500; ++i) {
+            if (i > 0) {
+                sb.append("---\n");
+            }
+            sb.append("id: ").append(i).append('\n');
+            sb.append("text: |\n  line\n  ---\n");
+            if ((i % 7) == 0) {
+                sb.append("...\n");
+            }
+        }
+        final byte[] doc = sb.toString().getBytes("UTF-8");
+        ExecutorService exec = Executors.newFixedThreadPool(4);
+        try {
+            for (YAMLMapper mapper : new YAMLMapper[] { new YAMLMapper(),
+                    new YAMLMapper(new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER)) }) {
+                YAMLParallelDocumentIterator<Map> it = mapper.readDocumentsParallel(doc, Map.class, exec);
+                assertEquals(500, it.getDocumentCount());
+                int count = 0;
+                while (it.hasNext()) {
+                    Map<?,?> value = it.next();
+                    assertEquals(count, it.getDocumentIndex());
+                    assertEquals(Integer.valueOf(count), value.get("id"));
+                    assertEquals("line\n---\n", value.get("text"));
+                    ++count;
+                }
+                assertEquals(500, count);
+                it.close();
+            }
+        } finally {
+            exec.shutdown();
+        }
+    }
+
+    // Documents rejected by executor are read in the calling thread
+    public void testRejectingExecutor() throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; ++i) {
+            sb.append("--- ").append(i).append('\n');
+        }
+        final byte[] doc = sb.toString().getBytes("UTF-8");
+        final YAMLMapper mapper = new YAMLMapper();
+        // one thread, no queue: rejects whenever busy
+        ExecutorService busy = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<Runnable>());
+        ExecutorService shutDown = Executors.newSingleThreadExecutor();
+        shutDown.shutdown();
+        try {
+            for (ExecutorService exec : new ExecutorService[] { busy, shutDown }) {
+                YAMLParallelDocumentIterator<Integer> it = mapper.readDocumentsParallel(doc, 0, doc.length,
+                        mapper.constructType(Integer.class), exec, 4);
+                int count = 0;
+                while (it.hasNext()) {
+                    assertEquals(Integer.valueOf(count), it.nextDocument());
+                    ++count;
+                }
+                assertEquals(100, count);
+                it.close();
+            }
+        } finally {
+            busy.shutdown();
+        }
+    }
+
+    public void testFailingDocument() throws Exception
+    {
+        _testFailingDocument(new YAMLMapper(new YAMLFactory().disable(YAMLParser.Feature.USE_UTF8_PARSER)),
+                "expected ',' or ']'");
+    }
+
+    public void testFailingDocumentUTF8() throws Exception
+    {
+        _testFailingDocument(new YAMLMapper(new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER)),
+                "expected close marker");
+    }
+
+    private void _testFailingDocument(YAMLMapper mapper, String expMsg) throws Exception
+    {
+        final byte[] doc = "a: 1\n---\nb: [2\n---\nc: 3\n".getBytes("UTF-8");
+        ExecutorService exec = Executors.newFixedThreadPool(2);
+        try {
+            YAMLParallelDocumentIterator<Map> it = mapper.readDocumentsParallel(doc, 0, doc.length,
+                    mapper.constructType(Map.class), exec, 1);
+            assertEquals(1, it.nextDocument().get("a"));
+            try {
+                it.nextDocument();
+                fail("Should not pass");
+            } catch (JsonParseException e) {
+                verifyException(e, expMsg);
+            }
+            assertEquals(1, it.getDocumentIndex());
+            assertEquals(5, it.getDocumentStartOffset());
+            // can continue with other documents
+            assertEquals(3, it.nextDocument().get("c"));
+            assertFalse(it.hasNext());
+            it.close();
+        } finally {
+            exec.shutdown();
+        }
+    }
+
+    private String _split(String content) throws Exception
+    {
+        byte[] b = ("xx"+content).getBytes("UTF-8");
+        int[] offsets = YAMLDocumentSplitter.findDocuments(b, 2, b.length - 2);
+        List<String> docs = new ArrayList<String>();
+        for (int i = 0; i < offsets.length; i += 2) {
+            docs.add(new String(b, offsets[i], offsets[i+1] - offsets[i], "UTF-8"));
+        }
+        String str = docs.toString();
+        return str.replace(", ", "|");
+    }
+}
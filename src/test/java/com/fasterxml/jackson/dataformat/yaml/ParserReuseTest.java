@@ -0,0 +1,270 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.*;
+
+/**
+ * Tests for resetting parsers to read new content ({@link YAMLParser#reset}),
+ * and for pooling of anchor replay buffers by {@link YAMLFactory}.
+ */
+public class ParserReuseTest extends ModuleTestBase
+{
+    private final static String DOC1 = "---\na: &x [1, 2]\nb: *x\n";
+    private final static String DOC2 = "name: second\nvalue: 3\n";
+
+    public void testReset() throws Exception
+    {
+        for (YAMLFactory f : new YAMLFactory[] { new YAMLFactory(),
+                new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER) }) {
+            f.enable(YAMLParser.Feature.REPLAY_ALIASES);
+            YAMLParser p = f.createParser(DOC1.getBytes("UTF-8"));
+            // leave parser in the middle of content
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertToken(JsonToken.START_ARRAY, p.nextToken());
+            assertEquals(0, p.getDocumentIndex());
+
+            byte[] doc = ("xx"+DOC2).getBytes("UTF-8");
+            p.reset(doc, 2, doc.length - 2);
+            assertFalse(p.isClosed());
+            assertNull(p.getCurrentToken());
+            assertEquals(-1, p.getDocumentIndex());
+            _verifyDoc2(p);
+
+            // and anchors of earlier content are not visible any more
+            p.reset(DOC1.getBytes("UTF-8"), 0, DOC1.length());
+            assertEquals("{a=[1, 2], b=[1, 2]}", _readMap(p));
+            p.reset("b: *x\n".getBytes("UTF-8"), 0, 6);
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+            assertTrue(p.isCurrentAlias());
+            p.close();
+        }
+    }
+
+    public void testResetWithReader() throws Exception
+    {
+        for (YAMLFactory f : new YAMLFactory[] { new YAMLFactory(),
+                new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER) }) {
+            YAMLParser p = f.createParser(DOC1);
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            p.reset(new StringReader(DOC2));
+            _verifyDoc2(p);
+            p.reset(new StringReader("text: \u00e9t\u00e9\n"));
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+            assertEquals("\u00e9t\u00e9", p.getText());
+            p.close();
+        }
+    }
+
+    // Content that needs more than one read buffer, with surrogate pairs split between reads
+    // (only for UTF-8 parser, as it needs to encode content; also, SnakeYAML does not
+    // accept non-BMP characters)
+    public void testResetWithLongReader() throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 3000; ++i) {
+            sb.append("- \"").append(i).append(" \u00e9\u4e2d\ud83d\ude00\"\n");
+        }
+        final String DOC = sb.toString();
+        YAMLFactory f = new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER);
+        // twice, to verify that grown buffer is not recycled
+        for (int round = 0; round < 2; ++round) {
+            YAMLParser p = f.createParser(DOC1);
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            p.reset(new ChunkedReader(DOC, 7));
+            assertToken(JsonToken.START_ARRAY, p.nextToken());
+            for (int i = 0; i < 3000; ++i) {
+                assertToken(JsonToken.VALUE_STRING, p.nextToken());
+                assertEquals(i+" \u00e9\u4e2d\ud83d\ude00", p.getText());
+            }
+            assertToken(JsonToken.END_ARRAY, p.nextToken());
+            assertNull(p.nextToken());
+            // and same parser may be reset again
+            p.reset(new ChunkedReader(DOC2, 3));
+            _verifyDoc2(p);
+            p.close();
+        }
+    }
+
+    public void testPooling() throws Exception
+    {
+        for (YAMLFactory f : new YAMLFactory[] { new YAMLFactory(),
+                new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER) }) {
+            f.enable(YAMLParser.Feature.REPLAY_ALIASES);
+            f.setReplayBufferPoolSize(2);
+            YAMLParser p1 = f.createParser(DOC2);
+            AnchorReplayBuffer buffer = p1._anchorBuffer;
+            assertNotNull(buffer);
+            _verifyDoc2(p1);
+            assertTrue(p1.isClosed());
+            // reaching end of content does not return helpers to the pool...
+            assertEquals(0, f._replayBufferPool.size());
+            // but closing does
+            p1.close();
+            assertEquals(1, f._replayBufferPool.size());
+            YAMLParser p2 = f.createParser(DOC1.getBytes("UTF-8"));
+            assertNotSame(p1, p2);
+            assertSame(buffer, p2._anchorBuffer);
+            assertEquals(0, f._replayBufferPool.size());
+            assertEquals("{a=[1, 2], b=[1, 2]}", _readMap(p2));
+            p2.close();
+
+            // pooled helpers also used for data-binding
+            YAMLMapper mapper = new YAMLMapper(f);
+            for (int i = 0; i < 3; ++i) {
+                Map<?,?> result = mapper.readValue(DOC1, Map.class);
+                assertEquals("{a=[1, 2], b=[1, 2]}", String.valueOf(result));
+            }
+            assertEquals(1, f._replayBufferPool.size());
+        }
+    }
+
+    // Closing a parser more than once must not hand its helpers to two parsers
+    public void testPoolingWithDoubleClose() throws Exception
+    {
+        for (YAMLFactory f : new YAMLFactory[] { new YAMLFactory(),
+                new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER) }) {
+            f.enable(YAMLParser.Feature.REPLAY_ALIASES);
+            f.setReplayBufferPoolSize(2);
+            YAMLParser p1 = f.createParser(DOC2);
+            p1.close();
+            p1.close();
+            assertEquals(1, f._replayBufferPool.size());
+
+            final String doc = "a: &x [1, 2]\nb: *x\nc: *x\n";
+            YAMLParser p2 = f.createParser(doc);
+            assertEquals(0, f._replayBufferPool.size());
+            p1.close();
+            assertEquals(0, f._replayBufferPool.size());
+            YAMLParser p3 = f.createParser("x: &y {z: 3}\nw: *y\n");
+            assertNotSame(p2._anchorBuffer, p3._anchorBuffer);
+
+            // interleave parsers to verify they do not share state
+            assertToken(JsonToken.START_OBJECT, p2.nextToken());
+            assertToken(JsonToken.START_OBJECT, p3.nextToken());
+            assertToken(JsonToken.FIELD_NAME, p2.nextToken());
+            assertToken(JsonToken.FIELD_NAME, p3.nextToken());
+            assertEquals("{x={z=3}, w={z=3}}", _continueMap(p3, "x"));
+            assertEquals("{a=[1, 2], b=[1, 2], c=[1, 2]}", _continueMap(p2, "a"));
+            p3.close();
+            p2.close();
+            assertEquals(2, f._replayBufferPool.size());
+
+            // and closed parsers whose helpers were pooled can not be reset
+            try {
+                p1.reset(new StringReader(DOC2));
+                fail("Should not pass");
+            } catch (IllegalStateException e) {
+                verifyException(e, "Can not reset");
+            }
+        }
+    }
+
+    public void testPoolingWithChangedConfig() throws Exception
+    {
+        YAMLFactory f = new YAMLFactory().setReplayBufferPoolSize(1)
+                .enable(YAMLParser.Feature.REPLAY_ALIASES);
+        YAMLParser p = f.createParser(DOC2);
+        p.close();
+        assertEquals(1, f._replayBufferPool.size());
+        // helpers are shared by both parser types
+        f.enable(YAMLParser.Feature.USE_UTF8_PARSER);
+        f.enable(YAMLParser.Feature.MERGE_KEYS);
+        f.disable(YAMLParser.Feature.TRACK_LOCATIONS);
+        YAMLParser p2 = f.createParser("a: &a {x: 1}\nb: {<<: *a, y: 2}\n");
+        assertTrue(p2 instanceof UTF8YAMLParser);
+        assertEquals(0, f._replayBufferPool.size());
+        assertNotNull(p2._mergeKeys);
+        AnchorReplayBuffer buffer = p2._anchorBuffer;
+        assertEquals("{a={x=1}, b={y=2, x=1}}", _readMap(p2));
+        assertSame(JsonLocation.NA, p2.getCurrentLocation());
+        p2.close();
+
+        // but replay buffer is replaced if its size limit has changed
+        f.setMaxAnchorReplaySize(1000);
+        p = f.createParser(DOC2);
+        assertNotSame(buffer, p._anchorBuffer);
+        assertEquals(1000, p._anchorBuffer.getMaxSize());
+        p.close();
+
+        // no helpers are needed (or pooled) without replay of aliases
+        f.disable(YAMLParser.Feature.REPLAY_ALIASES);
+        f.disable(YAMLParser.Feature.MERGE_KEYS);
+        p = f.createParser(DOC2);
+        assertNull(p._anchorBuffer);
+        p.close();
+        assertEquals(1, f._replayBufferPool.size());
+
+        // and copies do not share the pool
+        YAMLFactory copy = f.copy();
+        assertEquals(1, copy.getReplayBufferPoolSize());
+        assertEquals(0, copy._replayBufferPool.size());
+    }
+
+    private void _verifyDoc2(YAMLParser p) throws Exception
+    {
+        assertToken(JsonToken.START_OBJECT, p.nextToken());
+        JsonLocation loc = p.getTokenLocation();
+        assertEquals(1, loc.getLineNr());
+        assertEquals(1, loc.getColumnNr());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        assertEquals("name", p.getCurrentName());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertEquals("second", p.getText());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+        assertEquals(3, p.getIntValue());
+        loc = p.getTokenLocation();
+        assertEquals(2, loc.getLineNr());
+        assertEquals(8, loc.getColumnNr());
+        assertToken(JsonToken.END_OBJECT, p.nextToken());
+        assertNull(p.nextToken());
+        assertEquals(0, p.getDocumentIndex());
+    }
+
+    private String _readMap(YAMLParser p) throws Exception
+    {
+        return String.valueOf(new YAMLMapper().readValue(p, Map.class));
+    }
+
+    // reads rest of root-level mapping, after its first field name
+    private String _continueMap(YAMLParser p, String firstName) throws Exception
+    {
+        Map<String,Object> result = new LinkedHashMap<String,Object>();
+        String name = firstName;
+        while (true) {
+            p.nextToken();
+            result.put(name, new YAMLMapper().readValue(p, Object.class));
+            if (p.nextToken() != JsonToken.FIELD_NAME) {
+                break;
+            }
+            name = p.getCurrentName();
+        }
+        return String.valueOf(result);
+    }
+
+    // Reader that returns at most given number of chars per read
+    private static class ChunkedReader extends FilterReader
+    {
+        private final int _maxChunk;
+
+        public ChunkedReader(String content, int maxChunk) {
+            super(new StringReader(content));
+            _maxChunk = maxChunk;
+        }
+
+        @Override
+        public int read(char[] buf, int offset, int len) throws IOException {
+            return super.read(buf, offset, Math.min(len, _maxChunk));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Tests for {@link YAMLProjection}.
+ */
+public class ProjectionTest extends ModuleTestBase
+{
+    private final static String DOC = "header:\n"
+            +"  id: 12\n"
+            +"  name: \"Header\"\n"
+            +"  tags: [a, b, c]\n"
+            +"items:\n"
+            +"  - {x: 1, y: [1, 2]}\n"
+            +"  - {x: 2, y: [3, 4]}\n"
+            +"  - {x: 3, y: [5, 6]}\n"
+            +"footer: end\n";
+
+    static class Header {
+        public int id;
+        public String name;
+    }
+
+    public void testProjectedTokens() throws Exception
+    {
+        for (YAMLFactory f : _factories()) {
+            assertEquals("{header{id=12}}", _project(f, DOC, "/header/id"));
+            assertEquals("{header{id=12,tags[b]}}", _project(f, DOC, "/header/tags/1", "/header/id"));
+            assertEquals("{items[{y[3,4]}],footer=end}", _project(f, DOC, "/footer", "/items/1/y"));
+            // overlapping paths
+            assertEquals("{header{id=12,name=Header,tags[a,b,c]}}",
+                    _project(f, DOC, "/header/tags/0", "/header"));
+            // no matches, including path into scalar
+            assertEquals("", _project(f, DOC, "/missing", "/footer/x"));
+            assertEquals("{items[{x=1}{x=2}{x=3}]}", _project(f, DOC, "/items/0/x", "/items/1/x",
+                    "/items/2/x"));
+        }
+    }
+
+    public void testEarlyTermination() throws Exception
+    {
+        // content after header is broken, but is never read
+        final String doc = "header: {id: 3, name: \"x\"}\nrest: [1, \"broken\n";
+        for (YAMLFactory f : _factories()) {
+            YAMLParser p = f.createParser(doc);
+            JsonParser proj = YAMLProjection.forPaths("/header/id").createParser(p);
+            assertToken(JsonToken.START_OBJECT, proj.nextToken());
+            assertToken(JsonToken.FIELD_NAME, proj.nextToken());
+            assertEquals("header", proj.getCurrentName());
+            assertToken(JsonToken.START_OBJECT, proj.nextToken());
+            assertToken(JsonToken.FIELD_NAME, proj.nextToken());
+            assertToken(JsonToken.VALUE_NUMBER_INT, proj.nextToken());
+            assertEquals(3, proj.getIntValue());
+            assertFalse(p.isClosed());
+            assertToken(JsonToken.END_OBJECT, proj.nextToken());
+            assertTrue(p.isClosed());
+            assertToken(JsonToken.END_OBJECT, proj.nextToken());
+            assertNull(proj.nextToken());
+            proj.close();
+
+            // but without projection, fails
+            p = f.createParser(doc);
+            try {
+                while (p.nextToken() != null) { }
+                fail("Should not pass");
+            } catch (JsonProcessingException e) {
+                verifyException(e, "end");
+            }
+            p.close();
+        }
+    }
+
+    public void testReadProjected() throws Exception
+    {
+        final byte[] doc = DOC.getBytes("UTF-8");
+        for (YAMLFactory f : _factories()) {
+            YAMLMapper mapper = new YAMLMapper(f);
+            YAMLProjection proj = YAMLProjection.forPaths("/header/id", "/header/name");
+            Header h = mapper.readProjected(doc, proj, Wrapper.class).header;
+            assertEquals(12, h.id);
+            assertEquals("Header", h.name);
+
+            JsonNode n = mapper.readProjected(doc, YAMLProjection.forPaths("/items/2/x"),
+                    JsonNode.class);
+            assertEquals(3, n.at("/items/0/x").intValue());
+
+            assertNull(mapper.readProjected(doc, YAMLProjection.forPaths("/nope"), Map.class));
+            // empty pointer means whole document
+            Map<?,?> all = mapper.readProjected(doc, YAMLProjection.forPaths(""), Map.class);
+            assertEquals(3, all.size());
+        }
+    }
+
+    static class Wrapper {
+        public Header header;
+    }
+
+    private YAMLFactory[] _factories()
+    {
+        return new YAMLFactory[] { new YAMLFactory(),
+            new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER) };
+    }
+
+    private String _project(YAMLFactory f, String doc, String... paths) throws Exception
+    {
+        JsonParser p = YAMLProjection.forPaths(paths).createParser(f.createParser(doc));
+        StringBuilder sb = new StringBuilder();
+        JsonToken t;
+        while ((t = p.nextToken()) != null) {
+            switch (t) {
+            case START_OBJECT: sb.append('{'); break;
+            case END_OBJECT: sb.append('}'); break;
+            case START_ARRAY: sb.append('['); break;
+            case END_ARRAY: sb.append(']'); break;
+            case FIELD_NAME:
+                if (sb.length() > 0 && sb.charAt(sb.length()-1) != '{') {
+                    sb.append(',');
+                }
+                sb.append(p.getCurrentName());
+                if (!p.nextToken().isStructStart()) {
+                    sb.append('=').append(p.getText());
+                } else {
+                    sb.append(p.hasToken(JsonToken.START_OBJECT) ? '{' : '[');
+                }
+                break;
+            default:
+                if (sb.charAt(sb.length()-1) != '[') {
+                    sb.append(',');
+                }
+                sb.append(p.getText());
+            }
+        }
+        p.close();
+        return sb.toString();
+    }
+}
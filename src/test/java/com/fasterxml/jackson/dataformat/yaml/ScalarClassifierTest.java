@@ -0,0 +1,291 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import com.fasterxml.jackson.core.*;
+
+/**
+ * Tests for {@link ScalarClassifier}, mostly verifying that it resolves
+ * implicit types exactly like SnakeYAML {@link Resolver} does.
+ */
+public class ScalarClassifierTest extends ModuleTestBase
+{
+    private final Resolver RESOLVER = new Resolver();
+
+    // Regular expressions of YAML 1.2 Core Schema, as given by specification
+    private final static Pattern CORE_NULL = Pattern.compile("null|Null|NULL|~|");
+    private final static Pattern CORE_TRUE = Pattern.compile("true|True|TRUE");
+    private final static Pattern CORE_FALSE = Pattern.compile("false|False|FALSE");
+    private final static Pattern CORE_INT = Pattern.compile(
+            "[-+]?[0-9]+|0o[0-7]+|0x[0-9a-fA-F]+");
+    private final static Pattern CORE_FLOAT = Pattern.compile(
+            "[-+]?(\\.[0-9]+|[0-9]+(\\.[0-9]*)?)([eE][-+]?[0-9]+)?"
+            +"|[-+]?\\.(inf|Inf|INF)|\\.nan|\\.NaN|\\.NAN");
+
+    private final static String[] SAMPLES = new String[] {
+        "", " ", "~", "~~", "null", "Null", "NULL", "nULL", "nul", "nulls", "None",
+        "y", "Y", "n", "N", "yes", "Yes", "YES", "yEs", "YeS", "no", "No", "NO", "nO",
+        "true", "True", "TRUE", "tRUE", "TRue", "false", "False", "FALSE", "FaLse",
+        "on", "On", "ON", "oN", "off", "Off", "OFF", "oFF", "truex", "onn",
+        "0", "-0", "+0", "00", "007", "08", "09", "0_", "0_7", "01_23",
+        "0b", "0b1", "0b012", "0b_", "-0b101", "0b1_0",
+        "0x", "0x1F", "0xfF", "0xg", "0x_", "+0xCAFE_BABE", "0X1F",
+        "1", "12", "-12", "+3", "1_000", "1__", "-", "+", "_", "+_", "-__",
+        "3:00", "190:20:30", "1:60", "1:6", "1:59", "1:5a", "1::2", "1:", "0:30", "12:345",
+        "190:20:30.15", "1:2.", "1:2.3_", "0:1.5", "_1:30.0", "1:2:3.4.5",
+        "1.5", "-1.5", "+1.5", ".5", "-.5", ".5_", "1.", "1._", "_.5", "1_0.0_1",
+        "1e5", "1E5", "1e+5", "1e-5", "1e", "1e+", "1.5e3", ".5e3", "_e3", "1.5e3.4",
+        "1.2.3", "127.0.0.1", "1.5 ", "1 5",
+        ".", "..", ".inf", ".Inf", ".INF", ".iNF", "-.inf", "+.Inf", ".nan", ".NaN", ".NAN",
+        "-.nan", "+.NaN", ".nAn", ".infinity",
+        "2001-12-14", "2001-1-14", "2001-12-1", "2001-12-14t21:59:43.10-05:00",
+        "2001-12-14T21:59:43.10Z", "2001-12-14 21:59:43.10 -5", "2002-12-14",
+        "2001-12-14 21:59:43.10", "2001-12-14\t21:59:43", "2001-12-14  21:59:43 Z",
+        "2001-12-14T21:59:43+0530", "2001-12-14T21:59:43+05:3", "2001-12-14T21:59:43+05:30",
+        "2001-12-14T21:59:43.", "2001-12-14T1:59:43", "2001-12-14T21:9:43",
+        "2001-2-3T1:02:03", "2001-12-14T", "201-12-14", "20011-12-14", "2001-12-140",
+        "2001-12-14T21:59:43Zx", "2001-12-14T21:59:43-", "2001-12-14x",
+        "<<", "<", "<<<", "!", "&a", "*a", "=", "abc", "1abc", "http://x", "é",
+    };
+
+    /*
+    /**********************************************************************
+    /* Test methods
+    /**********************************************************************
+     */
+
+    public void testSimple()
+    {
+        assertEquals(ScalarClassifier.TYPE_NULL, ScalarClassifier.classify(""));
+        assertEquals(ScalarClassifier.TYPE_NULL, ScalarClassifier.classify("~"));
+        assertEquals(ScalarClassifier.TYPE_TRUE, ScalarClassifier.classify("Yes"));
+        assertEquals(ScalarClassifier.TYPE_FALSE, ScalarClassifier.classify("OFF"));
+        assertEquals(ScalarClassifier.TYPE_STRING, ScalarClassifier.classify("y"));
+        assertEquals(ScalarClassifier.TYPE_INT, ScalarClassifier.classify("0x1F"));
+        assertEquals(ScalarClassifier.TYPE_INT, ScalarClassifier.classify("190:20:30"));
+        assertEquals(ScalarClassifier.TYPE_FLOAT, ScalarClassifier.classify("-.Inf"));
+        assertEquals(ScalarClassifier.TYPE_FLOAT, ScalarClassifier.classify("1_000.5"));
+        assertEquals(ScalarClassifier.TYPE_TIMESTAMP, ScalarClassifier.classify("2001-12-14"));
+        assertEquals(ScalarClassifier.TYPE_MERGE, ScalarClassifier.classify("<<"));
+        assertEquals(ScalarClassifier.TYPE_STRING, ScalarClassifier.classify("127.0.0.1"));
+    }
+
+    public void testSamplesSameAsResolver()
+    {
+        for (String value : SAMPLES) {
+            _verify(value);
+        }
+    }
+
+    // Exhaustive check of all short combinations of characters that matter
+    public void testShortCombinationsSameAsResolver()
+    {
+        final char[] chars = "0157:-+._exbAZT ".toCharArray();
+        final char[] buf = new char[4];
+        for (int len = 1; len <= buf.length; ++len) {
+            int[] ix = new int[len];
+            while (true) {
+                for (int i = 0; i < len; ++i) {
+                    buf[i] = chars[ix[i]];
+                }
+                _verify(new String(buf, 0, len));
+                int i = len-1;
+                while (i >= 0 && ++ix[i] == chars.length) {
+                    ix[i--] = 0;
+                }
+                if (i < 0) {
+                    break;
+                }
+            }
+        }
+    }
+
+    public void testRandomSameAsResolver()
+    {
+        final String[] PARTS = new String[] {
+            "0", "1", "7", "9", "59", "60", "_", ".", ":", "-", "+", "e", "E",
+            "x", "b", "f", "T", " ", "Z", "2001", "-12", "-1", "21:59:43", ".inf", ".NaN"
+        };
+        Random r = new Random(123);
+        StringBuilder sb = new StringBuilder();
+        for (int round = 0; round < 50000; ++round) {
+            sb.setLength(0);
+            for (int i = 1 + r.nextInt(6); i > 0; --i) {
+                sb.append(PARTS[r.nextInt(PARTS.length)]);
+            }
+            _verify(sb.toString());
+        }
+    }
+
+    public void testCoreSchema()
+    {
+        for (String value : SAMPLES) {
+            _verifyCore(value);
+        }
+        final String[] PARTS = new String[] {
+            "0", "1", "7", "9", "a", "F", "_", ".", "-", "+", "e", "E", "o", "x",
+            "n", "null", "true", "False", ".inf", ".nan", ".NaN", "~"
+        };
+        Random r = new Random(123);
+        StringBuilder sb = new StringBuilder();
+        for (int round = 0; round < 50000; ++round) {
+            sb.setLength(0);
+            for (int i = 1 + r.nextInt(5); i > 0; --i) {
+                sb.append(PARTS[r.nextInt(PARTS.length)]);
+            }
+            _verifyCore(sb.toString());
+        }
+    }
+
+    // And then verify that tokens are as expected, with both parser implementations
+    public void testTokens() throws Exception
+    {
+        _testTokens(new YAMLFactory());
+        _testTokens(new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER));
+    }
+
+    private void _testTokens(YAMLFactory f) throws Exception
+    {
+        JsonParser p = f.createParser("[~, Yes, OFF, y, 12, -3, 0x1F, 1.5, .inf, 2001-12-14, <<, '1', abc]");
+        assertToken(JsonToken.START_ARRAY, p.nextToken());
+        assertToken(JsonToken.VALUE_NULL, p.nextToken());
+        assertToken(JsonToken.VALUE_TRUE, p.nextToken());
+        assertEquals("Yes", p.getText());
+        assertToken(JsonToken.VALUE_FALSE, p.nextToken());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+        assertEquals(12, p.getIntValue());
+        assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+        assertEquals(-3, p.getIntValue());
+        assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+        assertEquals("0x1F", p.getText());
+        assertEquals(31, p.getIntValue());
+        assertToken(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+        assertEquals(1.5, p.getDoubleValue());
+        assertToken(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+        assertEquals(".inf", p.getText());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertEquals("2001-12-14", p.getText());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertEquals("1", p.getText());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertEquals("abc", p.getText());
+        assertToken(JsonToken.END_ARRAY, p.nextToken());
+        p.close();
+    }
+
+    public void testCoreSchemaTokens() throws Exception
+    {
+        _testCoreSchemaTokens(new YAMLFactory().enable(YAMLParser.Feature.USE_CORE_SCHEMA));
+        _testCoreSchemaTokens(new YAMLFactory().enable(YAMLParser.Feature.USE_CORE_SCHEMA)
+                .enable(YAMLParser.Feature.USE_UTF8_PARSER));
+    }
+
+    private void _testCoreSchemaTokens(YAMLFactory f) throws Exception
+    {
+        // block sequence, as colons are not allowed in plain scalars of flow sequences
+        JsonParser p = f.createParser("- yes\n- True\n- 0o17\n- 012\n- -0x1F\n- 1_000\n- 1:30\n- 1e3\n"
+                +"- 2001-12-14\n- !!bool yes\n- !!bool false\n- !!int 010\n- !!int 1_000\n");
+        assertToken(JsonToken.START_ARRAY, p.nextToken());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertEquals("yes", p.getText());
+        assertToken(JsonToken.VALUE_TRUE, p.nextToken());
+        assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+        assertEquals(15, p.getIntValue());
+        assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+        assertEquals(12, p.getIntValue());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertEquals("1:30", p.getText());
+        assertToken(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+        assertEquals(1000.0, p.getDoubleValue());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertEquals("yes", p.getText());
+        assertToken(JsonToken.VALUE_FALSE, p.nextToken());
+        assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+        assertEquals(10, p.getIntValue());
+        // no underscores in Core schema integers, even if explicitly tagged
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertEquals("1_000", p.getText());
+        assertToken(JsonToken.END_ARRAY, p.nextToken());
+        p.close();
+    }
+
+    /*
+    /**********************************************************************
+    /* Helper methods
+    /**********************************************************************
+     */
+
+    private void _verify(String value)
+    {
+        int exp = _resolve(value);
+        int act = ScalarClassifier.classify(value);
+        if (exp != act) {
+            fail("Wrong type for '"+value+"': expected "+exp+", got "+act);
+        }
+    }
+
+    private void _verifyCore(String value)
+    {
+        int exp = ScalarClassifier.TYPE_STRING;
+        if (CORE_NULL.matcher(value).matches()) {
+            exp = ScalarClassifier.TYPE_NULL;
+        } else if (CORE_TRUE.matcher(value).matches()) {
+            exp = ScalarClassifier.TYPE_TRUE;
+        } else if (CORE_FALSE.matcher(value).matches()) {
+            exp = ScalarClassifier.TYPE_FALSE;
+        } else if (CORE_INT.matcher(value).matches()) {
+            exp = ScalarClassifier.TYPE_INT;
+        } else if (CORE_FLOAT.matcher(value).matches()) {
+            exp = ScalarClassifier.TYPE_FLOAT;
+        }
+        int act = ScalarClassifier.classifyCore(value);
+        if (exp != act) {
+            fail("Wrong Core Schema type for '"+value+"': expected "+exp+", got "+act);
+        }
+        if (!value.isEmpty() && !ScalarClassifier.mayBeTypedCore(value.charAt(0))) {
+            assertEquals(ScalarClassifier.TYPE_STRING, act);
+        }
+    }
+
+    private int _resolve(String value)
+    {
+        Tag tag = RESOLVER.resolve(NodeId.scalar, value, true);
+        if (tag.equals(Tag.NULL)) {
+            return ScalarClassifier.TYPE_NULL;
+        }
+        if (tag.equals(Tag.BOOL)) {
+            switch (value.charAt(0)) {
+            case 'y': case 'Y': case 't': case 'T':
+                return ScalarClassifier.TYPE_TRUE;
+            }
+            // "on"/"off" need a bit more work
+            if (value.length() == 2 && (value.charAt(0) == 'o' || value.charAt(0) == 'O')) {
+                return ScalarClassifier.TYPE_TRUE;
+            }
+            return ScalarClassifier.TYPE_FALSE;
+        }
+        if (tag.equals(Tag.INT)) {
+            return ScalarClassifier.TYPE_INT;
+        }
+        if (tag.equals(Tag.FLOAT)) {
+            return ScalarClassifier.TYPE_FLOAT;
+        }
+        if (tag.equals(Tag.TIMESTAMP)) {
+            return ScalarClassifier.TYPE_TIMESTAMP;
+        }
+        if (tag.equals(Tag.MERGE)) {
+            return ScalarClassifier.TYPE_MERGE;
+        }
+        return ScalarClassifier.TYPE_STRING;
+    }
+}
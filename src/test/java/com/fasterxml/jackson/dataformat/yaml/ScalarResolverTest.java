@@ -0,0 +1,69 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.core.*;
+
+/**
+ * Tests for custom implicit types, resolved by {@link YAMLScalarResolver}
+ * configured for {@link YAMLFactory}.
+ */
+public class ScalarResolverTest extends ModuleTestBase
+{
+    private final static YAMLScalarResolver RESOLVER = YAMLScalarResolver.DEFAULT
+            .withImplicitType("!semver", Pattern.compile("[0-9]+\\.[0-9]+\\.[0-9]+"), "0123456789")
+            .withImplicitType("tag:yaml.org,2002:null", Pattern.compile("none|None"), "nN")
+            .withImplicitType("!price", Pattern.compile("€[0-9]+"), "€");
+
+    private final static String DOC = "- 1.2.3\n- '1.2.3'\n- 1.2\n- none\n- nothing\n"
+            +"- €25\n- !!str 2.0.1\n";
+
+    public void testImmutable() throws Exception
+    {
+        assertFalse(YAMLScalarResolver.DEFAULT.hasImplicitTypes());
+        assertTrue(RESOLVER.hasImplicitTypes());
+        assertFalse(YAMLScalarResolver.DEFAULT.mayBeTyped('€'));
+        assertTrue(RESOLVER.mayBeTyped('€'));
+        assertFalse(RESOLVER.mayBeTyped('a'));
+
+        YAMLFactory f = new YAMLFactory();
+        assertSame(YAMLScalarResolver.DEFAULT, f.getScalarResolver());
+        f.setScalarResolver(RESOLVER);
+        assertSame(RESOLVER, f.copy().getScalarResolver());
+    }
+
+    public void testImplicitTypes() throws Exception
+    {
+        for (YAMLFactory f : new YAMLFactory[] { new YAMLFactory(),
+                new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER) }) {
+            f.setScalarResolver(RESOLVER);
+            YAMLParser p = f.createParser(DOC);
+            assertToken(JsonToken.START_ARRAY, p.nextToken());
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+            assertEquals("1.2.3", p.getText());
+            assertEquals("semver", p.getTypeId());
+            // quoted values are not resolved
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+            assertNull(p.getTypeId());
+            // nor ones matching standard types
+            assertToken(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+            assertNull(p.getTypeId());
+            assertToken(JsonToken.VALUE_NULL, p.nextToken());
+            assertEquals("tag:yaml.org,2002:null", p.getTypeId());
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+            assertEquals("nothing", p.getText());
+            assertNull(p.getTypeId());
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+            assertEquals("price", p.getTypeId());
+            // explicit tag has precedence
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+            assertEquals("tag:yaml.org,2002:str", p.getTypeId());
+            assertToken(JsonToken.END_ARRAY, p.nextToken());
+            p.close();
+
+            Map<?,?> result = new YAMLMapper(f).readValue("a: none\nb: None\nc: 1.2.3\n", Map.class);
+            assertEquals("{a=null, b=null, c=1.2.3}", String.valueOf(result));
+        }
+    }
+}
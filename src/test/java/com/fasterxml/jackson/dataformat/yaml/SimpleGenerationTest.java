@@ -246,6 +246,34 @@ public class SimpleGenerationTest extends ModuleTestBase
 
     }
 
+    public void testMinimizeQuotesWithCoreSchema() throws Exception
+    {
+        YAMLFactory f = new YAMLFactory();
+        assertFalse(f.isEnabled(YAMLGenerator.Feature.USE_CORE_SCHEMA));
+        f.configure(YAMLGenerator.Feature.MINIMIZE_QUOTES, true);
+        f.configure(YAMLGenerator.Feature.USE_CORE_SCHEMA, true);
+
+        YAMLMapper mapper = new YAMLMapper(f);
+        List<Object> content = new ArrayList<Object>();
+        for (String value : new String[] { "true", "False", "yes", "null", "~", "",
+                "123", "-1.5e3", "0x1F", "0o17", ".inf", "1:30", "2001-12-14", "abc" }) {
+            content.add(value);
+        }
+        content.add(Boolean.TRUE);
+        content.add(123);
+        String yaml = mapper.writeValueAsString(content).trim();
+
+        assertEquals("---\n"
+                +"- \"true\"\n- \"False\"\n- yes\n- \"null\"\n- \"~\"\n- \"\"\n"
+                +"- \"123\"\n- \"-1.5e3\"\n- \"0x1F\"\n- \"0o17\"\n- \".inf\"\n"
+                +"- 1:30\n- 2001-12-14\n- abc\n- true\n- 123", yaml);
+
+        // and everything reads back as is, with Core Schema
+        YAMLMapper reader = new YAMLMapper(new YAMLFactory()
+                .enable(YAMLParser.Feature.USE_CORE_SCHEMA));
+        assertEquals(content, reader.readValue(yaml, List.class));
+    }
+
     public void testLiteralStringsMultiLine() throws Exception
     {
         YAMLFactory f = new YAMLFactory();
@@ -118,6 +118,100 @@ public class SimpleParseTest extends ModuleTestBase
     }
 
     // [cbor#4]: accidental recognition as double, with multiple dots
+    // YAML 1.1 allows other radixes, underscores
+    public void testIntRadixParsing() throws Exception
+    {
+        _testIntRadixParsing(YAML_F);
+        _testIntRadixParsing(new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER));
+    }
+
+    private void _testIntRadixParsing(YAMLFactory f) throws Exception
+    {
+        JsonParser p = f.createParser("[0x1F, -0xff, 017, +0b101, 1_000_000, 0b1_0, 0,"
+                +" -0x8000_0000_0000_0000, 0xFFFF_FFFF_FFFF_FFFF, 0x_1]");
+        assertToken(JsonToken.START_ARRAY, p.nextToken());
+        _verifyInt(p, "0x1F", 31);
+        _verifyInt(p, "-0xff", -255);
+        // leading zero does not mean octal by default
+        _verifyInt(p, "017", 17);
+        _verifyInt(p, "+0b101", 5);
+        _verifyInt(p, "1_000_000", 1000000);
+        _verifyInt(p, "0b1_0", 2);
+        _verifyInt(p, "0", 0);
+
+        assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+        assertEquals(JsonParser.NumberType.LONG, p.getNumberType());
+        assertEquals(Long.MIN_VALUE, p.getLongValue());
+        assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+        assertEquals(JsonParser.NumberType.BIG_INTEGER, p.getNumberType());
+        assertEquals(new BigInteger("FFFFFFFFFFFFFFFF", 16), p.getBigIntegerValue());
+        _verifyInt(p, "0x_1", 1);
+        assertToken(JsonToken.END_ARRAY, p.nextToken());
+        p.close();
+
+        // but sexagesimal values remain Strings, see [dataformat-yaml#69]
+        // (note: colons not allowed in plain scalars of flow sequences)
+        p = f.createParser("- 190:20:30\n");
+        assertToken(JsonToken.START_ARRAY, p.nextToken());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertEquals("190:20:30", p.getText());
+        assertToken(JsonToken.END_ARRAY, p.nextToken());
+        p.close();
+
+        // unless explicitly tagged
+        p = f.createParser("- !!int 190:20:30\n- !!int 0o17\n- !!int 09\n- !!int 1:60\n");
+        assertToken(JsonToken.START_ARRAY, p.nextToken());
+        _verifyInt(p, "190:20:30", 685230);
+        _verifyInt(p, "0o17", 15);
+        _verifyInt(p, "09", 9);
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertToken(JsonToken.END_ARRAY, p.nextToken());
+        p.close();
+
+        // prefix and underscores without digits are not numbers, tagged or not
+        p = f.createParser("- 0x_\n- 0b_\n- -0o__\n- !!int 0x_\n- !!int _\n");
+        assertToken(JsonToken.START_ARRAY, p.nextToken());
+        for (String str : new String[] { "0x_", "0b_", "-0o__", "0x_", "_" }) {
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+            assertEquals(str, p.getText());
+        }
+        assertToken(JsonToken.END_ARRAY, p.nextToken());
+        p.close();
+    }
+
+    public void testLegacyOctalParsing() throws Exception
+    {
+        _testLegacyOctalParsing(YAML_F, false);
+        _testLegacyOctalParsing(new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER), false);
+        _testLegacyOctalParsing(new YAMLFactory().enable(YAMLParser.Feature.DECODE_LEGACY_OCTAL), true);
+        _testLegacyOctalParsing(new YAMLFactory().enable(YAMLParser.Feature.DECODE_LEGACY_OCTAL)
+                .enable(YAMLParser.Feature.USE_UTF8_PARSER), true);
+    }
+
+    private void _testLegacyOctalParsing(YAMLFactory f, boolean octal) throws Exception
+    {
+        JsonParser p = f.createParser("[01234, -017, !!int 0o17, 0_7, 007, !!int 019]");
+        assertToken(JsonToken.START_ARRAY, p.nextToken());
+        _verifyInt(p, "01234", octal ? 668 : 1234);
+        _verifyInt(p, "-017", octal ? -15 : -17);
+        _verifyInt(p, "0o17", 15);
+        _verifyInt(p, "0_7", 7);
+        _verifyInt(p, "007", 7);
+        // not valid octal, so decimal in either case
+        _verifyInt(p, "019", 19);
+        assertToken(JsonToken.END_ARRAY, p.nextToken());
+        p.close();
+    }
+
+    private void _verifyInt(JsonParser p, String text, int exp) throws Exception
+    {
+        assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+        assertEquals(JsonParser.NumberType.INT, p.getNumberType());
+        assertEquals(exp, p.getIntValue());
+        assertEquals((long) exp, p.getLongValue());
+        assertEquals(text, p.getText());
+    }
+
     public void testDoubleParsing() throws Exception
     {
         // First, test out valid use case.
@@ -160,6 +254,49 @@ public class SimpleParseTest extends ModuleTestBase
         p.close();
     }
 
+    public void testSpecialDoubleParsing() throws Exception
+    {
+        _testSpecialDoubleParsing(YAML_F);
+        _testSpecialDoubleParsing(new YAMLFactory().enable(YAMLParser.Feature.USE_FAST_DOUBLE_PARSER));
+        _testSpecialDoubleParsing(new YAMLFactory().enable(YAMLParser.Feature.USE_FAST_DOUBLE_PARSER)
+                .enable(YAMLParser.Feature.USE_UTF8_PARSER));
+    }
+
+    private void _testSpecialDoubleParsing(YAMLFactory f) throws Exception
+    {
+        JsonParser p = f.createParser("[.inf, -.Inf, +.INF, .NaN, 1_000.5, -1.5e-3, !!float 0.25]");
+        assertToken(JsonToken.START_ARRAY, p.nextToken());
+        assertToken(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+        assertEquals(Double.POSITIVE_INFINITY, p.getDoubleValue());
+        assertToken(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+        assertEquals(Double.NEGATIVE_INFINITY, p.getDoubleValue());
+        assertEquals("-.Inf", p.getText());
+        assertToken(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+        assertEquals(Double.POSITIVE_INFINITY, p.getDoubleValue());
+        assertToken(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+        assertTrue(Double.isNaN(p.getDoubleValue()));
+        assertToken(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+        assertEquals(1000.5, p.getDoubleValue());
+        assertEquals("1_000.5", p.getText());
+        assertToken(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+        assertEquals(-0.0015, p.getDoubleValue());
+        assertToken(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+        assertEquals(0.25, p.getDoubleValue());
+        assertEquals("0.25", p.getText());
+        assertToken(JsonToken.END_ARRAY, p.nextToken());
+        p.close();
+
+        // note: colons not allowed in plain scalars of flow sequences
+        p = f.createParser("- 190:20:30.15\n- -1:30.5\n");
+        assertToken(JsonToken.START_ARRAY, p.nextToken());
+        assertToken(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+        assertEquals(685230.15, p.getDoubleValue(), 0.0001);
+        assertToken(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+        assertEquals(-90.5, p.getDoubleValue(), 0.0001);
+        assertToken(JsonToken.END_ARRAY, p.nextToken());
+        p.close();
+    }
+
     // [Issue#7]
     // looks like colons in content can be problematic, if unquoted
     public void testColons() throws Exception
@@ -0,0 +1,201 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Tests for optimized {@link JsonParser#skipChildren} implementations, verifying
+ * that results match those of skipping token by token.
+ */
+public class SkipChildrenTest extends ModuleTestBase
+{
+    private final YAMLFactory SNAKE_F = new YAMLFactory();
+
+    private final YAMLFactory NATIVE_F = new YAMLFactory()
+        .enable(YAMLParser.Feature.USE_UTF8_PARSER);
+
+    static class Point {
+        public int x, y;
+    }
+
+    /*
+    /**********************************************************************
+    /* Test methods
+    /**********************************************************************
+     */
+
+    public void testSimpleSkip() throws Exception
+    {
+        _testSimpleSkip(SNAKE_F);
+        _testSimpleSkip(NATIVE_F);
+    }
+
+    private void _testSimpleSkip(YAMLFactory f) throws Exception
+    {
+        JsonParser p = f.createParser("a:\n  b: [1, {c: d}]\n  e:\n    - x\n    - f: g\nh: 3\n");
+        assertToken(JsonToken.START_OBJECT, p.nextToken());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        assertEquals("a", p.getCurrentName());
+        assertToken(JsonToken.START_OBJECT, p.nextToken());
+        p.skipChildren();
+        assertToken(JsonToken.END_OBJECT, p.getCurrentToken());
+        assertEquals("a", p.getCurrentName());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        assertEquals("h", p.getCurrentName());
+        assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+        assertEquals(3, p.getIntValue());
+        assertToken(JsonToken.END_OBJECT, p.nextToken());
+        assertNull(p.nextToken());
+        p.close();
+    }
+
+    // Skip every collection at every position, compare to token-by-token skipping
+    public void testSkipAtAllPositions() throws Exception
+    {
+        for (String doc : UTF8ParserTest.DOCS) {
+            byte[] b = doc.getBytes("UTF-8");
+            int count = _count(SNAKE_F.createParser(b));
+            for (int i = 0; i < count; ++i) {
+                String exp = _tokens(SNAKE_F.createParser(b), i, false);
+                assertEquals(exp, _tokens(SNAKE_F.createParser(b), i, true));
+                assertEquals(exp, _tokens(NATIVE_F.createParser(b), i, false));
+                assertEquals(exp, _tokens(NATIVE_F.createParser(b), i, true));
+                assertEquals(exp, _tokens(NATIVE_F.createParser(
+                        new UTF8ParserTest.ThrottledInputStream(b)), i, true));
+            }
+        }
+    }
+
+    public void testSkipWithDatabind() throws Exception
+    {
+        final String DOC = "ignored:\n  deep: {a: [1, 2, {b: c}]}\n  list:\n  - 1\n  - x: y\nx: 1\nextra: [1, 2]\ny: 2\n";
+        for (YAMLFactory f : new YAMLFactory[] { SNAKE_F, NATIVE_F }) {
+            ObjectMapper mapper = new ObjectMapper(f)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+            Point result = mapper.readValue(DOC, Point.class);
+            assertEquals(1, result.x);
+            assertEquals(2, result.y);
+        }
+    }
+
+    // names within skipped content must not be seen by duplicate detection
+    public void testSkipWithDuplicateDetection() throws Exception
+    {
+        final String DOC = "a: {x: 1, y: 2, z: {x: 3, y: 4}}\n"
+                +"b:\n  x: 1\n  y:\n    k: 1\n    m: 2\n  z: [c: 1, d: 2]\n"
+                +"c: 3\n"
+                +"a: 4\n";
+        for (YAMLFactory f : new YAMLFactory[] { SNAKE_F, NATIVE_F }) {
+            JsonParser p = f.createParser(DOC);
+            p.enable(JsonParser.Feature.STRICT_DUPLICATE_DETECTION);
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            p.skipChildren();
+            assertToken(JsonToken.END_OBJECT, p.getCurrentToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertEquals("b", p.getCurrentName());
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            p.skipChildren();
+            assertToken(JsonToken.END_OBJECT, p.getCurrentToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertEquals("c", p.getCurrentName());
+            assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+            // but duplicates outside skipped content are still detected
+            try {
+                p.nextToken();
+                fail("Should not pass");
+            } catch (JsonParseException e) {
+                verifyException(e, "Duplicate field 'a'");
+            }
+            p.close();
+        }
+    }
+
+    public void testNonBlockingNeedsAllContent() throws Exception
+    {
+        JsonParser p = NATIVE_F.createNonBlockingByteArrayParser();
+        byte[] b = "a:\n  b: [1, 2".getBytes("UTF-8");
+        ((NonBlockingYAMLParser) p).feedInput(b, 0, b.length);
+        assertToken(JsonToken.START_OBJECT, p.nextToken());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        assertToken(JsonToken.START_OBJECT, p.nextToken());
+        try {
+            p.skipChildren();
+            fail("Should not pass");
+        } catch (JsonParseException e) {
+            verifyException(e, "Not enough content available");
+        }
+        p.close();
+    }
+
+    public void testSkipInvalid() throws Exception
+    {
+        for (YAMLFactory f : new YAMLFactory[] { SNAKE_F, NATIVE_F }) {
+            JsonParser p = f.createParser("a:\n  b: [1, 2\n");
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            try {
+                p.skipChildren();
+                fail("Should not pass");
+            } catch (JsonProcessingException e) {
+                ; // fine, exact message differs
+            }
+            p.close();
+        }
+    }
+
+    /*
+    /**********************************************************************
+    /* Helper methods
+    /**********************************************************************
+     */
+
+    private int _count(JsonParser p) throws Exception
+    {
+        int count = 0;
+        while (p.nextToken() != null) {
+            ++count;
+        }
+        p.close();
+        return count;
+    }
+
+    /**
+     * Helper method that reads all tokens, calling skip at given token
+     * index if it is a start marker
+     */
+    private String _tokens(JsonParser p, int skipAt, boolean useSkipChildren) throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        JsonToken t;
+        int index = 0;
+        while ((t = p.nextToken()) != null) {
+            if (index++ == skipAt && t.isStructStart()) {
+                sb.append("(skip)");
+                if (useSkipChildren) {
+                    p.skipChildren();
+                } else {
+                    for (int open = 1; open > 0; ) {
+                        t = p.nextToken();
+                        if (t.isStructStart()) {
+                            ++open;
+                        } else if (t.isStructEnd()) {
+                            --open;
+                        }
+                    }
+                }
+                t = p.getCurrentToken();
+            }
+            sb.append(t);
+            if (t.isScalarValue()) {
+                sb.append('[').append(p.getText()).append(']');
+            }
+            sb.append(" @").append(p.getParsingContext().getCurrentName())
+                .append('/').append(p.getParsingContext().getCurrentIndex())
+                .append('\n');
+        }
+        p.close();
+        return sb.toString();
+    }
+}
@@ -0,0 +1,80 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import com.fasterxml.jackson.core.*;
+
+/**
+ * Tests for {@link YAMLTagCache}, and its use for resolving tags.
+ */
+public class TagCacheTest extends ModuleTestBase
+{
+    public void testResolvedTags()
+    {
+        YAMLTagCache cache = new YAMLTagCache();
+        YAMLTagCache.Tag tag = cache.find("!!com.foo.Bar");
+        assertEquals("com.foo.Bar", tag.typeId);
+        assertEquals(YAMLTagCache.SCALAR_OTHER, tag.scalarType);
+        assertSame(tag, cache.find(new String("!!com.foo.Bar")));
+        assertEquals(YAMLTagCache.SCALAR_INT, cache.find("tag:yaml.org,2002:int").scalarType);
+        assertEquals(YAMLTagCache.SCALAR_BOOL, cache.find("tag:yaml.org,2002:bool,x").scalarType);
+        assertEquals(YAMLTagCache.SCALAR_OTHER, cache.find("tag:yaml.org,2002:integer").scalarType);
+        assertEquals("tag:yaml.org,2002:float", cache.find("tag:yaml.org,2002:float").typeId);
+        assertEquals("", cache.find("!").typeId);
+        assertEquals(6, cache.size());
+
+        // size limited
+        for (int i = 0; i < 2 * YAMLTagCache.MAX_ENTRIES; ++i) {
+            assertEquals("tag"+i, cache.find("!tag"+i).typeId);
+        }
+        assertEquals(YAMLTagCache.MAX_ENTRIES, cache.size());
+    }
+
+    public void testSharedTypeIds() throws Exception
+    {
+        final String DOC = "- !type1 {a: 1}\n- !type2 [2]\n- !type1 x\n- !!int '3'\n";
+        for (YAMLFactory f : new YAMLFactory[] { new YAMLFactory(),
+                new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER) }) {
+            String[] ids = new String[3];
+            for (int round = 0; round < 2; ++round) {
+                YAMLParser p = f.createParser(DOC);
+                assertToken(JsonToken.START_ARRAY, p.nextToken());
+                assertToken(JsonToken.START_OBJECT, p.nextToken());
+                String id1 = p.getTypeId();
+                assertEquals("type1", id1);
+                p.skipChildren();
+                assertToken(JsonToken.START_ARRAY, p.nextToken());
+                assertEquals("type2", p.getTypeId());
+                p.skipChildren();
+                assertToken(JsonToken.VALUE_STRING, p.nextToken());
+                assertSame(id1, p.getTypeId());
+                assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+                assertEquals(3, p.getIntValue());
+                assertEquals("tag:yaml.org,2002:int", p.getTypeId());
+                // same instances from different parsers of the same factory
+                if (round == 0) {
+                    ids[0] = id1;
+                } else {
+                    assertSame(ids[0], id1);
+                }
+                p.close();
+            }
+        }
+    }
+
+    // Shorthands resolve differently if %TAG directives differ; native parser
+    // caches shorthands so must notice (SnakeYAML does not allow redefinition)
+    public void testTagDirectives() throws Exception
+    {
+        final String DOC = "%TAG !e! tag:first:\n"
+                +"--- !e!x 1\n"
+                +"...\n"
+                +"%TAG !e! tag:second:\n"
+                +"--- !e!x 2\n";
+        YAMLFactory f = new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER);
+        YAMLParser p = f.createParser(DOC);
+        p.nextToken();
+        assertEquals("tag:first:x", p.getTypeId());
+        p.nextToken();
+        assertEquals("tag:second:x", p.getTypeId());
+        p.close();
+    }
+}
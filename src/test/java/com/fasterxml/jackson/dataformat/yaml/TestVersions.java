@@ -22,7 +22,7 @@ public class TestVersions extends ModuleTestBase
     {
         YAMLFactory f = new YAMLFactory();
         assertFalse(f.canHandleBinaryNatively());
-        assertFalse(f.canUseCharArrays());
+        assertTrue(f.canUseCharArrays());
 
         JsonParser p = f.createParser(new StringReader(""));
         assertTrue(p.canReadObjectId());
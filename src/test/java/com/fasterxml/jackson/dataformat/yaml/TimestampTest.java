@@ -0,0 +1,135 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import com.fasterxml.jackson.core.*;
+
+/**
+ * Tests for {@link YAMLParser.Feature#DECODE_TIMESTAMPS} and {@link TimestampDecoder}.
+ */
+public class TimestampTest extends ModuleTestBase
+{
+    static class Event {
+        public Date when;
+        public String text;
+        public List<Date> dates;
+    }
+
+    private final YAMLFactory[] FACTORIES = new YAMLFactory[] {
+            new YAMLFactory().enable(YAMLParser.Feature.DECODE_TIMESTAMPS),
+            new YAMLFactory().enable(YAMLParser.Feature.DECODE_TIMESTAMPS)
+                .enable(YAMLParser.Feature.USE_UTF8_PARSER)
+    };
+
+    public void testDecoder() throws Exception
+    {
+        // examples from YAML timestamp type specification
+        _verify("2001-12-15T02:59:43.1Z", "2001-12-15 02:59:43.100");
+        _verify("2001-12-14t21:59:43.10-05:00", "2001-12-15 02:59:43.100");
+        _verify("2001-12-14 21:59:43.10 -5", "2001-12-15 02:59:43.100");
+        _verify("2001-12-15 2:59:43.10", "2001-12-15 02:59:43.100");
+        _verify("2002-12-14", "2002-12-14 00:00:00.000");
+        _verify("2002-1-4 1:02:03", "2002-01-04 01:02:03.000");
+        _verify("1969-12-31T23:59:59.999+00:00", "1969-12-31 23:59:59.999");
+        _verify("2000-02-29T12:00:00.123456789+05:30", "2000-02-29 06:30:00.123");
+        _verify("1600-03-01", "1600-03-01 00:00:00.000");
+        assertEquals(0L, TimestampDecoder.decode("1970-01-01"));
+
+        for (String invalid : new String[] { "2002-12-1", "2002-13-01", "2001-02-29",
+                "2002-12-14T", "2002-12-14 25:00:00", "2002-12-14 10:60:00", "2002-12-14 10:00",
+                "2002-12-14 10:00:00 +", "2002-12-14 10:00:00+05:3", "2002-12-14 10:00:00X",
+                "2002-12-14 10:00:00Zx", "20021214", "12-12-2002" }) {
+            assertEquals("Should not decode '"+invalid+"'", TimestampDecoder.INVALID,
+                    TimestampDecoder.decode(invalid));
+        }
+    }
+
+    public void testTimestampTokens() throws Exception
+    {
+        final String DOC = "- 2001-12-14t21:59:43.10-05:00\n"
+                +"- !!timestamp 2002-12-14\n"
+                +"- '2002-12-14'\n"
+                +"- 2002-13-14\n"
+                +"- !!timestamp bogus\n";
+        final long EXP = TimestampDecoder.decode("2001-12-15T02:59:43.1Z");
+        for (YAMLFactory f : FACTORIES) {
+            YAMLParser p = f.createParser(DOC);
+            assertToken(JsonToken.START_ARRAY, p.nextToken());
+            assertToken(JsonToken.VALUE_EMBEDDED_OBJECT, p.nextToken());
+            assertTrue(p.isCurrentTimestamp());
+            assertEquals(new Date(EXP), p.getEmbeddedObject());
+            assertEquals("2001-12-14t21:59:43.10-05:00", p.getText());
+            try {
+                p.getBinaryValue();
+                fail("Should not pass");
+            } catch (JsonParseException e) {
+                verifyException(e, "can not access as binary");
+            }
+            assertToken(JsonToken.VALUE_EMBEDDED_OBJECT, p.nextToken());
+            assertEquals(new Date(TimestampDecoder.decode("2002-12-14")), p.getEmbeddedObject());
+            // quoted values, invalid dates not decoded
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+            assertFalse(p.isCurrentTimestamp());
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+            assertEquals("bogus", p.getText());
+            assertToken(JsonToken.END_ARRAY, p.nextToken());
+            p.close();
+        }
+        // and not without feature
+        YAMLParser p = new YAMLFactory().createParser("2002-12-14");
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        p.close();
+    }
+
+    public void testReplayedTimestamps() throws Exception
+    {
+        for (YAMLFactory f : FACTORIES) {
+            f.enable(YAMLParser.Feature.REPLAY_ALIASES);
+            YAMLParser p = f.createParser("a: &x 2002-12-14\nb: *x\n");
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertToken(JsonToken.VALUE_EMBEDDED_OBJECT, p.nextToken());
+            Object exp = p.getEmbeddedObject();
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertToken(JsonToken.VALUE_EMBEDDED_OBJECT, p.nextToken());
+            assertEquals(exp, p.getEmbeddedObject());
+            assertToken(JsonToken.END_OBJECT, p.nextToken());
+            p.close();
+        }
+    }
+
+    public void testDatabind() throws Exception
+    {
+        final String DOC = "when: 2001-12-14 21:59:43.10 -5\n"
+                +"text: 2002-12-14\n"
+                +"dates: [2002-12-14, '2002-12-15', 1039824000000]\n";
+        for (YAMLFactory f : FACTORIES) {
+            YAMLMapper mapper = new YAMLMapper(f);
+            mapper.registerModule(new YAMLTimestampModule());
+            Event ev = mapper.readValue(DOC, Event.class);
+            assertEquals(TimestampDecoder.decode("2001-12-15T02:59:43.1Z"), ev.when.getTime());
+            assertEquals("2002-12-14", ev.text);
+            assertEquals(3, ev.dates.size());
+            assertEquals(1039824000000L, ev.dates.get(0).getTime());
+            assertEquals(1039824000000L + 86400000L, ev.dates.get(1).getTime());
+            assertEquals(1039824000000L, ev.dates.get(2).getTime());
+
+            Map<?,?> map = mapper.readValue(DOC, Map.class);
+            assertEquals(ev.when, map.get("when"));
+        }
+    }
+
+    private void _verify(String input, String exp)
+    {
+        SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+        df.setTimeZone(TimeZone.getTimeZone("UTC"));
+        long ts = TimestampDecoder.decode(input);
+        assertFalse("Should decode '"+input+"'", ts == TimestampDecoder.INVALID);
+        assertEquals(exp, df.format(new Date(ts)));
+    }
+}
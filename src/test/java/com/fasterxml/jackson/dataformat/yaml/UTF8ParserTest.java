@@ -0,0 +1,283 @@
+package com.fasterxml.jackson.dataformat.yaml;
+
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.*;
+
+/**
+ * Tests for {@link UTF8YAMLParser}, mostly by verifying that it produces
+ * same tokens as SnakeYAML-backed {@link YAMLParser}.
+ */
+public class UTF8ParserTest extends ModuleTestBase
+{
+    private final YAMLFactory SNAKE_F = new YAMLFactory();
+
+    private final YAMLFactory NATIVE_F = new YAMLFactory()
+        .enable(YAMLParser.Feature.USE_UTF8_PARSER);
+
+    final static String[] DOCS = new String[] {
+        "a: 1\nb: two\nc: 3.5\nd: true\ne: null\nf: ~\ng:\n",
+        "root:\n  child:\n    x: 1\n    y: [1, 2, 3]\n  list:\n    - a\n    - b: 2\n      c: 3\n    -   - nested\n        - seq\n",
+        "{a: 1, b: [x, y, {z: w}], c: {}, d: []}\n",
+        "[a: 1, b, {c: d}]\n",
+        "a: \"hello\\nworld \\u00e9 \\x41\"\nb: 'it''s'\nc: \"multi\n  line\n\n  para\"\n",
+        "lit: |\n  line1\n  line2\n\n  line4\nfold: >\n  some folded\n  text here\n\n  next para\n"
+            +"keep: |+\n  keep\n\nstrip: |-\n  strip\nind: |2\n    indented\nlast: end\n",
+        "base: &b\n  x: 1\nref: *b\nscal: &s foo\nref2: *s\nseq: &q [1, 2]\n",
+        "a: !!str 123\nb: !custom {x: 1}\nc: !!int \"42\"\nd: !<tag:yaml.org,2002:str> v\ne: !foo [1]\n",
+        "%YAML 1.1\n%TAG !e! tag:example.com,2000:\n---\na: !e!foo bar\n",
+        "---\na: 1\n---\nb: 2\n...\n---\n- x\n",
+        "# comment\na: 1 # trailing\n# mid\nb:\n  # inside\n  - 1 # x\n  - 2\n",
+        "a: 0x1F\nb: 017\nc: -12\nd: +3\ne: 1_000\nf: 1.5e-3\ng: 190:20:30\nh: 3:00\ni: 9223372036854775808\nj: .inf\nk: -.Inf\nl: 1_0.5\n",
+        "a: yes\nb: No\nc: on\nd: OFF\ne: y\n",
+        "- 1\n- two\n- {a: b}\n- [c]\n-\n- - x\n  - y\n",
+        "key: this is\n  a multi\n  line value\nother: x\n",
+        "a:\n- 1\n- 2\nb: x\n",
+        "url: http://example.com:8080/x\nip: 127.0.0.1\n",
+        "a: &x !foo\n  b: 1\nc: !bar\n  - 1\n",
+        "---\n&1 name: \"first\"\nnext:\n  &2 name: \"second\"\n  next: *1",
+        "a: 1\r\nb:\r\n  - x\r\n  - y\r\n",
+        "just a scalar\n",
+    };
+
+    /*
+    /**********************************************************************
+    /* Test methods
+    /**********************************************************************
+     */
+
+    public void testFactoryFeature() throws Exception
+    {
+        JsonParser p = NATIVE_F.createParser("a: 1");
+        assertEquals(UTF8YAMLParser.class, p.getClass());
+        p.close();
+        // Readers are still handled by SnakeYAML
+        p = NATIVE_F.createParser(new java.io.StringReader("a: 1"));
+        assertEquals(YAMLParser.class, p.getClass());
+        p.close();
+        p = SNAKE_F.createParser("a: 1".getBytes("UTF-8"));
+        assertEquals(YAMLParser.class, p.getClass());
+        p.close();
+    }
+
+    public void testSameTokensAsSnakeYAML() throws Exception
+    {
+        for (String doc : DOCS) {
+            byte[] b = doc.getBytes("UTF-8");
+            String exp = _tokens(SNAKE_F.createParser(b));
+            assertEquals(exp, _tokens(NATIVE_F.createParser(b)));
+            assertEquals(exp, _tokens(NATIVE_F.createParser(doc)));
+        }
+    }
+
+    // Make sure that input boundaries are handled correctly, by feeding a byte at a time
+    public void testSameTokensWithSlowInput() throws Exception
+    {
+        for (String doc : DOCS) {
+            byte[] b = doc.getBytes("UTF-8");
+            String exp = _tokens(SNAKE_F.createParser(b));
+            assertEquals(exp, _tokens(NATIVE_F.createParser(new ThrottledInputStream(b))));
+        }
+    }
+
+    public void testMultiByteCharacters() throws Exception
+    {
+        final String DOC = "\u540d\u524d: \u5024\nemoji: \"\ud83d\ude00\"\nplain: caf\u00e9 \ud83d\ude00\n";
+        JsonParser p = NATIVE_F.createParser(new ThrottledInputStream(DOC.getBytes("UTF-8")));
+        assertToken(JsonToken.START_OBJECT, p.nextToken());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        assertEquals("\u540d\u524d", p.getCurrentName());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertEquals("\u5024", p.getText());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertEquals("\ud83d\ude00", p.getText());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertEquals("caf\u00e9 \ud83d\ude00", p.getText());
+        assertToken(JsonToken.END_OBJECT, p.nextToken());
+        assertNull(p.nextToken());
+        p.close();
+    }
+
+    public void testLocations() throws Exception
+    {
+        JsonParser p = NATIVE_F.createParser("---\nkey:\n  - value\n");
+        assertToken(JsonToken.START_OBJECT, p.nextToken());
+        assertEquals(2, p.getTokenLocation().getLineNr());
+        assertEquals(1, p.getTokenLocation().getColumnNr());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        assertToken(JsonToken.START_ARRAY, p.nextToken());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertEquals(3, p.getTokenLocation().getLineNr());
+        assertEquals(5, p.getTokenLocation().getColumnNr());
+        p.close();
+    }
+
+    public void testTextCharacters() throws Exception
+    {
+        _testTextCharacters(SNAKE_F);
+        _testTextCharacters(NATIVE_F);
+    }
+
+    private void _testTextCharacters(YAMLFactory f) throws Exception
+    {
+        JsonParser p = f.createParser("key: 'quoted value'\nplain: text\nnum: 123\n");
+        assertToken(JsonToken.START_OBJECT, p.nextToken());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        assertEquals("key", new String(p.getTextCharacters(), p.getTextOffset(), p.getTextLength()));
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertEquals("quoted value", new String(p.getTextCharacters(), p.getTextOffset(), p.getTextLength()));
+        // once accessed as char[], must be available as such
+        assertTrue(p.hasTextCharacters());
+        assertEquals("quoted value", p.getText());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        assertToken(JsonToken.VALUE_STRING, p.nextToken());
+        assertEquals(4, p.getTextLength());
+        assertEquals("text", new String(p.getTextCharacters(), p.getTextOffset(), p.getTextLength()));
+        java.io.StringWriter w = new java.io.StringWriter();
+        assertEquals(4, p.getText(w));
+        assertEquals("text", w.toString());
+        assertToken(JsonToken.FIELD_NAME, p.nextToken());
+        assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+        assertEquals("123", new String(p.getTextCharacters(), p.getTextOffset(), p.getTextLength()));
+        assertEquals(123, p.getIntValue());
+        assertToken(JsonToken.END_OBJECT, p.nextToken());
+        assertEquals("}", new String(p.getTextCharacters(), p.getTextOffset(), p.getTextLength()));
+        p.close();
+    }
+
+    // String values decoded by the native parser should be accessible without Strings
+    public void testNativeTextInBuffer() throws Exception
+    {
+        JsonParser p = NATIVE_F.createParser("- \"quoted\"\n- plain\n- |\n  block\n");
+        assertToken(JsonToken.START_ARRAY, p.nextToken());
+        for (String exp : new String[] { "quoted", "plain", "block\n" }) {
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+            assertTrue(p.hasTextCharacters());
+            assertEquals(exp, new String(p.getTextCharacters(), p.getTextOffset(), p.getTextLength()));
+            assertEquals(exp, p.getText());
+        }
+        assertToken(JsonToken.END_ARRAY, p.nextToken());
+        p.close();
+    }
+
+    // Long block scalars should be copied to Writer without constructing Strings
+    public void testLongBlockScalarToWriter() throws Exception
+    {
+        StringBuilder exp = new StringBuilder();
+        StringBuilder doc = new StringBuilder("lit: |\n");
+        for (int i = 0; exp.length() < 1000000; ++i) {
+            String line = "line #"+i+": SELECT * FROM table"+(i % 7)+" WHERE x = 'y';";
+            exp.append(line).append('\n');
+            doc.append("  ").append(line).append('\n');
+        }
+        doc.append("tagged: !cert |\n  ---BEGIN---\n  abc\nend: 1\n");
+        final String DOC = doc.toString();
+
+        for (YAMLFactory f : new YAMLFactory[] { SNAKE_F, NATIVE_F }) {
+            YAMLParser p = f.createParser(DOC);
+            assertToken(JsonToken.START_OBJECT, p.nextToken());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+            java.io.StringWriter w = new java.io.StringWriter();
+            assertEquals(exp.length(), p.getText(w));
+            assertEquals(exp.toString(), w.toString());
+            if (f == NATIVE_F) {
+                assertNull(p._textValue);
+            }
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertToken(JsonToken.VALUE_STRING, p.nextToken());
+            assertEquals("cert", p.getTypeId());
+            w = new java.io.StringWriter();
+            assertEquals(16, p.getText(w));
+            assertEquals("---BEGIN---\nabc\n", w.toString());
+            if (f == NATIVE_F) {
+                assertNull(p._textValue);
+            }
+            // but available as String when asked
+            assertEquals("---BEGIN---\nabc\n", p.getText());
+            assertToken(JsonToken.FIELD_NAME, p.nextToken());
+            assertToken(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+            assertToken(JsonToken.END_OBJECT, p.nextToken());
+            p.close();
+        }
+    }
+
+    public void testDatabind() throws Exception
+    {
+        YAMLMapper mapper = new YAMLMapper(NATIVE_F);
+        Map<?,?> result = mapper.readValue("name: Bob\nitems:\n  - 1\n  - {x: true}\n", Map.class);
+        assertEquals(2, result.size());
+        assertEquals("Bob", result.get("name"));
+        assertEquals("[1, {x=true}]", String.valueOf(result.get("items")));
+    }
+
+    public void testInvalidContent() throws Exception
+    {
+        _verifyFailure("a: 1\n b: 2\n", "not allowed");
+        _verifyFailure("a: [1, 2\n", "Unexpected end-of-input");
+        _verifyFailure("a: *b: 1\n", null);
+        _verifyFailure("- a\nb: 1\n", null);
+    }
+
+    /*
+    /**********************************************************************
+    /* Helper methods
+    /**********************************************************************
+     */
+
+    private void _verifyFailure(String doc, String msg) throws Exception
+    {
+        JsonParser p = NATIVE_F.createParser(doc);
+        try {
+            while (p.nextToken() != null) { }
+            fail("Should not pass for: "+doc);
+        } catch (JsonProcessingException e) {
+            if (msg != null) {
+                verifyException(e, msg);
+            }
+        }
+        p.close();
+    }
+
+    private String _tokens(JsonParser p) throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        JsonToken t;
+        while ((t = p.nextToken()) != null) {
+            sb.append(t);
+            if (t == JsonToken.FIELD_NAME || t.isScalarValue()) {
+                sb.append('[').append(p.getText()).append(']');
+            }
+            if (t.isNumeric()) {
+                sb.append('/').append(p.getNumberType()).append('=').append(p.getNumberValue());
+            }
+            if (p.getObjectId() != null) {
+                sb.append(" &").append(p.getObjectId());
+            }
+            if (p.getTypeId() != null) {
+                sb.append(" !").append(p.getTypeId());
+            }
+            if (((YAMLParser) p).isCurrentAlias()) {
+                sb.append(" (alias)");
+            }
+            sb.append('\n');
+        }
+        p.close();
+        return sb.toString();
+    }
+
+    static class ThrottledInputStream extends ByteArrayInputStream
+    {
+        public ThrottledInputStream(byte[] data) {
+            super(data);
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int len) {
+            return super.read(buffer, offset, Math.min(1, len));
+        }
+    }
+}
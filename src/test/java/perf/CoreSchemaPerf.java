@@ -0,0 +1,133 @@
+package perf;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.dataformat.yaml.ScalarClassifier;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.dataformat.yaml.YAMLParser;
+
+/**
+ * Micro-benchmark for comparing resolution of implicit types using YAML 1.1
+ * types (default) and YAML 1.2 Core Schema (see {@link YAMLParser.Feature#USE_CORE_SCHEMA}):
+ * both classification of a mixed set of scalars as is, and parsing of a document
+ * with SnakeYAML-backed and UTF-8 parser.
+ */
+public final class CoreSchemaPerf
+{
+    private final static String[] SCALARS = new String[] {
+        "null", "~", "true", "False", "yes", "off", "0", "12345", "-42", "0x1F", "0o17",
+        "1_000", "3:25:45", "1.5", "-2.5e-3", ".inf", ".NaN", "2001-12-14",
+        "2001-12-14T21:59:43.10Z", "<<", "abc", "some text", "127.0.0.1", "v1.2.3"
+    };
+
+    private final int REPS;
+
+    private CoreSchemaPerf() {
+        REPS = 500;
+    }
+
+    public void test() throws Exception
+    {
+        final char[][] scalars = new char[SCALARS.length][];
+        for (int i = 0; i < SCALARS.length; ++i) {
+            scalars[i] = SCALARS[i].toCharArray();
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200; ++i) {
+            sb.append("- [");
+            for (int j = 0; j < SCALARS.length; ++j) {
+                if (j > 0) {
+                    sb.append(", ");
+                }
+                sb.append(SCALARS[(i + j) % SCALARS.length]);
+            }
+            sb.append("]\n");
+        }
+        final byte[] doc = sb.toString().getBytes("UTF-8");
+        final YAMLFactory[] factories = new YAMLFactory[] {
+                new YAMLFactory(),
+                new YAMLFactory().enable(YAMLParser.Feature.USE_CORE_SCHEMA),
+                new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER),
+                new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER)
+                    .enable(YAMLParser.Feature.USE_CORE_SCHEMA),
+        };
+        System.out.println("Document size is "+doc.length+" bytes");
+        System.out.println();
+
+        int sum = 0;
+        int round = 0;
+        while (true) {
+            long curr = System.currentTimeMillis();
+            String msg;
+            round = (++round % 6);
+            boolean lf = (round == 0);
+
+            switch (round) {
+            case 0:
+                msg = "Classify, YAML 1.1";
+                sum += testClassify(scalars, false, REPS * 40000);
+                break;
+            case 1:
+                msg = "Classify, Core Schema";
+                sum += testClassify(scalars, true, REPS * 40000);
+                break;
+            case 2:
+                msg = "SnakeYAML, YAML 1.1";
+                sum += testParse(factories[0], doc, REPS);
+                break;
+            case 3:
+                msg = "SnakeYAML, Core Schema";
+                sum += testParse(factories[1], doc, REPS);
+                break;
+            case 4:
+                msg = "UTF-8 parser, YAML 1.1";
+                sum += testParse(factories[2], doc, REPS);
+                break;
+            case 5:
+                msg = "UTF-8 parser, Core Schema";
+                sum += testParse(factories[3], doc, REPS);
+                break;
+            default:
+                throw new Error("Internal error");
+            }
+
+            curr = System.currentTimeMillis() - curr;
+            if (lf) {
+                System.out.println();
+            }
+            System.out.println("Test '"+msg+"' -> "+curr+" msecs ("
+                               +(sum & 0xFF)+").");
+        }
+    }
+
+    protected int testClassify(char[][] scalars, boolean core, int reps)
+    {
+        int count = 0;
+        for (int i = 0; i < reps; ++i) {
+            char[] value = scalars[i % scalars.length];
+            count += core ? ScalarClassifier.classifyCore(value, 0, value.length)
+                    : ScalarClassifier.classify(value, 0, value.length);
+        }
+        return count;
+    }
+
+    protected int testParse(JsonFactory f, byte[] doc, int reps) throws Exception
+    {
+        int count = 0;
+        for (int i = 0; i < reps; ++i) {
+            JsonParser p = f.createParser(doc);
+            JsonToken t;
+            while ((t = p.nextToken()) != null) {
+                if (t != JsonToken.VALUE_STRING) {
+                    ++count;
+                }
+            }
+            p.close();
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        new CoreSchemaPerf().test();
+    }
+}
@@ -57,6 +57,8 @@ public final class DeserPerf
 //        final ObjectMapper jsonMapper = new ObjectMapper(jsonF);
         JsonFactory yamlF = new com.fasterxml.jackson.dataformat.yaml.YAMLFactory();
         final ObjectMapper yamlMapper = new ObjectMapper(yamlF);
+        final ObjectMapper yamlMapperUTF8 = new ObjectMapper(new com.fasterxml.jackson.dataformat.yaml.YAMLFactory()
+                .enable(com.fasterxml.jackson.dataformat.yaml.YAMLParser.Feature.USE_UTF8_PARSER));
         
 //        final ObjectMapper jsonMapper = new ObjectMapper(jsonF);
 //        jsonMapper.configure(SerializationConfig.Feature.USE_STATIC_TYPING, true);
@@ -87,10 +89,13 @@ public final class DeserPerf
 
             switch (round) {
             case 0:
-            case 1:
                 msg = "Deserialize, bind, YAML";
                 sum += testDeser(yamlMapper, yaml, REPS);
                 break;
+            case 1:
+                msg = "Deserialize, bind, YAML/UTF-8";
+                sum += testDeser(yamlMapperUTF8, yaml, REPS);
+                break;
 
             /*
             case 0:
@@ -0,0 +1,94 @@
+package perf;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.dataformat.yaml.YAMLParser;
+
+/**
+ * Micro-benchmark for measuring cost of parse exceptions, when parsing small
+ * invalid documents with and without stack traces
+ * (see {@link YAMLParser.Feature#CAPTURE_STACK_TRACES}).
+ */
+public final class InvalidDocumentPerf
+{
+    private final static String DOC =
+            "id: 12345\n"
+            +"method: getAccount\n"
+            +"params:\n"
+            +"  account: ACC-0001-XYZ\n"
+            +" fields: [name, balance]\n";
+
+    private final int REPS;
+
+    private InvalidDocumentPerf() {
+        REPS = 20000;
+    }
+
+    public void test() throws Exception
+    {
+        final byte[] doc = DOC.getBytes("UTF-8");
+        final YAMLFactory[] factories = new YAMLFactory[] {
+                new YAMLFactory(),
+                new YAMLFactory().disable(YAMLParser.Feature.CAPTURE_STACK_TRACES),
+                new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER),
+                new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER)
+                    .disable(YAMLParser.Feature.CAPTURE_STACK_TRACES),
+        };
+        int sum = 0;
+        int round = 0;
+        while (true) {
+            long curr = System.currentTimeMillis();
+            String msg;
+            round = (++round % 4);
+            boolean lf = (round == 0);
+
+            switch (round) {
+            case 0:
+                msg = "SnakeYAML, stack traces";
+                break;
+            case 1:
+                msg = "SnakeYAML, no stack traces";
+                break;
+            case 2:
+                msg = "UTF-8 parser, stack traces";
+                break;
+            case 3:
+                msg = "UTF-8 parser, no stack traces";
+                break;
+            default:
+                throw new Error("Internal error");
+            }
+            sum += testParse(factories[round], doc, REPS);
+
+            curr = System.currentTimeMillis() - curr;
+            if (lf) {
+                System.out.println();
+            }
+            System.out.println("Test '"+msg+"' -> "+curr+" msecs ("
+                               +(sum & 0xFF)+").");
+        }
+    }
+
+    protected int testParse(JsonFactory f, byte[] doc, int reps) throws Exception
+    {
+        int count = 0;
+        for (int i = 0; i < reps; ++i) {
+            JsonParser p = f.createParser(doc);
+            try {
+                while (p.nextToken() != null) {
+                    ++count;
+                }
+            } catch (JsonParseException e) {
+                // only location is needed, similar to validation of input
+                count += e.getLocation().getLineNr();
+            }
+            p.close();
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        new InvalidDocumentPerf().test();
+    }
+}
@@ -0,0 +1,100 @@
+package perf;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.dataformat.yaml.YAMLParser;
+
+/**
+ * Micro-benchmark for comparing performance of decoding different
+ * kinds of numeric values: one round per notation (and for floating-point
+ * values, with and without {@link YAMLParser.Feature#USE_FAST_DOUBLE_PARSER}).
+ */
+public final class NumberParsePerf
+{
+    private final static String[][] FORMS = new String[][] {
+        { "int", "1234567" },
+        { "long", "-1234567890123" },
+        { "big-int", "123456789012345678901234567890" },
+        { "hex", "0x1F2E3D" },
+        { "octal", "0o1234567" },
+        { "leading-zero", "01234567" },
+        { "binary", "0b1011_0110" },
+        { "underscores", "1_234_567" },
+        { "double", "3.25" },
+        { "double/fast", "3.25" },
+        { "double-exp", "-1.5e-7" },
+        { "double-exp/fast", "-1.5e-7" },
+        { "double-underscores", "1_000.125" },
+        { "double-underscores/fast", "1_000.125" },
+        { "double-long", "0.12345678901234567890" },
+        { "double-long/fast", "0.12345678901234567890" },
+    };
+
+    private final int REPS;
+
+    private NumberParsePerf() {
+        REPS = 500;
+    }
+
+    public void test() throws Exception
+    {
+        final YAMLFactory f = new YAMLFactory()
+            .enable(YAMLParser.Feature.USE_UTF8_PARSER);
+        final YAMLFactory fastF = new YAMLFactory()
+            .enable(YAMLParser.Feature.USE_UTF8_PARSER)
+            .enable(YAMLParser.Feature.USE_FAST_DOUBLE_PARSER);
+        final byte[][] docs = new byte[FORMS.length][];
+        for (int i = 0; i < FORMS.length; ++i) {
+            docs[i] = _buildDoc(FORMS[i][1]);
+        }
+        System.out.println("Warmed up: "+FORMS.length+" documents of "+docs[0].length
+                +"+ bytes; "+REPS+" reps");
+        System.out.println();
+
+        int sum = 0;
+        int round = 0;
+        while (true) {
+            round = (++round % FORMS.length);
+            boolean lf = (round == 0);
+            long curr = System.currentTimeMillis();
+            String msg = "Parse, "+FORMS[round][0]+" ("+FORMS[round][1]+")";
+            sum += testParse(FORMS[round][0].endsWith("/fast") ? fastF : f, docs[round], REPS);
+            curr = System.currentTimeMillis() - curr;
+            if (lf) {
+                System.out.println();
+            }
+            System.out.println("Test '"+msg+"' -> "+curr+" msecs ("
+                               +(sum & 0xFF)+").");
+        }
+    }
+
+    protected int testParse(JsonFactory f, byte[] doc, int reps) throws Exception
+    {
+        int sum = 0;
+        for (int i = 0; i < reps; ++i) {
+            JsonParser p = f.createParser(doc);
+            JsonToken t;
+            while ((t = p.nextToken()) != null) {
+                if (t.isNumeric()) {
+                    sum += p.getNumberValue().hashCode();
+                }
+            }
+            p.close();
+        }
+        return sum;
+    }
+
+    private byte[] _buildDoc(String value) throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; ++i) {
+            sb.append("- ").append(value).append('\n');
+        }
+        return sb.toString().getBytes("UTF-8");
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        new NumberParsePerf().test();
+    }
+}
@@ -0,0 +1,95 @@
+package perf;
+
+import java.io.ByteArrayInputStream;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+
+/**
+ * Micro-benchmark for comparing sequential and parallel reading of
+ * multi-document content.
+ */
+public final class ParallelDocumentsPerf
+{
+    private final int REPS;
+
+    private ParallelDocumentsPerf() {
+        REPS = 5;
+    }
+
+    public void test() throws Exception
+    {
+        final YAMLMapper mapper = new YAMLMapper();
+        final ForkJoinPool pool = new ForkJoinPool();
+        final byte[] doc = _buildDoc();
+        final int docs = testRead(mapper, doc, null, 1);
+        System.out.println("Warmed up: "+doc.length+" bytes, "+docs+" documents; "
+                +REPS+" reps, parallelism "+pool.getParallelism());
+        System.out.println();
+
+        int round = 0;
+        while (true) {
+            round = (++round % 2);
+            boolean lf = (round == 0);
+            String msg;
+            ForkJoinPool exec;
+            switch (round) {
+            case 0:
+                msg = "Sequential";
+                exec = null;
+                break;
+            default:
+                msg = "Parallel";
+                exec = pool;
+            }
+            long curr = System.currentTimeMillis();
+            testRead(mapper, doc, exec, REPS);
+            curr = System.currentTimeMillis() - curr;
+            if (lf) {
+                System.out.println();
+            }
+            System.out.println("Test '"+msg+"' -> "+curr+" msecs");
+        }
+    }
+
+    protected int testRead(YAMLMapper mapper, byte[] doc, ForkJoinPool exec, int reps) throws Exception
+    {
+        int count = 0;
+        for (int i = 0; i < reps; ++i) {
+            Iterator<Map> it = (exec == null)
+                    ? mapper.readDocuments(new ByteArrayInputStream(doc), Map.class)
+                    : mapper.readDocumentsParallel(doc, Map.class, exec);
+            while (it.hasNext()) {
+                it.next();
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    private byte[] _buildDoc() throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; ++i) {
+            sb.append("---\n");
+            sb.append("id: ").append(i).append('\n');
+            sb.append("name: \"Document ").append(i).append("\"\n");
+            sb.append("ratio: ").append(i).append(".125\n");
+            sb.append("tags: [alpha, beta, gamma]\n");
+            sb.append("items:\n");
+            for (int j = 0; j < 20; ++j) {
+                sb.append("  - key: item").append(j).append('\n');
+                sb.append("    value: ").append(i * j).append('\n');
+                sb.append("    enabled: ").append((j & 1) == 0).append('\n');
+            }
+        }
+        return sb.toString().getBytes("UTF-8");
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        new ParallelDocumentsPerf().test();
+    }
+}
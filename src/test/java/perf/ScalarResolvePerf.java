@@ -0,0 +1,138 @@
+package perf;
+
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.dataformat.yaml.ScalarClassifier;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+/**
+ * Micro-benchmark for comparing performance of implicit scalar type
+ * resolution: SnakeYAML (regexp-based) <code>Resolver</code> vs
+ * {@link ScalarClassifier}; as well as full parsing of a scalar-heavy document.
+ */
+public final class ScalarResolvePerf
+{
+    private final static String[] VALUES = new String[] {
+        "123", "-17", "0x1F", "1_000", "3.25", "-1.5e3", ".inf", "true", "No",
+        "null", "~", "2001-12-14", "2001-12-14T21:59:43.10-05:00", "190:20:30",
+        "name", "some longer text value", "Yes please", "1.2.3", "127.0.0.1", "<<",
+    };
+
+    private final int REPS;
+
+    private ScalarResolvePerf() {
+        REPS = 20000;
+    }
+
+    public void test() throws Exception
+    {
+        final Resolver resolver = new Resolver();
+        final YAMLFactory f = new YAMLFactory();
+        final byte[] doc = _buildDoc();
+        final char[][] chars = new char[VALUES.length][];
+        for (int i = 0; i < VALUES.length; ++i) {
+            chars[i] = VALUES[i].toCharArray();
+        }
+        System.out.println("Warmed up: "+VALUES.length+" scalars; document size is "+doc.length+" bytes");
+        System.out.println();
+
+        int sum = 0;
+        int round = 0;
+        while (true) {
+            long curr = System.currentTimeMillis();
+            String msg;
+            round = (++round % 3);
+            boolean lf = (round == 0);
+
+            switch (round) {
+            case 0:
+                msg = "Resolve, SnakeYAML Resolver";
+                sum += testResolver(resolver, REPS);
+                break;
+            case 1:
+                msg = "Resolve, ScalarClassifier";
+                sum += testClassifier(chars, REPS);
+                break;
+            case 2:
+                msg = "Parse, scalar-heavy YAML";
+                sum += testParse(f, doc, REPS / 100);
+                break;
+            default:
+                throw new Error("Internal error");
+            }
+
+            curr = System.currentTimeMillis() - curr;
+            if (lf) {
+                System.out.println();
+            }
+            System.out.println("Test '"+msg+"' -> "+curr+" msecs ("
+                               +(sum & 0xFF)+").");
+        }
+    }
+
+    protected int testResolver(Resolver resolver, int reps)
+    {
+        int count = 0;
+        for (int i = 0; i < reps; ++i) {
+            for (String value : VALUES) {
+                if (resolver.resolve(NodeId.scalar, value, true) != Tag.STR) {
+                    ++count;
+                }
+            }
+        }
+        return count;
+    }
+
+    protected int testClassifier(char[][] values, int reps)
+    {
+        int count = 0;
+        for (int i = 0; i < reps; ++i) {
+            for (char[] value : values) {
+                if (ScalarClassifier.classify(value, 0, value.length) != ScalarClassifier.TYPE_STRING) {
+                    ++count;
+                }
+            }
+        }
+        return count;
+    }
+
+    protected int testParse(JsonFactory f, byte[] doc, int reps) throws Exception
+    {
+        int count = 0;
+        for (int i = 0; i < reps; ++i) {
+            JsonParser p = f.createParser(doc);
+            JsonToken t;
+            while ((t = p.nextToken()) != null) {
+                if (t.isScalarValue()) {
+                    ++count;
+                }
+            }
+            p.close();
+        }
+        return count;
+    }
+
+    private byte[] _buildDoc() throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200; ++i) {
+            sb.append("- [");
+            for (int j = 0; j < VALUES.length; ++j) {
+                if (j > 0) {
+                    sb.append(", ");
+                }
+                sb.append(VALUES[j]);
+            }
+            sb.append("]\n");
+        }
+        return sb.toString().getBytes("UTF-8");
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        new ScalarResolvePerf().test();
+    }
+}
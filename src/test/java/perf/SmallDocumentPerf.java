@@ -0,0 +1,121 @@
+package perf;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.dataformat.yaml.YAMLParser;
+
+/**
+ * Micro-benchmark for measuring per-parser setup cost when parsing small
+ * (few hundred bytes) documents: parsers constructed for each document vs
+ * a single parser reset for each document (see {@link YAMLParser#reset(byte[],int,int)}),
+ * both with SnakeYAML-backed and UTF-8 parser.
+ */
+public final class SmallDocumentPerf
+{
+    private final static String DOC =
+            "id: 12345\n"
+            +"method: getAccount\n"
+            +"timeout: 2.5\n"
+            +"retry: true\n"
+            +"params:\n"
+            +"  account: ACC-0001-XYZ\n"
+            +"  fields: [name, balance, currency, lastLogin]\n"
+            +"  options: {includeClosed: false, limit: 20}\n"
+            +"headers:\n"
+            +"  trace-id: 7f3c9b2e-5d41-4e8a-9c0f-1b2a3c4d5e6f\n"
+            +"  client: rpc-client/1.4\n";
+
+    private final int REPS;
+
+    private SmallDocumentPerf() {
+        REPS = 20000;
+    }
+
+    public void test() throws Exception
+    {
+        final byte[] doc = DOC.getBytes("UTF-8");
+        final YAMLFactory[] factories = new YAMLFactory[] {
+                new YAMLFactory(),
+                new YAMLFactory().enable(YAMLParser.Feature.USE_UTF8_PARSER),
+        };
+        System.out.println("Document size is "+doc.length+" bytes");
+        System.out.println();
+
+        int sum = 0;
+        int round = 0;
+        while (true) {
+            long curr = System.currentTimeMillis();
+            String msg;
+            round = (++round % 4);
+            boolean lf = (round == 0);
+
+            switch (round) {
+            case 0:
+                msg = "SnakeYAML, new parsers";
+                sum += testParse(factories[0], doc, REPS);
+                break;
+            case 1:
+                msg = "SnakeYAML, reset parser";
+                sum += testReset(factories[0], doc, REPS);
+                break;
+            case 2:
+                msg = "UTF-8 parser, new parsers";
+                sum += testParse(factories[1], doc, REPS);
+                break;
+            case 3:
+                msg = "UTF-8 parser, reset parser";
+                sum += testReset(factories[1], doc, REPS);
+                break;
+            default:
+                throw new Error("Internal error");
+            }
+
+            curr = System.currentTimeMillis() - curr;
+            if (lf) {
+                System.out.println();
+            }
+            System.out.println("Test '"+msg+"' -> "+curr+" msecs ("
+                               +(sum & 0xFF)+").");
+        }
+    }
+
+    protected int testParse(JsonFactory f, byte[] doc, int reps) throws Exception
+    {
+        int count = 0;
+        for (int i = 0; i < reps; ++i) {
+            JsonParser p = f.createParser(doc);
+            JsonToken t;
+            while ((t = p.nextToken()) != null) {
+                if (t.isScalarValue()) {
+                    ++count;
+                }
+            }
+            p.close();
+        }
+        return count;
+    }
+
+    protected int testReset(YAMLFactory f, byte[] doc, int reps) throws Exception
+    {
+        int count = 0;
+        YAMLParser p = f.createParser(doc);
+        for (int i = 0; i < reps; ++i) {
+            if (i > 0) {
+                p.reset(doc, 0, doc.length);
+            }
+            JsonToken t;
+            while ((t = p.nextToken()) != null) {
+                if (t.isScalarValue()) {
+                    ++count;
+                }
+            }
+        }
+        p.close();
+        return count;
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        new SmallDocumentPerf().test();
+    }
+}
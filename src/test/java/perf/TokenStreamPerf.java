@@ -0,0 +1,133 @@
+package perf;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.dataformat.yaml.YAMLParser;
+
+/**
+ * Micro-benchmark for measuring per-token cost of streaming through
+ * documents: one large flat sequence, and one deeply nested document,
+ * using both SnakeYAML-backed and native parser.
+ */
+public final class TokenStreamPerf
+{
+    private final int REPS;
+
+    private TokenStreamPerf() {
+        REPS = 20;
+    }
+
+    public void test() throws Exception
+    {
+        final YAMLFactory snakeF = new YAMLFactory();
+        final YAMLFactory nativeF = new YAMLFactory()
+            .enable(YAMLParser.Feature.USE_UTF8_PARSER);
+        final byte[] flatDoc = _buildFlatDoc();
+        final byte[] nestedDoc = _buildNestedDoc();
+        final int flatTokens = testRead(snakeF, flatDoc, 1);
+        final int nestedTokens = testRead(snakeF, nestedDoc, 1);
+        System.out.println("Warmed up: flat doc "+flatDoc.length+" bytes ("+flatTokens
+                +" tokens), nested doc "+nestedDoc.length+" bytes ("+nestedTokens+" tokens); "
+                +REPS+" reps");
+        System.out.println();
+
+        int round = 0;
+        while (true) {
+            round = (++round % 4);
+            boolean lf = (round == 0);
+            String msg;
+            byte[] doc;
+            YAMLFactory f;
+            switch (round) {
+            case 0:
+                msg = "Flat, SnakeYAML";
+                doc = flatDoc;
+                f = snakeF;
+                break;
+            case 1:
+                msg = "Nested, SnakeYAML";
+                doc = nestedDoc;
+                f = snakeF;
+                break;
+            case 2:
+                msg = "Flat, native";
+                doc = flatDoc;
+                f = nativeF;
+                break;
+            default:
+                msg = "Nested, native";
+                doc = nestedDoc;
+                f = nativeF;
+            }
+            long curr = System.nanoTime();
+            int count = testRead(f, doc, REPS);
+            curr = System.nanoTime() - curr;
+            if (lf) {
+                System.out.println();
+            }
+            System.out.printf("Test '%s' -> %d msecs (%.1f nanos/token).\n",
+                    msg, curr / 1000000L, (double) curr / count);
+        }
+    }
+
+    protected int testRead(JsonFactory f, byte[] doc, int reps) throws Exception
+    {
+        int count = 0;
+        for (int i = 0; i < reps; ++i) {
+            JsonParser p = f.createParser(doc);
+            while (p.nextToken() != null) {
+                ++count;
+            }
+            p.close();
+        }
+        return count;
+    }
+
+    private byte[] _buildFlatDoc() throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 50000; ++i) {
+            sb.append("- ");
+            switch (i % 4) {
+            case 0:
+                sb.append(i);
+                break;
+            case 1:
+                sb.append("value ").append(i);
+                break;
+            case 2:
+                sb.append(i).append(".25");
+                break;
+            default:
+                sb.append((i & 4) == 0);
+            }
+            sb.append('\n');
+        }
+        return sb.toString().getBytes("UTF-8");
+    }
+
+    private byte[] _buildNestedDoc() throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200; ++i) {
+            sb.append("item").append(i).append(":\n");
+            _appendNested(sb, "  ", 20, i);
+        }
+        return sb.toString().getBytes("UTF-8");
+    }
+
+    private void _appendNested(StringBuilder sb, String indent, int levels, int i)
+    {
+        sb.append(indent).append("id: ").append(i).append('\n');
+        sb.append(indent).append("tags: [a, b, ").append(levels).append("]\n");
+        if (levels > 0) {
+            sb.append(indent).append("child:\n");
+            _appendNested(sb, indent+"  ", levels-1, i);
+        }
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        new TokenStreamPerf().test();
+    }
+}